@@ -3,6 +3,7 @@ package com.ecommerce.gateway.config;
 import com.ecommerce.gateway.filter.AuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -70,6 +71,18 @@ public class GatewayConfig {
                                 .rewritePath("/api/orders/(?<path>.*)", "/orders/${path}"))
                         .uri("lb://ORDER-SERVICE"))
                 
+                // Order Service - Server-Sent Events stream of status changes; long-lived, so no response timeout
+                .route("order-service-events", r -> r
+                        .order(-1)
+                        .path("/api/orders/*/events")
+                        .and()
+                        .method("GET")
+                        .filters(f -> f
+                                .rewritePath("/api/orders(?<path>/.*)?", "/orders${path}")
+                                .filter(authenticationFilter.apply(new AuthenticationFilter.Config())))
+                        .metadata(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, -1)
+                        .uri("lb://ORDER-SERVICE"))
+                
                 // Order Service - Protected routes
                 .route("order-service", r -> r
                         .path("/api/orders", "/api/orders/**")
@@ -0,0 +1,46 @@
+package com.ecommerce.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Gives {@code POST} requests to order and payment creation an {@code Idempotency-Key} when
+ * the client did not send one. The key is added before the {@code Retry} filter runs, so every
+ * retry of the request carries the same key and the service runs it at most once.
+ */
+@Component
+public class IdempotencyKeyFilter implements GlobalFilter, Ordered {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final List<String> PATHS = List.of("/api/orders", "/api/payments");
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.POST
+                || !PATHS.contains(request.getPath().value())
+                || request.getHeaders().containsKey(HEADER)) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpRequest withKey = request.mutate()
+                .header(HEADER, "gw-" + UUID.randomUUID())
+                .build();
+        return chain.filter(exchange.mutate().request(withKey).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return -99; // Right after logging, ahead of the route filters
+    }
+}
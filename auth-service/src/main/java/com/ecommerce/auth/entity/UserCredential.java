@@ -1,5 +1,6 @@
 package com.ecommerce.auth.entity;
 
+import com.ecommerce.common.utils.id.TimeOrderedId;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -11,7 +12,7 @@ import java.time.LocalDateTime;
 public class UserCredential {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private String id;
 
     @Column(unique = true, nullable = false)
@@ -0,0 +1,216 @@
+package com.ecommerce.common.dto.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An amount of money held as a {@code long} count of the currency's minor units (cents for
+ * USD) plus its ISO 4217 code. Adding, subtracting and multiplying by a quantity are plain
+ * {@code long} operations that fail on overflow instead of wrapping.
+ *
+ * <p>Rounding is never implicit. {@link #of(BigDecimal, String)} rejects amounts with more
+ * decimal places than the currency has, and operations that can produce fractions of a minor
+ * unit ({@link #multiply(BigDecimal, RoundingMode)}) take the rounding mode to use.
+ *
+ * <p>Two amounts are equal when they have the same currency and the same number of minor
+ * units, so {@code 10.5} and {@code 10.50} are equal. Amounts in different currencies cannot be
+ * combined or compared. In JSON an amount is a plain decimal number in
+ * {@link #DEFAULT_CURRENCY}, or an {@code {"amount": ..., "currency": ...}} object for other
+ * currencies.
+ */
+@JsonSerialize(using = MoneyJsonSerializer.class)
+@JsonDeserialize(using = MoneyJsonDeserializer.class)
+public final class Money implements Comparable<Money>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String DEFAULT_CURRENCY = "USD";
+
+    private static final Map<String, Integer> SCALES = new ConcurrentHashMap<>();
+    private static final Money ZERO = new Money(0, DEFAULT_CURRENCY, scaleOf(DEFAULT_CURRENCY));
+
+    private final long minorUnits;
+    private final String currency;
+    private final int scale;
+
+    private Money(long minorUnits, String currency, int scale) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+        this.scale = scale;
+    }
+
+    public static Money zero() {
+        return ZERO;
+    }
+
+    public static Money zero(String currency) {
+        return ofMinor(0, currency);
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, currency, scaleOf(currency));
+    }
+
+    /**
+     * {@code amount} in {@link #DEFAULT_CURRENCY}; see {@link #of(BigDecimal, String)}.
+     */
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_CURRENCY);
+    }
+
+    /**
+     * {@code amount} in {@code currency}, which must not have more decimal places than the
+     * currency allows.
+     *
+     * @throws ArithmeticException if {@code amount} would have to be rounded, or does not fit
+     */
+    public static Money of(BigDecimal amount, String currency) {
+        int scale = scaleOf(currency);
+        BigDecimal scaled;
+        try {
+            scaled = amount.setScale(scale, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException(amount.toPlainString() + " has more than " + scale
+                    + " decimal places for " + currency);
+        }
+        return new Money(scaled.unscaledValue().longValueExact(), currency, scale);
+    }
+
+    /**
+     * {@code amount} in {@code currency}, rounded to the currency's minor unit with {@code rounding}.
+     */
+    public static Money of(BigDecimal amount, String currency, RoundingMode rounding) {
+        int scale = scaleOf(currency);
+        return new Money(amount.setScale(scale, rounding).unscaledValue().longValueExact(), currency, scale);
+    }
+
+    /**
+     * The sum of {@code amounts}, all of which must be in {@code currency}.
+     */
+    public static Money sum(String currency, Iterable<Money> amounts) {
+        long total = 0;
+        for (Money amount : amounts) {
+            if (!currency.equals(amount.currency)) {
+                throw currencyMismatch(currency, amount.currency);
+            }
+            total = Math.addExact(total, amount.minorUnits);
+        }
+        return ofMinor(total, currency);
+    }
+
+    public Money plus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency, scale);
+    }
+
+    public Money minus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency, scale);
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency, scale);
+    }
+
+    /**
+     * This amount multiplied by {@code factor}, such as a tax rate, rounded to the minor unit
+     * with {@code rounding}.
+     */
+    public Money multiply(BigDecimal factor, RoundingMode rounding) {
+        BigDecimal product = BigDecimal.valueOf(minorUnits).multiply(factor).setScale(0, rounding);
+        return new Money(product.longValueExact(), currency, scale);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency, scale);
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return compareTo(other) > 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return compareTo(other) < 0;
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minorUnits, currency);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency;
+    }
+
+    private void checkCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw currencyMismatch(currency, other.currency);
+        }
+    }
+
+    private static IllegalArgumentException currencyMismatch(String expected, String actual) {
+        return new IllegalArgumentException("Cannot combine " + expected + " with " + actual);
+    }
+
+    private static int scaleOf(String currency) {
+        Objects.requireNonNull(currency, "currency");
+        return SCALES.computeIfAbsent(currency, code -> {
+            int digits = Currency.getInstance(code).getDefaultFractionDigits();
+            if (digits < 0) {
+                throw new IllegalArgumentException("Currency " + code + " has no minor unit");
+            }
+            return digits;
+        });
+    }
+}
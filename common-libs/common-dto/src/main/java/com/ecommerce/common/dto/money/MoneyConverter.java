@@ -0,0 +1,31 @@
+package com.ecommerce.common.dto.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Stores a {@link Money#DEFAULT_CURRENCY} amount in a {@code DECIMAL} column. For tables that
+ * keep the currency in a column of their own, map the amount as {@code BigDecimal} and build
+ * the {@link Money} from both columns instead.
+ */
+@Converter
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        if (!Money.DEFAULT_CURRENCY.equals(attribute.getCurrency())) {
+            throw new IllegalArgumentException("Column only holds " + Money.DEFAULT_CURRENCY + " amounts, got " + attribute);
+        }
+        return attribute.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal dbData) {
+        return dbData == null ? null : Money.of(dbData);
+    }
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.common.dto.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Reads a number or numeric string as a {@link Money#DEFAULT_CURRENCY} amount, or an
+ * {@code {"amount": ..., "currency": ...}} object. Amounts with more decimal places than the
+ * currency allows are rejected rather than rounded.
+ */
+public class MoneyJsonDeserializer extends StdDeserializer<Money> {
+
+    public MoneyJsonDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        try {
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                return Money.of(p.getDecimalValue());
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                return Money.of(new BigDecimal(p.getText().trim()));
+            }
+            if (token == JsonToken.START_OBJECT) {
+                JsonNode node = p.readValueAsTree();
+                JsonNode amount = node.get("amount");
+                if (amount == null || amount.isNull()) {
+                    return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+                }
+                JsonNode currency = node.get("currency");
+                return Money.of(new BigDecimal(amount.asText()),
+                        currency != null && !currency.isNull() ? currency.asText() : Money.DEFAULT_CURRENCY);
+            }
+        } catch (ArithmeticException | IllegalArgumentException e) {
+            throw ctxt.weirdStringException(p.getText(), Money.class, e.getMessage());
+        }
+        return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.common.dto.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link Money#DEFAULT_CURRENCY} amounts as decimal numbers with the currency's
+ * decimal places ({@code 19.90}), and any other currency as {@code {"amount": 19.90, "currency": "EUR"}}.
+ */
+public class MoneyJsonSerializer extends StdSerializer<Money> {
+
+    public MoneyJsonSerializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public void serialize(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (Money.DEFAULT_CURRENCY.equals(value.getCurrency())) {
+            gen.writeNumber(value.toBigDecimal());
+            return;
+        }
+        gen.writeStartObject();
+        gen.writeNumberField("amount", value.toBigDecimal());
+        gen.writeStringField("currency", value.getCurrency());
+        gen.writeEndObject();
+    }
+}
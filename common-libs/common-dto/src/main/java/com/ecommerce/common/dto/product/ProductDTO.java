@@ -60,6 +60,8 @@ public class ProductDTO {
     
     private Integer stockQuantity;
     
+    private Long viewCount;
+    
     private BigDecimal weight;
     
     private DimensionsDTO dimensions;
@@ -0,0 +1,103 @@
+package com.ecommerce.common.dto.money;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order total calculation with {@link Money} against the {@code BigDecimal} code it replaced:
+ * line totals (unit price x quantity - discount + tax), their sum, then subtotal + tax +
+ * shipping - discount. Run with {@code -prof gc} to compare allocation per operation:
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main MoneyBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"1", "5", "25"})
+    private int lines;
+
+    private List<BigDecimal> decimalPrices;
+    private List<BigDecimal> decimalDiscounts;
+    private List<Money> moneyPrices;
+    private List<Money> moneyDiscounts;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        decimalPrices = new ArrayList<>();
+        decimalDiscounts = new ArrayList<>();
+        moneyPrices = new ArrayList<>();
+        moneyDiscounts = new ArrayList<>();
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            long cents = random.nextLong(100, 100_000);
+            long discount = cents / 10;
+            decimalPrices.add(BigDecimal.valueOf(cents, 2));
+            decimalDiscounts.add(BigDecimal.valueOf(discount, 2));
+            moneyPrices.add(Money.ofMinor(cents, Money.DEFAULT_CURRENCY));
+            moneyDiscounts.add(Money.ofMinor(discount, Money.DEFAULT_CURRENCY));
+            quantities[i] = random.nextInt(1, 5);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalOrderTotal() {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal line = decimalPrices.get(i).multiply(BigDecimal.valueOf(quantities[i]));
+            line = line.subtract(decimalDiscounts.get(i));
+            line = line.add(BigDecimal.ZERO);
+            subtotal = subtotal.add(line);
+        }
+        return subtotal.add(BigDecimal.ZERO).add(BigDecimal.ZERO).subtract(BigDecimal.ZERO);
+    }
+
+    @Benchmark
+    public Money moneyOrderTotal() {
+        Money zero = Money.zero();
+        Money subtotal = zero;
+        for (int i = 0; i < lines; i++) {
+            Money line = moneyPrices.get(i).times(quantities[i]).minus(moneyDiscounts.get(i)).plus(zero);
+            subtotal = subtotal.plus(line);
+        }
+        return subtotal.plus(zero).plus(zero).minus(zero);
+    }
+
+    @Benchmark
+    public boolean bigDecimalRefundCheck() {
+        BigDecimal amount = decimalPrices.get(0);
+        BigDecimal refunded = decimalDiscounts.get(0);
+        return amount.subtract(refunded).compareTo(refunded) > 0 && refunded.add(refunded).compareTo(amount) == 0;
+    }
+
+    @Benchmark
+    public boolean moneyRefundCheck() {
+        Money amount = moneyPrices.get(0);
+        Money refunded = moneyDiscounts.get(0);
+        return amount.minus(refunded).isGreaterThan(refunded) && refunded.plus(refunded).equals(amount);
+    }
+}
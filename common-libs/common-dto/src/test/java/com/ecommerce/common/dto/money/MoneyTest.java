@@ -0,0 +1,62 @@
+package com.ecommerce.common.dto.money;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void of_DifferentScales_EqualAndSameHash() {
+        Money a = Money.of(new BigDecimal("10.5"));
+        Money b = Money.of(new BigDecimal("10.50"));
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(1050, a.getMinorUnits());
+        assertEquals(new BigDecimal("10.50"), a.toBigDecimal());
+    }
+
+    @Test
+    void of_MoreDecimalsThanCurrency_RejectedUnlessRoundingGiven() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1.005")));
+        assertEquals(100, Money.of(new BigDecimal("1.005"), "USD", RoundingMode.HALF_EVEN).getMinorUnits());
+        assertEquals(101, Money.of(new BigDecimal("1.005"), "USD", RoundingMode.HALF_UP).getMinorUnits());
+        assertEquals(1000, Money.of(new BigDecimal("1000"), "JPY").getMinorUnits());
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1.5"), "JPY"));
+    }
+
+    @Test
+    void arithmetic_StaysExactAndChecksCurrency() {
+        Money price = Money.of(new BigDecimal("19.99"));
+
+        assertEquals(Money.of(new BigDecimal("59.97")), price.times(3));
+        assertEquals(Money.of(new BigDecimal("0.01")), price.minus(Money.of(new BigDecimal("19.98"))));
+        assertEquals(Money.of(new BigDecimal("1.65")), price.multiply(new BigDecimal("0.0825"), RoundingMode.HALF_EVEN));
+        assertEquals(Money.of(new BigDecimal("30.00")), Money.sum("USD", List.of(Money.of(BigDecimal.TEN),
+                Money.of(BigDecimal.TEN), Money.of(BigDecimal.TEN))));
+        assertThrows(IllegalArgumentException.class, () -> price.plus(Money.zero("EUR")));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE, "USD").plus(Money.ofMinor(1, "USD")));
+    }
+
+    @Test
+    void json_DefaultCurrencyAsNumber_OthersAsObject() throws Exception {
+        assertEquals("19.90", objectMapper.writeValueAsString(Money.of(new BigDecimal("19.9"))));
+        assertEquals("{\"amount\":5.00,\"currency\":\"EUR\"}",
+                objectMapper.writeValueAsString(Money.of(new BigDecimal("5"), "EUR")));
+
+        assertEquals(Money.of(new BigDecimal("19.90")), objectMapper.readValue("19.9", Money.class));
+        assertEquals(Money.of(new BigDecimal("19.90")), objectMapper.readValue("\"19.90\"", Money.class));
+        assertEquals(Money.of(new BigDecimal("5"), "EUR"),
+                objectMapper.readValue("{\"amount\":\"5.00\",\"currency\":\"EUR\"}", Money.class));
+        assertThrows(JsonMappingException.class, () -> objectMapper.readValue("1.001", Money.class));
+    }
+}
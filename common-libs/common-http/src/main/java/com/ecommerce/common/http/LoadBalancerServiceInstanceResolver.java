@@ -0,0 +1,42 @@
+package com.ecommerce.common.http;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resolves service IDs through Spring Cloud LoadBalancer, which serves the Eureka registry
+ * from its local cache, so choosing an instance does not block on the network. Absolute
+ * URLs are passed through unchanged.
+ */
+@RequiredArgsConstructor
+public class LoadBalancerServiceInstanceResolver implements ServiceInstanceResolver {
+
+    private final ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory;
+
+    @Override
+    public CompletableFuture<URI> resolve(String service) {
+        if (service.startsWith("http://") || service.startsWith("https://")) {
+            return CompletableFuture.completedFuture(URI.create(service));
+        }
+        ReactiveLoadBalancer<ServiceInstance> loadBalancer = loadBalancerFactory.getInstance(service);
+        if (loadBalancer == null) {
+            return CompletableFuture.failedFuture(new NoServiceInstanceException(service));
+        }
+        return Mono.from(loadBalancer.choose())
+                .toFuture()
+                .thenApply(response -> instanceUri(service, response));
+    }
+
+    private URI instanceUri(String service, Response<ServiceInstance> response) {
+        if (response == null || !response.hasServer()) {
+            throw new NoServiceInstanceException(service);
+        }
+        return response.getServer().getUri();
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.common.http;
+
+/**
+ * No registered instance of the service was available to take the call.
+ */
+public class NoServiceInstanceException extends ServiceCallException {
+
+    public NoServiceInstanceException(String service) {
+        super(service, 0, "No servers available for service: " + service);
+    }
+}
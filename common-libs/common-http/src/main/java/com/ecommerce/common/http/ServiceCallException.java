@@ -0,0 +1,41 @@
+package com.ecommerce.common.http;
+
+import java.net.http.HttpTimeoutException;
+
+/**
+ * A call to another service failed, either with a non-2xx response or before a response
+ * arrived. {@link #getStatusCode()} is 0 when there was no response.
+ */
+public class ServiceCallException extends RuntimeException {
+
+    private final String service;
+    private final int statusCode;
+
+    public ServiceCallException(String service, int statusCode, String message) {
+        super(message);
+        this.service = service;
+        this.statusCode = statusCode;
+    }
+
+    public ServiceCallException(String service, String message, Throwable cause) {
+        super(message, cause);
+        this.service = service;
+        this.statusCode = 0;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isNotFound() {
+        return statusCode == 404;
+    }
+
+    public boolean isTimeout() {
+        return getCause() instanceof HttpTimeoutException;
+    }
+}
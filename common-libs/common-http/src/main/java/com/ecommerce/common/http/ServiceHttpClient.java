@@ -0,0 +1,279 @@
+package com.ecommerce.common.http;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking JSON client for calls between services, built on the JDK {@link HttpClient}.
+ * Requests are sent as HTTP/2 where the instance supports it, so concurrent calls to one
+ * instance share a single multiplexed connection; otherwise pooled HTTP/1.1 keep-alive
+ * connections are used. Every method returns immediately with a future, so no caller thread
+ * is parked while the remote service works.
+ *
+ * <p>Each call is recorded in the {@code http.client.service.requests} timer by service,
+ * method, status, outcome and protocol version, and {@code http.client.service.in.flight}
+ * gauges the calls currently outstanding per service.
+ */
+@Slf4j
+public class ServiceHttpClient {
+
+    private final HttpClient httpClient;
+    private final ServiceInstanceResolver instanceResolver;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ServiceHttpClientProperties properties;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public ServiceHttpClient(HttpClient httpClient,
+                             ServiceInstanceResolver instanceResolver,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             ServiceHttpClientProperties properties) {
+        this.httpClient = httpClient;
+        this.instanceResolver = instanceResolver;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    /**
+     * Sends the request and completes with the response whatever its status. Completes
+     * exceptionally with a {@link ServiceCallException} only if no response was received.
+     * Cancelling the returned future aborts the call if it is still in flight.
+     */
+    public <T> CompletableFuture<ServiceResponse<T>> exchange(ServiceRequest request, Class<T> responseType) {
+        return send(request, objectMapper.constructType(responseType));
+    }
+
+    public <T> CompletableFuture<ServiceResponse<T>> exchange(ServiceRequest request, TypeReference<T> responseType) {
+        return send(request, objectMapper.constructType(responseType));
+    }
+
+    /**
+     * Sends the request and completes with the decoded body, or exceptionally with a
+     * {@link ServiceCallException} for a non-2xx status.
+     */
+    public <T> CompletableFuture<T> retrieve(ServiceRequest request, Class<T> responseType) {
+        return exchange(request, responseType).thenApply(response -> bodyOf(request, response));
+    }
+
+    public <T> CompletableFuture<T> retrieve(ServiceRequest request, TypeReference<T> responseType) {
+        return exchange(request, responseType).thenApply(response -> bodyOf(request, response));
+    }
+
+    /**
+     * Shuts down the executor the underlying client completes responses on, once calls in
+     * flight have finished. Called when the application context closes.
+     */
+    public void close() {
+        httpClient.executor().ifPresent(executor -> {
+            if (executor instanceof ExecutorService workers) {
+                workers.shutdown();
+            }
+        });
+    }
+
+    /**
+     * Waits for a future returned by this client and rethrows its failure unwrapped, for
+     * callers that are not asynchronous themselves.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceCallException(null, "Interrupted while waiting for a service call", e);
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ServiceCallException(null, cause.getMessage(), cause);
+        }
+    }
+
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private <T> CompletableFuture<ServiceResponse<T>> send(ServiceRequest request, JavaType responseType) {
+        long start = System.nanoTime();
+        AtomicInteger outstanding = inFlightFor(request.service());
+        outstanding.incrementAndGet();
+
+        // Cancellation does not travel back up a chain of futures, so the call is cancelled by hand
+        AtomicReference<CompletableFuture<?>> call = new AtomicReference<>();
+        CompletableFuture<ServiceResponse<T>> handled = instanceResolver.resolve(request.service())
+                .thenCompose(baseUri -> {
+                    CompletableFuture<HttpResponse<byte[]>> sent = httpClient.sendAsync(
+                            toHttpRequest(baseUri, request), HttpResponse.BodyHandlers.ofByteArray());
+                    if (!call.compareAndSet(null, sent)) {
+                        sent.cancel(true);
+                    }
+                    return sent;
+                })
+                .handle((response, error) -> {
+                    outstanding.decrementAndGet();
+                    Throwable cause = error != null ? unwrap(error) : null;
+                    record(request, response, cause, System.nanoTime() - start);
+                    if (cause != null) {
+                        throw toServiceCallException(request, cause);
+                    }
+                    return decode(request, response, responseType);
+                });
+        // A copy, so cancelling it leaves the bookkeeping above to run when the call ends
+        CompletableFuture<ServiceResponse<T>> result = handled.copy();
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                CompletableFuture<?> sent = call.getAndSet(CompletableFuture.completedFuture(null));
+                if (sent != null) {
+                    sent.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    private HttpRequest toHttpRequest(URI baseUri, ServiceRequest request) {
+        String base = baseUri.toString();
+        if (base.endsWith("/")) {
+            base = base.substring(0, base.length() - 1);
+        }
+
+        Duration timeout = properties.timeoutFor(request.service());
+        if (request.timeout() != null && request.timeout().compareTo(timeout) < 0) {
+            timeout = request.timeout();
+        }
+        if (timeout.isZero() || timeout.isNegative()) {
+            throw new ServiceCallException(request.service(), "Deadline exceeded before calling " + request.service(),
+                    new HttpTimeoutException("deadline exceeded"));
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + request.path()))
+                .timeout(timeout)
+                .header("Accept", "application/json");
+        request.headers().forEach(builder::header);
+
+        if (request.body() == null) {
+            builder.method(request.method(), HttpRequest.BodyPublishers.noBody());
+        } else {
+            try {
+                builder.header("Content-Type", "application/json")
+                        .method(request.method(), HttpRequest.BodyPublishers.ofByteArray(
+                                objectMapper.writeValueAsBytes(request.body())));
+            } catch (IOException e) {
+                throw new ServiceCallException(request.service(), "Could not encode request body", e);
+            }
+        }
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ServiceResponse<T> decode(ServiceRequest request, HttpResponse<byte[]> response, JavaType responseType) {
+        byte[] bytes = response.body();
+        int status = response.statusCode();
+        if (status < 200 || status >= 300) {
+            return new ServiceResponse<>(status, null, new String(bytes, StandardCharsets.UTF_8));
+        }
+        if (bytes.length == 0) {
+            return new ServiceResponse<>(status, null, null);
+        }
+        try {
+            T body = responseType.getRawClass() == String.class
+                    ? (T) new String(bytes, StandardCharsets.UTF_8)
+                    : objectMapper.readValue(bytes, responseType);
+            return new ServiceResponse<>(status, body, null);
+        } catch (IOException e) {
+            throw new ServiceCallException(request.service(), "Could not decode response from " + request.service()
+                    + " " + request.path(), e);
+        }
+    }
+
+    private <T> T bodyOf(ServiceRequest request, ServiceResponse<T> response) {
+        if (!response.isSuccessful()) {
+            throw new ServiceCallException(request.service(), response.statusCode(), request.service() + " returned "
+                    + response.statusCode() + " for " + request.method() + " " + request.path());
+        }
+        return response.body();
+    }
+
+    private RuntimeException toServiceCallException(ServiceRequest request, Throwable cause) {
+        if (cause instanceof ServiceCallException) {
+            return (ServiceCallException) cause;
+        }
+        if (cause instanceof HttpTimeoutException) {
+            return new ServiceCallException(request.service(), "Timed out calling " + request.service()
+                    + " " + request.path(), cause);
+        }
+        log.debug("Call to {} {} failed: {}", request.service(), request.path(), cause.toString());
+        return new ServiceCallException(request.service(), "Call to " + request.service() + " failed: "
+                + cause.getMessage(), cause);
+    }
+
+    private AtomicInteger inFlightFor(String service) {
+        return inFlight.computeIfAbsent(service, key -> {
+            AtomicInteger counter = new AtomicInteger();
+            Gauge.builder("http.client.service.in.flight", counter, AtomicInteger::get)
+                    .description("Calls to the service currently awaiting a response")
+                    .tag("service", key)
+                    .register(meterRegistry);
+            return counter;
+        });
+    }
+
+    private void record(ServiceRequest request, HttpResponse<?> response, Throwable error, long elapsedNanos) {
+        String status = response != null ? String.valueOf(response.statusCode()) : "NONE";
+        String version = response != null ? response.version().name() : "NONE";
+        String outcome;
+        if (error instanceof NoServiceInstanceException) {
+            outcome = "NO_INSTANCE";
+        } else if (error instanceof HttpTimeoutException) {
+            outcome = "TIMEOUT";
+        } else if (error != null) {
+            outcome = "IO_ERROR";
+        } else if (response.statusCode() >= 500) {
+            outcome = "SERVER_ERROR";
+        } else if (response.statusCode() >= 400) {
+            outcome = "CLIENT_ERROR";
+        } else {
+            outcome = "SUCCESS";
+        }
+
+        Timer.builder("http.client.service.requests")
+                .description("Latency of calls to other services")
+                .tag("service", request.service())
+                .tag("method", request.method())
+                .tag("status", status)
+                .tag("outcome", outcome)
+                .tag("version", version)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+}
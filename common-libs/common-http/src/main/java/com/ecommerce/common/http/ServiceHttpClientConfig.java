@@ -0,0 +1,56 @@
+package com.ecommerce.common.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registers the shared {@link ServiceHttpClient}. Picked up by services that scan
+ * {@code com.ecommerce.common} and depend on {@code common-http}.
+ */
+@Configuration
+@EnableConfigurationProperties(ServiceHttpClientProperties.class)
+public class ServiceHttpClientConfig {
+
+    // The worker pool is owned by the client, not a bean of its own: an Executor bean would
+    // displace Boot's applicationTaskExecutor. close() shuts it down with the context.
+    @Bean(destroyMethod = "close")
+    public ServiceHttpClient serviceHttpClient(ServiceHttpClientProperties properties,
+                                               ObjectProvider<ReactiveLoadBalancer.Factory<ServiceInstance>> loadBalancerFactory,
+                                               ObjectProvider<ObjectMapper> objectMapper,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getWorkerThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "service-http-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(executor)
+                .build();
+
+        ReactiveLoadBalancer.Factory<ServiceInstance> factory = loadBalancerFactory.getIfAvailable();
+        ServiceInstanceResolver resolver = factory != null
+                ? new LoadBalancerServiceInstanceResolver(factory)
+                : ServiceInstanceResolver.DIRECT;
+
+        return new ServiceHttpClient(httpClient, resolver,
+                objectMapper.getIfAvailable(() -> new ObjectMapper().findAndRegisterModules()),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry),
+                properties);
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.common.http;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "common.http")
+public class ServiceHttpClientProperties {
+
+    private Duration connectTimeout = Duration.ofSeconds(1);
+
+    // Used for routes without their own timeout
+    private Duration defaultTimeout = Duration.ofSeconds(5);
+
+    // Threads completing responses; callers never block on them
+    private int workerThreads = 4;
+
+    // Keyed by service ID
+    private Map<String, Route> routes = new HashMap<>();
+
+    @Data
+    public static class Route {
+
+        private Duration timeout;
+    }
+
+    public Duration timeoutFor(String service) {
+        Route route = routes.get(service);
+        return route != null && route.getTimeout() != null ? route.getTimeout() : defaultTimeout;
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.common.http;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Picks the base URI of an instance to call for a service ID.
+ */
+public interface ServiceInstanceResolver {
+
+    CompletableFuture<URI> resolve(String service);
+
+    /**
+     * Resolver for absolute base URLs only, used when no load balancer is available.
+     */
+    ServiceInstanceResolver DIRECT = service -> service.startsWith("http://") || service.startsWith("https://")
+            ? CompletableFuture.completedFuture(URI.create(service))
+            : CompletableFuture.failedFuture(new NoServiceInstanceException(service));
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.common.http;
+
+import com.ecommerce.common.utils.web.RequestDeadline;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A call to another service. {@code service} is the Eureka service ID (for example
+ * {@code inventory-service}) or an absolute base URL, and {@code path} is already expanded.
+ * Instances are immutable; the {@code with} methods return copies.
+ *
+ * @param timeout time allowed for the response headers, or {@code null} for the route default
+ */
+public record ServiceRequest(String service,
+                             String method,
+                             String path,
+                             Map<String, String> headers,
+                             Object body,
+                             Duration timeout) {
+
+    public ServiceRequest {
+        headers = Map.copyOf(headers);
+    }
+
+    public static ServiceRequest get(String service, String pathTemplate, Object... uriVariables) {
+        return new ServiceRequest(service, "GET", expand(pathTemplate, uriVariables), Map.of(), null, null);
+    }
+
+    public static ServiceRequest post(String service, String pathTemplate, Object body, Object... uriVariables) {
+        return new ServiceRequest(service, "POST", expand(pathTemplate, uriVariables), Map.of(), body, null);
+    }
+
+    public static ServiceRequest put(String service, String pathTemplate, Object body, Object... uriVariables) {
+        return new ServiceRequest(service, "PUT", expand(pathTemplate, uriVariables), Map.of(), body, null);
+    }
+
+    public static ServiceRequest delete(String service, String pathTemplate, Object... uriVariables) {
+        return new ServiceRequest(service, "DELETE", expand(pathTemplate, uriVariables), Map.of(), null, null);
+    }
+
+    public ServiceRequest withHeader(String name, String value) {
+        if (value == null) {
+            return this;
+        }
+        Map<String, String> copy = new LinkedHashMap<>(headers);
+        copy.put(name, value);
+        return new ServiceRequest(service, method, path, copy, body, timeout);
+    }
+
+    public ServiceRequest withTimeout(Duration timeout) {
+        return new ServiceRequest(service, method, path, headers, body, timeout);
+    }
+
+    /**
+     * Bounds the call by {@code deadline} and passes the deadline on in the
+     * {@value RequestDeadline#HEADER} header so the callee can drop work nobody waits for.
+     */
+    public ServiceRequest withDeadline(Instant deadline) {
+        return withHeader(RequestDeadline.HEADER, RequestDeadline.toHeaderValue(deadline))
+                .withTimeout(RequestDeadline.remaining(deadline));
+    }
+
+    private static String expand(String pathTemplate, Object... uriVariables) {
+        if (uriVariables.length == 0) {
+            return pathTemplate;
+        }
+        return UriComponentsBuilder.fromUriString(pathTemplate).encode().buildAndExpand(uriVariables).toUriString();
+    }
+}
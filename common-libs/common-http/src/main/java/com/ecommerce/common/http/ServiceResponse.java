@@ -0,0 +1,12 @@
+package com.ecommerce.common.http;
+
+/**
+ * Result of a {@link ServiceRequest}. {@code body} is only decoded for 2xx responses;
+ * otherwise {@code errorBody} holds the raw response text.
+ */
+public record ServiceResponse<T>(int statusCode, T body, String errorBody) {
+
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+}
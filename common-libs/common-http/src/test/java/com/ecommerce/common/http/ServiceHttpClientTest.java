@@ -0,0 +1,141 @@
+package com.ecommerce.common.http;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceHttpClientTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private SimpleMeterRegistry meterRegistry;
+    private ServiceHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/items/", exchange -> {
+            String id = exchange.getRequestURI().getPath().substring("/items/".length());
+            if ("missing".equals(id)) {
+                reply(exchange, 404, "{\"message\":\"not found\"}");
+            } else {
+                reply(exchange, 200, "{\"id\":\"" + id + "\",\"quantity\":3}");
+            }
+        });
+        server.createContext("/echo", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            reply(exchange, 201, body);
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            reply(exchange, 200, "{}");
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        ServiceHttpClientProperties properties = new ServiceHttpClientProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        client = new ServiceHttpClient(HttpClient.newHttpClient(), ServiceInstanceResolver.DIRECT,
+                new ObjectMapper(), meterRegistry, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void retrieve_OkResponse_DecodesTypedBodyAndRecordsLatency() {
+        Map<String, Object> item = ServiceHttpClient.await(client.retrieve(
+                ServiceRequest.get(baseUrl, "/items/{id}", "a b"), new TypeReference<Map<String, Object>>() {}));
+
+        assertEquals("a b", item.get("id"));
+        assertEquals(3, item.get("quantity"));
+        assertEquals(1, meterRegistry.get("http.client.service.requests")
+                .tag("service", baseUrl).tag("outcome", "SUCCESS").timer().count());
+        assertEquals(0.0, meterRegistry.get("http.client.service.in.flight").gauge().value());
+    }
+
+    @Test
+    void exchangeAndRetrieve_NotFound_ReturnStatusOrFailWithServiceCallException() {
+        ServiceRequest request = ServiceRequest.get(baseUrl, "/items/missing");
+
+        ServiceResponse<Map> response = ServiceHttpClient.await(client.exchange(request, Map.class));
+        assertEquals(404, response.statusCode());
+        assertNull(response.body());
+        assertTrue(response.errorBody().contains("not found"));
+
+        ServiceCallException e = assertThrows(ServiceCallException.class,
+                () -> ServiceHttpClient.await(client.retrieve(request, Map.class)));
+        assertTrue(e.isNotFound());
+    }
+
+    @Test
+    void exchange_PostBody_IsSentAsJson() {
+        ServiceResponse<Map> response = ServiceHttpClient.await(client.exchange(
+                ServiceRequest.post(baseUrl, "/echo", Map.of("orderId", "o1")), Map.class));
+
+        assertEquals(201, response.statusCode());
+        assertEquals("o1", response.body().get("orderId"));
+    }
+
+    @Test
+    void exchange_SlowerThanRequestTimeout_FailsWithoutBlockingCaller() {
+        long start = System.nanoTime();
+        CompletableFuture<ServiceResponse<Map>> future = client.exchange(
+                ServiceRequest.get(baseUrl, "/slow").withTimeout(Duration.ofMillis(200)), Map.class);
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 200, "call should return a future immediately");
+
+        ServiceCallException e = assertThrows(ServiceCallException.class, () -> ServiceHttpClient.await(future));
+        assertTrue(e.isTimeout());
+        assertEquals(1, meterRegistry.get("http.client.service.requests").tag("outcome", "TIMEOUT").timer().count());
+    }
+
+    @Test
+    void exchange_Cancelled_AbortsTheCallInFlight() throws InterruptedException {
+        CompletableFuture<ServiceResponse<Map>> future = client.exchange(ServiceRequest.get(baseUrl, "/slow"), Map.class);
+        Thread.sleep(100);
+
+        long start = System.nanoTime();
+        assertTrue(future.cancel(true));
+        // The slow endpoint answers after a second; an aborted call ends well before that
+        while (meterRegistry.get("http.client.service.in.flight").gauge().value() > 0
+                && (System.nanoTime() - start) / 1_000_000 < 500) {
+            Thread.sleep(10);
+        }
+        assertEquals(0.0, meterRegistry.get("http.client.service.in.flight").gauge().value());
+    }
+
+    @Test
+    void exchange_UnknownService_FailsWithNoServiceInstance() {
+        assertThrows(NoServiceInstanceException.class, () -> ServiceHttpClient.await(
+                client.exchange(ServiceRequest.get("inventory-service", "/inventory"), Map.class)));
+    }
+
+    private static void reply(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecommerce.common.utils.id;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Snowflake-style 64-bit IDs for places that want something shorter than a UUID, such as
+ * customer-facing order numbers: 41 bits of milliseconds since {@link #EPOCH}, a 10-bit
+ * worker ID and a 12-bit per-millisecond sequence. IDs are unique across instances only if
+ * every running instance has a distinct worker ID.
+ */
+public class SnowflakeIdGenerator {
+
+    // 2024-01-01T00:00:00Z; 41 bits of milliseconds lasts until 2093
+    public static final long EPOCH = 1704067200000L;
+
+    public static final int MAX_WORKER_ID = (1 << 10) - 1;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int WORKER_ID_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final String BASE36_DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private final long workerId;
+
+    private long lastTimestamp = -1L;
+    private long sequence;
+
+    public SnowflakeIdGenerator(int workerId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Worker ID must be between 0 and " + MAX_WORKER_ID + ": " + workerId);
+        }
+        this.workerId = workerId;
+    }
+
+    public synchronized long nextId() {
+        long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // 4096 IDs in one millisecond: borrow the next one rather than spin
+                timestamp++;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+
+        return ((timestamp - EPOCH) << (WORKER_ID_BITS + SEQUENCE_BITS))
+                | (workerId << SEQUENCE_BITS)
+                | sequence;
+    }
+
+    /**
+     * Next ID as upper-case base 36, 12 to 13 characters for the next several decades.
+     */
+    public String nextBase36() {
+        return toBase36(nextId());
+    }
+
+    public int getWorkerId() {
+        return (int) workerId;
+    }
+
+    public static long timestampOf(long id) {
+        return (id >>> (WORKER_ID_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    public static String toBase36(long id) {
+        if (id == 0) {
+            return "0";
+        }
+        char[] buffer = new char[13];
+        int position = buffer.length;
+        long remaining = id;
+        while (remaining > 0) {
+            buffer[--position] = BASE36_DIGITS.charAt((int) (remaining % 36));
+            remaining /= 36;
+        }
+        return new String(buffer, position, buffer.length - position);
+    }
+
+    /**
+     * Uses the configured worker ID when it is set (non-negative), otherwise derives one from
+     * the host name. A derived ID can collide between hosts, so deployments running more than
+     * one instance should assign IDs explicitly, e.g. from a StatefulSet ordinal.
+     */
+    public static int resolveWorkerId(int configuredWorkerId) {
+        if (configuredWorkerId >= 0) {
+            return configuredWorkerId;
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = String.valueOf(ProcessHandle.current().pid());
+        }
+        return (host.hashCode() & Integer.MAX_VALUE) % (MAX_WORKER_ID + 1);
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.common.utils.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates the annotated {@code @Id} as a version 7 UUID. Use in place of
+ * {@code @GeneratedValue(strategy = GenerationType.UUID)}; works on {@code String} and
+ * {@code UUID} fields, so existing {@code VARCHAR(36)} keys keep their type.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.common.utils.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.UUID;
+
+/**
+ * Hibernate generator behind {@link TimeOrderedId}.
+ */
+public class TimeOrderedIdGenerator implements IdentifierGenerator {
+
+    private final boolean uuidType;
+
+    public TimeOrderedIdGenerator(TimeOrderedId config, Member member, CustomIdGeneratorCreationContext context) {
+        Class<?> type;
+        if (member instanceof Field) {
+            type = ((Field) member).getType();
+        } else if (member instanceof Method) {
+            type = ((Method) member).getReturnType();
+        } else {
+            type = String.class;
+        }
+        if (type != String.class && type != UUID.class) {
+            throw new IllegalArgumentException("@TimeOrderedId requires a String or UUID id, found " + type.getName());
+        }
+        this.uuidType = type == UUID.class;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        UUID id = UuidV7.randomUuid();
+        return uuidType ? id : id.toString();
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.common.utils.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RFC 9562 version 7 UUIDs: a 48-bit Unix millisecond timestamp followed by random bits, so
+ * keys generated close together land next to each other in a B-tree instead of on random
+ * pages. The 12-bit {@code rand_a} field is used as a per-millisecond counter, which keeps
+ * IDs from this JVM strictly increasing even within one millisecond.
+ *
+ * <p>IDs are unique and sortable, not secret: do not use them as tokens.
+ */
+public final class UuidV7 {
+
+    // Upper 52 bits: millisecond timestamp; lower 12 bits: counter within that millisecond
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private static final long COUNTER_MASK = 0xFFFL;
+
+    private UuidV7() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static UUID randomUuid() {
+        long state = nextState(LAST, System.currentTimeMillis());
+        long timestamp = state >>> 12;
+        long counter = state & COUNTER_MASK;
+
+        long msb = (timestamp << 16) | 0x7000L | counter;
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    public static String randomUuidString() {
+        return randomUuid().toString();
+    }
+
+    /**
+     * @return the creation time encoded in a version 7 UUID, in Unix milliseconds
+     */
+    public static long timestampOf(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    static long nextState(AtomicLong state, long now) {
+        while (true) {
+            long last = state.get();
+            long lastTimestamp = last >>> 12;
+            long next;
+            if (now > lastTimestamp) {
+                // Start each millisecond at a random counter in the lower half, leaving room to count up
+                next = (now << 12) | ThreadLocalRandom.current().nextLong(0x800L);
+            } else {
+                // Same millisecond or the clock stepped back: keep counting from the last ID.
+                // A full counter carries into the timestamp, running briefly ahead of the clock.
+                next = last + 1;
+            }
+            if (state.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.common.utils.idempotency;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.StringUtils;
+
+/**
+ * Registers {@link IdempotencyFilter} for the endpoints in {@code idempotency.url-patterns},
+ * backed by {@link JdbcIdempotencyStore}, when {@code idempotency.enabled} is true. With
+ * {@code idempotency.consumer.enabled} it also provides an {@link IdempotentConsumer} for the
+ * service's event listeners. Expired entries of both are purged by {@link IdempotencyPurger}.
+ */
+@AutoConfiguration(after = {JdbcTemplateAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class})
+@ConditionalOnClass(JdbcTemplate.class)
+@ConditionalOnBean(JdbcTemplate.class)
+@ConditionalOnProperty(prefix = "idempotency", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public IdempotencyStore idempotencyStore(JdbcTemplate jdbcTemplate) {
+        return new JdbcIdempotencyStore(jdbcTemplate);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "idempotencyFilter")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore idempotencyStore,
+                                                                       IdempotencyProperties properties) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(idempotencyStore, properties.getTtl(), properties.getWaitTimeout(),
+                        properties.getLocalCacheSize()));
+        // No patterns would register the filter for every path
+        if (properties.getUrlPatterns().isEmpty()) {
+            registration.setEnabled(false);
+        }
+        registration.setUrlPatterns(properties.getUrlPatterns());
+        // After security, so keys are scoped to the authenticated user
+        registration.setOrder(0);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(PlatformTransactionManager.class)
+    @ConditionalOnProperty(prefix = "idempotency.consumer", name = "enabled", havingValue = "true")
+    public IdempotentConsumer idempotentConsumer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                                 IdempotencyProperties properties, Environment environment) {
+        IdempotencyProperties.Consumer consumer = properties.getConsumer();
+        String group = StringUtils.hasText(consumer.getGroup())
+                ? consumer.getGroup()
+                : environment.getRequiredProperty("spring.application.name");
+        return new IdempotentConsumer(new JdbcProcessedMessageStore(jdbcTemplate), transactionManager, group,
+                consumer.getTtl(), consumer.getLocalCacheSize(), consumer.getExpectedMessages(),
+                consumer.getFalsePositiveRate());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public IdempotencyPurger idempotencyPurger(IdempotencyStore idempotencyStore,
+                                               ObjectProvider<IdempotentConsumer> idempotentConsumer) {
+        return new IdempotencyPurger(idempotencyStore, idempotentConsumer.getIfAvailable());
+    }
+}
@@ -0,0 +1,270 @@
+package com.ecommerce.common.utils.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes {@code POST} requests that carry an {@value #HEADER} header safe to retry. The first
+ * request with a key runs normally and a successful response is stored; later requests with
+ * the same key, from the same user to the same path, get that response back with
+ * {@value #REPLAYED_HEADER}{@code : true} instead of running again.
+ *
+ * <p>A duplicate that arrives while the first request is still running waits for its result
+ * rather than executing in parallel: on the same instance it waits on the in-flight request
+ * directly, on another instance it polls the shared {@link IdempotencyStore}. Recent results
+ * are also kept in a small local cache so most replays need no database round trip.
+ *
+ * <p>Only 2xx responses are stored. A failed request releases its key, so a retry after a
+ * 5xx or a rejected request runs again. Reusing a key with a different body is answered
+ * with 422.
+ */
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final IdempotencyStore store;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, IdempotencyRecord> recent;
+
+    public IdempotencyFilter(IdempotencyStore store, Duration ttl, Duration waitTimeout, int localCacheSize) {
+        this.store = store;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > localCacheSize;
+            }
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "INVALID_IDEMPOTENCY_KEY",
+                    HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        // Keys are scoped to the caller and the endpoint, so one user can never replay another's response
+        String keyHash = sha256((principal(request) + "\n" + request.getRequestURI() + "\n" + key)
+                .getBytes(StandardCharsets.UTF_8));
+        String requestHash = sha256(cachedRequest.getBody());
+
+        IdempotencyRecord cached = recent.get(keyHash);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            replayOrReject(cached.requestHash(), requestHash, cached.response(), response, key);
+            return;
+        }
+
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(keyHash, mine);
+        if (running != null) {
+            awaitLocal(running, requestHash, response, key);
+            return;
+        }
+        try {
+            Instant expiresAt = Instant.now().plus(ttl);
+            if (store.tryClaim(keyHash, requestHash, expiresAt)) {
+                execute(keyHash, requestHash, expiresAt, mine, cachedRequest, response, filterChain);
+            } else {
+                awaitRemote(keyHash, requestHash, expiresAt, mine, cachedRequest, response, filterChain, key);
+            }
+        } finally {
+            inFlight.remove(keyHash, mine);
+            if (!mine.result().isDone()) {
+                mine.result().completeExceptionally(new IllegalStateException("Idempotent request did not complete"));
+            }
+        }
+    }
+
+    private void execute(String keyHash, String requestHash, Instant expiresAt, InFlight mine,
+                         CachedBodyRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            release(keyHash);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+
+        StoredResponse result = new StoredResponse(wrapper.getStatus(), wrapper.getContentType(),
+                wrapper.getContentAsByteArray());
+        if (result.isSuccessful()) {
+            try {
+                store.complete(keyHash, result);
+                recent.put(keyHash, new IdempotencyRecord(requestHash, result, expiresAt));
+            } catch (RuntimeException e) {
+                // The request itself succeeded; its claim stays in progress until it expires
+                log.error("Could not record response for idempotency key {}: {}", keyHash, e.getMessage());
+            }
+        } else {
+            release(keyHash);
+        }
+        mine.result().complete(result);
+        wrapper.copyBodyToResponse();
+    }
+
+    private void awaitLocal(InFlight running, String requestHash, HttpServletResponse response, String key)
+            throws IOException {
+        if (!running.requestHash().equals(requestHash)) {
+            rejectMismatch(response, key);
+            return;
+        }
+        log.debug("Idempotency key {} is already being handled here, waiting for its result", key);
+        try {
+            replay(running.result().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS), response);
+        } catch (TimeoutException | ExecutionException e) {
+            writeInProgress(response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeInProgress(response);
+        }
+    }
+
+    /**
+     * The key is claimed elsewhere: replay its result once stored, or run the request if the
+     * other claim is released in the meantime.
+     */
+    private void awaitRemote(String keyHash, String requestHash, Instant expiresAt, InFlight mine,
+                             CachedBodyRequest request, HttpServletResponse response, FilterChain filterChain,
+                             String key) throws ServletException, IOException {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            Optional<IdempotencyRecord> record = store.find(keyHash);
+            if (record.isEmpty()) {
+                if (store.tryClaim(keyHash, requestHash, expiresAt)) {
+                    execute(keyHash, requestHash, expiresAt, mine, request, response, filterChain);
+                    return;
+                }
+            } else if (!record.get().requestHash().equals(requestHash)) {
+                rejectMismatch(response, key);
+                return;
+            } else if (record.get().isCompleted()) {
+                recent.put(keyHash, record.get());
+                mine.result().complete(record.get().response());
+                replay(record.get().response(), response);
+                return;
+            }
+
+            if (System.nanoTime() >= deadline) {
+                writeInProgress(response);
+                return;
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                writeInProgress(response);
+                return;
+            }
+        }
+    }
+
+    private void replayOrReject(String storedHash, String requestHash, StoredResponse stored,
+                                HttpServletResponse response, String key) throws IOException {
+        if (!storedHash.equals(requestHash)) {
+            rejectMismatch(response, key);
+            return;
+        }
+        replay(stored, response);
+    }
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.body() != null) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private void release(String keyHash) {
+        try {
+            store.release(keyHash);
+        } catch (RuntimeException e) {
+            log.error("Could not release idempotency key {}: {}", keyHash, e.getMessage());
+        }
+    }
+
+    private void rejectMismatch(HttpServletResponse response, String key) throws IOException {
+        log.warn("Idempotency key {} reused with a different request body", key);
+        writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "IDEMPOTENCY_KEY_REUSED",
+                HEADER + " was already used for a different request");
+    }
+
+    private void writeInProgress(HttpServletResponse response) throws IOException {
+        writeError(response, HttpStatus.CONFLICT, "IDEMPOTENT_REQUEST_IN_PROGRESS",
+                "A request with this " + HEADER + " is still being processed, retry later");
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String errorCode, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":" + status.value() + ",\"error\":\"" + status.getReasonPhrase()
+                + "\",\"errorCode\":\"" + errorCode + "\",\"message\":\"" + message + "\"}");
+    }
+
+    private static String principal(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? principal.getName() : "anonymous";
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<StoredResponse> result) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.common.utils.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+
+    // Off unless a service opts in, since it needs the service's idempotency_keys table
+    private boolean enabled = false;
+
+    // How long a stored response is replayed
+    private Duration ttl = Duration.ofHours(24);
+
+    // How long a duplicate waits for the original request to finish
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    private int localCacheSize = 10000;
+
+    // Create endpoints the filter applies to, e.g. /orders
+    private List<String> urlPatterns = new ArrayList<>();
+
+    private Consumer consumer = new Consumer();
+
+    @Data
+    public static class Consumer {
+
+        // Registers an IdempotentConsumer backed by the service's processed_messages table
+        private boolean enabled = false;
+
+        // Consumer group the processed IDs are recorded under; defaults to spring.application.name
+        private String group;
+
+        // How long a consumed event's ID is kept to recognise redeliveries
+        private Duration ttl = Duration.ofDays(7);
+
+        private int localCacheSize = 10000;
+
+        private int expectedMessages = 1000000;
+
+        private double falsePositiveRate = 0.01;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.common.utils.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Instant;
+
+/**
+ * Deletes expired idempotency keys and, when the service has an {@link IdempotentConsumer},
+ * expired processed message IDs. Runs every {@code idempotency.purge-interval-ms} in services
+ * with scheduling enabled.
+ */
+@Slf4j
+public class IdempotencyPurger {
+
+    private final IdempotencyStore idempotencyStore;
+    private final IdempotentConsumer idempotentConsumer;
+
+    public IdempotencyPurger(IdempotencyStore idempotencyStore, IdempotentConsumer idempotentConsumer) {
+        this.idempotencyStore = idempotencyStore;
+        this.idempotentConsumer = idempotentConsumer;
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = idempotencyStore.purgeExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+        if (idempotentConsumer != null) {
+            int messages = idempotentConsumer.purgeExpired();
+            if (messages > 0) {
+                log.info("Purged {} expired processed message IDs", messages);
+            }
+        }
+    }
+}
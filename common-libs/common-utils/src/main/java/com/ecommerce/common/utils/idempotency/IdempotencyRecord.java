@@ -0,0 +1,14 @@
+package com.ecommerce.common.utils.idempotency;
+
+import java.time.Instant;
+
+/**
+ * A claimed idempotency key. {@code response} is {@code null} while the first request is
+ * still being handled.
+ */
+public record IdempotencyRecord(String requestHash, StoredResponse response, Instant expiresAt) {
+
+    public boolean isCompleted() {
+        return response != null;
+    }
+}
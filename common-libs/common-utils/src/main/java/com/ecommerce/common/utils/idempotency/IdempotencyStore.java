@@ -0,0 +1,32 @@
+package com.ecommerce.common.utils.idempotency;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Durable record of idempotency keys shared by every instance of a service.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claims {@code keyHash} for a request with body hash {@code requestHash}. An expired
+     * claim is replaced.
+     *
+     * @return {@code false} if the key is already claimed and not yet expired
+     */
+    boolean tryClaim(String keyHash, String requestHash, Instant expiresAt);
+
+    /**
+     * The unexpired record for {@code keyHash}, if any.
+     */
+    Optional<IdempotencyRecord> find(String keyHash);
+
+    void complete(String keyHash, StoredResponse response);
+
+    /**
+     * Drops a claim whose request did not succeed, so a retry runs it again.
+     */
+    void release(String keyHash);
+
+    int purgeExpired(Instant now);
+}
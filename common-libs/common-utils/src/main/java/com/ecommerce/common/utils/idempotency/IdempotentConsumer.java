@@ -0,0 +1,136 @@
+package com.ecommerce.common.utils.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs a message handler at most once per message ID for one consumer group, however many
+ * times the message is delivered and to however many instances.
+ *
+ * <p>The message is recorded in the {@link ProcessedMessageStore} in the same transaction as
+ * the handler's own writes, so either both commit or neither does: a handler that fails
+ * leaves the message unrecorded for redelivery, and two instances racing on one message
+ * serialize on its row, with the loser skipping the handler. IDs are kept for {@code ttl},
+ * which should comfortably exceed how late a redelivery can arrive.
+ *
+ * <p>Recently processed IDs are kept in a local LRU, so most redeliveries are answered
+ * without touching the database. A Bloom filter of the IDs seen in the last one to two
+ * {@code ttl}s lets a new message skip the lookup and go straight to recording it; only a
+ * message the filter may have seen is looked up first.
+ */
+@Slf4j
+public class IdempotentConsumer {
+
+    private final ProcessedMessageStore store;
+    private final TransactionTemplate transactionTemplate;
+    private final String consumerGroup;
+    private final Duration ttl;
+    private final int expectedMessages;
+    private final double falsePositiveRate;
+    private final Map<String, Boolean> recent;
+
+    // Two generations: IDs are added to the current one and looked up in both
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+    private volatile long rotateAt;
+
+    public IdempotentConsumer(ProcessedMessageStore store, PlatformTransactionManager transactionManager,
+                              String consumerGroup, Duration ttl, int localCacheSize, int expectedMessages,
+                              double falsePositiveRate) {
+        this.store = store;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.consumerGroup = consumerGroup;
+        this.ttl = ttl;
+        this.expectedMessages = expectedMessages;
+        this.falsePositiveRate = falsePositiveRate;
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > localCacheSize;
+            }
+        });
+        this.current = new BloomFilter(expectedMessages, falsePositiveRate);
+        this.previous = new BloomFilter(expectedMessages, falsePositiveRate);
+        this.rotateAt = System.currentTimeMillis() + ttl.toMillis();
+    }
+
+    /**
+     * Runs {@code handler} in a transaction unless {@code messageId} has already been
+     * processed. Joins the caller's transaction if there is one, in which case the message
+     * is only recorded when that transaction commits. An exception from the handler rolls
+     * the record back and is rethrown.
+     *
+     * @return {@code false} if the message was a duplicate and the handler did not run
+     */
+    public boolean process(String messageId, Runnable handler) {
+        if (recent.containsKey(messageId)) {
+            log.debug("Skipping duplicate message {} for {}", messageId, consumerGroup);
+            return false;
+        }
+        rotateIfDue();
+        if (mightHaveSeen(messageId) && store.isProcessed(consumerGroup, messageId)) {
+            remember(messageId);
+            log.debug("Skipping duplicate message {} for {}", messageId, consumerGroup);
+            return false;
+        }
+
+        boolean processed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            boolean first = store.markProcessed(consumerGroup, messageId, Instant.now().plus(ttl));
+            if (first) {
+                handler.run();
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        remember(messageId);
+                    }
+                });
+            } else {
+                remember(messageId);
+            }
+            return first;
+        }));
+        if (!processed) {
+            log.info("Message {} was already processed for {}", messageId, consumerGroup);
+        }
+        return processed;
+    }
+
+    public int purgeExpired() {
+        return store.purgeExpired(Instant.now());
+    }
+
+    private boolean mightHaveSeen(String messageId) {
+        return current.mightContain(messageId) || previous.mightContain(messageId);
+    }
+
+    private void remember(String messageId) {
+        recent.put(messageId, Boolean.TRUE);
+        current.add(messageId);
+    }
+
+    private void rotateIfDue() {
+        if (System.currentTimeMillis() < rotateAt) {
+            return;
+        }
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (now < rotateAt) {
+                return;
+            }
+            previous = current;
+            current = new BloomFilter(expectedMessages, falsePositiveRate);
+            rotateAt = now + ttl.toMillis();
+        }
+    }
+}
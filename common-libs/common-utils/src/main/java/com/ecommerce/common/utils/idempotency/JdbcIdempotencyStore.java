@@ -0,0 +1,86 @@
+package com.ecommerce.common.utils.idempotency;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * {@link IdempotencyStore} on the service's own PostgreSQL database. Each service creates the
+ * table in a Flyway migration:
+ *
+ * <pre>
+ * CREATE TABLE idempotency_keys (
+ *     key_hash CHAR(64) PRIMARY KEY,
+ *     request_hash CHAR(64) NOT NULL,
+ *     response_status INTEGER,
+ *     response_content_type VARCHAR(255),
+ *     response_body BYTEA,
+ *     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+ *     expires_at TIMESTAMP NOT NULL
+ * );
+ * </pre>
+ *
+ * Statements run outside the caller's transaction, so a claim is visible to other instances
+ * as soon as it is made.
+ */
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean tryClaim(String keyHash, String requestHash, Instant expiresAt) {
+        if (insert(keyHash, requestHash, expiresAt)) {
+            return true;
+        }
+        int replaced = jdbcTemplate.update(
+                "DELETE FROM idempotency_keys WHERE key_hash = ? AND expires_at < ?",
+                keyHash, Timestamp.from(Instant.now()));
+        return replaced > 0 && insert(keyHash, requestHash, expiresAt);
+    }
+
+    private boolean insert(String keyHash, String requestHash, Instant expiresAt) {
+        return jdbcTemplate.update(
+                "INSERT INTO idempotency_keys (key_hash, request_hash, expires_at) VALUES (?, ?, ?) "
+                        + "ON CONFLICT (key_hash) DO NOTHING",
+                keyHash, requestHash, Timestamp.from(expiresAt)) > 0;
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> find(String keyHash) {
+        return jdbcTemplate.query(
+                "SELECT request_hash, response_status, response_content_type, response_body, expires_at "
+                        + "FROM idempotency_keys WHERE key_hash = ? AND expires_at >= ?",
+                (rs, rowNum) -> {
+                    int status = rs.getInt("response_status");
+                    StoredResponse response = rs.wasNull() ? null : new StoredResponse(status,
+                            rs.getString("response_content_type"), rs.getBytes("response_body"));
+                    return new IdempotencyRecord(rs.getString("request_hash"), response,
+                            rs.getTimestamp("expires_at").toInstant());
+                },
+                keyHash, Timestamp.from(Instant.now())).stream().findFirst();
+    }
+
+    @Override
+    public void complete(String keyHash, StoredResponse response) {
+        jdbcTemplate.update(
+                "UPDATE idempotency_keys SET response_status = ?, response_content_type = ?, response_body = ? "
+                        + "WHERE key_hash = ?",
+                response.status(), response.contentType(), response.body(), keyHash);
+    }
+
+    @Override
+    public void release(String keyHash) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE key_hash = ? AND response_status IS NULL", keyHash);
+    }
+
+    @Override
+    public int purgeExpired(Instant now) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ?", Timestamp.from(now));
+    }
+}
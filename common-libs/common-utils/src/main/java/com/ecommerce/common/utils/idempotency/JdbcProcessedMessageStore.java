@@ -0,0 +1,56 @@
+package com.ecommerce.common.utils.idempotency;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * {@link ProcessedMessageStore} on the service's own PostgreSQL database. Each service creates
+ * the table in a Flyway migration:
+ *
+ * <pre>
+ * CREATE TABLE processed_messages (
+ *     consumer_group VARCHAR(100) NOT NULL,
+ *     message_id VARCHAR(255) NOT NULL,
+ *     processed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+ *     expires_at TIMESTAMP NOT NULL,
+ *     PRIMARY KEY (consumer_group, message_id)
+ * );
+ * </pre>
+ *
+ * Unlike {@link JdbcIdempotencyStore}, statements join the caller's transaction, so a record
+ * commits or rolls back with the handler's own writes.
+ */
+public class JdbcProcessedMessageStore implements ProcessedMessageStore {
+
+    // A concurrent insert of the same message waits on the row lock, then sees the conflict
+    private static final String MARK_SQL =
+            "INSERT INTO processed_messages (consumer_group, message_id, processed_at, expires_at) VALUES (?, ?, ?, ?) "
+                    + "ON CONFLICT (consumer_group, message_id) DO UPDATE SET processed_at = EXCLUDED.processed_at, "
+                    + "expires_at = EXCLUDED.expires_at WHERE processed_messages.expires_at < EXCLUDED.processed_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcProcessedMessageStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean markProcessed(String consumerGroup, String messageId, Instant expiresAt) {
+        return jdbcTemplate.update(MARK_SQL, consumerGroup, messageId, Timestamp.from(Instant.now()),
+                Timestamp.from(expiresAt)) > 0;
+    }
+
+    @Override
+    public boolean isProcessed(String consumerGroup, String messageId) {
+        return !jdbcTemplate.queryForList(
+                "SELECT 1 FROM processed_messages WHERE consumer_group = ? AND message_id = ? AND expires_at >= ?",
+                Integer.class, consumerGroup, messageId, Timestamp.from(Instant.now())).isEmpty();
+    }
+
+    @Override
+    public int purgeExpired(Instant now) {
+        return jdbcTemplate.update("DELETE FROM processed_messages WHERE expires_at < ?", Timestamp.from(now));
+    }
+}
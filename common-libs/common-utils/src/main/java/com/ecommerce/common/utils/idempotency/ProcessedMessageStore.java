@@ -0,0 +1,25 @@
+package com.ecommerce.common.utils.idempotency;
+
+import java.time.Instant;
+
+/**
+ * Durable record of the messages each consumer group has processed, shared by every
+ * instance of a service. See {@link IdempotentConsumer}.
+ */
+public interface ProcessedMessageStore {
+
+    /**
+     * Records {@code messageId} as processed by {@code consumerGroup} in the caller's
+     * transaction. A record past its expiry is replaced.
+     *
+     * @return {@code false} if an unexpired record exists, so the message is a duplicate
+     */
+    boolean markProcessed(String consumerGroup, String messageId, Instant expiresAt);
+
+    /**
+     * Whether an unexpired record of {@code messageId} exists for {@code consumerGroup}.
+     */
+    boolean isProcessed(String consumerGroup, String messageId);
+
+    int purgeExpired(Instant now);
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.common.utils.idempotency;
+
+/**
+ * The response recorded for an idempotency key, replayed as-is to retries of the same request.
+ */
+public record StoredResponse(int status, String contentType, byte[] body) {
+
+    public boolean isSuccessful() {
+        return status >= 200 && status < 300;
+    }
+}
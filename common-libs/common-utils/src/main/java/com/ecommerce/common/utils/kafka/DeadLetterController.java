@@ -0,0 +1,49 @@
+package com.ecommerce.common.utils.kafka;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Replays a service's dead-lettered records, at {@code kafka.retry.replay-path}. Registered
+ * by {@link KafkaRetryAutoConfiguration}; the condition also covers services that scan
+ * {@code com.ecommerce.common}.
+ */
+@RestController
+@RequestMapping("${kafka.retry.replay-path:/dead-letters}")
+@ConditionalOnProperty(prefix = "kafka.retry", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterController {
+
+    private static final int MAX_REPLAY = 10000;
+
+    private final DeadLetterReplayer deadLetterReplayer;
+
+    /**
+     * Sends up to {@code max} records dead-lettered from {@code topic} back through this
+     * service's retry topics. Call again while {@code remaining} is above zero.
+     */
+    @PostMapping("/{topic}/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<DeadLetterReplayResult> replay(
+            @PathVariable String topic,
+            @RequestParam(defaultValue = "1000") int max,
+            Authentication authentication) {
+        log.info("Replay of up to {} dead-lettered {} records requested by user: {}", max, topic,
+                authentication.getName());
+        try {
+            return ResponseEntity.ok(deadLetterReplayer.replay(topic, Math.max(1, Math.min(max, MAX_REPLAY))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
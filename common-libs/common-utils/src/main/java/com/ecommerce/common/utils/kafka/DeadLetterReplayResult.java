@@ -0,0 +1,8 @@
+package com.ecommerce.common.utils.kafka;
+
+/**
+ * Outcome of replaying a dead-letter topic: how many records were sent back for another try,
+ * and how many are still waiting behind them.
+ */
+public record DeadLetterReplayResult(String topic, String deadLetterTopic, int replayed, long remaining) {
+}
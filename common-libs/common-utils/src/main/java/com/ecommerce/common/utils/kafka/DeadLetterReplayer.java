@@ -0,0 +1,133 @@
+package com.ecommerce.common.utils.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends records parked on a dead-letter topic back through the service's retry topics, once
+ * whatever made them fail has been fixed. Only the failing service sees them again; other
+ * services reading the original topic are not affected.
+ *
+ * <p>Records are replayed oldest first, up to a limit per call, and progress is committed
+ * under the given consumer group so the next call carries on where this one stopped. Records
+ * dead-lettered after a call starts are left for the next one. Progress is committed after
+ * each batch is sent, so a replay that is interrupted may send a few records twice.
+ */
+@Slf4j
+public class DeadLetterReplayer {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    private final KafkaRetryTopics retryTopics;
+    private final ConsumerFactory<byte[], byte[]> consumerFactory;
+    private final Duration timeout;
+
+    public DeadLetterReplayer(KafkaRetryTopics retryTopics, Map<String, Object> consumerProperties, String groupId,
+                              Duration timeout) {
+        Map<String, Object> properties = new HashMap<>(consumerProperties);
+        properties.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, false);
+        this.retryTopics = retryTopics;
+        this.consumerFactory = new DefaultKafkaConsumerFactory<>(properties, new ByteArrayDeserializer(),
+                new ByteArrayDeserializer());
+        this.timeout = timeout;
+    }
+
+    /**
+     * Replays up to {@code maxRecords} records dead-lettered from {@code topic}, stopping
+     * early if the configured timeout passes.
+     *
+     * @throws IllegalArgumentException if {@code topic} has no dead-letter topic
+     */
+    public synchronized DeadLetterReplayResult replay(String topic, int maxRecords) {
+        String deadLetterTopic = retryTopics.deadLetterTopic(topic);
+        String retryTopic = retryTopics.retryTopic(topic);
+
+        try (Consumer<byte[], byte[]> consumer = consumerFactory.createConsumer()) {
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(deadLetterTopic);
+            if (partitionInfos == null || partitionInfos.isEmpty()) {
+                throw new IllegalArgumentException("No dead-letter topic for " + topic);
+            }
+            List<TopicPartition> partitions = partitionInfos.stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+
+            // Where this replay stops, and where the last one left off
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            Map<TopicPartition, Long> next = new HashMap<>(consumer.beginningOffsets(partitions));
+            consumer.committed(new HashSet<>(partitions)).forEach((partition, offset) -> {
+                if (offset != null) {
+                    next.put(partition, Math.max(offset.offset(), next.get(partition)));
+                }
+            });
+            next.forEach(consumer::seek);
+
+            int replayed = 0;
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (replayed < maxRecords && !caughtUp(consumer, partitions, end) && System.nanoTime() < deadline) {
+                List<CompletableFuture<?>> sends = new ArrayList<>();
+                Map<TopicPartition, OffsetAndMetadata> sent = new HashMap<>();
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (replayed >= maxRecords || record.offset() >= end.get(partition)) {
+                        continue;
+                    }
+                    sends.add(retryTopics.template().send(new ProducerRecord<>(retryTopic, null, record.key(),
+                            record.value(), replayHeaders(record))));
+                    sent.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                    replayed++;
+                }
+                if (sent.isEmpty()) {
+                    continue;
+                }
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+                consumer.commitSync(sent);
+                sent.forEach((partition, offset) -> next.put(partition, offset.offset()));
+            }
+
+            long remaining = partitions.stream()
+                    .mapToLong(partition -> Math.max(0, end.get(partition) - next.get(partition)))
+                    .sum();
+            log.info("Replayed {} records from {} to {}, {} remaining", replayed, deadLetterTopic, retryTopic,
+                    remaining);
+            return new DeadLetterReplayResult(topic, deadLetterTopic, replayed, remaining);
+        }
+    }
+
+    private static boolean caughtUp(Consumer<?, ?> consumer, List<TopicPartition> partitions,
+                                    Map<TopicPartition, Long> end) {
+        return partitions.stream().allMatch(partition -> consumer.position(partition) >= end.get(partition));
+    }
+
+    // Starts the record's retries afresh: no failure details, attempt count or back-off
+    private static RecordHeaders replayHeaders(ConsumerRecord<?, ?> record) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith("kafka_dlt-") && !header.key().startsWith("retry_topic-")) {
+                headers.add(header);
+            }
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.common.utils.kafka;
+
+/**
+ * Thrown by a Kafka listener that could not handle an event. The record is retried from the
+ * service's retry topics rather than dropped; see {@link KafkaRetryTopics}.
+ */
+public class EventProcessingException extends RuntimeException {
+
+    public EventProcessingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
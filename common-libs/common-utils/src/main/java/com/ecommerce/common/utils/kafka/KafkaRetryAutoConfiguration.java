@@ -0,0 +1,71 @@
+package com.ecommerce.common.utils.kafka;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Sets up {@link KafkaRetryTopics} for a service's listeners, with {@link DeadLetterReplayer}
+ * and its replay endpoint, when {@code kafka.retry.enabled} is true. Retry and dead-letter
+ * topics are named after {@code spring.application.name}; the rest comes from
+ * {@link KafkaRetryProperties}.
+ */
+@AutoConfiguration(after = KafkaAutoConfiguration.class)
+@ConditionalOnClass(RetryTopicConfiguration.class)
+@ConditionalOnProperty(prefix = "kafka.retry", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(KafkaRetryProperties.class)
+public class KafkaRetryAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public KafkaRetryTopics kafkaRetryTopics(KafkaRetryProperties properties, KafkaProperties kafkaProperties,
+                                             Environment environment) {
+        return new KafkaRetryTopics(environment.getRequiredProperty("spring.application.name"),
+                kafkaProperties.buildProducerProperties(), properties.getInitialDelay(), properties.getMultiplier(),
+                properties.getMaxDelay(), properties.getMaxAttempts(), properties.getPartitions(),
+                properties.getReplicas(), properties.getExcludedTopics());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RetryTopicConfiguration retryTopicConfiguration(KafkaRetryTopics kafkaRetryTopics) {
+        return kafkaRetryTopics.configuration();
+    }
+
+    // Wakes retry topic consumers paused until their next record is due
+    @Bean
+    @ConditionalOnMissingBean
+    public RetryTopicSchedulerWrapper retryTopicSchedulerWrapper() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("kafka-retry-");
+        return new RetryTopicSchedulerWrapper(scheduler);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public DeadLetterReplayer deadLetterReplayer(KafkaRetryTopics kafkaRetryTopics, KafkaRetryProperties properties,
+                                                 KafkaProperties kafkaProperties, Environment environment) {
+        return new DeadLetterReplayer(kafkaRetryTopics, kafkaProperties.buildConsumerProperties(),
+                environment.getRequiredProperty("spring.application.name") + "-dlt-replay",
+                properties.getReplayTimeout());
+    }
+
+    // Already registered in services that scan com.ecommerce.common
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(name = "org.springframework.security.access.prepost.PreAuthorize")
+    public DeadLetterController deadLetterController(DeadLetterReplayer deadLetterReplayer) {
+        return new DeadLetterController(deadLetterReplayer);
+    }
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.common.utils.kafka;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "kafka.retry")
+public class KafkaRetryProperties {
+
+    // Off unless a service opts in, so services sharing common-utils keep their own error handling
+    private boolean enabled = false;
+
+    private Duration initialDelay = Duration.ofSeconds(1);
+
+    private double multiplier = 10;
+
+    private Duration maxDelay = Duration.ofSeconds(60);
+
+    // Including the first delivery
+    private int maxAttempts = 4;
+
+    // Of each retry and dead-letter topic created
+    private int partitions = 3;
+
+    private short replicas = 1;
+
+    // Topics read by a per-instance consumer group, whose retries would reach every instance
+    private List<String> excludedTopics = new ArrayList<>();
+
+    // Base path of the replay endpoint, under the service's own API prefix
+    private String replayPath = "/dead-letters";
+
+    // Per replay request
+    private Duration replayTimeout = Duration.ofSeconds(30);
+}
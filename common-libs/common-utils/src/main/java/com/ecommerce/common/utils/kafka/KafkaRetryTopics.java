@@ -0,0 +1,107 @@
+package com.ecommerce.common.utils.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.DestinationTopic;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking retries for a service's Kafka listeners. When a listener throws, the record is
+ * republished to the first of a chain of delay topics (by default 1s, 10s, then 60s) and
+ * consumed again once the delay has passed; after the last attempt it is parked on a
+ * dead-letter topic. Either way the listener moves on to the next record, so one failing
+ * event never holds up its partition. Records that can never succeed, such as unreadable
+ * JSON, go straight to the dead-letter topic.
+ *
+ * <p>Dead-lettered records keep their key and value and carry Spring Kafka's
+ * {@code kafka_dlt-*} headers: the original topic, partition, offset, timestamp and consumer
+ * group, and the exception's class, message and stack trace. {@link DeadLetterReplayer}
+ * sends them back through the retries.
+ *
+ * <p>Several services consume the same topics, so retry and dead-letter topics are named per
+ * service, e.g. {@code order-created-payment-service-retry-1000} and
+ * {@code order-created-payment-service-dlt}: a retry is only seen by the service that failed.
+ * Topics read by a per-instance consumer group must be excluded, since their retries would
+ * reach every instance.
+ */
+public class KafkaRetryTopics {
+
+    private final DefaultKafkaProducerFactory<Object, Object> producerFactory;
+    private final KafkaTemplate<Object, Object> template;
+    private final RetryTopicConfiguration configuration;
+    private final String firstRetrySuffix;
+    private final String deadLetterSuffix;
+
+    public KafkaRetryTopics(String serviceName, Map<String, Object> producerProperties, Duration initialDelay,
+                            double multiplier, Duration maxDelay, int maxAttempts, int partitions, short replicas,
+                            List<String> excludedTopics) {
+        // Republishes whatever the listener was given: raw bytes from a failed deserializer,
+        // a String, or an object read by a JsonDeserializer
+        Map<Class<?>, Serializer<?>> serializers = new LinkedHashMap<>();
+        serializers.put(byte[].class, new ByteArraySerializer());
+        serializers.put(String.class, new StringSerializer());
+        serializers.put(Object.class, new JsonSerializer<>());
+        DelegatingByTypeSerializer serializer = new DelegatingByTypeSerializer(serializers, true);
+        this.producerFactory = new DefaultKafkaProducerFactory<>(producerProperties, serializer, serializer);
+        this.template = new KafkaTemplate<>(producerFactory);
+
+        this.configuration = RetryTopicConfigurationBuilder.newInstance()
+                .exponentialBackoff(initialDelay.toMillis(), multiplier, maxDelay.toMillis())
+                .maxAttempts(maxAttempts)
+                .retryTopicSuffix("-" + serviceName + "-retry")
+                .dltSuffix("-" + serviceName + "-dlt")
+                .autoCreateTopicsWith(partitions, replicas)
+                .notRetryOn(JsonProcessingException.class)
+                .traversingCauses()
+                .excludeTopics(excludedTopics)
+                .create(template);
+
+        List<DestinationTopic.Properties> destinations = configuration.getDestinationTopicProperties();
+        this.firstRetrySuffix = destinations.stream()
+                .filter(DestinationTopic.Properties::isRetryTopic)
+                .findFirst()
+                .map(DestinationTopic.Properties::suffix)
+                .orElseThrow(() -> new IllegalArgumentException("At least two attempts are required"));
+        this.deadLetterSuffix = destinations.stream()
+                .filter(DestinationTopic.Properties::isDltTopic)
+                .findFirst()
+                .orElseThrow()
+                .suffix();
+    }
+
+    /**
+     * Registered as a bean, this applies the retries to every {@code @KafkaListener} topic
+     * not excluded.
+     */
+    public RetryTopicConfiguration configuration() {
+        return configuration;
+    }
+
+    public String retryTopic(String topic) {
+        return topic + firstRetrySuffix;
+    }
+
+    public String deadLetterTopic(String topic) {
+        return topic + deadLetterSuffix;
+    }
+
+    KafkaTemplate<Object, Object> template() {
+        return template;
+    }
+
+    public void close() {
+        producerFactory.destroy();
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.common.utils.web;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * The point in time by which the caller needs an answer, carried between services in the
+ * {@value #HEADER} header as epoch milliseconds. {@link RequestDeadlineFilter} exposes the
+ * incoming deadline to the request thread through {@link #current()}.
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Request-Deadline";
+
+    private static final ThreadLocal<Instant> CURRENT = new ThreadLocal<>();
+
+    private RequestDeadline() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static Optional<Instant> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Whether the current request carries a deadline that has already passed.
+     */
+    public static boolean isExpired() {
+        Instant deadline = CURRENT.get();
+        return deadline != null && !Instant.now().isBefore(deadline);
+    }
+
+    /**
+     * The earlier of the incoming deadline, if any, and {@code now + budget}.
+     */
+    public static Instant within(Duration budget) {
+        Instant local = Instant.now().plus(budget);
+        Instant incoming = CURRENT.get();
+        return incoming != null && incoming.isBefore(local) ? incoming : local;
+    }
+
+    public static Duration remaining(Instant deadline) {
+        return Duration.between(Instant.now(), deadline);
+    }
+
+    public static String toHeaderValue(Instant deadline) {
+        return String.valueOf(deadline.toEpochMilli());
+    }
+
+    /**
+     * @return the deadline, or {@code null} if the value is missing or malformed
+     */
+    public static Instant parse(String headerValue) {
+        if (headerValue == null || headerValue.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(headerValue.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static void set(Instant deadline) {
+        CURRENT.set(deadline);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.common.utils.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Honours the {@value RequestDeadline#HEADER} header. A request that arrives after its
+ * deadline is answered with 504 straight away, since the caller has already given up on it;
+ * otherwise the deadline is available through {@link RequestDeadline#current()} while the
+ * request is handled. Registered ahead of the security filters by
+ * {@link RequestDeadlineAutoConfiguration}.
+ */
+@Slf4j
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Instant deadline = RequestDeadline.parse(request.getHeader(RequestDeadline.HEADER));
+        if (deadline == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!Instant.now().isBefore(deadline)) {
+            log.warn("Rejecting {} {}: deadline passed {} ms ago", request.getMethod(), request.getRequestURI(),
+                    Instant.now().toEpochMilli() - deadline.toEpochMilli());
+            response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"status\":504,\"error\":\"Gateway Timeout\","
+                    + "\"errorCode\":\"DEADLINE_EXCEEDED\",\"message\":\"Request deadline already passed\"}");
+            return;
+        }
+
+        RequestDeadline.set(deadline);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
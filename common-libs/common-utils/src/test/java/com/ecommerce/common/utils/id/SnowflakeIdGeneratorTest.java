@@ -0,0 +1,48 @@
+package com.ecommerce.common.utils.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void nextId_IsUniqueAndIncreasing() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(42);
+        Set<Long> seen = new HashSet<>();
+        long previous = 0;
+        for (int i = 0; i < 50_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertTrue(seen.add(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void nextId_DifferentWorkers_DoNotCollide() {
+        long a = new SnowflakeIdGenerator(1).nextId();
+        long b = new SnowflakeIdGenerator(2).nextId();
+
+        assertNotEquals(a, b);
+        assertEquals(1, (a >>> 12) & SnowflakeIdGenerator.MAX_WORKER_ID);
+        assertEquals(2, (b >>> 12) & SnowflakeIdGenerator.MAX_WORKER_ID);
+    }
+
+    @Test
+    void toBase36_MatchesLongToString() {
+        long id = new SnowflakeIdGenerator(7).nextId();
+
+        assertEquals(Long.toString(id, 36).toUpperCase(), SnowflakeIdGenerator.toBase36(id));
+        assertTrue(Math.abs(SnowflakeIdGenerator.timestampOf(id) - System.currentTimeMillis()) < 5000);
+    }
+
+    @Test
+    void constructor_RejectsOutOfRangeWorkerId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+    }
+}
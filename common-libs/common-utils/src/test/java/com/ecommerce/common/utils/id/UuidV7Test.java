@@ -0,0 +1,46 @@
+package com.ecommerce.common.utils.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Test {
+
+    @Test
+    void randomUuid_SetsVersionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.randomUuid();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        long timestamp = UuidV7.timestampOf(uuid);
+        assertTrue(timestamp >= before && timestamp <= after + 1);
+    }
+
+    @Test
+    void randomUuid_StringsSortInCreationOrder() {
+        String previous = UuidV7.randomUuidString();
+        for (int i = 0; i < 100_000; i++) {
+            String next = UuidV7.randomUuidString();
+            assertTrue(next.compareTo(previous) > 0, next + " should sort after " + previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void nextState_CounterOverflowCarriesIntoTimestamp() {
+        AtomicLong last = new AtomicLong();
+        long frozen = System.currentTimeMillis();
+        long state = UuidV7.nextState(last, frozen);
+        for (int i = 0; i < 5000; i++) {
+            long next = UuidV7.nextState(last, frozen);
+            assertTrue(next > state);
+            state = next;
+        }
+        assertTrue((state >>> 12) > frozen);
+    }
+}
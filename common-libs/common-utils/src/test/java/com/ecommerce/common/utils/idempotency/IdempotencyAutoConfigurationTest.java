@@ -0,0 +1,57 @@
+package com.ecommerce.common.utils.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class IdempotencyAutoConfigurationTest {
+
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(IdempotencyAutoConfiguration.class))
+            .withBean(JdbcTemplate.class, () -> mock(JdbcTemplate.class))
+            .withBean(PlatformTransactionManager.class, () -> mock(PlatformTransactionManager.class))
+            .withPropertyValues("spring.application.name=test-service");
+
+    @Test
+    void disabledByDefault() {
+        contextRunner.run(context -> {
+            assertFalse(context.containsBean("idempotencyFilter"));
+            assertTrue(context.getBeansOfType(IdempotencyStore.class).isEmpty());
+        });
+    }
+
+    @Test
+    void enabled_RegistersTheFilterForTheConfiguredPatterns() {
+        contextRunner.withPropertyValues("idempotency.enabled=true",
+                "idempotency.url-patterns=/payments,/payments/batch").run(context -> {
+            FilterRegistrationBean<?> registration = context.getBean("idempotencyFilter", FilterRegistrationBean.class);
+            assertInstanceOf(IdempotencyFilter.class, registration.getFilter());
+            assertEquals(List.of("/payments", "/payments/batch"), List.copyOf(registration.getUrlPatterns()));
+            assertEquals(0, registration.getOrder());
+            assertTrue(registration.isEnabled());
+            assertInstanceOf(JdbcIdempotencyStore.class, context.getBean(IdempotencyStore.class));
+            assertNotNull(context.getBean(IdempotencyPurger.class));
+            assertTrue(context.getBeansOfType(IdempotentConsumer.class).isEmpty());
+        });
+    }
+
+    @Test
+    void enabled_WithoutPatterns_LeavesTheFilterOff() {
+        contextRunner.withPropertyValues("idempotency.enabled=true").run(context ->
+                assertFalse(context.getBean("idempotencyFilter", FilterRegistrationBean.class).isEnabled()));
+    }
+
+    @Test
+    void consumerEnabled_RegistersAnIdempotentConsumer() {
+        contextRunner.withPropertyValues("idempotency.enabled=true", "idempotency.consumer.enabled=true")
+                .run(context -> assertNotNull(context.getBean(IdempotentConsumer.class)));
+    }
+}
@@ -0,0 +1,165 @@
+package com.ecommerce.common.utils.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+
+    private InMemoryStore store;
+    private IdempotencyFilter filter;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryStore();
+        filter = new IdempotencyFilter(store, Duration.ofHours(1), Duration.ofSeconds(5), 100);
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void retryWithSameKey_ReplaysStoredResponseWithoutExecuting() throws Exception {
+        MockHttpServletResponse first = send("key-1", "{\"amount\":10}", created());
+        MockHttpServletResponse retry = send("key-1", "{\"amount\":10}", created());
+
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void sameKeyDifferentBody_Rejected() throws Exception {
+        send("key-1", "{\"amount\":10}", created());
+        MockHttpServletResponse reused = send("key-1", "{\"amount\":99}", created());
+
+        assertEquals(422, reused.getStatus());
+        assertTrue(reused.getContentAsString().contains("IDEMPOTENCY_KEY_REUSED"));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void failedRequest_ReleasesKeySoRetryExecutes() throws Exception {
+        send("key-1", "{}", (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(503);
+        });
+        MockHttpServletResponse retry = send("key-1", "{}", created());
+
+        assertEquals(2, executions.get());
+        assertEquals(201, retry.getStatus());
+    }
+
+    @Test
+    void concurrentDuplicate_WaitsForInFlightResult() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ((HttpServletResponse) response).setStatus(201);
+            response.getWriter().write("{\"id\":\"order-" + executions.get() + "\"}");
+        };
+
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> sendUnchecked("key-1", slow));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> sendUnchecked("key-1", slow));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertEquals("{\"id\":\"order-1\"}", first.get(5, TimeUnit.SECONDS).getContentAsString());
+        assertEquals("{\"id\":\"order-1\"}", duplicate.get(5, TimeUnit.SECONDS).getContentAsString());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void requestWithoutKey_PassesThrough() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders");
+        request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+        filter.doFilter(request, new MockHttpServletResponse(), created());
+        filter.doFilter(request, new MockHttpServletResponse(), created());
+
+        assertEquals(2, executions.get());
+        assertTrue(store.records.isEmpty());
+    }
+
+    private FilterChain created() {
+        return (request, response) -> {
+            int execution = executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(201);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"id\":\"order-" + execution + "\",\"body\":"
+                    + new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8) + "}");
+        };
+    }
+
+    private MockHttpServletResponse send(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletResponse sendUnchecked(String key, FilterChain chain) {
+        try {
+            return send(key, "{}", chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class InMemoryStore implements IdempotencyStore {
+
+        private final Map<String, IdempotencyRecord> records = new ConcurrentHashMap<>();
+
+        @Override
+        public boolean tryClaim(String keyHash, String requestHash, Instant expiresAt) {
+            return records.putIfAbsent(keyHash, new IdempotencyRecord(requestHash, null, expiresAt)) == null;
+        }
+
+        @Override
+        public Optional<IdempotencyRecord> find(String keyHash) {
+            return Optional.ofNullable(records.get(keyHash));
+        }
+
+        @Override
+        public void complete(String keyHash, StoredResponse response) {
+            records.computeIfPresent(keyHash,
+                    (k, record) -> new IdempotencyRecord(record.requestHash(), response, record.expiresAt()));
+        }
+
+        @Override
+        public void release(String keyHash) {
+            records.remove(keyHash);
+        }
+
+        @Override
+        public int purgeExpired(Instant now) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.ecommerce.common.utils.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class IdempotentConsumerTest {
+
+    private InMemoryStore store;
+    private PlatformTransactionManager transactionManager;
+    private IdempotentConsumer consumer;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        store = spy(new InMemoryStore());
+        transactionManager = mock(PlatformTransactionManager.class);
+        consumer = new IdempotentConsumer(store, transactionManager, "group", Duration.ofHours(1), 100, 1000, 0.01);
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void redelivery_IsSkippedFromTheLocalCacheWithoutTouchingTheStore() {
+        assertTrue(consumer.process("m-1", executions::incrementAndGet));
+        assertFalse(consumer.process("m-1", executions::incrementAndGet));
+
+        assertEquals(1, executions.get());
+        verify(store, times(1)).markProcessed(eq("group"), eq("m-1"), any());
+        verify(store, never()).isProcessed(any(), any());
+    }
+
+    @Test
+    void messageProcessedByAnotherInstance_IsSkippedWithoutRunningTheHandler() {
+        store.markProcessed("group", "m-1", Instant.now().plusSeconds(60));
+
+        assertFalse(consumer.process("m-1", executions::incrementAndGet));
+
+        assertEquals(0, executions.get());
+        // The filter had not seen the ID, so there was no lookup before the insert
+        verify(store, never()).isProcessed(any(), any());
+    }
+
+    @Test
+    void failedHandler_RollsBackAndIsRunAgainOnRedelivery() {
+        // Rolling back drops the record made in the transaction
+        doAnswer(invocation -> {
+            store.records.clear();
+            return null;
+        }).when(transactionManager).rollback(any());
+
+        assertThrows(IllegalStateException.class, () -> consumer.process("m-1", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        verify(transactionManager).rollback(any());
+
+        assertTrue(consumer.process("m-1", executions::incrementAndGet));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void bloomFilter_NeverMissesAnAddedValue_AndRarelyReportsOthers() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("order-created:" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("order-created:" + i));
+            if (filter.mightContain("order-cancelled:" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    static class InMemoryStore implements ProcessedMessageStore {
+
+        final Map<String, Instant> records = new ConcurrentHashMap<>();
+
+        @Override
+        public boolean markProcessed(String consumerGroup, String messageId, Instant expiresAt) {
+            String key = consumerGroup + ":" + messageId;
+            Instant existing = records.get(key);
+            if (existing != null && existing.isAfter(Instant.now())) {
+                return false;
+            }
+            records.put(key, expiresAt);
+            return true;
+        }
+
+        @Override
+        public boolean isProcessed(String consumerGroup, String messageId) {
+            Instant expiresAt = records.get(consumerGroup + ":" + messageId);
+            return expiresAt != null && expiresAt.isAfter(Instant.now());
+        }
+
+        @Override
+        public int purgeExpired(Instant now) {
+            int before = records.size();
+            records.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+            return before - records.size();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.common.utils.kafka;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KafkaRetryAutoConfigurationTest {
+
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(KafkaAutoConfiguration.class, KafkaRetryAutoConfiguration.class))
+            .withPropertyValues("spring.application.name=payment-service");
+
+    @Test
+    void disabledByDefault() {
+        contextRunner.run(context -> {
+            assertTrue(context.getBeansOfType(KafkaRetryTopics.class).isEmpty());
+            assertTrue(context.getBeansOfType(DeadLetterController.class).isEmpty());
+        });
+    }
+
+    @Test
+    void enabled_RegistersRetryTopicsAndReplayEndpoint_FromProperties() {
+        contextRunner
+                .withPropertyValues("kafka.retry.enabled=true", "kafka.retry.replicas=3",
+                        "kafka.retry.excluded-topics=payment-risk-counters")
+                .run(context -> {
+                    KafkaRetryTopics retryTopics = context.getBean(KafkaRetryTopics.class);
+                    assertEquals("order-created-payment-service-dlt", retryTopics.deadLetterTopic("order-created"));
+                    assertSame(retryTopics.configuration(), context.getBean(RetryTopicConfiguration.class));
+                    assertTrue(context.getBean(RetryTopicConfiguration.class).hasConfigurationForTopics(
+                            new String[] {"order-created"}));
+                    assertFalse(context.getBean(RetryTopicConfiguration.class).hasConfigurationForTopics(
+                            new String[] {"payment-risk-counters"}));
+                    assertEquals(3, context.getBean(KafkaRetryProperties.class).getReplicas());
+                    assertNotNull(context.getBean(DeadLetterReplayer.class));
+                    assertNotNull(context.getBean(DeadLetterController.class));
+                });
+    }
+}
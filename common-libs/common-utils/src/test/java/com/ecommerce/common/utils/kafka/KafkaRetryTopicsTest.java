@@ -0,0 +1,57 @@
+package com.ecommerce.common.utils.kafka;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.retrytopic.DestinationTopic;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KafkaRetryTopicsTest {
+
+    private KafkaRetryTopics retryTopics;
+
+    @BeforeEach
+    void setUp() {
+        retryTopics = new KafkaRetryTopics("payment-service",
+                Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092"),
+                Duration.ofSeconds(1), 10, Duration.ofSeconds(60), 4, 3, (short) 1, List.of("payment-risk-counters"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        retryTopics.close();
+    }
+
+    @Test
+    void topics_AreTieredByDelayAndNamedPerService() {
+        List<DestinationTopic.Properties> destinations = retryTopics.configuration().getDestinationTopicProperties();
+
+        assertEquals(List.of("", "-payment-service-retry-1000", "-payment-service-retry-10000",
+                        "-payment-service-retry-60000", "-payment-service-dlt"),
+                destinations.stream().map(DestinationTopic.Properties::suffix).toList());
+        assertEquals("order-created-payment-service-retry-1000", retryTopics.retryTopic("order-created"));
+        assertEquals("order-created-payment-service-dlt", retryTopics.deadLetterTopic("order-created"));
+        assertTrue(retryTopics.configuration().hasConfigurationForTopics(new String[]{"order-created"}));
+        assertFalse(retryTopics.configuration().hasConfigurationForTopics(new String[]{"payment-risk-counters"}));
+    }
+
+    @Test
+    void republishedValues_KeepTheBytesTheListenerWasGiven() {
+        Serializer<Object> serializer = retryTopics.template().getProducerFactory().getValueSerializerSupplier().get();
+
+        assertEquals("{\"orderId\":\"o-1\"}",
+                new String(serializer.serialize("t", "{\"orderId\":\"o-1\"}"), StandardCharsets.UTF_8));
+        assertArrayEquals(new byte[]{1, 2, 3}, serializer.serialize("t", new byte[]{1, 2, 3}));
+        assertNull(serializer.serialize("t", null));
+        assertEquals("{\"orderId\":\"o-1\"}",
+                new String(serializer.serialize("t", Map.of("orderId", "o-1")), StandardCharsets.UTF_8));
+    }
+}
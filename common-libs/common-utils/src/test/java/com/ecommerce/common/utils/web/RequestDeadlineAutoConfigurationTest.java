@@ -0,0 +1,29 @@
+package com.ecommerce.common.utils.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.core.Ordered;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestDeadlineAutoConfigurationTest {
+
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(RequestDeadlineAutoConfiguration.class));
+
+    @Test
+    void disabledByDefault() {
+        contextRunner.run(context -> assertFalse(context.containsBean("requestDeadlineFilter")));
+    }
+
+    @Test
+    void enabled_RegistersTheFilterAheadOfSecurity() {
+        contextRunner.withPropertyValues("request-deadline.enabled=true").run(context -> {
+            FilterRegistrationBean<?> registration = context.getBean("requestDeadlineFilter", FilterRegistrationBean.class);
+            assertInstanceOf(RequestDeadlineFilter.class, registration.getFilter());
+            assertEquals(Ordered.HIGHEST_PRECEDENCE + 10, registration.getOrder());
+        });
+    }
+}
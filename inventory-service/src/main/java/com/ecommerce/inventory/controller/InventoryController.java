@@ -9,6 +9,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -191,8 +192,65 @@ public class InventoryController {
         }
     }
 
+    // Batch endpoints for bulk order imports: one call per chunk of orders, with quantities summed per product
+    @PostMapping("/reserve/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'SYSTEM', 'USER')")
+    public ResponseEntity<Map<String, Object>> reserveInventoryBatch(@RequestBody Map<String, Object> request) {
+        Map<String, Integer> quantities = quantitiesOf(request);
+        String reference = (String) request.get("reference");
+        if (quantities == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "quantities must map product IDs to positive quantities"
+            ));
+        }
+        
+        log.info("Batch reserving inventory for {} products, reference: {}", quantities.size(), reference);
+        
+        Map<String, Integer> reserved = inventoryService.reserveAvailableStock(quantities);
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "reserved", reserved
+        ));
+    }
+
+    @PostMapping("/release/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'SYSTEM', 'USER')")
+    public ResponseEntity<Map<String, Object>> releaseInventoryBatch(@RequestBody Map<String, Object> request) {
+        Map<String, Integer> quantities = quantitiesOf(request);
+        String reference = (String) request.get("reference");
+        if (quantities == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "quantities must map product IDs to positive quantities"
+            ));
+        }
+        
+        log.info("Batch releasing inventory for {} products, reference: {}", quantities.size(), reference);
+        
+        inventoryService.releaseReservedStock(quantities);
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "message", "Inventory released successfully"
+        ));
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Inventory service is healthy");
     }
-}
\ No newline at end of file
+
+    private Map<String, Integer> quantitiesOf(Map<String, Object> request) {
+        if (!(request.get("quantities") instanceof Map<?, ?> raw)) {
+            return null;
+        }
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : raw.entrySet()) {
+            if (!(entry.getValue() instanceof Integer quantity) || quantity <= 0) {
+                return null;
+            }
+            quantities.put(String.valueOf(entry.getKey()), quantity);
+        }
+        return quantities;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.inventory.entity;
 
+import com.ecommerce.common.utils.id.TimeOrderedId;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -23,7 +24,7 @@ import java.time.LocalDateTime;
 public class Inventory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private String id;
 
     @Column(name = "product_id", nullable = false, unique = true)
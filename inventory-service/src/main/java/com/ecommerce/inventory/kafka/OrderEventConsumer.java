@@ -1,5 +1,6 @@
 package com.ecommerce.inventory.kafka;
 
+import com.ecommerce.common.utils.kafka.EventProcessingException;
 import com.ecommerce.inventory.service.InventoryService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -41,7 +42,7 @@ public class OrderEventConsumer {
             }
             
         } catch (Exception e) {
-            log.error("Error processing order created event: {}", e.getMessage(), e);
+            throw new EventProcessingException("Error processing order created event", e);
         }
     }
 
@@ -64,7 +65,7 @@ public class OrderEventConsumer {
                     .orElse(0));
             
         } catch (Exception e) {
-            log.error("Error processing order confirmed event: {}", e.getMessage(), e);
+            throw new EventProcessingException("Error processing order confirmed event", e);
         }
     }
 
@@ -84,7 +85,7 @@ public class OrderEventConsumer {
             inventoryEventProducer.publishStockReleased(productId, quantity, orderId);
             
         } catch (Exception e) {
-            log.error("Error processing order cancelled event: {}", e.getMessage(), e);
+            throw new EventProcessingException("Error processing order cancelled event", e);
         }
     }
 }
\ No newline at end of file
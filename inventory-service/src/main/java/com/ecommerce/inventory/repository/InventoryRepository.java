@@ -1,12 +1,15 @@
 package com.ecommerce.inventory.repository;
 
 import com.ecommerce.inventory.entity.Inventory;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +20,11 @@ public interface InventoryRepository extends JpaRepository<Inventory, String> {
     
     List<Inventory> findByProductIdIn(List<String> productIds);
     
+    // Rows are locked in product order, so concurrent batches never deadlock on each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.productId IN :productIds ORDER BY i.productId")
+    List<Inventory> findByProductIdInForUpdate(@Param("productIds") Collection<String> productIds);
+    
     List<Inventory> findByAvailableQuantityLessThanEqualAndActiveTrue(Integer threshold);
     
     List<Inventory> findByActiveTrue();
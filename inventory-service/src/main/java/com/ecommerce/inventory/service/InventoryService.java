@@ -7,7 +7,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -82,6 +84,38 @@ public class InventoryService {
         return false;
     }
 
+    /**
+     * Reserves as much of each requested quantity as is available, for a batch of orders
+     * reserved together, and returns what was reserved per product. Products that are unknown
+     * or inactive get nothing; the caller decides which orders the reserved stock goes to and
+     * releases the rest.
+     */
+    public Map<String, Integer> reserveAvailableStock(Map<String, Integer> quantities) {
+        log.info("Reserving available stock for {} products", quantities.size());
+
+        Map<String, Integer> reserved = new LinkedHashMap<>();
+        for (Inventory inventory : inventoryRepository.findByProductIdInForUpdate(quantities.keySet())) {
+            Integer requested = quantities.get(inventory.getProductId());
+            int available = inventory.getQuantity() - inventory.getReservedQuantity();
+            int quantity = Boolean.TRUE.equals(inventory.getActive()) ? Math.min(requested, Math.max(0, available)) : 0;
+            if (quantity > 0) {
+                inventory.setReservedQuantity(inventory.getReservedQuantity() + quantity);
+                reserved.put(inventory.getProductId(), quantity);
+            }
+        }
+        // The rows are managed, so the changes go out as one batch of updates at commit
+        return reserved;
+    }
+
+    public void releaseReservedStock(Map<String, Integer> quantities) {
+        log.info("Releasing reserved stock for {} products", quantities.size());
+
+        for (Inventory inventory : inventoryRepository.findByProductIdInForUpdate(quantities.keySet())) {
+            int quantity = quantities.get(inventory.getProductId());
+            inventory.setReservedQuantity(Math.max(0, inventory.getReservedQuantity() - quantity));
+        }
+    }
+
     public void releaseReservedStock(String productId, Integer quantity) {
         log.info("Releasing reserved stock for product: {} quantity: {}", productId, quantity);
         
@@ -1,5 +1,6 @@
 package com.ecommerce.notification.kafka;
 
+import com.ecommerce.common.utils.kafka.EventProcessingException;
 import com.ecommerce.notification.entity.*;
 import com.ecommerce.notification.service.NotificationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -59,7 +60,7 @@ public class OrderEventConsumer {
             notificationService.createNotification(notification);
             
         } catch (Exception e) {
-            log.error("Error processing order-created event", e);
+            throw new EventProcessingException("Error processing order-created event", e);
         }
     }
     
@@ -109,7 +110,7 @@ public class OrderEventConsumer {
             }
             
         } catch (Exception e) {
-            log.error("Error processing order-status-updated event", e);
+            throw new EventProcessingException("Error processing order-status-updated event", e);
         }
     }
     
@@ -153,7 +154,7 @@ public class OrderEventConsumer {
             notificationService.createNotification(notification);
             
         } catch (Exception e) {
-            log.error("Error processing order-cancelled event", e);
+            throw new EventProcessingException("Error processing order-cancelled event", e);
         }
     }
     
@@ -1,5 +1,6 @@
 package com.ecommerce.notification.kafka;
 
+import com.ecommerce.common.utils.kafka.EventProcessingException;
 import com.ecommerce.notification.entity.*;
 import com.ecommerce.notification.service.NotificationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -86,7 +87,7 @@ public class PaymentEventConsumer {
             }
             
         } catch (Exception e) {
-            log.error("Error processing payment-completed event", e);
+            throw new EventProcessingException("Error processing payment-completed event", e);
         }
     }
     
@@ -129,7 +130,7 @@ public class PaymentEventConsumer {
             notificationService.createNotification(notification);
             
         } catch (Exception e) {
-            log.error("Error processing payment-failed event", e);
+            throw new EventProcessingException("Error processing payment-failed event", e);
         }
     }
     
@@ -201,7 +202,7 @@ public class PaymentEventConsumer {
             }
             
         } catch (Exception e) {
-            log.error("Error processing payment-refunded event", e);
+            throw new EventProcessingException("Error processing payment-refunded event", e);
         }
     }
     
@@ -242,7 +243,7 @@ public class PaymentEventConsumer {
             notificationService.createNotification(notification);
             
         } catch (Exception e) {
-            log.error("Error processing payment-reminder event", e);
+            throw new EventProcessingException("Error processing payment-reminder event", e);
         }
     }
     
@@ -1,5 +1,6 @@
 package com.ecommerce.notification.kafka;
 
+import com.ecommerce.common.utils.kafka.EventProcessingException;
 import com.ecommerce.notification.entity.*;
 import com.ecommerce.notification.service.NotificationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -51,7 +52,7 @@ public class UserEventConsumer {
             notificationService.createNotification(notification);
             
         } catch (Exception e) {
-            log.error("Error processing user-registered event", e);
+            throw new EventProcessingException("Error processing user-registered event", e);
         }
     }
     
@@ -87,7 +88,7 @@ public class UserEventConsumer {
             notificationService.createNotification(notification);
             
         } catch (Exception e) {
-            log.error("Error processing password-reset-requested event", e);
+            throw new EventProcessingException("Error processing password-reset-requested event", e);
         }
     }
     
@@ -124,7 +125,7 @@ public class UserEventConsumer {
             }
             
         } catch (Exception e) {
-            log.error("Error processing user-profile-updated event", e);
+            throw new EventProcessingException("Error processing user-profile-updated event", e);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.ecommerce.order.config;
+
+import com.ecommerce.common.utils.id.SnowflakeIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Slf4j
+public class IdGeneratorConfig {
+
+    @Bean
+    public SnowflakeIdGenerator orderNumberGenerator(@Value("${order.id.worker-id:-1}") int configuredWorkerId) {
+        int workerId = SnowflakeIdGenerator.resolveWorkerId(configuredWorkerId);
+        if (configuredWorkerId < 0) {
+            log.warn("order.id.worker-id not set, derived worker ID {} from host name", workerId);
+        }
+        return new SnowflakeIdGenerator(workerId);
+    }
+}
@@ -1,9 +1,12 @@
 package com.ecommerce.order.controller;
 
+import com.ecommerce.order.dto.OrderSummaryPage;
 import com.ecommerce.order.entity.Order;
 import com.ecommerce.order.entity.OrderStatus;
 import com.ecommerce.order.service.OrderOrchestrationService;
 import com.ecommerce.order.service.OrderService;
+import com.ecommerce.order.service.OrderSummaryService;
+import com.ecommerce.order.stream.OrderEventStreamRegistry;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,10 +15,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -29,6 +34,8 @@ public class OrderController {
 
     private final OrderService orderService;
     private final OrderOrchestrationService orderOrchestrationService;
+    private final OrderSummaryService orderSummaryService;
+    private final OrderEventStreamRegistry orderEventStreamRegistry;
 
     @PostMapping
     @PreAuthorize("isAuthenticated()")
@@ -64,6 +71,27 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
 
+    @GetMapping(path = "/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<SseEmitter> streamOrderEvents(
+            @PathVariable String orderId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            Authentication authentication) {
+        log.info("Opening event stream for order: {} for user: {}", orderId, authentication.getName());
+        
+        Order order = orderService.getOrderById(orderId);
+        
+        // Check if user is authorized to view this order
+        if (!isUserAuthorized(order, authentication)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        return ResponseEntity.ok()
+                // Stops nginx-style proxies from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(orderEventStreamRegistry.subscribe(order, lastEventId));
+    }
+
     @GetMapping("/order-number/{orderNumber}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Order> getOrderByOrderNumber(
@@ -83,38 +111,28 @@ public class OrderController {
 
     @GetMapping("/customer/{customerId}")
     @PreAuthorize("hasAnyRole('ADMIN') or #customerId == authentication.name")
-    public ResponseEntity<Page<Order>> getCustomerOrders(
+    public ResponseEntity<OrderSummaryPage> getCustomerOrders(
             @PathVariable String customerId,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "DESC") String sortDirection) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
         
         log.info("Fetching orders for customer: {}", customerId);
         
-        Sort.Direction direction = Sort.Direction.fromString(sortDirection);
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        
-        Page<Order> orders = orderService.getOrdersByCustomerId(customerId, pageable);
+        OrderSummaryPage orders = orderSummaryService.getCustomerOrders(customerId, cursor, size);
         return ResponseEntity.ok(orders);
     }
 
     @GetMapping("/my-orders")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Page<Order>> getMyOrders(
-            @RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<OrderSummaryPage> getMyOrders(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "DESC") String sortDirection,
             Authentication authentication) {
         
         String customerId = authentication.getName();
         log.info("Fetching orders for authenticated customer: {}", customerId);
         
-        Sort.Direction direction = Sort.Direction.fromString(sortDirection);
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        
-        Page<Order> orders = orderService.getOrdersByCustomerId(customerId, pageable);
+        OrderSummaryPage orders = orderSummaryService.getCustomerOrders(customerId, cursor, size);
         return ResponseEntity.ok(orders);
     }
 
@@ -0,0 +1,42 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.order.dto.OrderImportJob;
+import com.ecommerce.order.service.OrderImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+@RestController
+@RequestMapping("/orders/imports")
+@RequiredArgsConstructor
+@Slf4j
+public class OrderImportController {
+
+    private final OrderImportService orderImportService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'SYSTEM')")
+    public ResponseEntity<OrderImportJob> importOrders(
+            @RequestParam("file") MultipartFile file,
+            @RequestHeader("Authorization") String authToken,
+            Authentication authentication) {
+        log.info("Order import of {} ({} bytes) by user: {}", file.getOriginalFilename(), file.getSize(),
+                authentication.getName());
+
+        // Accepted for processing; per-order results are published to order-import-results
+        OrderImportJob job = orderImportService.submit(file, authToken, authentication.getName());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SYSTEM')")
+    public ResponseEntity<OrderImportJob> getImport(@PathVariable String jobId) {
+        return ResponseEntity.ok(orderImportService.getJob(jobId));
+    }
+}
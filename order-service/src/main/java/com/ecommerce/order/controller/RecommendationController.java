@@ -0,0 +1,42 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.order.recommendation.ProductRecommendation;
+import com.ecommerce.order.service.RecommendationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/orders/recommendations")
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationController {
+
+    private final RecommendationService recommendationService;
+
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<List<ProductRecommendation>> getFrequentlyBoughtTogether(
+            @PathVariable String productId,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.debug("Fetching frequently bought together for product: {}", productId);
+        return ResponseEntity.ok(recommendationService.getFrequentlyBoughtTogether(productId, limit));
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildFromHistory() {
+        log.info("Rebuilding recommendation index from order history");
+        return ResponseEntity.ok(recommendationService.rebuildFromHistory());
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<Map<String, Object>> getIndexStats() {
+        return ResponseEntity.ok(recommendationService.getIndexStats());
+    }
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a bulk order import, one row of {@code order_import_jobs}. Counters are
+ * updated after every chunk; per-order outcomes go to Kafka as {@link OrderImportResult}s.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderImportJob {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private String id;
+
+    private String fileName;
+
+    private String submittedBy;
+
+    private String status;
+
+    private long linesRead;
+
+    private long ordersAccepted;
+
+    private long ordersRejected;
+
+    private long ordersFailed;
+
+    private String error;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.entity.OrderItem;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One line of a bulk order import file: a JSON object per line, with items in the same shape
+ * as {@code POST /orders}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderImportLine {
+
+    // The partner's own ID for the order, echoed back in its result
+    private String externalReference;
+
+    private String customerId;
+
+    private String customerEmail;
+
+    private String shippingAddress;
+
+    private String billingAddress;
+
+    private String paymentMethod;
+
+    private String notes;
+
+    private List<OrderItem> items;
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one line of a bulk order import, published to {@code order-import-results}
+ * keyed by job ID. {@code ACCEPTED} orders have their stock reserved and a pending payment;
+ * {@code REJECTED} lines were invalid or out of stock; {@code FAILED} lines hit an error and
+ * may be resubmitted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderImportResult {
+
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    private String jobId;
+
+    private int lineNumber;
+
+    private String externalReference;
+
+    private String status;
+
+    private String orderId;
+
+    private String orderNumber;
+
+    private String paymentId;
+
+    private String reason;
+}
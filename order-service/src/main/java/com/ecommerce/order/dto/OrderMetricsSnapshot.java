@@ -0,0 +1,48 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.order.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Order activity over {@code [start, end)}: orders placed, their gross value, the average
+ * basket and how many orders moved into each status.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderMetricsSnapshot {
+
+    private Instant start;
+
+    private Instant end;
+
+    private long orders;
+
+    private Money gmv;
+
+    private Money averageBasket;
+
+    private Map<OrderStatus, Long> statusTransitions;
+
+    public static OrderMetricsSnapshot of(Instant start, Instant end, long orders, long gmvMinorUnits,
+                                          Map<OrderStatus, Long> statusTransitions) {
+        // Average basket is rounded half up to the minor unit
+        long average = orders > 0 ? (gmvMinorUnits + orders / 2) / orders : 0;
+        return OrderMetricsSnapshot.builder()
+                .start(start)
+                .end(end)
+                .orders(orders)
+                .gmv(Money.ofMinor(gmvMinorUnits, Money.DEFAULT_CURRENCY))
+                .averageBasket(Money.ofMinor(average, Money.DEFAULT_CURRENCY))
+                .statusTransitions(statusTransitions)
+                .build();
+    }
+}
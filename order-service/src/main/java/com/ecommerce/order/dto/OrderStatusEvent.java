@@ -0,0 +1,33 @@
+package com.ecommerce.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order's status after a change, as pushed to {@code GET /orders/{orderId}/events}
+ * subscribers. {@code eventId} is the Kafka offset of the change on the
+ * {@code order-status-changed} topic, which is keyed by order ID, so IDs increase per order;
+ * it is null for a snapshot read from the database.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusEvent {
+
+    private Long eventId;
+
+    private String orderId;
+
+    private String orderNumber;
+
+    private String status;
+
+    private String paymentStatus;
+
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.common.dto.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the {@code order_summaries} read model, enough to render an order history
+ * list without loading the order or its items.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+
+    private String orderId;
+
+    private String customerId;
+
+    private String orderNumber;
+
+    private String status;
+
+    private String paymentStatus;
+
+    private int itemCount;
+
+    private int totalQuantity;
+
+    private String firstItemName;
+
+    private Money totalAmount;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryPage {
+
+    private List<OrderSummary> orders;
+
+    // Pass back as the cursor parameter for the next page; null on the last page
+    private String nextCursor;
+
+    private boolean hasMore;
+}
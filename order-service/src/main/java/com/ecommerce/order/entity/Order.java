@@ -1,5 +1,8 @@
 package com.ecommerce.order.entity;
 
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.common.dto.money.MoneyConverter;
+import com.ecommerce.common.utils.id.TimeOrderedId;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -12,7 +15,6 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,10 +29,11 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private String id;
 
-    @Column(name = "order_number", unique = true, nullable = false)
+    // Unique per month of created_at in the partitioned table; Snowflake order numbers never repeat
+    @Column(name = "order_number", nullable = false)
     private String orderNumber;
 
     @Column(name = "customer_id", nullable = false)
@@ -49,22 +52,27 @@ public class Order {
     private List<OrderItem> items = new ArrayList<>();
 
     @Column(name = "subtotal", nullable = false)
-    private BigDecimal subtotal;
+    @Convert(converter = MoneyConverter.class)
+    private Money subtotal;
 
     @Column(name = "tax_amount")
+    @Convert(converter = MoneyConverter.class)
     @Builder.Default
-    private BigDecimal taxAmount = BigDecimal.ZERO;
+    private Money taxAmount = Money.zero();
 
     @Column(name = "shipping_amount")
+    @Convert(converter = MoneyConverter.class)
     @Builder.Default
-    private BigDecimal shippingAmount = BigDecimal.ZERO;
+    private Money shippingAmount = Money.zero();
 
     @Column(name = "discount_amount")
+    @Convert(converter = MoneyConverter.class)
     @Builder.Default
-    private BigDecimal discountAmount = BigDecimal.ZERO;
+    private Money discountAmount = Money.zero();
 
     @Column(name = "total_amount", nullable = false)
-    private BigDecimal totalAmount;
+    @Convert(converter = MoneyConverter.class)
+    private Money totalAmount;
 
     @Column(name = "payment_id")
     private String paymentId;
@@ -112,10 +120,10 @@ public class Order {
     @PreUpdate
     private void calculateTotalAmount() {
         if (subtotal != null) {
-            BigDecimal total = subtotal;
-            if (taxAmount != null) total = total.add(taxAmount);
-            if (shippingAmount != null) total = total.add(shippingAmount);
-            if (discountAmount != null) total = total.subtract(discountAmount);
+            Money total = subtotal;
+            if (taxAmount != null) total = total.plus(taxAmount);
+            if (shippingAmount != null) total = total.plus(shippingAmount);
+            if (discountAmount != null) total = total.minus(discountAmount);
             this.totalAmount = total;
         }
     }
@@ -1,5 +1,8 @@
 package com.ecommerce.order.entity;
 
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.common.dto.money.MoneyConverter;
+import com.ecommerce.common.utils.id.TimeOrderedId;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -10,7 +13,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "order_items")
@@ -21,14 +24,20 @@ import java.math.BigDecimal;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private String id;
 
+    // The database key is (order_id, order_created_at), see V5__partition_orders_by_month.sql
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "order_id", nullable = false)
+    @JoinColumn(name = "order_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @JsonIgnore
     private Order order;
 
+    // Partition key: the owning order's created_at, so items land in the same month as their order
+    @Column(name = "order_created_at", nullable = false, updatable = false)
+    @JsonIgnore
+    private LocalDateTime orderCreatedAt;
+
     @Column(name = "product_id", nullable = false)
     @NotBlank(message = "Product ID is required")
     private String productId;
@@ -45,33 +54,43 @@ public class OrderItem {
     private Integer quantity;
 
     @Column(name = "unit_price", nullable = false)
+    @Convert(converter = MoneyConverter.class)
     @NotNull(message = "Unit price is required")
-    @Positive(message = "Unit price must be positive")
-    private BigDecimal unitPrice;
+    private Money unitPrice;
 
     @Column(name = "total_price", nullable = false)
+    @Convert(converter = MoneyConverter.class)
     @NotNull(message = "Total price is required")
-    @Positive(message = "Total price must be positive")
-    private BigDecimal totalPrice;
+    private Money totalPrice;
 
     @Column(name = "discount_amount")
+    @Convert(converter = MoneyConverter.class)
     @Builder.Default
-    private BigDecimal discountAmount = BigDecimal.ZERO;
+    private Money discountAmount = Money.zero();
 
     @Column(name = "tax_amount")
+    @Convert(converter = MoneyConverter.class)
     @Builder.Default
-    private BigDecimal taxAmount = BigDecimal.ZERO;
+    private Money taxAmount = Money.zero();
 
     @PrePersist
+    private void prePersist() {
+        // The order is persisted first, so auditing has already set its created_at
+        if (orderCreatedAt == null && order != null) {
+            orderCreatedAt = order.getCreatedAt();
+        }
+        calculateTotalPrice();
+    }
+
     @PreUpdate
     private void calculateTotalPrice() {
         if (quantity != null && unitPrice != null) {
-            BigDecimal subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            Money subtotal = unitPrice.times(quantity);
             if (discountAmount != null) {
-                subtotal = subtotal.subtract(discountAmount);
+                subtotal = subtotal.minus(discountAmount);
             }
             if (taxAmount != null) {
-                subtotal = subtotal.add(taxAmount);
+                subtotal = subtotal.plus(taxAmount);
             }
             this.totalPrice = subtotal;
         }
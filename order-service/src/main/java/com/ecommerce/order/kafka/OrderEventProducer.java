@@ -1,5 +1,6 @@
 package com.ecommerce.order.kafka;
 
+import com.ecommerce.order.dto.OrderImportResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -21,6 +22,8 @@ public class OrderEventProducer {
     private static final String ORDER_CANCELLED_TOPIC = "order-cancelled";
     private static final String INVENTORY_RESERVE_TOPIC = "inventory-reserve";
     private static final String PAYMENT_PROCESS_TOPIC = "payment-process";
+    public static final String ORDER_STATUS_CHANGED_TOPIC = "order-status-changed";
+    private static final String ORDER_IMPORT_RESULTS_TOPIC = "order-import-results";
 
     public void sendOrderCreatedEvent(Map<String, Object> orderEvent) {
         log.info("Sending order created event for order: {}", orderEvent.get("orderId"));
@@ -96,4 +99,31 @@ public class OrderEventProducer {
             }
         });
     }
-}
\ No newline at end of file
+
+    // Keyed by order ID, so one order's changes stay in order on a single partition
+    public void sendOrderStatusChangedEvent(Map<String, Object> statusEvent) {
+        log.debug("Sending order status changed event for order: {}", statusEvent.get("orderId"));
+        
+        CompletableFuture<SendResult<String, Object>> future = 
+            kafkaTemplate.send(ORDER_STATUS_CHANGED_TOPIC, statusEvent.get("orderId").toString(), statusEvent);
+        
+        future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.error("Failed to send order status changed event for order: {}", statusEvent.get("orderId"), ex);
+            }
+        });
+    }
+
+    // Keyed by job ID, so all of a job's results stay on one partition, in the order published
+    public void sendOrderImportResult(OrderImportResult importResult) {
+        CompletableFuture<SendResult<String, Object>> future = 
+            kafkaTemplate.send(ORDER_IMPORT_RESULTS_TOPIC, importResult.getJobId(), importResult);
+        
+        future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.error("Failed to send import result for job: {} line: {}",
+                        importResult.getJobId(), importResult.getLineNumber(), ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.order.kafka;
+
+import com.ecommerce.order.dto.OrderStatusEvent;
+import com.ecommerce.order.stream.OrderEventStreamRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Feeds order status changes to this instance's SSE subscribers. Each instance listens in a
+ * consumer group of its own, named after its host and port so a restart rejoins the same
+ * group, and every instance sees every change. Each assignment starts from the latest offset:
+ * changes from before startup are served as snapshots instead.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatusEventConsumer implements ConsumerSeekAware {
+
+    private final OrderEventStreamRegistry orderEventStreamRegistry;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(topics = OrderEventProducer.ORDER_STATUS_CHANGED_TOPIC,
+            groupId = "${order.events.consumer-group:order-status-stream-${HOSTNAME:localhost}-${server.port:8086}}",
+            properties = "auto.offset.reset=latest")
+    public void handleOrderStatusChanged(String message, @Header(KafkaHeaders.OFFSET) long offset) {
+        try {
+            OrderStatusEvent event = objectMapper.readValue(message, OrderStatusEvent.class);
+            event.setEventId(offset);
+            orderEventStreamRegistry.publish(event);
+        } catch (Exception e) {
+            log.error("Error processing order status changed event: {}", e.getMessage(), e);
+        }
+    }
+
+    // Offsets committed before a restart would replay changes the snapshots already cover
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToEnd(assignments.keySet());
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.order.kafka;
 
+import com.ecommerce.common.utils.kafka.EventProcessingException;
 import com.ecommerce.order.entity.OrderStatus;
 import com.ecommerce.order.service.OrderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -38,7 +39,7 @@ public class PaymentEventConsumer {
             }
             
         } catch (Exception e) {
-            log.error("Error processing payment completed event: {}", e.getMessage(), e);
+            throw new EventProcessingException("Error processing payment completed event", e);
         }
     }
 
@@ -60,7 +61,7 @@ public class PaymentEventConsumer {
             // TODO: Trigger inventory release for failed payment
             
         } catch (Exception e) {
-            log.error("Error processing payment failed event: {}", e.getMessage(), e);
+            throw new EventProcessingException("Error processing payment failed event", e);
         }
     }
 
@@ -76,7 +77,7 @@ public class PaymentEventConsumer {
             orderService.updateOrderStatus(orderId, OrderStatus.INVENTORY_RESERVED);
             
         } catch (Exception e) {
-            log.error("Error processing inventory reserved event: {}", e.getMessage(), e);
+            throw new EventProcessingException("Error processing inventory reserved event", e);
         }
     }
 
@@ -93,7 +94,7 @@ public class PaymentEventConsumer {
             orderService.updateOrderStatus(orderId, OrderStatus.INVENTORY_FAILED);
             
         } catch (Exception e) {
-            log.error("Error processing inventory failed event: {}", e.getMessage(), e);
+            throw new EventProcessingException("Error processing inventory failed event", e);
         }
     }
 
@@ -112,7 +113,7 @@ public class PaymentEventConsumer {
             // TODO: Update tracking number in order
             
         } catch (Exception e) {
-            log.error("Error processing shipment created event: {}", e.getMessage(), e);
+            throw new EventProcessingException("Error processing shipment created event", e);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.ecommerce.order.kafka;
+
+import com.ecommerce.common.utils.kafka.EventProcessingException;
+import com.ecommerce.order.service.RecommendationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationEventConsumer {
+
+    private final RecommendationService recommendationService;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(topics = "order-created", groupId = "order-service-recommendations")
+    public void handleOrderCreated(String message) {
+        try {
+            Map<String, Object> event = objectMapper.readValue(message, Map.class);
+            List<Map<String, Object>> items = (List<Map<String, Object>>) event.get("items");
+            if (items == null || items.size() < 2) {
+                return;
+            }
+
+            List<String> productIds = new ArrayList<>(items.size());
+            for (Map<String, Object> item : items) {
+                Object productId = item.get("productId");
+                if (productId != null) {
+                    productIds.add(productId.toString());
+                }
+            }
+
+            recommendationService.recordOrder((String) event.get("orderId"), productIds);
+            log.debug("Recorded {} products from order {} in recommendation index", productIds.size(), event.get("orderId"));
+
+        } catch (Exception e) {
+            throw new EventProcessingException("Error updating recommendations from order created event", e);
+        }
+    }
+}
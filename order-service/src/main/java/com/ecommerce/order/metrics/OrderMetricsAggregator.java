@@ -0,0 +1,170 @@
+package com.ecommerce.order.metrics;
+
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.order.dto.OrderMetricsSnapshot;
+import com.ecommerce.order.entity.OrderStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live order metrics kept in memory, so dashboards never have to aggregate over the orders
+ * table: orders placed, GMV, average basket and status transitions, in a ring of per-second
+ * buckets (the last few minutes) and a ring of per-minute buckets (the last few hours).
+ * {@link com.ecommerce.order.service.OrderService} feeds it after each commit; the minute
+ * buckets are also rolled up into {@code order_metrics_hourly} by
+ * {@link com.ecommerce.order.service.OrderMetricsService}.
+ *
+ * <p>Counts are per instance. GMV covers orders in {@link Money#DEFAULT_CURRENCY} only.
+ */
+@Component
+public class OrderMetricsAggregator {
+
+    private static final Duration SECOND = Duration.ofSeconds(1);
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+
+    private final TimeBucketRing seconds;
+    private final TimeBucketRing minutes;
+
+    public OrderMetricsAggregator(MeterRegistry meterRegistry,
+                                  @Value("${order.metrics.second-buckets:300}") int secondBuckets,
+                                  @Value("${order.metrics.minute-buckets:180}") int minuteBuckets) {
+        this.seconds = new TimeBucketRing(SECOND.toMillis(), secondBuckets);
+        this.minutes = new TimeBucketRing(MINUTE.toMillis(), minuteBuckets);
+        registerGauges(meterRegistry);
+    }
+
+    public void recordOrderCreated(Money totalAmount) {
+        recordOrderCreated(totalAmount, System.currentTimeMillis());
+    }
+
+    public void recordStatusChange(OrderStatus to) {
+        recordStatusChange(to, System.currentTimeMillis());
+    }
+
+    // A new order also counts as a transition into PENDING
+    void recordOrderCreated(Money totalAmount, long epochMillis) {
+        long minorUnits = 0;
+        if (totalAmount != null && Money.DEFAULT_CURRENCY.equals(totalAmount.getCurrency())) {
+            minorUnits = totalAmount.getMinorUnits();
+        }
+        for (TimeBucketRing ring : List.of(seconds, minutes)) {
+            OrderMetricsBucket bucket = ring.bucketAt(epochMillis);
+            if (bucket != null) {
+                bucket.recordOrder(minorUnits);
+            }
+        }
+        recordStatusChange(OrderStatus.PENDING, epochMillis);
+    }
+
+    void recordStatusChange(OrderStatus to, long epochMillis) {
+        for (TimeBucketRing ring : List.of(seconds, minutes)) {
+            OrderMetricsBucket bucket = ring.bucketAt(epochMillis);
+            if (bucket != null) {
+                bucket.recordTransition(to);
+            }
+        }
+    }
+
+    /**
+     * Totals over the trailing {@code length}, including the current partial second or minute.
+     * Windows longer than the per-second ring are summed from minute buckets.
+     */
+    public OrderMetricsSnapshot window(Duration length) {
+        return window(length, System.currentTimeMillis());
+    }
+
+    OrderMetricsSnapshot window(Duration length, long nowMillis) {
+        TimeBucketRing ring = length.compareTo(seconds.span()) <= 0 ? seconds : minutes;
+        long end = ring.startOf(nowMillis) + ring.getWidthMillis();
+        long start = end - Math.max(length.toMillis(), ring.getWidthMillis());
+        return summarize(ring.buckets(start, end), start, end);
+    }
+
+    /**
+     * One snapshot per second for the last {@code count} seconds, oldest first.
+     */
+    public List<OrderMetricsSnapshot> perSecond(int count) {
+        return series(seconds, Math.min(count, seconds.size()), System.currentTimeMillis());
+    }
+
+    /**
+     * One snapshot per minute for the last {@code count} minutes, oldest first.
+     */
+    public List<OrderMetricsSnapshot> perMinute(int count) {
+        return series(minutes, Math.min(count, minutes.size()), System.currentTimeMillis());
+    }
+
+    /**
+     * Totals for the hour starting at {@code hourStart}, from whatever minute buckets of it are
+     * still in the ring.
+     */
+    public OrderMetricsSnapshot hour(Instant hourStart) {
+        long start = hourStart.toEpochMilli();
+        long end = start + Duration.ofHours(1).toMillis();
+        return summarize(minutes.buckets(start, end), start, end);
+    }
+
+    private List<OrderMetricsSnapshot> series(TimeBucketRing ring, int count, long nowMillis) {
+        long width = ring.getWidthMillis();
+        long end = ring.startOf(nowMillis) + width;
+        long start = end - count * width;
+        Map<Long, OrderMetricsBucket> byStart = new HashMap<>();
+        for (OrderMetricsBucket bucket : ring.buckets(start, end)) {
+            byStart.put(bucket.getStartMillis(), bucket);
+        }
+        List<OrderMetricsSnapshot> series = new ArrayList<>(count);
+        for (long bucketStart = start; bucketStart < end; bucketStart += width) {
+            OrderMetricsBucket bucket = byStart.get(bucketStart);
+            series.add(summarize(bucket != null ? List.of(bucket) : List.of(), bucketStart, bucketStart + width));
+        }
+        return series;
+    }
+
+    static OrderMetricsSnapshot summarize(List<OrderMetricsBucket> buckets, long startMillis, long endMillis) {
+        long[] totals = OrderMetricsBucket.emptyTotals();
+        for (OrderMetricsBucket bucket : buckets) {
+            bucket.addTo(totals);
+        }
+        Map<OrderStatus, Long> transitions = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            long count = totals[2 + status.ordinal()];
+            if (count > 0) {
+                transitions.put(status, count);
+            }
+        }
+        return OrderMetricsSnapshot.of(Instant.ofEpochMilli(startMillis), Instant.ofEpochMilli(endMillis),
+                totals[0], totals[1], transitions);
+    }
+
+    private void registerGauges(MeterRegistry meterRegistry) {
+        Gauge.builder("orders.last_minute.placed", this, a -> a.window(MINUTE).getOrders())
+                .description("Orders placed in the last minute on this instance")
+                .register(meterRegistry);
+        Gauge.builder("orders.last_minute.gmv", this, a -> a.window(MINUTE).getGmv().toBigDecimal().doubleValue())
+                .description("Gross value of orders placed in the last minute on this instance")
+                .baseUnit(Money.DEFAULT_CURRENCY)
+                .register(meterRegistry);
+        Gauge.builder("orders.last_minute.average_basket", this,
+                        a -> a.window(MINUTE).getAverageBasket().toBigDecimal().doubleValue())
+                .description("Average order value in the last minute on this instance")
+                .baseUnit(Money.DEFAULT_CURRENCY)
+                .register(meterRegistry);
+        for (OrderStatus status : OrderStatus.values()) {
+            Gauge.builder("orders.last_minute.transitions", this,
+                            a -> a.window(MINUTE).getStatusTransitions().getOrDefault(status, 0L))
+                    .description("Orders that moved into a status in the last minute on this instance")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+}
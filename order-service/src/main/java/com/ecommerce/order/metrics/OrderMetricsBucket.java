@@ -0,0 +1,55 @@
+package com.ecommerce.order.metrics;
+
+import com.ecommerce.order.entity.OrderStatus;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Order activity within one time bucket. Counters are {@link LongAdder}s, so concurrent
+ * checkouts update a bucket without contending on a shared value.
+ */
+public final class OrderMetricsBucket {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final long startMillis;
+    private final LongAdder orders = new LongAdder();
+    private final LongAdder gmvMinorUnits = new LongAdder();
+    private final LongAdder[] transitions = new LongAdder[STATUSES.length];
+
+    OrderMetricsBucket(long startMillis) {
+        this.startMillis = startMillis;
+        for (int i = 0; i < transitions.length; i++) {
+            transitions[i] = new LongAdder();
+        }
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    void recordOrder(long totalMinorUnits) {
+        orders.increment();
+        gmvMinorUnits.add(totalMinorUnits);
+    }
+
+    void recordTransition(OrderStatus to) {
+        transitions[to.ordinal()].increment();
+    }
+
+    /**
+     * Adds this bucket's counts to {@code totals}: orders, GMV, then one slot per
+     * {@link OrderStatus} ordinal.
+     */
+    void addTo(long[] totals) {
+        totals[0] += orders.sum();
+        totals[1] += gmvMinorUnits.sum();
+        for (int i = 0; i < transitions.length; i++) {
+            totals[2 + i] += transitions[i].sum();
+        }
+    }
+
+    static long[] emptyTotals() {
+        return new long[2 + STATUSES.length];
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.order.metrics;
+
+import com.ecommerce.order.dto.OrderMetricsSnapshot;
+import com.ecommerce.order.service.OrderMetricsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/ordermetrics}: live order metrics of this instance from memory, and
+ * {@code /actuator/ordermetrics/{hours}}: hourly totals across all instances from
+ * {@code order_metrics_hourly}. Neither reads the orders table.
+ */
+@Component
+@Endpoint(id = "ordermetrics")
+@RequiredArgsConstructor
+public class OrderMetricsEndpoint {
+
+    private final OrderMetricsAggregator orderMetricsAggregator;
+    private final OrderMetricsService orderMetricsService;
+
+    @ReadOperation
+    public Map<String, Object> live() {
+        Map<String, Object> live = new LinkedHashMap<>();
+        live.put("lastMinute", orderMetricsAggregator.window(Duration.ofMinutes(1)));
+        live.put("lastHour", orderMetricsAggregator.window(Duration.ofHours(1)));
+        live.put("perSecond", orderMetricsAggregator.perSecond(60));
+        live.put("perMinute", orderMetricsAggregator.perMinute(60));
+        return live;
+    }
+
+    @ReadOperation
+    public List<OrderMetricsSnapshot> hourly(@Selector int hours) {
+        return orderMetricsService.getHourly(hours);
+    }
+}
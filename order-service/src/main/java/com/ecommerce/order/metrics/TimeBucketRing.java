@@ -0,0 +1,84 @@
+package com.ecommerce.order.metrics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed number of consecutive, equally wide time buckets stored round-robin: the bucket for
+ * a period reuses the slot of the period one full ring earlier. Writers never lock; the first
+ * writer of a new period swaps a fresh bucket into the slot with a compare-and-set and the
+ * others pick it up, so the only allocation is one bucket per period.
+ */
+public class TimeBucketRing {
+
+    private final long widthMillis;
+    private final AtomicReferenceArray<OrderMetricsBucket> slots;
+
+    public TimeBucketRing(long widthMillis, int size) {
+        if (widthMillis <= 0 || size <= 0) {
+            throw new IllegalArgumentException("Bucket width and ring size must be positive");
+        }
+        this.widthMillis = widthMillis;
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    public long getWidthMillis() {
+        return widthMillis;
+    }
+
+    public int size() {
+        return slots.length();
+    }
+
+    /**
+     * How far back the ring reaches.
+     */
+    public Duration span() {
+        return Duration.ofMillis(widthMillis * slots.length());
+    }
+
+    /**
+     * The bucket covering {@code epochMillis}, or null if that period has already been
+     * overwritten by a newer one.
+     */
+    public OrderMetricsBucket bucketAt(long epochMillis) {
+        long start = startOf(epochMillis);
+        int index = (int) Math.floorMod(start / widthMillis, (long) slots.length());
+        while (true) {
+            OrderMetricsBucket current = slots.get(index);
+            if (current != null && current.getStartMillis() == start) {
+                return current;
+            }
+            if (current != null && current.getStartMillis() > start) {
+                return null;
+            }
+            OrderMetricsBucket fresh = new OrderMetricsBucket(start);
+            if (slots.compareAndSet(index, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * Buckets starting in {@code [fromMillis, toMillis)} that are still in the ring, oldest
+     * first. Periods with no activity have no bucket.
+     */
+    public List<OrderMetricsBucket> buckets(long fromMillis, long toMillis) {
+        List<OrderMetricsBucket> result = new ArrayList<>();
+        for (int i = 0; i < slots.length(); i++) {
+            OrderMetricsBucket bucket = slots.get(i);
+            if (bucket != null && bucket.getStartMillis() >= fromMillis && bucket.getStartMillis() < toMillis) {
+                result.add(bucket);
+            }
+        }
+        result.sort(Comparator.comparingLong(OrderMetricsBucket::getStartMillis));
+        return result;
+    }
+
+    public long startOf(long epochMillis) {
+        return epochMillis - Math.floorMod(epochMillis, widthMillis);
+    }
+}
@@ -0,0 +1,142 @@
+package com.ecommerce.order.recommendation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Incrementally maintained "bought together" matrix. Rows are indexed by interned product
+ * handles and hold a bounded {@link NeighbourSketch}, so memory is capped at
+ * {@code maxProducts * sketchCapacity} entries regardless of order volume.
+ */
+public class CoOccurrenceIndex {
+
+    private final int sketchCapacity;
+    private final int maxProducts;
+    private final int maxItemsPerOrder;
+    private final ProductIdDictionary dictionary;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private NeighbourSketch[] rows;
+    private long ordersRecorded;
+    private long productsDropped;
+
+    public CoOccurrenceIndex(int sketchCapacity, int maxProducts, int maxItemsPerOrder) {
+        this.sketchCapacity = sketchCapacity;
+        this.maxProducts = maxProducts;
+        this.maxItemsPerOrder = maxItemsPerOrder;
+        this.dictionary = new ProductIdDictionary(Math.min(maxProducts, 1024));
+        this.rows = new NeighbourSketch[Math.min(maxProducts, 1024)];
+    }
+
+    /**
+     * Adds one co-occurrence for every distinct product pair in the order.
+     */
+    public void recordOrder(Collection<String> productIds) {
+        if (productIds == null || productIds.size() < 2) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int[] handles = new int[Math.min(productIds.size(), maxItemsPerOrder)];
+            int count = 0;
+            for (String productId : productIds) {
+                if (count == handles.length) {
+                    break;
+                }
+                if (productId == null) {
+                    continue;
+                }
+                int handle = dictionary.get(productId);
+                if (handle < 0) {
+                    if (dictionary.size() >= maxProducts) {
+                        productsDropped++;
+                        continue;
+                    }
+                    handle = dictionary.getOrAssign(productId);
+                }
+                handles[count++] = handle;
+            }
+            Arrays.sort(handles, 0, count);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (i == 0 || handles[i] != handles[i - 1]) {
+                    handles[distinct++] = handles[i];
+                }
+            }
+            for (int i = 0; i < distinct; i++) {
+                NeighbourSketch row = rowFor(handles[i]);
+                for (int j = 0; j < distinct; j++) {
+                    if (i != j) {
+                        row.increment(handles[j]);
+                    }
+                }
+            }
+            ordersRecorded++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ProductRecommendation> topNeighbours(String productId, int limit) {
+        lock.readLock().lock();
+        try {
+            int handle = dictionary.get(productId);
+            if (handle < 0 || handle >= rows.length || rows[handle] == null || limit <= 0) {
+                return Collections.emptyList();
+            }
+            int[] neighbours = new int[Math.min(limit, sketchCapacity)];
+            int[] counts = new int[neighbours.length];
+            int n = rows[handle].top(neighbours.length, neighbours, counts);
+            List<ProductRecommendation> result = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                result.add(new ProductRecommendation(dictionary.productIdOf(neighbours[i]), counts[i]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getProductCount() {
+        lock.readLock().lock();
+        try {
+            return dictionary.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getOrdersRecorded() {
+        lock.readLock().lock();
+        try {
+            return ordersRecorded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getProductsDropped() {
+        lock.readLock().lock();
+        try {
+            return productsDropped;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private NeighbourSketch rowFor(int handle) {
+        if (handle >= rows.length) {
+            rows = Arrays.copyOf(rows, Math.min(maxProducts, Math.max(rows.length * 2, handle + 1)));
+        }
+        NeighbourSketch row = rows[handle];
+        if (row == null) {
+            row = new NeighbourSketch(sketchCapacity);
+            rows[handle] = row;
+        }
+        return row;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecommerce.order.recommendation;
+
+/**
+ * Fixed-capacity row of the co-occurrence matrix. Uses the Space-Saving heavy-hitters
+ * scheme: when the row is full, the weakest neighbour is replaced and the newcomer inherits
+ * its count as an error bound. Ranking uses the guaranteed count (count minus error), so
+ * long-tail churn cannot outrank genuinely frequent pairs.
+ */
+final class NeighbourSketch {
+
+    private final int[] neighbours;
+    private final int[] counts;
+    private final int[] errors;
+    private int size;
+
+    NeighbourSketch(int capacity) {
+        this.neighbours = new int[capacity];
+        this.counts = new int[capacity];
+        this.errors = new int[capacity];
+    }
+
+    void increment(int neighbour) {
+        for (int i = 0; i < size; i++) {
+            if (neighbours[i] == neighbour) {
+                counts[i]++;
+                return;
+            }
+        }
+        if (size < neighbours.length) {
+            neighbours[size] = neighbour;
+            counts[size] = 1;
+            errors[size] = 0;
+            size++;
+            return;
+        }
+        int weakest = 0;
+        for (int i = 1; i < size; i++) {
+            if (counts[i] < counts[weakest]) {
+                weakest = i;
+            }
+        }
+        neighbours[weakest] = neighbour;
+        errors[weakest] = counts[weakest];
+        counts[weakest]++;
+    }
+
+    /**
+     * Copies up to {@code limit} neighbours into the output arrays, strongest guaranteed
+     * count first.
+     *
+     * @return number of entries written
+     */
+    int top(int limit, int[] outNeighbours, int[] outCounts) {
+        int n = Math.min(limit, size);
+        int[] ids = new int[size];
+        int[] scores = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = neighbours[i];
+            scores[i] = counts[i] - errors[i];
+        }
+        for (int i = 0; i < n; i++) {
+            int best = i;
+            for (int j = i + 1; j < size; j++) {
+                if (scores[j] > scores[best]) {
+                    best = j;
+                }
+            }
+            outNeighbours[i] = ids[best];
+            outCounts[i] = scores[best];
+            ids[best] = ids[i];
+            scores[best] = scores[i];
+        }
+        return n;
+    }
+
+    int size() {
+        return size;
+    }
+}
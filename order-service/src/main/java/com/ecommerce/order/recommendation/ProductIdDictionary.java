@@ -0,0 +1,91 @@
+package com.ecommerce.order.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Interns product IDs to dense int handles so the co-occurrence matrix can be keyed by
+ * primitives. Open addressing with linear probing; not thread-safe, callers guard access.
+ */
+final class ProductIdDictionary {
+
+    private static final int EMPTY = -1;
+
+    private String[] keys;
+    private int[] handles;
+    private String[] reverse;
+    private int size;
+    private int mask;
+
+    ProductIdDictionary(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+        this.keys = new String[capacity];
+        this.handles = new int[capacity];
+        Arrays.fill(handles, EMPTY);
+        this.reverse = new String[Math.max(16, expectedSize)];
+        this.mask = capacity - 1;
+    }
+
+    int get(String productId) {
+        int slot = mix(productId.hashCode()) & mask;
+        while (handles[slot] != EMPTY) {
+            if (keys[slot].equals(productId)) {
+                return handles[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    int getOrAssign(String productId) {
+        int slot = mix(productId.hashCode()) & mask;
+        while (handles[slot] != EMPTY) {
+            if (keys[slot].equals(productId)) {
+                return handles[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        int handle = size++;
+        keys[slot] = productId;
+        handles[slot] = handle;
+        if (handle == reverse.length) {
+            reverse = Arrays.copyOf(reverse, reverse.length * 2);
+        }
+        reverse[handle] = productId;
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return handle;
+    }
+
+    String productIdOf(int handle) {
+        return reverse[handle];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash() {
+        String[] oldKeys = keys;
+        int[] oldHandles = handles;
+        keys = new String[oldKeys.length * 2];
+        handles = new int[oldKeys.length * 2];
+        Arrays.fill(handles, EMPTY);
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHandles[i] != EMPTY) {
+                int slot = mix(oldKeys[i].hashCode()) & mask;
+                while (handles[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                handles[slot] = oldHandles[i];
+            }
+        }
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.order.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRecommendation {
+
+    private String productId;
+
+    private int coPurchaseCount;
+}
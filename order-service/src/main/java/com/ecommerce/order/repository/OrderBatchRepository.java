@@ -0,0 +1,58 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.Order;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Batched JDBC updates of many orders at once, for bulk imports. Each statement bounds
+ * {@code created_at} so it only touches the order's monthly partition, and none of them load
+ * the orders or their items.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderBatchRepository {
+
+    private static final String UPDATE_PAYMENT_SQL =
+            "UPDATE orders SET payment_id = ?, payment_status = ?, updated_at = ? " +
+            "WHERE id = ? AND created_at BETWEEN ? AND ?";
+
+    private static final String CANCEL_SQL =
+            "UPDATE orders SET status = ?, cancelled_at = ?, notes = ?, updated_at = ? " +
+            "WHERE id = ? AND created_at BETWEEN ? AND ?";
+
+    // The stored created_at may be rounded to the database's precision
+    private static final Duration CREATED_AT_MARGIN = Duration.ofSeconds(1);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void updatePayments(List<Order> orders) {
+        jdbcTemplate.batchUpdate(UPDATE_PAYMENT_SQL, orders.stream()
+                .map(order -> new Object[]{
+                        order.getPaymentId(),
+                        order.getPaymentStatus(),
+                        Timestamp.valueOf(order.getUpdatedAt()),
+                        order.getId(),
+                        Timestamp.valueOf(order.getCreatedAt().minus(CREATED_AT_MARGIN)),
+                        Timestamp.valueOf(order.getCreatedAt().plus(CREATED_AT_MARGIN))})
+                .toList());
+    }
+
+    public void updateCancelled(List<Order> orders) {
+        jdbcTemplate.batchUpdate(CANCEL_SQL, orders.stream()
+                .map(order -> new Object[]{
+                        order.getStatus().name(),
+                        Timestamp.valueOf(order.getCancelledAt()),
+                        order.getNotes(),
+                        Timestamp.valueOf(order.getUpdatedAt()),
+                        order.getId(),
+                        Timestamp.valueOf(order.getCreatedAt().minus(CREATED_AT_MARGIN)),
+                        Timestamp.valueOf(order.getCreatedAt().plus(CREATED_AT_MARGIN))})
+                .toList());
+    }
+}
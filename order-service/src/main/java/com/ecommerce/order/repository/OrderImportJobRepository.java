@@ -0,0 +1,74 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.dto.OrderImportJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+/**
+ * JDBC access to {@code order_import_jobs}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderImportJobRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO order_import_jobs (id, file_name, submitted_by, status, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String MARK_RUNNING_SQL =
+            "UPDATE order_import_jobs SET status = 'RUNNING', started_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    // Increments rather than sets, so a chunk's counts are never lost to a concurrent read
+    private static final String ADD_PROGRESS_SQL =
+            "UPDATE order_import_jobs SET lines_read = lines_read + ?, orders_accepted = orders_accepted + ?, " +
+            "orders_rejected = orders_rejected + ?, orders_failed = orders_failed + ? WHERE id = ?";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE order_import_jobs SET status = ?, error = ?, completed_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String SELECT_SQL =
+            "SELECT id, file_name, submitted_by, status, lines_read, orders_accepted, orders_rejected, orders_failed, " +
+            "error, created_at, started_at, completed_at FROM order_import_jobs WHERE id = ?";
+
+    private static final RowMapper<OrderImportJob> JOB_MAPPER = (rs, rowNum) -> OrderImportJob.builder()
+            .id(rs.getString("id"))
+            .fileName(rs.getString("file_name"))
+            .submittedBy(rs.getString("submitted_by"))
+            .status(rs.getString("status"))
+            .linesRead(rs.getLong("lines_read"))
+            .ordersAccepted(rs.getLong("orders_accepted"))
+            .ordersRejected(rs.getLong("orders_rejected"))
+            .ordersFailed(rs.getLong("orders_failed"))
+            .error(rs.getString("error"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .startedAt(rs.getTimestamp("started_at") != null ? rs.getTimestamp("started_at").toLocalDateTime() : null)
+            .completedAt(rs.getTimestamp("completed_at") != null ? rs.getTimestamp("completed_at").toLocalDateTime() : null)
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(OrderImportJob job) {
+        jdbcTemplate.update(INSERT_SQL, job.getId(), job.getFileName(), job.getSubmittedBy(), job.getStatus(),
+                Timestamp.valueOf(job.getCreatedAt()));
+    }
+
+    public void markRunning(String jobId) {
+        jdbcTemplate.update(MARK_RUNNING_SQL, jobId);
+    }
+
+    public void addProgress(String jobId, long linesRead, long accepted, long rejected, long failed) {
+        jdbcTemplate.update(ADD_PROGRESS_SQL, linesRead, accepted, rejected, failed, jobId);
+    }
+
+    public void complete(String jobId, String status, String error) {
+        jdbcTemplate.update(COMPLETE_SQL, status, error, jobId);
+    }
+
+    public Optional<OrderImportJob> findById(String jobId) {
+        return jdbcTemplate.query(SELECT_SQL, JOB_MAPPER, jobId).stream().findFirst();
+    }
+}
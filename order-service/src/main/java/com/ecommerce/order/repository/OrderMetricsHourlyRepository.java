@@ -0,0 +1,106 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.order.dto.OrderMetricsSnapshot;
+import com.ecommerce.order.entity.OrderStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to {@code order_metrics_hourly}. Rows are written per instance and summed
+ * across instances on read.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class OrderMetricsHourlyRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO order_metrics_hourly (hour_start, instance_id, order_count, gmv, status_transitions, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?::jsonb, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (hour_start, instance_id) DO UPDATE SET order_count = EXCLUDED.order_count, " +
+            "gmv = EXCLUDED.gmv, status_transitions = EXCLUDED.status_transitions, updated_at = EXCLUDED.updated_at";
+
+    private static final String SELECT_SINCE_SQL =
+            "SELECT hour_start, order_count, gmv, status_transitions FROM order_metrics_hourly " +
+            "WHERE hour_start >= ? ORDER BY hour_start";
+
+    private static final TypeReference<Map<String, Long>> TRANSITIONS_TYPE = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public void upsert(String instanceId, OrderMetricsSnapshot hour) {
+        jdbcTemplate.update(UPSERT_SQL,
+                hour.getStart().atOffset(ZoneOffset.UTC),
+                instanceId,
+                hour.getOrders(),
+                hour.getGmv().toBigDecimal(),
+                toJson(hour.getStatusTransitions()));
+    }
+
+    /**
+     * Hourly totals from {@code from} onwards, oldest first, summed over all instances.
+     */
+    public List<OrderMetricsSnapshot> findSince(Instant from) {
+        Map<Instant, long[]> totals = new LinkedHashMap<>();
+        Map<Instant, Map<OrderStatus, Long>> transitions = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_SINCE_SQL, rs -> {
+            Instant hourStart = rs.getObject("hour_start", OffsetDateTime.class).toInstant();
+            long[] hour = totals.computeIfAbsent(hourStart, h -> new long[2]);
+            hour[0] += rs.getLong("order_count");
+            hour[1] += Money.of(rs.getBigDecimal("gmv")).getMinorUnits();
+            Map<OrderStatus, Long> hourTransitions =
+                    transitions.computeIfAbsent(hourStart, h -> new EnumMap<>(OrderStatus.class));
+            fromJson(hourStart, rs.getString("status_transitions"))
+                    .forEach((status, count) -> hourTransitions.merge(status, count, Long::sum));
+        }, from.atOffset(ZoneOffset.UTC));
+
+        List<OrderMetricsSnapshot> hours = new ArrayList<>(totals.size());
+        totals.forEach((hourStart, hour) -> hours.add(OrderMetricsSnapshot.of(hourStart,
+                hourStart.plus(Duration.ofHours(1)), hour[0], hour[1], transitions.get(hourStart))));
+        return hours;
+    }
+
+    private String toJson(Map<OrderStatus, Long> transitions) {
+        try {
+            return objectMapper.writeValueAsString(transitions);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize status transitions", e);
+        }
+    }
+
+    private Map<OrderStatus, Long> fromJson(Instant hourStart, String json) {
+        Map<OrderStatus, Long> transitions = new EnumMap<>(OrderStatus.class);
+        try {
+            objectMapper.readValue(json, TRANSITIONS_TYPE).forEach((status, count) -> {
+                // Statuses removed since the row was written are skipped
+                try {
+                    transitions.put(OrderStatus.valueOf(status), count);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipping {} transitions to unknown status {} in order metrics for hour {}",
+                            count, status, hourStart);
+                }
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read status transitions", e);
+        }
+        return transitions;
+    }
+}
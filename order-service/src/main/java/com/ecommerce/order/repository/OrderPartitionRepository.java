@@ -0,0 +1,121 @@
+package com.ecommerce.order.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC access to the monthly partitions of {@code orders} and {@code order_items}. A month's
+ * partitions are named {@code orders_yYYYYmMM} and {@code order_items_yYYYYmMM}; both are
+ * created by the {@code create_order_partitions} function from V5__partition_orders_by_month.sql.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderPartitionRepository {
+
+    public static final String ORDERS = "orders";
+    public static final String ORDER_ITEMS = "order_items";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("orders_y(\\d{4})m(\\d{2})");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes the maintenance lock for the current transaction, so only one instance creates or
+     * drops partitions at a time. Returns false if another instance holds it.
+     */
+    public boolean tryLockMaintenance() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('order-partition-maintenance'))", Boolean.class));
+    }
+
+    /**
+     * Creates the partitions for every month from {@code from} to {@code to} that does not have
+     * them yet, returning the number of months created.
+     */
+    public int createPartitions(YearMonth from, YearMonth to) {
+        Integer created = jdbcTemplate.queryForObject("SELECT create_order_partitions(?, ?)", Integer.class,
+                Date.valueOf(from.atDay(1)), Date.valueOf(to.atDay(1)));
+        return Objects.requireNonNullElse(created, 0);
+    }
+
+    public List<YearMonth> findPartitionMonths() {
+        return jdbcTemplate.queryForList(
+                        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = 'orders'::regclass", String.class)
+                .stream()
+                .map(PARTITION_NAME::matcher)
+                .filter(Matcher::matches)
+                .map(m -> YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))))
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Writes the rows of one month's partition of {@code table} to {@code out} as CSV with a
+     * header line, returning the number of rows written.
+     */
+    public long copyOut(String table, YearMonth month, OutputStream out) {
+        String partition = partitionName(table, month);
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut("COPY " + partition + " TO STDOUT WITH (FORMAT csv, HEADER)", out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return Objects.requireNonNullElse(rows, 0L);
+    }
+
+    /**
+     * Blocks writes to the month's orders partition until the transaction ends and returns
+     * whether any of its orders were modified after {@code since}.
+     */
+    public boolean lockAndCheckModifiedSince(YearMonth month, LocalDateTime since) {
+        String partition = partitionName(ORDERS, month);
+        jdbcTemplate.execute("LOCK TABLE " + partition + " IN SHARE MODE");
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + partition + " WHERE updated_at > ?)", Boolean.class,
+                Timestamp.valueOf(since)));
+    }
+
+    /**
+     * Detaches and drops the month's partitions. Items go first: their foreign key keeps the
+     * orders partition from being detached while they still reference it.
+     */
+    public void dropPartitions(YearMonth month) {
+        for (String table : List.of(ORDER_ITEMS, ORDERS)) {
+            String partition = partitionName(table, month);
+            jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+        }
+    }
+
+    public int deleteSummaries(YearMonth month) {
+        return jdbcTemplate.update("DELETE FROM order_summaries WHERE created_at >= ? AND created_at < ?",
+                Timestamp.valueOf(month.atDay(1).atStartOfDay()),
+                Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+    }
+
+    public static String partitionName(String table, YearMonth month) {
+        if (!ORDERS.equals(table) && !ORDER_ITEMS.equals(table)) {
+            throw new IllegalArgumentException("Not a partitioned order table: " + table);
+        }
+        return String.format("%s_y%04dm%02d", table, month.getYear(), month.getMonthValue());
+    }
+}
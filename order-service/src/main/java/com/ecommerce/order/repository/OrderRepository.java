@@ -18,6 +18,11 @@ public interface OrderRepository extends JpaRepository<Order, String> {
 
     Optional<Order> findByOrderNumber(String orderNumber);
 
+    // Bounding created_at lets PostgreSQL prune the lookup to the order's monthly partition
+    Optional<Order> findByIdAndCreatedAtBetween(String id, LocalDateTime from, LocalDateTime to);
+
+    Optional<Order> findByOrderNumberAndCreatedAtBetween(String orderNumber, LocalDateTime from, LocalDateTime to);
+
     Page<Order> findByCustomerId(String customerId, Pageable pageable);
 
     List<Order> findByCustomerIdOrderByCreatedAtDesc(String customerId);
@@ -35,8 +40,10 @@ public interface OrderRepository extends JpaRepository<Order, String> {
     @Query("SELECT COUNT(o) FROM Order o WHERE o.customerId = :customerId")
     Long countOrdersByCustomerId(@Param("customerId") String customerId);
 
-    @Query("SELECT o FROM Order o WHERE o.status = :status AND o.createdAt < :timestamp")
-    List<Order> findStaleOrdersByStatusAndCreatedBefore(@Param("status") OrderStatus status, @Param("timestamp") LocalDateTime timestamp);
+    @Query("SELECT o FROM Order o WHERE o.status = :status AND o.createdAt >= :since AND o.createdAt < :timestamp")
+    List<Order> findStaleOrdersByStatusAndCreatedBetween(@Param("status") OrderStatus status,
+                                                         @Param("since") LocalDateTime since,
+                                                         @Param("timestamp") LocalDateTime timestamp);
 
     @Query("SELECT o FROM Order o WHERE o.paymentId = :paymentId")
     Optional<Order> findByPaymentId(@Param("paymentId") String paymentId);
@@ -0,0 +1,91 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.order.dto.OrderSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC access to the {@code order_summaries} read model. Listing queries only touch columns
+ * in {@code idx_order_summaries_customer_keyset}, so keep them that way when adding fields.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderSummaryRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO order_summaries (order_id, customer_id, order_number, status, payment_status, item_count, " +
+            "total_quantity, first_item_name, total_amount, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (order_id) DO UPDATE SET status = EXCLUDED.status, payment_status = EXCLUDED.payment_status, " +
+            "item_count = EXCLUDED.item_count, total_quantity = EXCLUDED.total_quantity, " +
+            "first_item_name = EXCLUDED.first_item_name, total_amount = EXCLUDED.total_amount, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String SELECT_COLUMNS =
+            "SELECT order_id, customer_id, order_number, status, payment_status, item_count, total_quantity, " +
+            "first_item_name, total_amount, created_at FROM order_summaries ";
+
+    private static final String FIRST_PAGE_SQL = SELECT_COLUMNS +
+            "WHERE customer_id = ? ORDER BY created_at DESC, order_id DESC LIMIT ?";
+
+    private static final String NEXT_PAGE_SQL = SELECT_COLUMNS +
+            "WHERE customer_id = ? AND (created_at, order_id) < (?, ?) " +
+            "ORDER BY created_at DESC, order_id DESC LIMIT ?";
+
+    private static final RowMapper<OrderSummary> SUMMARY_MAPPER = (rs, rowNum) -> OrderSummary.builder()
+            .orderId(rs.getString("order_id"))
+            .customerId(rs.getString("customer_id"))
+            .orderNumber(rs.getString("order_number"))
+            .status(rs.getString("status"))
+            .paymentStatus(rs.getString("payment_status"))
+            .itemCount(rs.getInt("item_count"))
+            .totalQuantity(rs.getInt("total_quantity"))
+            .firstItemName(rs.getString("first_item_name"))
+            .totalAmount(Money.of(rs.getBigDecimal("total_amount")))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void upsert(OrderSummary summary) {
+        jdbcTemplate.update(UPSERT_SQL, upsertArgs(summary));
+    }
+
+    public void upsertAll(List<OrderSummary> summaries) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, summaries.stream().map(OrderSummaryRepository::upsertArgs).toList());
+    }
+
+    private static Object[] upsertArgs(OrderSummary summary) {
+        return new Object[]{
+                summary.getOrderId(),
+                summary.getCustomerId(),
+                summary.getOrderNumber(),
+                summary.getStatus(),
+                summary.getPaymentStatus(),
+                summary.getItemCount(),
+                summary.getTotalQuantity(),
+                summary.getFirstItemName(),
+                summary.getTotalAmount().toBigDecimal(),
+                Timestamp.valueOf(summary.getCreatedAt()),
+                summary.getUpdatedAt() != null ? Timestamp.valueOf(summary.getUpdatedAt()) : null};
+    }
+
+    /**
+     * Newest-first page of a customer's orders. Pass the created-at and ID of the last row of
+     * the previous page, or {@code null}s for the first page.
+     */
+    public List<OrderSummary> findByCustomer(String customerId, LocalDateTime beforeCreatedAt, String beforeOrderId, int limit) {
+        if (beforeCreatedAt == null) {
+            return jdbcTemplate.query(FIRST_PAGE_SQL, SUMMARY_MAPPER, customerId, limit);
+        }
+        return jdbcTemplate.query(NEXT_PAGE_SQL, SUMMARY_MAPPER,
+                customerId, Timestamp.valueOf(beforeCreatedAt), beforeOrderId, limit);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecommerce.order.resilience;
+
+import com.ecommerce.common.http.ServiceCallException;
+import com.ecommerce.common.http.ServiceHttpClient;
+import com.ecommerce.common.http.ServiceResponse;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Wraps calls to a remote dependency in its semaphore bulkhead and circuit breaker, both
+ * configured under {@code resilience4j.*.instances.<dependency>}. The bulkhead caps how many
+ * calls may be outstanding and rejects the rest at once instead of queueing them; the breaker
+ * stops calling a dependency that keeps failing or answering slowly. Neither ever parks a
+ * thread. 5xx responses count as failures; 4xx responses are answers and count as successes.
+ *
+ * <p>State, call and latency metrics come from Resilience4j's Micrometer binding; rejections
+ * are counted in {@code order.remote.rejected} by dependency and reason.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DependencyGuard {
+
+    public static final String INVENTORY = "inventory";
+    public static final String PAYMENT = "payment";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+
+    public <T> CompletableFuture<ServiceResponse<T>> call(String dependency,
+                                                          Supplier<CompletableFuture<ServiceResponse<T>>> call) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(dependency);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(dependency);
+
+        Supplier<CompletionStage<ServiceResponse<T>>> guarded = CircuitBreaker.decorateCompletionStage(
+                circuitBreaker, Bulkhead.decorateCompletionStage(bulkhead, () -> call.get().thenApply(response -> {
+                    if (response.statusCode() >= 500) {
+                        throw new ServiceCallException(dependency, response.statusCode(),
+                                dependency + " answered " + response.statusCode());
+                    }
+                    return response;
+                })));
+
+        return guarded.get().toCompletableFuture().whenComplete((response, error) -> {
+            if (error != null && isRejection(error)) {
+                String reason = ServiceHttpClient.unwrap(error) instanceof BulkheadFullException ? "bulkhead_full" : "circuit_open";
+                log.warn("Call to {} rejected: {}", dependency, reason);
+                Counter.builder("order.remote.rejected")
+                        .description("Remote calls refused without being sent")
+                        .tag("dependency", dependency)
+                        .tag("reason", reason)
+                        .register(meterRegistry)
+                        .increment();
+            }
+        });
+    }
+
+    /**
+     * Whether the call was refused locally by the breaker or bulkhead rather than failing remotely.
+     */
+    public static boolean isRejection(Throwable error) {
+        Throwable cause = ServiceHttpClient.unwrap(error);
+        return cause instanceof CallNotPermittedException || cause instanceof BulkheadFullException;
+    }
+}
@@ -0,0 +1,303 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.common.http.ServiceCallException;
+import com.ecommerce.common.http.ServiceHttpClient;
+import com.ecommerce.common.http.ServiceRequest;
+import com.ecommerce.common.http.ServiceResponse;
+import com.ecommerce.common.utils.exception.BusinessException;
+import com.ecommerce.common.utils.security.JwtTokenUtil;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Gathers what checkout needs from other services before an order is written: catalog
+ * prices, stock for every line and, when the order has no shipping address, the customer's
+ * default address. All calls are sent at once without blocking, so preparation takes as
+ * long as the slowest dependency rather than the sum of them. Each call's timeout is what
+ * is left of the deadline, and the first failure fails the checkout and cancels the
+ * remaining calls.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CheckoutPreparationService {
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+
+    private final ServiceHttpClient serviceHttpClient;
+    private final MeterRegistry meterRegistry;
+    private final JwtTokenUtil jwtTokenUtil;
+
+    @Value("${order.checkout.prepare-enabled:true}")
+    private boolean enabled;
+
+    @Value("${services.product.id:product-catalog-service}")
+    private String productService;
+
+    @Value("${services.inventory.id:inventory-service}")
+    private String inventoryService;
+
+    @Value("${services.user.id:user-service}")
+    private String userService;
+
+    /**
+     * Replaces client-supplied prices with catalog prices, verifies stock and fills in the
+     * shipping address, all within {@code deadline}.
+     */
+    public void prepare(Order order, String authToken, Instant deadline) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            // Lines for the same product are checked against their combined quantity
+            Map<String, Integer> quantities = new LinkedHashMap<>();
+            for (OrderItem item : order.getItems()) {
+                quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+
+            FanOut fanOut = new FanOut(authToken, deadline);
+            Map<String, CompletableFuture<Map<String, Object>>> products = new LinkedHashMap<>();
+            quantities.forEach((productId, quantity) -> {
+                products.put(productId, fanOut.fork("product",
+                        ServiceRequest.get(productService, "/api/products/{id}", productId),
+                        product -> checkProduct(productId, product)));
+                fanOut.fork("inventory",
+                        ServiceRequest.get(inventoryService, "/inventory/{productId}/check?quantity={quantity}",
+                                productId, quantity),
+                        stock -> checkStock(productId, stock));
+            });
+            // Addresses are kept under the user's ID; the order's customer ID is the username
+            CompletableFuture<String> address = isBlank(order.getShippingAddress())
+                    ? fanOut.fork("address",
+                            ServiceRequest.get(userService, "/users/{userId}/addresses/default", userIdOf(authToken)),
+                            this::toShippingAddress)
+                    : null;
+            fanOut.join();
+
+            for (OrderItem item : order.getItems()) {
+                applyCatalogData(item, products.get(item.getProductId()).join());
+            }
+            if (address != null) {
+                order.setShippingAddress(address.join());
+            }
+            outcome = "success";
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Timer.builder("order.checkout.prepare")
+                    .description("Time to gather prices, stock and address before checkout")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            log.debug("Checkout preparation for customer {} finished with {} in {} ms",
+                    order.getCustomerId(), outcome, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+
+    private String userIdOf(String authToken) {
+        String userId = null;
+        try {
+            if (authToken != null && authToken.startsWith("Bearer ")) {
+                userId = jwtTokenUtil.getUserIdFromToken(authToken.substring(7));
+            }
+        } catch (Exception e) {
+            log.warn("Could not read the user ID from the caller's token: {}", e.getMessage());
+        }
+        if (isBlank(userId)) {
+            throw new BusinessException("SHIPPING_ADDRESS_REQUIRED",
+                    "No shipping address given and no user ID to look up a default address");
+        }
+        return userId;
+    }
+
+    private Map<String, Object> checkProduct(String productId, Map<String, Object> product) {
+        if (product == null) {
+            throw new BusinessException("PRODUCT_NOT_FOUND", "Product not found with ID: " + productId);
+        }
+        if (!Boolean.TRUE.equals(product.get("active")) || product.get("price") == null) {
+            throw new BusinessException("PRODUCT_UNAVAILABLE", "Product " + productId + " is not available for sale",
+                    HttpStatus.CONFLICT);
+        }
+        return product;
+    }
+
+    private Boolean checkStock(String productId, Map<String, Object> stock) {
+        if (stock == null || !Boolean.TRUE.equals(stock.get("inStock"))) {
+            throw new BusinessException("INSUFFICIENT_STOCK", "Insufficient stock for product " + productId,
+                    HttpStatus.CONFLICT);
+        }
+        return Boolean.TRUE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private String toShippingAddress(Map<String, Object> response) {
+        Object data = response != null ? response.get("data") : null;
+        if (!(data instanceof Map)) {
+            throw new BusinessException("SHIPPING_ADDRESS_REQUIRED",
+                    "No shipping address given and no default address on file");
+        }
+        return formatAddress((Map<String, Object>) data);
+    }
+
+    private void applyCatalogData(OrderItem item, Map<String, Object> product) {
+        Money catalogPrice = Money.of(new BigDecimal(product.get("price").toString()));
+        if (item.getUnitPrice() != null && !item.getUnitPrice().equals(catalogPrice)) {
+            log.info("Repricing product {} from client price {} to catalog price {}",
+                    item.getProductId(), item.getUnitPrice(), catalogPrice);
+        }
+        item.setUnitPrice(catalogPrice);
+        item.setTotalPrice(catalogPrice.times(item.getQuantity()));
+        if (product.get("name") != null) {
+            item.setProductName(product.get("name").toString());
+        }
+        if (product.get("sku") != null) {
+            item.setProductSku(product.get("sku").toString());
+        }
+    }
+
+    static String formatAddress(Map<String, Object> address) {
+        List<String> parts = new ArrayList<>();
+        for (String field : new String[]{"addressLine1", "addressLine2", "city"}) {
+            Object value = address.get(field);
+            if (value != null && !value.toString().isBlank()) {
+                parts.add(value.toString().trim());
+            }
+        }
+        String statePostal = (valueOf(address.get("state")) + " " + valueOf(address.get("postalCode"))).trim();
+        if (!statePostal.isEmpty()) {
+            parts.add(statePostal);
+        }
+        if (!valueOf(address.get("country")).isEmpty()) {
+            parts.add(valueOf(address.get("country")));
+        }
+        return String.join(", ", parts);
+    }
+
+    private static String valueOf(Object value) {
+        return value == null ? "" : value.toString().trim();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * One round of concurrent calls sharing a deadline. {@link #join()} returns once every
+     * call has succeeded, or throws on the first failure or when the deadline passes,
+     * cancelling the calls still outstanding.
+     */
+    private final class FanOut {
+
+        private final String authToken;
+        private final Instant deadline;
+        private final List<CompletableFuture<?>> forks = new ArrayList<>();
+        // The client's own futures, whose cancellation aborts the call
+        private final List<CompletableFuture<?>> calls = new ArrayList<>();
+        private final CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+
+        FanOut(String authToken, Instant deadline) {
+            this.authToken = authToken;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Sends {@code request} and applies {@code check} to the body; a 404 is passed to
+         * {@code check} as a {@code null} body.
+         */
+        <T> CompletableFuture<T> fork(String dependency, ServiceRequest request, Function<Map<String, Object>, T> check) {
+            long start = System.nanoTime();
+            CompletableFuture<ServiceResponse<Map<String, Object>>> call = serviceHttpClient.exchange(request
+                    .withHeader(HttpHeaders.AUTHORIZATION, authToken)
+                    .withTimeout(Duration.between(Instant.now(), deadline)), JSON_OBJECT);
+            CompletableFuture<T> future = call
+                    .thenApply(response -> {
+                        if (response.statusCode() == 404) {
+                            return check.apply(null);
+                        }
+                        if (!response.isSuccessful()) {
+                            throw new ServiceCallException(request.service(), response.statusCode(),
+                                    request.service() + " returned " + response.statusCode());
+                        }
+                        return check.apply(response.body());
+                    });
+            future.whenComplete((result, error) -> {
+                Timer.builder("order.checkout.dependency")
+                        .description("Latency of each remote call made while preparing checkout")
+                        .tag("dependency", dependency)
+                        .tag("outcome", error == null ? "success"
+                                : ServiceHttpClient.unwrap(error) instanceof CancellationException ? "cancelled" : "failure")
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (error != null) {
+                    firstFailure.completeExceptionally(error);
+                }
+            });
+            calls.add(call);
+            forks.add(future);
+            return future;
+        }
+
+        void join() {
+            CompletableFuture.allOf(forks.toArray(new CompletableFuture<?>[0]))
+                    .whenComplete((result, error) -> firstFailure.complete(null));
+            boolean succeeded = false;
+            try {
+                long remainingNanos = Math.max(0, Duration.between(Instant.now(), deadline).toNanos());
+                firstFailure.get(remainingNanos, TimeUnit.NANOSECONDS);
+                succeeded = true;
+            } catch (TimeoutException e) {
+                throw timeout();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException("CHECKOUT_INTERRUPTED", "Checkout preparation was interrupted",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            } catch (ExecutionException e) {
+                Throwable cause = ServiceHttpClient.unwrap(e);
+                if (cause instanceof BusinessException) {
+                    throw (BusinessException) cause;
+                }
+                if (cause instanceof ServiceCallException && ((ServiceCallException) cause).isTimeout()) {
+                    throw timeout();
+                }
+                log.error("Checkout dependency call failed: {}", cause.getMessage());
+                throw new BusinessException("CHECKOUT_DEPENDENCY_FAILED", "A checkout dependency is unavailable",
+                        HttpStatus.SERVICE_UNAVAILABLE, null, cause);
+            } finally {
+                if (!succeeded) {
+                    // Nothing will read their answers, so the calls still in flight are aborted
+                    calls.forEach(call -> call.cancel(true));
+                }
+            }
+        }
+
+        private BusinessException timeout() {
+            return new BusinessException("CHECKOUT_TIMEOUT", "Checkout dependencies did not respond in time",
+                    HttpStatus.GATEWAY_TIMEOUT);
+        }
+    }
+}
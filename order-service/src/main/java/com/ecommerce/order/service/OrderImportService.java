@@ -0,0 +1,523 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.http.ServiceHttpClient;
+import com.ecommerce.common.http.ServiceRequest;
+import com.ecommerce.common.http.ServiceResponse;
+import com.ecommerce.common.utils.exception.BusinessException;
+import com.ecommerce.common.utils.id.UuidV7;
+import com.ecommerce.common.utils.idempotency.IdempotencyFilter;
+import com.ecommerce.order.dto.OrderImportJob;
+import com.ecommerce.order.dto.OrderImportLine;
+import com.ecommerce.order.dto.OrderImportResult;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.kafka.OrderEventProducer;
+import com.ecommerce.order.repository.OrderImportJobRepository;
+import com.ecommerce.order.resilience.DependencyGuard;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk order imports for marketplace and B2B feeds, which would otherwise send thousands of
+ * orders one by one through the synchronous checkout. The uploaded file, one JSON order per
+ * line (see {@link OrderImportLine}), is spooled to disk and processed in the background in
+ * chunks of {@code order.import.chunk-size} lines. For each chunk:
+ *
+ * <ol>
+ *   <li>quantities are summed per product and reserved with one inventory call, which
+ *       reserves whatever is available;</li>
+ *   <li>the reserved stock is handed to orders in file order, orders it does not cover are
+ *       rejected, and the unused remainder is released with one call;</li>
+ *   <li>the accepted orders are inserted in JDBC batches;</li>
+ *   <li>their payments are created with one payment call, and charged by payment-service in
+ *       the background.</li>
+ * </ol>
+ *
+ * The payment call carries an idempotency key derived from the job and chunk, so when it
+ * fails without a definite answer (an error, a timeout, a 5xx) it is retried up to
+ * {@code order.import.payment-attempts} times without creating payments twice. If it still
+ * fails, the chunk's orders are cancelled, whatever payments were created for them are
+ * voided, and their stock is released.
+ *
+ * Each line's outcome is published as an {@link OrderImportResult}, and the job's counters
+ * are kept in {@code order_import_jobs}. A job interrupted by a restart stays RUNNING; its
+ * results so far are on the topic, and the remaining lines can be resubmitted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderImportService {
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+    private static final TypeReference<List<Map<String, Object>>> JSON_ARRAY = new TypeReference<>() {};
+    private static final String DEFAULT_PAYMENT_METHOD = "marketplace";
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OrderService orderService;
+    private final OrderImportJobRepository orderImportJobRepository;
+    private final OrderEventProducer orderEventProducer;
+    private final ServiceHttpClient serviceHttpClient;
+    private final DependencyGuard dependencyGuard;
+    private final ObjectMapper objectMapper;
+
+    @Value("${services.inventory.id:inventory-service}")
+    private String inventoryService;
+
+    @Value("${services.payment.id:payment-service}")
+    private String paymentService;
+
+    @Value("${order.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${order.import.max-items-per-order:100}")
+    private int maxItemsPerOrder;
+
+    @Value("${order.import.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${order.import.payment-attempts:3}")
+    private int paymentAttempts;
+
+    @Value("${order.import.payment-retry-backoff:1s}")
+    private Duration paymentRetryBackoff;
+
+    @Value("${order.import.spool-directory:${java.io.tmpdir}/order-imports}")
+    private String spoolDirectory;
+
+    private ExecutorService workers;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger count = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "order-import-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Spools {@code file} and queues it for import. The caller's token is used for the
+     * inventory and payment calls made on its behalf.
+     */
+    public OrderImportJob submit(MultipartFile file, String authToken, String submittedBy) {
+        String jobId = UuidV7.randomUuid().toString();
+        Path spool = Path.of(spoolDirectory).resolve(jobId + ".ndjson");
+        try {
+            Files.createDirectories(spool.getParent());
+            // Streamed to disk rather than held in memory: feeds can be large
+            file.transferTo(spool);
+        } catch (IOException e) {
+            throw new BusinessException("ORDER_IMPORT_UNREADABLE", "Could not read import file: " + e.getMessage());
+        }
+
+        OrderImportJob job = OrderImportJob.builder()
+                .id(jobId)
+                .fileName(file.getOriginalFilename())
+                .submittedBy(submittedBy)
+                .status(OrderImportJob.QUEUED)
+                .createdAt(LocalDateTime.now())
+                .build();
+        orderImportJobRepository.insert(job);
+        workers.execute(() -> run(jobId, spool, authToken));
+        log.info("Queued order import {} from {} ({} bytes)", jobId, file.getOriginalFilename(), file.getSize());
+        return job;
+    }
+
+    public OrderImportJob getJob(String jobId) {
+        return orderImportJobRepository.findById(jobId)
+                .orElseThrow(() -> new BusinessException("ORDER_IMPORT_NOT_FOUND",
+                        "Order import not found: " + jobId, HttpStatus.NOT_FOUND));
+    }
+
+    void run(String jobId, Path spool, String authToken) {
+        log.info("Starting order import {}", jobId);
+        orderImportJobRepository.markRunning(jobId);
+        long start = System.currentTimeMillis();
+
+        try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+            List<ImportedOrder> chunk = new ArrayList<>();
+            List<OrderImportResult> invalid = new ArrayList<>();
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                ImportedOrder imported = parse(jobId, lineNumber, line, invalid);
+                if (imported != null) {
+                    chunk.add(imported);
+                }
+                if (chunk.size() + invalid.size() == chunkSize) {
+                    processChunk(jobId, chunk, invalid, authToken);
+                    chunk = new ArrayList<>();
+                    invalid = new ArrayList<>();
+                }
+            }
+            if (!chunk.isEmpty() || !invalid.isEmpty()) {
+                processChunk(jobId, chunk, invalid, authToken);
+            }
+            orderImportJobRepository.complete(jobId, OrderImportJob.COMPLETED, null);
+            log.info("Order import {} completed in {} ms", jobId, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Order import {} failed", jobId, e);
+            String error = String.valueOf(e.getMessage());
+            orderImportJobRepository.complete(jobId, OrderImportJob.FAILED,
+                    error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        } finally {
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                log.warn("Could not delete order import spool file {}: {}", spool, e.getMessage());
+            }
+        }
+    }
+
+    private ImportedOrder parse(String jobId, int lineNumber, String line, List<OrderImportResult> invalid) {
+        OrderImportLine parsed;
+        try {
+            parsed = objectMapper.readValue(line, OrderImportLine.class);
+        } catch (JsonProcessingException e) {
+            invalid.add(result(jobId, lineNumber, null, OrderImportResult.REJECTED)
+                    .reason("Malformed JSON: " + e.getOriginalMessage()).build());
+            return null;
+        }
+
+        String error = validate(parsed);
+        if (error != null) {
+            invalid.add(result(jobId, lineNumber, parsed.getExternalReference(), OrderImportResult.REJECTED)
+                    .reason(error).build());
+            return null;
+        }
+
+        Order order = Order.builder()
+                .customerId(parsed.getCustomerId())
+                .customerEmail(parsed.getCustomerEmail())
+                .shippingAddress(parsed.getShippingAddress())
+                .billingAddress(parsed.getBillingAddress())
+                .notes(parsed.getNotes())
+                .build();
+        parsed.getItems().forEach(order::addItem);
+        return new ImportedOrder(lineNumber, parsed, order);
+    }
+
+    private String validate(OrderImportLine line) {
+        if (line.getCustomerId() == null || line.getCustomerId().isBlank()) {
+            return "customerId is required";
+        }
+        if (line.getItems() == null || line.getItems().isEmpty()) {
+            return "Order has no items";
+        }
+        if (line.getItems().size() > maxItemsPerOrder) {
+            return "Order has more than " + maxItemsPerOrder + " items";
+        }
+        for (OrderItem item : line.getItems()) {
+            if (item.getProductId() == null || item.getProductId().isBlank()) {
+                return "Item without productId";
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                return "Quantity must be positive for product " + item.getProductId();
+            }
+            if (item.getUnitPrice() == null || !item.getUnitPrice().isPositive()) {
+                return "Unit price must be positive for product " + item.getProductId();
+            }
+        }
+        return null;
+    }
+
+    private void processChunk(String jobId, List<ImportedOrder> chunk, List<OrderImportResult> results, String authToken) {
+        if (!chunk.isEmpty()) {
+            allocateAndCreate(jobId, chunk, results, authToken);
+        }
+
+        // Every line has exactly one result, so the job's counters follow from them
+        Map<String, Long> counts = new HashMap<>();
+        for (OrderImportResult result : results) {
+            orderEventProducer.sendOrderImportResult(result);
+            counts.merge(result.getStatus(), 1L, Long::sum);
+        }
+        orderImportJobRepository.addProgress(jobId, results.size(),
+                counts.getOrDefault(OrderImportResult.ACCEPTED, 0L),
+                counts.getOrDefault(OrderImportResult.REJECTED, 0L),
+                counts.getOrDefault(OrderImportResult.FAILED, 0L));
+    }
+
+    private void allocateAndCreate(String jobId, List<ImportedOrder> chunk, List<OrderImportResult> results,
+                                   String authToken) {
+        // Step 1: one reservation for the whole chunk, summed per product
+        Map<String, Integer> reserved;
+        try {
+            reserved = reserveInventory(jobId, quantitiesOf(chunk), authToken);
+        } catch (RuntimeException e) {
+            log.error("Inventory reservation failed for a chunk of order import {}: {}", jobId,
+                    ServiceHttpClient.unwrap(e).getMessage());
+            fail(jobId, chunk, "Inventory reservation failed, resubmit later", results);
+            return;
+        }
+
+        // Step 2: reserved stock goes to orders in file order; what no order can use goes back
+        Map<String, Integer> remaining = new HashMap<>(reserved);
+        List<ImportedOrder> allocated = new ArrayList<>();
+        for (ImportedOrder imported : chunk) {
+            Map<String, Integer> needed = quantitiesOf(imported.order());
+            boolean covered = needed.entrySet().stream()
+                    .allMatch(need -> remaining.getOrDefault(need.getKey(), 0) >= need.getValue());
+            if (covered) {
+                needed.forEach((productId, quantity) -> remaining.merge(productId, -quantity, Integer::sum));
+                allocated.add(imported);
+            } else {
+                results.add(result(jobId, imported, OrderImportResult.REJECTED).reason("Insufficient inventory").build());
+            }
+        }
+        remaining.values().removeIf(quantity -> quantity <= 0);
+        releaseInventory(jobId, remaining, authToken);
+
+        if (!allocated.isEmpty()) {
+            createOrders(jobId, allocated, results, authToken);
+        }
+    }
+
+    // Steps 3 and 4: insert the allocated orders, then create their payments
+    private void createOrders(String jobId, List<ImportedOrder> allocated, List<OrderImportResult> results,
+                              String authToken) {
+        List<Order> orders;
+        try {
+            orders = orderService.createImportedOrders(allocated.stream().map(ImportedOrder::order).toList());
+        } catch (RuntimeException e) {
+            log.error("Saving a chunk of order import {} failed", jobId, e);
+            releaseInventory(jobId, quantitiesOf(allocated), authToken);
+            fail(jobId, allocated, "Orders could not be saved, resubmit later", results);
+            return;
+        }
+
+        try {
+            Map<String, String> paymentIds = createPayments(jobId, allocated, authToken);
+            for (Order order : orders) {
+                order.setPaymentId(paymentIds.get(order.getId()));
+                order.setPaymentStatus("PENDING");
+            }
+            orderService.attachPayments(orders);
+        } catch (RuntimeException e) {
+            log.error("Creating payments for a chunk of order import {} failed: {}", jobId,
+                    ServiceHttpClient.unwrap(e).getMessage());
+            orderService.cancelImportedOrders(orders, "Bulk import: payment could not be created");
+            // The batch may have been stored even though no answer came back
+            voidPayments(jobId, orders, authToken);
+            releaseInventory(jobId, quantitiesOf(allocated), authToken);
+            fail(jobId, allocated, "Payment could not be created, resubmit later", results);
+            return;
+        }
+
+        for (ImportedOrder imported : allocated) {
+            Order order = imported.order();
+            results.add(result(jobId, imported, OrderImportResult.ACCEPTED)
+                    .orderId(order.getId())
+                    .orderNumber(order.getOrderNumber())
+                    .paymentId(order.getPaymentId())
+                    .build());
+        }
+    }
+
+    private Map<String, Integer> reserveInventory(String jobId, Map<String, Integer> quantities, String authToken) {
+        Map<String, Object> request = Map.of("reference", jobId, "quantities", quantities);
+        ServiceResponse<Map<String, Object>> response = ServiceHttpClient.await(dependencyGuard.call(
+                DependencyGuard.INVENTORY, () -> serviceHttpClient.exchange(
+                        ServiceRequest.post(inventoryService, "/inventory/reserve/batch", request)
+                                .withHeader(HttpHeaders.AUTHORIZATION, authToken), JSON_OBJECT)));
+        if (!response.isSuccessful() || response.body() == null
+                || !(response.body().get("reserved") instanceof Map<?, ?> reserved)) {
+            throw new IllegalStateException("Inventory batch reservation returned " + response.statusCode());
+        }
+
+        Map<String, Integer> result = new HashMap<>();
+        reserved.forEach((productId, quantity) -> result.put(String.valueOf(productId), ((Number) quantity).intValue()));
+        return result;
+    }
+
+    // Compensation bypasses the breaker, as in checkout: a release must be attempted regardless
+    private void releaseInventory(String jobId, Map<String, Integer> quantities, String authToken) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        Map<String, Object> request = Map.of("reference", jobId, "quantities", quantities);
+        try {
+            ServiceResponse<String> response = ServiceHttpClient.await(serviceHttpClient.exchange(
+                    ServiceRequest.post(inventoryService, "/inventory/release/batch", request)
+                            .withHeader(HttpHeaders.AUTHORIZATION, authToken), String.class));
+            if (!response.isSuccessful()) {
+                log.error("Releasing inventory for order import {} returned {}: {}", jobId, response.statusCode(), quantities);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error releasing inventory for order import {}: {} {}", jobId,
+                    ServiceHttpClient.unwrap(e).getMessage(), quantities);
+        }
+    }
+
+    private Map<String, String> createPayments(String jobId, List<ImportedOrder> allocated, String authToken) {
+        List<Map<String, Object>> requests = new ArrayList<>();
+        for (ImportedOrder imported : allocated) {
+            Order order = imported.order();
+            String paymentMethod = imported.line().getPaymentMethod();
+            Map<String, Object> request = new HashMap<>();
+            request.put("orderId", order.getId());
+            request.put("customerId", order.getCustomerId());
+            request.put("amount", order.getTotalAmount().toBigDecimal());
+            request.put("currency", order.getTotalAmount().getCurrency());
+            request.put("paymentMethod", paymentMethod != null ? paymentMethod : DEFAULT_PAYMENT_METHOD);
+            requests.add(request);
+        }
+
+        // The same key on every attempt: payment-service answers a retry of a stored batch from the first
+        String idempotencyKey = "order-import-" + jobId + "-" + allocated.get(0).lineNumber();
+        for (int attempt = 1; ; attempt++) {
+            ServiceResponse<List<Map<String, Object>>> response;
+            try {
+                response = ServiceHttpClient.await(dependencyGuard.call(
+                        DependencyGuard.PAYMENT, () -> serviceHttpClient.exchange(
+                                ServiceRequest.post(paymentService, "/payments/batch", requests)
+                                        .withHeader(HttpHeaders.AUTHORIZATION, authToken)
+                                        .withHeader(IdempotencyFilter.HEADER, idempotencyKey), JSON_ARRAY)));
+            } catch (RuntimeException e) {
+                if (attempt >= paymentAttempts) {
+                    throw e;
+                }
+                log.warn("Payment batch call {} of order import {} failed, retrying: {}", attempt, jobId,
+                        ServiceHttpClient.unwrap(e).getMessage());
+                if (!backoff(attempt)) {
+                    throw e;
+                }
+                continue;
+            }
+            if (isRetryable(response.statusCode()) && attempt < paymentAttempts) {
+                log.warn("Payment batch call {} of order import {} returned {}, retrying", attempt, jobId,
+                        response.statusCode());
+                if (!backoff(attempt)) {
+                    throw new IllegalStateException("Payment batch creation returned " + response.statusCode());
+                }
+                continue;
+            }
+            if (response.statusCode() != HttpStatus.CREATED.value() || response.body() == null) {
+                throw new IllegalStateException("Payment batch creation returned " + response.statusCode());
+            }
+
+            Map<String, String> paymentIds = new HashMap<>();
+            for (Map<String, Object> payment : response.body()) {
+                paymentIds.put((String) payment.get("orderId"), (String) payment.get("id"));
+            }
+            if (!paymentIds.keySet().containsAll(allocated.stream().map(imported -> imported.order().getId()).toList())) {
+                throw new IllegalStateException("Payment batch creation did not return a payment for every order");
+            }
+            return paymentIds;
+        }
+    }
+
+    // No answer on whether the batch was stored: 5xx, or the same key still in flight or throttled
+    private static boolean isRetryable(int statusCode) {
+        return statusCode >= 500 || statusCode == HttpStatus.CONFLICT.value()
+                || statusCode == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    // False if the worker was interrupted while waiting, which ends the retries
+    private boolean backoff(int attempt) {
+        try {
+            Thread.sleep(paymentRetryBackoff.multipliedBy(attempt).toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /*
+     * Compensation for a chunk whose orders were cancelled: payments still pending are
+     * cancelled before the batch processor charges them, charged ones are refunded. It
+     * bypasses the breaker like the inventory release, and is retried while payment-service
+     * reports a payment it is still charging (409).
+     */
+    private void voidPayments(String jobId, List<Order> orders, String authToken) {
+        List<String> orderIds = orders.stream().map(Order::getId).toList();
+        for (int attempt = 1; attempt <= paymentAttempts; attempt++) {
+            try {
+                ServiceResponse<String> response = ServiceHttpClient.await(serviceHttpClient.exchange(
+                        ServiceRequest.post(paymentService, "/payments/batch/cancel", orderIds)
+                                .withHeader(HttpHeaders.AUTHORIZATION, authToken), String.class));
+                if (response.isSuccessful()) {
+                    return;
+                }
+                log.warn("Voiding payments for order import {} returned {}", jobId, response.statusCode());
+            } catch (RuntimeException e) {
+                log.warn("Error voiding payments for order import {}: {}", jobId, ServiceHttpClient.unwrap(e).getMessage());
+            }
+            if (attempt < paymentAttempts && !backoff(attempt)) {
+                break;
+            }
+        }
+        log.error("Payments of cancelled orders from order import {} could not be voided: {}", jobId, orderIds);
+    }
+
+    private void fail(String jobId, List<ImportedOrder> orders, String reason, List<OrderImportResult> results) {
+        orders.forEach(imported -> results.add(result(jobId, imported, OrderImportResult.FAILED).reason(reason).build()));
+    }
+
+    private static Map<String, Integer> quantitiesOf(Order order) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        order.getItems().forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+        return quantities;
+    }
+
+    private static Map<String, Integer> quantitiesOf(List<ImportedOrder> orders) {
+        Map<String, Integer> quantities = new TreeMap<>();
+        orders.forEach(imported -> quantitiesOf(imported.order()).forEach((productId, quantity) ->
+                quantities.merge(productId, quantity, Integer::sum)));
+        return quantities;
+    }
+
+    private static OrderImportResult.OrderImportResultBuilder result(String jobId, ImportedOrder imported, String status) {
+        return result(jobId, imported.lineNumber(), imported.line().getExternalReference(), status);
+    }
+
+    private static OrderImportResult.OrderImportResultBuilder result(String jobId, int lineNumber,
+                                                                     String externalReference, String status) {
+        return OrderImportResult.builder()
+                .jobId(jobId)
+                .lineNumber(lineNumber)
+                .externalReference(externalReference)
+                .status(status);
+    }
+
+    private record ImportedOrder(int lineNumber, OrderImportLine line, Order order) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.utils.id.UuidV7;
+import com.ecommerce.order.dto.OrderMetricsSnapshot;
+import com.ecommerce.order.metrics.OrderMetricsAggregator;
+import com.ecommerce.order.repository.OrderMetricsHourlyRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Rolls the live per-minute order metrics up into {@code order_metrics_hourly}, which is
+ * where dashboards read anything older than the in-memory rings cover.
+ *
+ * <p>Every run rewrites this process's rows for the current and the previous hour from the
+ * minute buckets, so runs are idempotent and a late order in the previous hour is still
+ * picked up. Rows are keyed by a per-process ID: a restarted instance starts new rows instead
+ * of overwriting the hour its predecessor already wrote.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderMetricsService {
+
+    private static final int MAX_HOURS = 24 * 31;
+
+    private final OrderMetricsAggregator orderMetricsAggregator;
+    private final OrderMetricsHourlyRepository orderMetricsHourlyRepository;
+
+    private final String instanceId = UuidV7.randomUuidString();
+
+    @Scheduled(fixedDelayString = "${order.metrics.compaction-interval-ms:60000}")
+    public void compactHourly() {
+        Instant currentHour = Instant.now().truncatedTo(ChronoUnit.HOURS);
+        for (Instant hourStart : List.of(currentHour.minus(Duration.ofHours(1)), currentHour)) {
+            OrderMetricsSnapshot hour = orderMetricsAggregator.hour(hourStart);
+            if (hour.getOrders() > 0 || !hour.getStatusTransitions().isEmpty()) {
+                orderMetricsHourlyRepository.upsert(instanceId, hour);
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            compactHourly();
+        } catch (Exception e) {
+            log.warn("Could not write order metrics on shutdown: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Hourly totals across all instances for the last {@code hours} hours, including the
+     * current one.
+     */
+    public List<OrderMetricsSnapshot> getHourly(int hours) {
+        int limit = Math.max(1, Math.min(hours, MAX_HOURS));
+        Instant from = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(Duration.ofHours(limit - 1L));
+        return orderMetricsHourlyRepository.findSince(from);
+    }
+}
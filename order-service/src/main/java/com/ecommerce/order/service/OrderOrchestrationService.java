@@ -1,24 +1,36 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.common.http.NoServiceInstanceException;
+import com.ecommerce.common.http.ServiceHttpClient;
+import com.ecommerce.common.http.ServiceRequest;
+import com.ecommerce.common.http.ServiceResponse;
 import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
 import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.common.utils.exception.BusinessException;
+import com.ecommerce.common.utils.idempotency.IdempotencyFilter;
+import com.ecommerce.common.utils.web.RequestDeadline;
 import com.ecommerce.order.kafka.OrderEventProducer;
+import com.ecommerce.order.resilience.DependencyGuard;
 import com.ecommerce.order.saga.OrderSaga;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.core.ParameterizedTypeReference;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 @RequiredArgsConstructor
@@ -27,14 +39,35 @@ public class OrderOrchestrationService {
 
     private final OrderService orderService;
     private final OrderEventProducer orderEventProducer;
-    private final RestTemplate restTemplate;
-    private static final String INVENTORY_SERVICE_URL = "http://INVENTORY-SERVICE/inventory";
-    private static final String PAYMENT_SERVICE_URL = "http://PAYMENT-SERVICE/payments";
+    private final CheckoutPreparationService checkoutPreparationService;
+    private final ServiceHttpClient serviceHttpClient;
+    private final DependencyGuard dependencyGuard;
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+
+    @Value("${services.inventory.id:inventory-service}")
+    private String inventoryService;
+
+    @Value("${services.payment.id:payment-service}")
+    private String paymentService;
+
+    @Value("${order.checkout.prepare-budget-ms:3000}")
+    private long prepareBudgetMs;
+
+    @Value("${order.checkout.request-budget-ms:10000}")
+    private long requestBudgetMs;
 
     @Transactional
     public Order processOrder(Order order, String authToken) {
         log.info("Starting order orchestration for customer: {}", order.getCustomerId());
         OrderSaga saga = new OrderSaga(order.getId());
+
+        // Every remote call shares the caller's deadline, capped by our own budget
+        Instant deadline = RequestDeadline.within(Duration.ofMillis(requestBudgetMs));
+
+        // Step 0: Price, stock and address lookups run concurrently before anything is written
+        Instant prepareDeadline = Instant.now().plusMillis(prepareBudgetMs);
+        checkoutPreparationService.prepare(order, authToken,
+                prepareDeadline.isBefore(deadline) ? prepareDeadline : deadline);
         
         try {
             // Step 1: Create order in PENDING state
@@ -42,7 +75,7 @@ public class OrderOrchestrationService {
             saga.markOrderCreated();
             
             // Step 2: Reserve inventory for all items
-            boolean inventoryReserved = reserveInventory(createdOrder, authToken);
+            boolean inventoryReserved = reserveInventory(createdOrder, authToken, deadline);
             if (!inventoryReserved) {
                 log.error("Failed to reserve inventory for order: {}", createdOrder.getId());
                 orderService.updateOrderStatus(createdOrder.getId(), OrderStatus.INVENTORY_FAILED);
@@ -52,10 +85,11 @@ public class OrderOrchestrationService {
             createdOrder.setStatus(OrderStatus.INVENTORY_RESERVED);
             
             // Step 3: Process payment
-            boolean paymentProcessed = processPayment(createdOrder, authToken);
+            boolean paymentProcessed = processPayment(createdOrder, authToken, deadline);
             if (!paymentProcessed) {
                 log.error("Payment failed for order: {}", createdOrder.getId());
                 releaseInventory(createdOrder, authToken);
+                saga.markInventoryReleased();
                 orderService.updateOrderStatus(createdOrder.getId(), OrderStatus.PAYMENT_FAILED);
                 throw new RuntimeException("Payment processing failed");
             }
@@ -77,123 +111,135 @@ public class OrderOrchestrationService {
         }
     }
 
-    private boolean reserveInventory(Order order, String authToken) {
+    private boolean reserveInventory(Order order, String authToken, Instant deadline) {
         log.info("Reserving inventory for order: {}", order.getId());
-        
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", authToken);
-            
-            for (var item : order.getItems()) {
-                Map<String, Object> reserveRequest = new HashMap<>();
-                reserveRequest.put("productId", item.getProductId());
-                reserveRequest.put("quantity", item.getQuantity());
-                reserveRequest.put("orderId", order.getId());
-                
-                HttpEntity<Map<String, Object>> request = new HttpEntity<>(reserveRequest, headers);
-                ResponseEntity<Map> response = restTemplate.exchange(
-                    INVENTORY_SERVICE_URL + "/reserve",
-                    HttpMethod.POST,
-                    request,
-                    Map.class
-                );
-                
-                if (!response.getStatusCode().is2xxSuccessful()) {
-                    log.error("Failed to reserve inventory for product: {}", item.getProductId());
-                    return false;
-                }
-                
-                // Check if reservation was successful
-                Map<String, Object> responseBody = response.getBody();
-                if (responseBody == null || !(Boolean) responseBody.get("success")) {
-                    log.error("Inventory reservation failed for product: {} - {}", item.getProductId(), 
-                             responseBody != null ? responseBody.get("message") : "Unknown error");
-                    return false;
-                }
+
+        // All lines are reserved concurrently; if any is refused the others are released again
+        AtomicBoolean rejected = new AtomicBoolean();
+        Map<OrderItem, CompletableFuture<Boolean>> reservations = new LinkedHashMap<>();
+        for (OrderItem item : order.getItems()) {
+            Map<String, Object> reserveRequest = new HashMap<>();
+            reserveRequest.put("productId", item.getProductId());
+            reserveRequest.put("quantity", item.getQuantity());
+            reserveRequest.put("orderId", order.getId());
+
+            reservations.put(item, dependencyGuard.call(DependencyGuard.INVENTORY, () -> serviceHttpClient.exchange(
+                    ServiceRequest.post(inventoryService, "/inventory/reserve", reserveRequest)
+                            .withHeader(HttpHeaders.AUTHORIZATION, authToken)
+                            .withDeadline(deadline), JSON_OBJECT))
+                    .thenApply(response -> isReserved(item, response))
+                    .exceptionally(e -> {
+                        if (DependencyGuard.isRejection(e)) {
+                            rejected.set(true);
+                        }
+                        log.error("Error reserving inventory for product {}: {}", item.getProductId(),
+                                ServiceHttpClient.unwrap(e).getMessage());
+                        return false;
+                    }));
+        }
+
+        List<OrderItem> reserved = new ArrayList<>();
+        reservations.forEach((item, reservation) -> {
+            if (reservation.join()) {
+                reserved.add(item);
             }
-            
+        });
+        if (reserved.size() == reservations.size()) {
             return true;
-        } catch (Exception e) {
-            log.error("Error reserving inventory: {}", e.getMessage());
+        }
+        if (!reserved.isEmpty()) {
+            releaseInventory(order, reserved, authToken);
+        }
+        if (rejected.get()) {
+            throw new BusinessException("INVENTORY_SERVICE_UNAVAILABLE",
+                    "Inventory service is overloaded or failing, please retry shortly", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return false;
+    }
+
+    private boolean isReserved(OrderItem item, ServiceResponse<Map<String, Object>> response) {
+        if (!response.isSuccessful()) {
+            log.error("Failed to reserve inventory for product: {}", item.getProductId());
+            return false;
+        }
+
+        // Check if reservation was successful
+        Map<String, Object> responseBody = response.body();
+        if (responseBody == null || !Boolean.TRUE.equals(responseBody.get("success"))) {
+            log.error("Inventory reservation failed for product: {} - {}", item.getProductId(),
+                     responseBody != null ? responseBody.get("message") : "Unknown error");
             return false;
         }
+        return true;
     }
 
     private void releaseInventory(Order order, String authToken) {
+        releaseInventory(order, order.getItems(), authToken);
+    }
+
+    // Compensation bypasses the breaker and the request deadline: a release must still be
+    // attempted when the checkout itself has given up
+    private void releaseInventory(Order order, List<OrderItem> items, String authToken) {
         log.info("Releasing inventory for order: {}", order.getId());
-        
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", authToken);
-            
-            for (var item : order.getItems()) {
-                Map<String, Object> releaseRequest = new HashMap<>();
-                releaseRequest.put("productId", item.getProductId());
-                releaseRequest.put("quantity", item.getQuantity());
-                releaseRequest.put("orderId", order.getId());
-                
-                HttpEntity<Map<String, Object>> request = new HttpEntity<>(releaseRequest, headers);
-                restTemplate.exchange(
-                    INVENTORY_SERVICE_URL + "/release",
-                    HttpMethod.POST,
-                    request,
-                    String.class
-                );
-            }
-        } catch (Exception e) {
-            log.error("Error releasing inventory: {}", e.getMessage());
+
+        List<CompletableFuture<?>> releases = new ArrayList<>();
+        for (OrderItem item : items) {
+            Map<String, Object> releaseRequest = new HashMap<>();
+            releaseRequest.put("productId", item.getProductId());
+            releaseRequest.put("quantity", item.getQuantity());
+            releaseRequest.put("orderId", order.getId());
+
+            releases.add(serviceHttpClient.exchange(
+                    ServiceRequest.post(inventoryService, "/inventory/release", releaseRequest)
+                            .withHeader(HttpHeaders.AUTHORIZATION, authToken), String.class)
+                    .exceptionally(e -> {
+                        log.error("Error releasing inventory for product {}: {}", item.getProductId(),
+                                ServiceHttpClient.unwrap(e).getMessage());
+                        return null;
+                    }));
         }
+        CompletableFuture.allOf(releases.toArray(new CompletableFuture<?>[0])).join();
     }
 
-    private boolean processPayment(Order order, String authToken) {
+    private boolean processPayment(Order order, String authToken, Instant deadline) {
         log.info("Processing payment for order: {} amount: {}", order.getId(), order.getTotalAmount());
         
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", authToken);
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
             // Create payment request
             Map<String, Object> paymentRequest = new HashMap<>();
             paymentRequest.put("orderId", order.getId());
             paymentRequest.put("customerId", order.getCustomerId());
-            paymentRequest.put("amount", order.getTotalAmount());
-            paymentRequest.put("currency", "USD");
+            paymentRequest.put("amount", order.getTotalAmount().toBigDecimal());
+            paymentRequest.put("currency", order.getTotalAmount().getCurrency());
             paymentRequest.put("paymentMethod", "card");
             paymentRequest.put("metadata", Map.of(
                 "orderNumber", order.getOrderNumber(),
                 "itemCount", order.getItems().size()
             ));
             
-            HttpEntity<Map<String, Object>> createRequest = new HttpEntity<>(paymentRequest, headers);
-            
-            // Create payment
-            ResponseEntity<Map<String, Object>> createResponse = restTemplate.exchange(
-                "http://PAYMENT-SERVICE/payments",
-                HttpMethod.POST,
-                createRequest,
-                new ParameterizedTypeReference<Map<String, Object>>() {}
-            );
-            
-            if (createResponse.getStatusCode() != HttpStatus.CREATED) {
-                log.error("Failed to create payment for order: {}", order.getId());
-                return false;
-            }
-            
-            Map<String, Object> payment = createResponse.getBody();
-            String paymentId = (String) payment.get("id");
-            
-            // Process the payment
-            HttpEntity<Void> processRequest = new HttpEntity<>(headers);
-            ResponseEntity<Map<String, Object>> processResponse = restTemplate.exchange(
-                "http://PAYMENT-SERVICE/payments/" + paymentId + "/process",
-                HttpMethod.POST,
-                processRequest,
-                new ParameterizedTypeReference<Map<String, Object>>() {}
-            );
-            
-            if (processResponse.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> processedPayment = processResponse.getBody();
+            // Create the payment, then process it, without holding a thread between the calls
+            CompletableFuture<ServiceResponse<Map<String, Object>>> processed = dependencyGuard.call(DependencyGuard.PAYMENT,
+                    () -> serviceHttpClient.exchange(ServiceRequest.post(paymentService, "/payments", paymentRequest)
+                            .withHeader(HttpHeaders.AUTHORIZATION, authToken)
+                            // One payment per order, however often this call is retried
+                            .withHeader(IdempotencyFilter.HEADER, "order-" + order.getId())
+                            .withDeadline(deadline), JSON_OBJECT))
+                    .thenCompose(createResponse -> {
+                        if (createResponse.statusCode() != HttpStatus.CREATED.value()) {
+                            log.error("Failed to create payment for order: {}", order.getId());
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        String paymentId = (String) createResponse.body().get("id");
+                        return dependencyGuard.call(DependencyGuard.PAYMENT, () -> serviceHttpClient.exchange(
+                                ServiceRequest.post(paymentService, "/payments/{id}/process", null, paymentId)
+                                        .withHeader(HttpHeaders.AUTHORIZATION, authToken)
+                                        .withDeadline(deadline), JSON_OBJECT));
+                    });
+
+            ServiceResponse<Map<String, Object>> processResponse = ServiceHttpClient.await(processed);
+            if (processResponse != null && processResponse.statusCode() == HttpStatus.OK.value()) {
+                Map<String, Object> processedPayment = processResponse.body();
+                String paymentId = (String) processedPayment.get("id");
                 String status = (String) processedPayment.get("status");
                 
                 if ("COMPLETED".equals(status)) {
@@ -209,10 +255,15 @@ public class OrderOrchestrationService {
             return false;
             
         } catch (Exception e) {
+            if (DependencyGuard.isRejection(e)) {
+                // Fail fast; processOrder's rollback releases the reserved stock and cancels the order
+                throw new BusinessException("PAYMENT_SERVICE_UNAVAILABLE",
+                        "Payment service is overloaded or failing, please retry shortly", HttpStatus.SERVICE_UNAVAILABLE);
+            }
             log.error("Error processing payment for order: {}", order.getId(), e);
             
             // Fallback to mock payment if payment service is unavailable
-            if (e.getMessage() != null && e.getMessage().contains("No servers available for service: PAYMENT-SERVICE")) {
+            if (e instanceof NoServiceInstanceException) {
                 log.warn("Payment service unavailable, using mock payment processing");
                 try {
                     Thread.sleep(100);
@@ -246,8 +297,9 @@ public class OrderOrchestrationService {
     private void handleSagaRollback(OrderSaga saga, Order order, String authToken) {
         log.info("Handling saga rollback for order: {}", order.getId());
         
-        if (saga.isInventoryReserved() && !saga.isPaymentCompleted()) {
+        if (saga.isInventoryReserved() && !saga.isPaymentCompleted() && !saga.isInventoryReleased()) {
             releaseInventory(order, authToken);
+            saga.markInventoryReleased();
         }
         
         if (saga.isOrderCreated()) {
@@ -0,0 +1,159 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.repository.OrderPartitionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the monthly partitions of {@code orders} and {@code order_items} in shape: creates
+ * partitions {@code order.partitioning.months-ahead} months in advance, and when archiving is
+ * enabled, exports months older than {@code order.archive.retention-months} to gzipped CSV
+ * files and drops them.
+ *
+ * <p>A month is exported while still attached and dropped afterwards in one transaction. If
+ * any of its orders changed during the export, the drop is skipped and the month is exported
+ * again on the next run.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderPartitionService {
+
+    private final OrderPartitionRepository partitionRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${order.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${order.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    @Value("${order.archive.retention-months:24}")
+    private int retentionMonths;
+
+    @Value("${order.archive.directory:archive/orders}")
+    private String archiveDirectoryName;
+
+    private Path archiveDirectory;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        archiveDirectory = Path.of(archiveDirectoryName);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createPartitionsOnStartup() {
+        try {
+            createUpcomingPartitions();
+        } catch (Exception e) {
+            log.error("Could not create upcoming order partitions: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "${order.partitioning.maintenance-cron:0 15 3 * * *}")
+    public void runMaintenance() {
+        createUpcomingPartitions();
+        if (archiveEnabled) {
+            archiveExpiredPartitions();
+        }
+    }
+
+    public int createUpcomingPartitions() {
+        YearMonth now = YearMonth.now();
+        Integer created = transactionTemplate.execute(status -> partitionRepository.tryLockMaintenance()
+                ? partitionRepository.createPartitions(now, now.plusMonths(monthsAhead))
+                : 0);
+        if (created != null && created > 0) {
+            log.info("Created order partitions for {} months up to {}", created, now.plusMonths(monthsAhead));
+        }
+        return created != null ? created : 0;
+    }
+
+    /**
+     * Archives every month before the retention window, oldest first, and returns the months
+     * that were dropped. Stops at the first month that cannot be exported.
+     */
+    public List<YearMonth> archiveExpiredPartitions() {
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        List<YearMonth> expired = partitionRepository.findPartitionMonths().stream()
+                .filter(month -> month.isBefore(cutoff))
+                .toList();
+
+        List<YearMonth> archived = new ArrayList<>();
+        for (YearMonth month : expired) {
+            try {
+                if (archive(month)) {
+                    archived.add(month);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("Archiving orders for {} failed, partitions kept: {}", month, e.getMessage(), e);
+                break;
+            }
+        }
+        return archived;
+    }
+
+    private boolean archive(YearMonth month) throws IOException {
+        LocalDateTime exportStartedAt = LocalDateTime.now();
+        long orders = export(OrderPartitionRepository.ORDERS, month);
+        long items = export(OrderPartitionRepository.ORDER_ITEMS, month);
+
+        Boolean dropped = transactionTemplate.execute(status -> {
+            if (!partitionRepository.tryLockMaintenance()) {
+                return false;
+            }
+            if (partitionRepository.lockAndCheckModifiedSince(month, exportStartedAt)) {
+                log.warn("Orders for {} changed while being exported, will retry on the next run", month);
+                return false;
+            }
+            partitionRepository.dropPartitions(month);
+            partitionRepository.deleteSummaries(month);
+            return true;
+        });
+        if (Boolean.TRUE.equals(dropped)) {
+            log.info("Archived {} orders and {} order items for {} to {}", orders, items, month, archiveDirectory);
+        }
+        return Boolean.TRUE.equals(dropped);
+    }
+
+    /**
+     * Writes one partition to {@code <table>_yYYYYmMM.csv.gz}. The file is written under a
+     * temporary name and renamed once complete, so a file with the final name is never partial.
+     */
+    private long export(String table, YearMonth month) throws IOException {
+        Files.createDirectories(archiveDirectory);
+        Path target = archiveDirectory.resolve(OrderPartitionRepository.partitionName(table, month) + ".csv.gz");
+        Path temp = Files.createTempFile(archiveDirectory, target.getFileName().toString(), ".tmp");
+        try {
+            long rows;
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                rows = partitionRepository.copyOut(table, month, out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return rows;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -1,27 +1,58 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.common.utils.exception.BusinessException;
+import com.ecommerce.common.utils.id.SnowflakeIdGenerator;
+import com.ecommerce.common.utils.id.UuidV7;
 import com.ecommerce.order.entity.Order;
 import com.ecommerce.order.entity.OrderItem;
 import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.kafka.OrderEventProducer;
+import com.ecommerce.order.metrics.OrderMetricsAggregator;
+import com.ecommerce.order.repository.OrderBatchRepository;
 import com.ecommerce.order.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.function.BiFunction;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderService {
 
+    private static final String ORDER_NUMBER_PREFIX = "ORD-";
+
+    // Slack around the creation time read from an id, covering clock zones and skew
+    private static final Duration CREATED_AT_MARGIN = Duration.ofDays(1);
+
     private final OrderRepository orderRepository;
+    private final OrderBatchRepository orderBatchRepository;
+    private final OrderSummaryService orderSummaryService;
+    private final SnowflakeIdGenerator orderNumberGenerator;
+    private final OrderMetricsAggregator orderMetrics;
+    private final OrderEventProducer orderEventProducer;
+
+    @Value("${order.stale-order.lookback-days:30}")
+    private int staleOrderLookbackDays;
 
     @Transactional
     public Order createOrder(Order order) {
@@ -34,36 +65,117 @@ public class OrderService {
         // Establish bidirectional relationships for all items
         if (order.getItems() != null) {
             for (OrderItem item : order.getItems()) {
+                if (item.getUnitPrice() == null || !item.getUnitPrice().isPositive()) {
+                    throw new BusinessException("INVALID_UNIT_PRICE",
+                            "Unit price must be positive for product " + item.getProductId());
+                }
                 item.setOrder(order);
                 // Calculate total price for each item
-                item.setTotalPrice(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+                item.setTotalPrice(item.getUnitPrice().times(item.getQuantity()));
             }
         }
         
         // Calculate subtotal from items
-        BigDecimal subtotal = order.getItems().stream()
-                .map(OrderItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        order.setSubtotal(subtotal);
+        order.setSubtotal(subtotalOf(order));
         
         // Save order with items (cascade)
-        Order savedOrder = orderRepository.save(order);
+        Order savedOrder = save(order);
+        Map<String, Object> statusEvent = statusEventOf(savedOrder);
+        afterCommit(() -> {
+            orderMetrics.recordOrderCreated(savedOrder.getTotalAmount());
+            orderEventProducer.sendOrderStatusChangedEvent(statusEvent);
+        });
         log.info("Order created successfully with ID: {} and order number: {}", savedOrder.getId(), savedOrder.getOrderNumber());
         
         return savedOrder;
     }
 
+    /**
+     * Saves a chunk of imported orders in one transaction. Their stock is already reserved,
+     * so they start as {@code INVENTORY_RESERVED}. Items must have been validated by the
+     * caller; the inserts go out in JDBC batches of {@code hibernate.jdbc.batch_size}.
+     */
+    @Transactional
+    public List<Order> createImportedOrders(List<Order> orders) {
+        log.info("Creating {} imported orders", orders.size());
+
+        for (Order order : orders) {
+            order.setOrderNumber(generateOrderNumber());
+            order.setStatus(OrderStatus.INVENTORY_RESERVED);
+            for (OrderItem item : order.getItems()) {
+                item.setOrder(order);
+                item.setTotalPrice(item.getUnitPrice().times(item.getQuantity()));
+            }
+            order.setSubtotal(subtotalOf(order));
+        }
+
+        // Not saveAndFlush per order: one flush lets Hibernate group the inserts into batches
+        List<Order> savedOrders = orderRepository.saveAll(orders);
+        orderRepository.flush();
+        orderSummaryService.projectAll(savedOrders);
+
+        List<Map<String, Object>> statusEvents = savedOrders.stream().map(OrderService::statusEventOf).toList();
+        afterCommit(() -> {
+            for (Order order : savedOrders) {
+                orderMetrics.recordOrderCreated(order.getTotalAmount());
+                orderMetrics.recordStatusChange(OrderStatus.INVENTORY_RESERVED);
+            }
+            statusEvents.forEach(orderEventProducer::sendOrderStatusChangedEvent);
+        });
+        return savedOrders;
+    }
+
+    /**
+     * Stores the payment ID and status already set on each of {@code orders}, in one batch.
+     */
+    @Transactional
+    public void attachPayments(List<Order> orders) {
+        LocalDateTime now = LocalDateTime.now();
+        orders.forEach(order -> order.setUpdatedAt(now));
+        orderBatchRepository.updatePayments(orders);
+        orderSummaryService.projectAll(orders);
+    }
+
+    /**
+     * Cancels imported orders that could not be completed, in one batch. The caller releases
+     * their stock.
+     */
+    @Transactional
+    public void cancelImportedOrders(List<Order> orders, String reason) {
+        log.info("Cancelling {} imported orders: {}", orders.size(), reason);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderStatus> previousStatuses = new ArrayList<>();
+        for (Order order : orders) {
+            previousStatuses.add(order.getStatus());
+            order.setStatus(OrderStatus.CANCELLED);
+            order.setCancelledAt(now);
+            order.setNotes(reason);
+            order.setUpdatedAt(now);
+        }
+        orderBatchRepository.updateCancelled(orders);
+        orderSummaryService.projectAll(orders);
+
+        for (int i = 0; i < orders.size(); i++) {
+            recordStatusChange(previousStatuses.get(i), orders.get(i));
+        }
+    }
+
     @Transactional(readOnly = true)
     public Order getOrderById(String orderId) {
         log.debug("Fetching order by ID: {}", orderId);
-        return orderRepository.findById(orderId)
+        return findAroundCreation(idTimestamp(orderId),
+                        (from, to) -> orderRepository.findByIdAndCreatedAtBetween(orderId, from, to))
+                .or(() -> orderRepository.findById(orderId))
                 .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
     }
 
     @Transactional(readOnly = true)
     public Order getOrderByOrderNumber(String orderNumber) {
         log.debug("Fetching order by order number: {}", orderNumber);
-        return orderRepository.findByOrderNumber(orderNumber)
+        return findAroundCreation(orderNumberTimestamp(orderNumber),
+                        (from, to) -> orderRepository.findByOrderNumberAndCreatedAtBetween(orderNumber, from, to))
+                .or(() -> orderRepository.findByOrderNumber(orderNumber))
                 .orElseThrow(() -> new RuntimeException("Order not found with order number: " + orderNumber));
     }
 
@@ -100,7 +212,8 @@ public class OrderService {
                 break;
         }
         
-        Order updatedOrder = orderRepository.save(order);
+        Order updatedOrder = save(order);
+        recordStatusChange(previousStatus, updatedOrder);
         log.info("Order {} status updated from {} to {}", orderId, previousStatus, newStatus);
         
         return updatedOrder;
@@ -111,6 +224,7 @@ public class OrderService {
         log.info("Updating payment info for order: {}", orderId);
         
         Order order = getOrderById(orderId);
+        OrderStatus previousStatus = order.getStatus();
         order.setPaymentId(paymentId);
         order.setPaymentStatus(paymentStatus);
         
@@ -120,7 +234,9 @@ public class OrderService {
             order.setStatus(OrderStatus.PAYMENT_FAILED);
         }
         
-        return orderRepository.save(order);
+        Order updatedOrder = save(order);
+        recordStatusChange(previousStatus, updatedOrder);
+        return updatedOrder;
     }
 
     @Transactional
@@ -136,11 +252,13 @@ public class OrderService {
             throw new RuntimeException("Order cannot be cancelled in current status: " + order.getStatus());
         }
         
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.CANCELLED);
         order.setCancelledAt(LocalDateTime.now());
         order.setNotes(reason);
         
-        Order cancelledOrder = orderRepository.save(order);
+        Order cancelledOrder = save(order);
+        recordStatusChange(previousStatus, cancelledOrder);
         log.info("Order {} cancelled successfully", orderId);
         
         return cancelledOrder;
@@ -160,12 +278,9 @@ public class OrderService {
         order.addItem(item);
         
         // Recalculate totals
-        BigDecimal subtotal = order.getItems().stream()
-                .map(OrderItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        order.setSubtotal(subtotal);
+        order.setSubtotal(subtotalOf(order));
         
-        return orderRepository.save(order);
+        return save(order);
     }
 
     @Transactional(readOnly = true)
@@ -182,13 +297,97 @@ public class OrderService {
     @Transactional(readOnly = true)
     public List<Order> getStaleOrders(OrderStatus status, int hours) {
         LocalDateTime threshold = LocalDateTime.now().minusHours(hours);
-        return orderRepository.findStaleOrdersByStatusAndCreatedBefore(status, threshold);
+        // Bounded below so only recent partitions are scanned; older orders were seen by earlier runs
+        return orderRepository.findStaleOrdersByStatusAndCreatedBetween(status,
+                threshold.minusDays(staleOrderLookbackDays), threshold);
+    }
+
+    // Every order write goes through here so the order_summaries read model stays in step.
+    // Flushing first runs the @PreUpdate total calculation and auditing the summary copies.
+    private Order save(Order order) {
+        Order savedOrder = orderRepository.saveAndFlush(order);
+        orderSummaryService.project(savedOrder);
+        return savedOrder;
+    }
+
+    private void recordStatusChange(OrderStatus previousStatus, Order order) {
+        OrderStatus newStatus = order.getStatus();
+        if (previousStatus != newStatus) {
+            // Built now: the entity may change again before the transaction commits
+            Map<String, Object> statusEvent = statusEventOf(order);
+            afterCommit(() -> {
+                orderMetrics.recordStatusChange(newStatus);
+                orderEventProducer.sendOrderStatusChangedEvent(statusEvent);
+            });
+        }
+    }
+
+    private static Map<String, Object> statusEventOf(Order order) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("orderId", order.getId());
+        event.put("orderNumber", order.getOrderNumber());
+        event.put("status", order.getStatus().toString());
+        event.put("paymentStatus", order.getPaymentStatus());
+        event.put("occurredAt", LocalDateTime.now().toString());
+        return event;
+    }
+
+    // Live metrics and status events only reflect what was committed
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Money subtotalOf(Order order) {
+        return Money.sum(Money.DEFAULT_CURRENCY, order.getItems().stream().map(OrderItem::getTotalPrice).toList());
     }
 
     private String generateOrderNumber() {
-        // Generate unique order number with timestamp and random UUID
-        String timestamp = String.valueOf(System.currentTimeMillis());
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "ORD-" + timestamp + "-" + uuid;
+        // Time-ordered and unique per worker, so no existence check is needed
+        return ORDER_NUMBER_PREFIX + orderNumberGenerator.nextBase36();
+    }
+
+    /**
+     * Runs {@code query} with a created_at window around {@code createdAtMillis}, so it only
+     * reads the order's own partition. Empty when the time is unknown or the order is not in
+     * the window; callers then fall back to an unbounded lookup.
+     */
+    private Optional<Order> findAroundCreation(OptionalLong createdAtMillis,
+                                               BiFunction<LocalDateTime, LocalDateTime, Optional<Order>> query) {
+        if (createdAtMillis.isEmpty()) {
+            return Optional.empty();
+        }
+        LocalDateTime createdAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAtMillis.getAsLong()),
+                ZoneId.systemDefault());
+        return query.apply(createdAt.minus(CREATED_AT_MARGIN), createdAt.plus(CREATED_AT_MARGIN));
+    }
+
+    private static OptionalLong idTimestamp(String orderId) {
+        try {
+            return OptionalLong.of(UuidV7.timestampOf(UUID.fromString(orderId)));
+        } catch (IllegalArgumentException e) {
+            // Random UUIDs from before @TimeOrderedId carry no time
+            return OptionalLong.empty();
+        }
+    }
+
+    private static OptionalLong orderNumberTimestamp(String orderNumber) {
+        if (!orderNumber.startsWith(ORDER_NUMBER_PREFIX)) {
+            return OptionalLong.empty();
+        }
+        try {
+            long id = Long.parseLong(orderNumber.substring(ORDER_NUMBER_PREFIX.length()), 36);
+            return OptionalLong.of(SnowflakeIdGenerator.timestampOf(id));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
     }
 }
\ No newline at end of file
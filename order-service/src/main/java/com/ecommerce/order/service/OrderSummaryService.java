@@ -0,0 +1,116 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.utils.exception.BusinessException;
+import com.ecommerce.order.dto.OrderSummary;
+import com.ecommerce.order.dto.OrderSummaryPage;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.repository.OrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Maintains and serves the {@code order_summaries} read model. {@link OrderService} projects
+ * every order it saves in the same transaction, so the summary never lags the order.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderSummaryService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final OrderSummaryRepository orderSummaryRepository;
+
+    @Transactional
+    public void project(Order order) {
+        orderSummaryRepository.upsert(summaryOf(order));
+        log.debug("Projected order {} into order summaries", order.getId());
+    }
+
+    // One batched statement for orders written together, such as a chunk of an import
+    @Transactional
+    public void projectAll(List<Order> orders) {
+        orderSummaryRepository.upsertAll(orders.stream().map(this::summaryOf).toList());
+        log.debug("Projected {} orders into order summaries", orders.size());
+    }
+
+    @Transactional(readOnly = true)
+    public OrderSummaryPage getCustomerOrders(String customerId, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        LocalDateTime beforeCreatedAt = null;
+        String beforeOrderId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor);
+            beforeCreatedAt = LocalDateTime.parse(position[0]);
+            beforeOrderId = position[1];
+        }
+
+        // Fetch one extra row to know whether another page exists without a COUNT
+        List<OrderSummary> rows = orderSummaryRepository.findByCustomer(customerId, beforeCreatedAt, beforeOrderId, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<OrderSummary> orders = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            OrderSummary last = orders.get(orders.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getOrderId());
+        }
+
+        return OrderSummaryPage.builder()
+                .orders(orders)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    static String encodeCursor(LocalDateTime createdAt, String orderId) {
+        String position = createdAt + "|" + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|", 2);
+            if (parts.length != 2 || parts[1].isEmpty()) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            LocalDateTime.parse(parts[0]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("INVALID_CURSOR", "Invalid page cursor");
+        }
+    }
+
+    private OrderSummary summaryOf(Order order) {
+        List<OrderItem> items = order.getItems();
+        int totalQuantity = 0;
+        for (OrderItem item : items) {
+            totalQuantity += item.getQuantity() != null ? item.getQuantity() : 0;
+        }
+
+        return OrderSummary.builder()
+                .orderId(order.getId())
+                .customerId(order.getCustomerId())
+                .orderNumber(order.getOrderNumber())
+                .status(order.getStatus().name())
+                .paymentStatus(order.getPaymentStatus())
+                .itemCount(items.size())
+                .totalQuantity(totalQuantity)
+                .firstItemName(items.isEmpty() ? null : items.get(0).getProductName())
+                .totalAmount(order.getTotalAmount())
+                .createdAt(order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now())
+                .updatedAt(order.getUpdatedAt())
+                .build();
+    }
+}
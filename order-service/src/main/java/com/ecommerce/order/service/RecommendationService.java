@@ -0,0 +1,189 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.recommendation.CoOccurrenceIndex;
+import com.ecommerce.order.recommendation.ProductRecommendation;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationService {
+
+    private static final String ORDER_ITEMS_BY_ORDER_SQL =
+            "SELECT order_id, product_id FROM order_items ORDER BY order_id";
+
+    private static final int SNAPSHOT_CHECK_BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${order.recommendation.neighbours-per-product:20}")
+    private int neighboursPerProduct;
+
+    @Value("${order.recommendation.sketch-capacity:64}")
+    private int sketchCapacity;
+
+    @Value("${order.recommendation.max-products:500000}")
+    private int maxProducts;
+
+    @Value("${order.recommendation.max-items-per-order:50}")
+    private int maxItemsPerOrder;
+
+    @Value("${order.recommendation.rebuild-fetch-size:1000}")
+    private int rebuildFetchSize;
+
+    @Value("${order.recommendation.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    private volatile CoOccurrenceIndex index;
+
+    // Live orders received while a rebuild is scanning history, by order ID, so those the
+    // scan did not see can be added before the swap; guarded by this service's monitor
+    private Map<String, List<String>> pendingOrders;
+
+    @PostConstruct
+    void init() {
+        index = newIndex();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            try {
+                rebuildFromHistory();
+            } catch (Exception e) {
+                log.error("Startup rebuild of recommendation index failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    public synchronized void recordOrder(String orderId, Collection<String> productIds) {
+        index.recordOrder(productIds);
+        if (pendingOrders != null && orderId != null) {
+            pendingOrders.put(orderId, List.copyOf(productIds));
+        }
+    }
+
+    public List<ProductRecommendation> getFrequentlyBoughtTogether(String productId, int limit) {
+        return index.topNeighbours(productId, Math.min(limit, neighboursPerProduct));
+    }
+
+    /**
+     * Replays every historical order line through a fresh index using a server-side cursor,
+     * then swaps it in. The scan runs in a read-only transaction so the PostgreSQL driver
+     * honours the fetch size instead of materialising the whole table. Live orders received
+     * meanwhile are added to the fresh index only if the scan's snapshot did not contain
+     * them, checked in the same repeatable-read transaction, so none is counted twice.
+     */
+    public Map<String, Object> rebuildFromHistory() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("Recommendation index rebuild already in progress");
+        }
+        long start = System.currentTimeMillis();
+        try {
+            CoOccurrenceIndex fresh = newIndex();
+            synchronized (this) {
+                pendingOrders = new HashMap<>();
+            }
+
+            long[] rowsScanned = new long[1];
+            TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+            readOnlyTx.setReadOnly(true);
+            readOnlyTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+            readOnlyTx.executeWithoutResult(status -> {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(ORDER_ITEMS_BY_ORDER_SQL,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(rebuildFetchSize);
+                    return statement;
+                }, (ResultSet rs) -> {
+                    String currentOrderId = null;
+                    List<String> basket = new ArrayList<>();
+                    while (rs.next()) {
+                        String orderId = rs.getString(1);
+                        if (!orderId.equals(currentOrderId)) {
+                            fresh.recordOrder(basket);
+                            basket.clear();
+                            currentOrderId = orderId;
+                        }
+                        basket.add(rs.getString(2));
+                        rowsScanned[0]++;
+                    }
+                    fresh.recordOrder(basket);
+                    return null;
+                });
+                // Live orders are held off while the last of them are merged and the index swapped
+                synchronized (this) {
+                    mergeOrdersAfterSnapshot(fresh);
+                    index = fresh;
+                    pendingOrders = null;
+                }
+            });
+
+            long duration = System.currentTimeMillis() - start;
+            log.info("Rebuilt recommendation index from {} order lines: {} products, {} orders in {} ms",
+                    rowsScanned[0], fresh.getProductCount(), fresh.getOrdersRecorded(), duration);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("orderLinesScanned", rowsScanned[0]);
+            result.put("ordersIndexed", fresh.getOrdersRecorded());
+            result.put("productsIndexed", fresh.getProductCount());
+            result.put("durationMs", duration);
+            return result;
+        } finally {
+            synchronized (this) {
+                pendingOrders = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    // Runs in the scan's transaction, so order_items is read as of the scan's snapshot
+    private void mergeOrdersAfterSnapshot(CoOccurrenceIndex fresh) {
+        List<String> orderIds = new ArrayList<>(pendingOrders.keySet());
+        for (int from = 0; from < orderIds.size(); from += SNAPSHOT_CHECK_BATCH) {
+            List<String> batch = orderIds.subList(from, Math.min(from + SNAPSHOT_CHECK_BATCH, orderIds.size()));
+            String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+            jdbcTemplate.queryForList("SELECT DISTINCT order_id FROM order_items WHERE order_id IN (" + placeholders + ")",
+                    String.class, batch.toArray()).forEach(pendingOrders::remove);
+        }
+        pendingOrders.values().forEach(fresh::recordOrder);
+        log.debug("Added {} orders received during the rebuild to the recommendation index", pendingOrders.size());
+    }
+
+    public Map<String, Object> getIndexStats() {
+        CoOccurrenceIndex current = index;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("products", current.getProductCount());
+        stats.put("ordersRecorded", current.getOrdersRecorded());
+        stats.put("productsDropped", current.getProductsDropped());
+        stats.put("rebuilding", rebuilding.get());
+        return stats;
+    }
+
+    private CoOccurrenceIndex newIndex() {
+        return new CoOccurrenceIndex(Math.max(sketchCapacity, neighboursPerProduct), maxProducts, maxItemsPerOrder);
+    }
+}
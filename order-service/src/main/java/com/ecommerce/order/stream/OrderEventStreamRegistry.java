@@ -0,0 +1,205 @@
+package com.ecommerce.order.stream;
+
+import com.ecommerce.common.utils.exception.BusinessException;
+import com.ecommerce.order.dto.OrderStatusEvent;
+import com.ecommerce.order.entity.Order;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory registry of SSE subscribers to order status changes, keyed by order ID. Every
+ * instance receives every change (see
+ * {@link com.ecommerce.order.kafka.OrderStatusEventConsumer}) and hands it to its own
+ * subscribers, so it does not matter which instance a client is connected to.
+ *
+ * <p>The last few events of recently changed orders are kept so a client reconnecting with
+ * {@code Last-Event-ID} gets what it missed. If the history does not reach back that far, or
+ * the client has no ID yet, it gets the latest change instead, or a snapshot read from the
+ * database when this instance has not seen the order change.
+ */
+@Component
+@Slf4j
+public class OrderEventStreamRegistry {
+
+    @Value("${order.events.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${order.events.heartbeat-interval-ms:15000}")
+    private long heartbeatIntervalMs;
+
+    @Value("${order.events.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${order.events.history-size:20}")
+    private int historySize;
+
+    @Value("${order.events.tracked-orders:10000}")
+    private int trackedOrders;
+
+    @Value("${order.events.max-connections:10000}")
+    private int maxConnections;
+
+    @Value("${order.events.sender-threads:8}")
+    private int senderThreads;
+
+    private final Map<String, Set<OrderEventSubscription>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private Map<String, Deque<OrderStatusEvent>> history;
+    private ExecutorService sender;
+    private ScheduledExecutorService heartbeats;
+
+    @PostConstruct
+    void init() {
+        history = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Deque<OrderStatusEvent>> eldest) {
+                return size() > trackedOrders;
+            }
+        });
+        sender = Executors.newFixedThreadPool(senderThreads, daemon("order-events-sender"));
+        heartbeats = Executors.newSingleThreadScheduledExecutor(daemon("order-events-heartbeat"));
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats, heartbeatIntervalMs, heartbeatIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        sender.shutdown();
+        subscribers.values().forEach(set -> set.forEach(subscription -> subscription.getEmitter().complete()));
+    }
+
+    /**
+     * Opens a stream of status changes for {@code order}, starting after {@code lastEventId}
+     * when the client sent one.
+     */
+    public SseEmitter subscribe(Order order, String lastEventId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new BusinessException("ORDER_EVENTS_UNAVAILABLE",
+                    "Too many open order event streams, poll the order instead", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        String orderId = order.getId();
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        OrderEventSubscription subscription = new OrderEventSubscription(orderId, emitter, sender, bufferSize);
+        Runnable unregister = () -> unregister(subscription);
+        emitter.onCompletion(unregister);
+        emitter.onTimeout(unregister);
+        emitter.onError(e -> unregister.run());
+
+        // Registered before reading history, so nothing published in between is missed
+        subscribers.compute(orderId, (id, watching) -> {
+            Set<OrderEventSubscription> updated = watching != null ? watching : ConcurrentHashMap.newKeySet();
+            updated.add(subscription);
+            return updated;
+        });
+        subscription.start(initialEvents(order, parseEventId(lastEventId)));
+        return emitter;
+    }
+
+    public void publish(OrderStatusEvent event) {
+        Deque<OrderStatusEvent> events = history.computeIfAbsent(event.getOrderId(), id -> new ArrayDeque<>());
+        synchronized (events) {
+            if (events.size() >= historySize) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+        Set<OrderEventSubscription> watching = subscribers.get(event.getOrderId());
+        if (watching != null) {
+            watching.forEach(subscription -> subscription.deliver(event));
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    List<OrderStatusEvent> initialEvents(Order order, Long lastEventId) {
+        Deque<OrderStatusEvent> events = history.get(order.getId());
+        List<OrderStatusEvent> known = new ArrayList<>();
+        if (events != null) {
+            synchronized (events) {
+                known.addAll(events);
+            }
+        }
+
+        if (lastEventId != null && !known.isEmpty() && known.get(0).getEventId() <= lastEventId) {
+            // Everything after lastEventId is still in the history
+            return known.stream().filter(event -> event.getEventId() > lastEventId).toList();
+        }
+        if (!known.isEmpty()) {
+            // The latest change seen is the current state; anything newer is still on its way
+            return List.of(known.get(known.size() - 1));
+        }
+        return List.of(OrderStatusEvent.builder()
+                .orderId(order.getId())
+                .orderNumber(order.getOrderNumber())
+                .status(order.getStatus().name())
+                .paymentStatus(order.getPaymentStatus())
+                .occurredAt(order.getUpdatedAt())
+                .build());
+    }
+
+    private void unregister(OrderEventSubscription subscription) {
+        subscription.close();
+        // Add and remove both go through compute, so an emptied set is never dropped under a new subscriber
+        subscribers.computeIfPresent(subscription.getOrderId(), (id, watching) -> {
+            if (watching.remove(subscription)) {
+                connections.decrementAndGet();
+            }
+            return watching.isEmpty() ? null : watching;
+        });
+    }
+
+    private void sendHeartbeats() {
+        try {
+            subscribers.values().forEach(set -> set.forEach(OrderEventSubscription::heartbeat));
+        } catch (RuntimeException e) {
+            log.warn("Sending order event heartbeats failed: {}", e.getMessage());
+        }
+    }
+
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
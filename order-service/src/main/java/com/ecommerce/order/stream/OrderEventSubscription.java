@@ -0,0 +1,167 @@
+package com.ecommerce.order.stream;
+
+import com.ecommerce.order.dto.OrderStatusEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One SSE connection watching one order. Events are queued in a bounded buffer and written by
+ * a sender thread, so a slow client never holds up the Kafka consumer that publishes them. A
+ * client that lets its buffer fill up is disconnected; it reconnects with {@code Last-Event-ID}
+ * and resumes from the registry's history.
+ *
+ * <p>Until {@link #start} is called, published events are held back so the initial replay or
+ * snapshot goes out first. Events with an ID not above the last one sent are dropped, so the
+ * overlap between replay and live delivery is never sent twice.
+ */
+@Slf4j
+class OrderEventSubscription {
+
+    static final String EVENT_NAME = "status";
+
+    // A client that has received one of these will see no further changes
+    private static final Set<String> FINAL_STATUSES = Set.of("DELIVERED", "CANCELLED", "REFUNDED");
+
+    private final String orderId;
+    private final SseEmitter emitter;
+    private final Executor sender;
+    private final int bufferSize;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    // Guarded by this
+    private List<OrderStatusEvent> heldBack = new ArrayList<>();
+    private long lastEventId = -1;
+    private boolean completeWhenDrained;
+
+    private volatile boolean closed;
+
+    OrderEventSubscription(String orderId, SseEmitter emitter, Executor sender, int bufferSize) {
+        this.orderId = orderId;
+        this.emitter = emitter;
+        this.sender = sender;
+        this.bufferSize = bufferSize;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    String getOrderId() {
+        return orderId;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Sends {@code initial} and then whatever was published in the meantime.
+     */
+    synchronized void start(List<OrderStatusEvent> initial) {
+        List<OrderStatusEvent> published = heldBack;
+        heldBack = null;
+        for (OrderStatusEvent event : initial) {
+            enqueue(event);
+        }
+        for (OrderStatusEvent event : published) {
+            enqueue(event);
+        }
+    }
+
+    synchronized void deliver(OrderStatusEvent event) {
+        if (closed) {
+            return;
+        }
+        if (heldBack != null) {
+            if (heldBack.size() >= bufferSize) {
+                overflow();
+                return;
+            }
+            heldBack.add(event);
+            return;
+        }
+        enqueue(event);
+    }
+
+    synchronized void heartbeat() {
+        // Skipped while events are waiting: those keep the connection alive anyway
+        if (!closed && heldBack == null && buffer.isEmpty() && buffer.offer(SseEmitter.event().comment("heartbeat"))) {
+            scheduleDrain();
+        }
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    private void enqueue(OrderStatusEvent event) {
+        if (closed || completeWhenDrained) {
+            return;
+        }
+        if (event.getEventId() != null && event.getEventId() <= lastEventId) {
+            return;
+        }
+        SseEmitter.SseEventBuilder sse = SseEmitter.event().name(EVENT_NAME).data(event, MediaType.APPLICATION_JSON);
+        if (event.getEventId() != null) {
+            sse.id(String.valueOf(event.getEventId()));
+        }
+        if (!buffer.offer(sse)) {
+            overflow();
+            return;
+        }
+        if (event.getEventId() != null) {
+            lastEventId = event.getEventId();
+        }
+        completeWhenDrained = FINAL_STATUSES.contains(event.getStatus());
+        scheduleDrain();
+    }
+
+    private void overflow() {
+        log.debug("Event buffer full for a subscriber of order {}, disconnecting it", orderId);
+        closed = true;
+        emitter.complete();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            SseEmitter.SseEventBuilder next;
+            while (!closed && (next = buffer.poll()) != null) {
+                emitter.send(next);
+            }
+            boolean complete;
+            synchronized (this) {
+                complete = completeWhenDrained && buffer.isEmpty();
+            }
+            if (complete && !closed) {
+                closed = true;
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the emitter's completion callback unregisters us
+            closed = true;
+        } finally {
+            draining.set(false);
+            if (!closed && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
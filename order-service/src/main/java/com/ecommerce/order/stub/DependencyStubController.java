@@ -0,0 +1,142 @@
+package com.ecommerce.order.stub;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-ins for inventory, payment, catalog and user services with injectable latency and
+ * failures, for exercising the checkout's breakers, bulkheads and deadlines locally. Only
+ * active under the {@code stub} profile, which also points {@code services.*.id} here.
+ * Responses are delayed without holding a request thread, so a slow stub behaves like a
+ * slow remote service rather than exhausting this service's own pool.
+ *
+ * <p>Latency and failure rate per dependency can be changed at runtime:
+ * {@code PUT /stub/payment/faults?delayMs=4000&failureRate=0.5}.
+ */
+@RestController
+@RequestMapping("/stub")
+@Profile("stub")
+@Slf4j
+public class DependencyStubController {
+
+    private final Map<String, Fault> faults = new ConcurrentHashMap<>();
+
+    public DependencyStubController(@Value("${stub.inventory.delay-ms:0}") long inventoryDelayMs,
+                                    @Value("${stub.inventory.failure-rate:0}") double inventoryFailureRate,
+                                    @Value("${stub.payment.delay-ms:0}") long paymentDelayMs,
+                                    @Value("${stub.payment.failure-rate:0}") double paymentFailureRate) {
+        faults.put("inventory", new Fault(inventoryDelayMs, inventoryFailureRate));
+        faults.put("payment", new Fault(paymentDelayMs, paymentFailureRate));
+        faults.put("product", new Fault(0, 0));
+        faults.put("user", new Fault(0, 0));
+    }
+
+    @GetMapping("/faults")
+    public Map<String, Fault> getFaults() {
+        return faults;
+    }
+
+    @PutMapping("/{dependency}/faults")
+    public ResponseEntity<Fault> setFault(@PathVariable String dependency,
+                                          @RequestParam(defaultValue = "0") long delayMs,
+                                          @RequestParam(defaultValue = "0") double failureRate) {
+        if (!faults.containsKey(dependency)) {
+            return ResponseEntity.notFound().build();
+        }
+        Fault fault = new Fault(delayMs, failureRate);
+        faults.put(dependency, fault);
+        log.info("Stub {} now answers after {} ms with failure rate {}", dependency, delayMs, failureRate);
+        return ResponseEntity.ok(fault);
+    }
+
+    @GetMapping("/product/api/products/{productId}")
+    public CompletableFuture<ResponseEntity<Object>> getProduct(@PathVariable String productId) {
+        return respond("product", HttpStatus.OK, Map.of(
+                "id", productId,
+                "name", "Stub product " + productId,
+                "sku", "STUB-" + productId,
+                "price", new BigDecimal("10.00"),
+                "active", true));
+    }
+
+    @GetMapping("/inventory/inventory/{productId}/check")
+    public CompletableFuture<ResponseEntity<Object>> checkStock(@PathVariable String productId,
+                                                                @RequestParam Integer quantity) {
+        return respond("inventory", HttpStatus.OK, Map.of("productId", productId, "inStock", true));
+    }
+
+    @PostMapping("/inventory/inventory/reserve")
+    public CompletableFuture<ResponseEntity<Object>> reserve(@RequestBody Map<String, Object> request) {
+        return respond("inventory", HttpStatus.OK, Map.of("success", true, "message", "Reserved"));
+    }
+
+    @PostMapping("/inventory/inventory/release")
+    public CompletableFuture<ResponseEntity<Object>> release(@RequestBody Map<String, Object> request) {
+        return respond("inventory", HttpStatus.OK, Map.of("success", true, "message", "Released"));
+    }
+
+    @PostMapping("/inventory/inventory/reserve/batch")
+    public CompletableFuture<ResponseEntity<Object>> reserveBatch(@RequestBody Map<String, Object> request) {
+        return respond("inventory", HttpStatus.OK, Map.of("success", true, "reserved", request.get("quantities")));
+    }
+
+    @PostMapping("/inventory/inventory/release/batch")
+    public CompletableFuture<ResponseEntity<Object>> releaseBatch(@RequestBody Map<String, Object> request) {
+        return respond("inventory", HttpStatus.OK, Map.of("success", true, "message", "Released"));
+    }
+
+    @GetMapping("/user/users/{userId}/addresses/default")
+    public CompletableFuture<ResponseEntity<Object>> getDefaultAddress(@PathVariable String userId) {
+        return respond("user", HttpStatus.OK, Map.of("data", Map.of(
+                "addressLine1", "1 Stub Street",
+                "city", "Springfield",
+                "state", "IL",
+                "postalCode", "62701",
+                "country", "US")));
+    }
+
+    @PostMapping("/payment/payments")
+    public CompletableFuture<ResponseEntity<Object>> createPayment(@RequestBody Map<String, Object> request) {
+        return respond("payment", HttpStatus.CREATED, Map.of("id", UUID.randomUUID().toString(), "status", "PENDING"));
+    }
+
+    @PostMapping("/payment/payments/batch")
+    public CompletableFuture<ResponseEntity<Object>> createPayments(@RequestBody List<Map<String, Object>> requests) {
+        return respond("payment", HttpStatus.CREATED, requests.stream()
+                .map(request -> Map.of("id", UUID.randomUUID().toString(), "orderId", request.get("orderId"),
+                        "status", "PENDING"))
+                .toList());
+    }
+
+    @PostMapping("/payment/payments/{paymentId}/process")
+    public CompletableFuture<ResponseEntity<Object>> processPayment(@PathVariable String paymentId) {
+        return respond("payment", HttpStatus.OK, Map.of("id", paymentId, "status", "COMPLETED"));
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> respond(String dependency, HttpStatus status, Object body) {
+        Fault fault = faults.get(dependency);
+        return CompletableFuture.supplyAsync(() -> {
+            if (ThreadLocalRandom.current().nextDouble() < fault.failureRate()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(Map.of("error", "Injected failure from stub " + dependency));
+            }
+            return ResponseEntity.status(status).body(body);
+        }, CompletableFuture.delayedExecutor(fault.delayMs(), TimeUnit.MILLISECONDS));
+    }
+
+    public record Fault(long delayMs, double failureRate) {
+    }
+}
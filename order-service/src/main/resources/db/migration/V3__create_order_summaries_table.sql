@@ -0,0 +1,38 @@
+-- Create order summaries read model: one row per order for history listings
+CREATE TABLE IF NOT EXISTS order_summaries (
+    order_id VARCHAR(36) PRIMARY KEY,
+    customer_id VARCHAR(36) NOT NULL,
+    order_number VARCHAR(50) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    payment_status VARCHAR(50),
+    item_count INTEGER NOT NULL DEFAULT 0,
+    total_quantity INTEGER NOT NULL DEFAULT 0,
+    first_item_name VARCHAR(255),
+    total_amount DECIMAL(19, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP
+);
+
+-- Keyset index for customer history; INCLUDE makes it covering so pages are index-only scans
+CREATE INDEX idx_order_summaries_customer_keyset
+    ON order_summaries(customer_id, created_at DESC, order_id DESC)
+    INCLUDE (order_number, status, payment_status, item_count, total_quantity, first_item_name, total_amount);
+
+-- Backfill from existing orders
+INSERT INTO order_summaries (order_id, customer_id, order_number, status, payment_status, item_count,
+                             total_quantity, first_item_name, total_amount, created_at, updated_at)
+SELECT o.id,
+       o.customer_id,
+       o.order_number,
+       o.status,
+       o.payment_status,
+       COUNT(i.id),
+       COALESCE(SUM(i.quantity), 0),
+       (ARRAY_AGG(i.product_name ORDER BY i.id))[1],
+       o.total_amount,
+       o.created_at,
+       o.updated_at
+FROM orders o
+LEFT JOIN order_items i ON i.order_id = o.id
+GROUP BY o.id
+ON CONFLICT (order_id) DO NOTHING;
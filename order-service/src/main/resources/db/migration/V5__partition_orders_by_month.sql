@@ -0,0 +1,127 @@
+-- Range-partition orders and order_items by month of the order's created_at, so date-bounded
+-- queries only touch the months they ask for and old months can be archived by dropping a
+-- partition instead of deleting rows (see OrderPartitionService).
+--
+-- Every unique constraint on a partitioned table must include the partition key, so the primary
+-- keys become (id, created_at) and order_number is only unique within a month. Order numbers are
+-- Snowflake IDs and do not repeat; ids are UUIDv7 and carry their creation time, which lets
+-- lookups by id or order number narrow created_at to a single partition.
+
+-- Move the existing tables aside, freeing the constraint and index names for the new ones
+ALTER TABLE order_items RENAME TO order_items_unpartitioned;
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+ALTER TABLE order_items_unpartitioned RENAME CONSTRAINT order_items_pkey TO order_items_unpartitioned_pkey;
+ALTER TABLE orders_unpartitioned RENAME CONSTRAINT orders_pkey TO orders_unpartitioned_pkey;
+ALTER TABLE order_items_unpartitioned DROP CONSTRAINT IF EXISTS order_items_order_id_fkey;
+ALTER TABLE orders_unpartitioned DROP CONSTRAINT IF EXISTS orders_order_number_key;
+DROP INDEX IF EXISTS idx_orders_customer_id;
+DROP INDEX IF EXISTS idx_orders_status;
+DROP INDEX IF EXISTS idx_orders_created_at;
+DROP INDEX IF EXISTS idx_orders_order_number;
+DROP INDEX IF EXISTS idx_order_items_order_id;
+DROP INDEX IF EXISTS idx_order_items_product_id;
+
+CREATE TABLE orders (
+    id VARCHAR(36) NOT NULL,
+    order_number VARCHAR(50) NOT NULL,
+    customer_id VARCHAR(36) NOT NULL,
+    customer_email VARCHAR(255),
+    status VARCHAR(50) NOT NULL,
+    subtotal DECIMAL(19, 2) NOT NULL,
+    tax_amount DECIMAL(19, 2) DEFAULT 0.00,
+    shipping_amount DECIMAL(19, 2) DEFAULT 0.00,
+    discount_amount DECIMAL(19, 2) DEFAULT 0.00,
+    total_amount DECIMAL(19, 2) NOT NULL,
+    payment_id VARCHAR(36),
+    payment_status VARCHAR(50),
+    shipping_address TEXT,
+    billing_address TEXT,
+    notes TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    shipped_at TIMESTAMP,
+    delivered_at TIMESTAMP,
+    cancelled_at TIMESTAMP,
+    CONSTRAINT orders_pkey PRIMARY KEY (id, created_at),
+    CONSTRAINT orders_order_number_key UNIQUE (order_number, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Items live in the same month as their order: order_created_at copies orders.created_at
+CREATE TABLE order_items (
+    id VARCHAR(36) NOT NULL,
+    order_id VARCHAR(36) NOT NULL,
+    order_created_at TIMESTAMP NOT NULL,
+    product_id VARCHAR(36) NOT NULL,
+    product_name VARCHAR(255),
+    product_sku VARCHAR(100),
+    quantity INTEGER NOT NULL,
+    unit_price DECIMAL(19, 2) NOT NULL,
+    total_price DECIMAL(19, 2) NOT NULL,
+    discount_amount DECIMAL(19, 2) DEFAULT 0.00,
+    tax_amount DECIMAL(19, 2) DEFAULT 0.00,
+    CONSTRAINT order_items_pkey PRIMARY KEY (id, order_created_at),
+    CONSTRAINT order_items_order_id_fkey FOREIGN KEY (order_id, order_created_at)
+        REFERENCES orders (id, created_at) ON DELETE CASCADE
+) PARTITION BY RANGE (order_created_at);
+
+-- Creates the monthly partitions of both tables for every month from from_month to to_month,
+-- skipping months that already exist. Returns the number of months created.
+CREATE OR REPLACE FUNCTION create_order_partitions(from_month DATE, to_month DATE) RETURNS INTEGER AS $$
+DECLARE
+    partition_month DATE := date_trunc('month', from_month);
+    suffix TEXT;
+    created INTEGER := 0;
+BEGIN
+    WHILE partition_month <= to_month LOOP
+        suffix := to_char(partition_month, '"y"YYYY"m"MM');
+        IF to_regclass('orders_' || suffix) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                           'orders_' || suffix, partition_month, partition_month + INTERVAL '1 month');
+            created := created + 1;
+        END IF;
+        IF to_regclass('order_items_' || suffix) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF order_items FOR VALUES FROM (%L) TO (%L)',
+                           'order_items_' || suffix, partition_month, partition_month + INTERVAL '1 month');
+        END IF;
+        partition_month := partition_month + INTERVAL '1 month';
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for all existing orders plus three months ahead
+SELECT create_order_partitions(
+    COALESCE((SELECT MIN(created_at) FROM orders_unpartitioned)::DATE, CURRENT_DATE),
+    (CURRENT_DATE + INTERVAL '3 months')::DATE);
+
+INSERT INTO orders (id, order_number, customer_id, customer_email, status, subtotal, tax_amount,
+                    shipping_amount, discount_amount, total_amount, payment_id, payment_status,
+                    shipping_address, billing_address, notes, created_at, updated_at, shipped_at,
+                    delivered_at, cancelled_at)
+SELECT id, order_number, customer_id, customer_email, status, subtotal, tax_amount,
+       shipping_amount, discount_amount, total_amount, payment_id, payment_status,
+       shipping_address, billing_address, notes, created_at, updated_at, shipped_at,
+       delivered_at, cancelled_at
+FROM orders_unpartitioned;
+
+INSERT INTO order_items (id, order_id, order_created_at, product_id, product_name, product_sku,
+                         quantity, unit_price, total_price, discount_amount, tax_amount)
+SELECT i.id, i.order_id, o.created_at, i.product_id, i.product_name, i.product_sku,
+       i.quantity, i.unit_price, i.total_price, i.discount_amount, i.tax_amount
+FROM order_items_unpartitioned i
+JOIN orders_unpartitioned o ON o.id = i.order_id;
+
+DROP TABLE order_items_unpartitioned;
+DROP TABLE orders_unpartitioned;
+
+-- Indexes are created on the parents after the copy; each partition gets its own, so the hot
+-- month's indexes stay small and cheap to vacuum. Order number lookups use orders_order_number_key.
+CREATE INDEX idx_orders_customer_id ON orders(customer_id);
+CREATE INDEX idx_orders_status ON orders(status, created_at);
+CREATE INDEX idx_orders_created_at ON orders(created_at);
+CREATE INDEX idx_orders_payment_id ON orders(payment_id);
+CREATE INDEX idx_order_items_order_id ON order_items(order_id);
+CREATE INDEX idx_order_items_product_id ON order_items(product_id);
+
+ANALYZE orders;
+ANALYZE order_items;
@@ -0,0 +1,11 @@
+-- Hourly order metrics rolled up from each instance's in-memory buckets (see OrderMetricsService).
+-- Each process writes its own rows, so the totals for an hour are the sum over instance_id.
+CREATE TABLE IF NOT EXISTS order_metrics_hourly (
+    hour_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    instance_id VARCHAR(64) NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    gmv DECIMAL(19, 2) NOT NULL DEFAULT 0.00,
+    status_transitions JSONB NOT NULL DEFAULT '{}',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (hour_start, instance_id)
+);
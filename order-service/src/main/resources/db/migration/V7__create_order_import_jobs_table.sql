@@ -0,0 +1,18 @@
+-- Bulk order imports (see OrderImportService). Per-order results are published to Kafka;
+-- this table only tracks each job's progress.
+CREATE TABLE IF NOT EXISTS order_import_jobs (
+    id VARCHAR(36) PRIMARY KEY,
+    file_name VARCHAR(255),
+    submitted_by VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    lines_read BIGINT NOT NULL DEFAULT 0,
+    orders_accepted BIGINT NOT NULL DEFAULT 0,
+    orders_rejected BIGINT NOT NULL DEFAULT 0,
+    orders_failed BIGINT NOT NULL DEFAULT 0,
+    error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+CREATE INDEX idx_order_import_jobs_created_at ON order_import_jobs(created_at);
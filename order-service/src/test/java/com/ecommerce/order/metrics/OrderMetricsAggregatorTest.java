@@ -0,0 +1,71 @@
+package com.ecommerce.order.metrics;
+
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.order.dto.OrderMetricsSnapshot;
+import com.ecommerce.order.entity.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderMetricsAggregatorTest {
+
+    private static final long NOW = Instant.parse("2024-05-01T12:30:45.500Z").toEpochMilli();
+
+    private final OrderMetricsAggregator aggregator = new OrderMetricsAggregator(new SimpleMeterRegistry(), 300, 180);
+
+    @Test
+    void window_SumsOrdersGmvAndTransitionsInRange() {
+        aggregator.recordOrderCreated(Money.of(new BigDecimal("10.00")), NOW - 5_000);
+        aggregator.recordOrderCreated(Money.of(new BigDecimal("20.01")), NOW);
+        aggregator.recordStatusChange(OrderStatus.PROCESSING, NOW);
+        aggregator.recordOrderCreated(Money.of(new BigDecimal("99.00")), NOW - 120_000);
+
+        OrderMetricsSnapshot lastMinute = aggregator.window(Duration.ofMinutes(1), NOW);
+
+        assertEquals(2, lastMinute.getOrders());
+        assertEquals(Money.of(new BigDecimal("30.01")), lastMinute.getGmv());
+        assertEquals(Money.of(new BigDecimal("15.01")), lastMinute.getAverageBasket());
+        assertEquals(2L, lastMinute.getStatusTransitions().get(OrderStatus.PENDING));
+        assertEquals(1L, lastMinute.getStatusTransitions().get(OrderStatus.PROCESSING));
+        assertEquals(3, aggregator.window(Duration.ofHours(1), NOW).getOrders());
+    }
+
+    @Test
+    void bucketAt_PeriodOlderThanRing_ReturnsNull() {
+        TimeBucketRing ring = new TimeBucketRing(1000, 10);
+        assertNotNull(ring.bucketAt(NOW));
+
+        assertNull(ring.bucketAt(NOW - 10_000));
+        assertSame(ring.bucketAt(NOW), ring.bucketAt(NOW + 1));
+        assertEquals(1, ring.buckets(0, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void recordOrderCreated_Concurrent_CountsEveryOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    aggregator.recordOrderCreated(Money.ofMinor(100, Money.DEFAULT_CURRENCY), NOW);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        OrderMetricsSnapshot lastSecond = aggregator.window(Duration.ofSeconds(1), NOW);
+        assertEquals(8000, lastSecond.getOrders());
+        assertEquals(800_000, lastSecond.getGmv().getMinorUnits());
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecommerce.order.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoOccurrenceIndexTest {
+
+    @Test
+    void recordOrder_CountsPairsInBothDirections() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex(8, 100, 50);
+
+        index.recordOrder(List.of("laptop", "mouse", "bag"));
+        index.recordOrder(List.of("laptop", "mouse"));
+
+        List<ProductRecommendation> laptop = index.topNeighbours("laptop", 10);
+        assertEquals("mouse", laptop.get(0).getProductId());
+        assertEquals(2, laptop.get(0).getCoPurchaseCount());
+        assertEquals("bag", laptop.get(1).getProductId());
+        assertEquals(1, laptop.get(1).getCoPurchaseCount());
+
+        List<ProductRecommendation> mouse = index.topNeighbours("mouse", 10);
+        assertEquals("laptop", mouse.get(0).getProductId());
+        assertEquals(2, mouse.get(0).getCoPurchaseCount());
+    }
+
+    @Test
+    void recordOrder_DuplicateLinesCountOnce() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex(8, 100, 50);
+
+        index.recordOrder(List.of("laptop", "mouse", "mouse", "laptop"));
+
+        List<ProductRecommendation> laptop = index.topNeighbours("laptop", 10);
+        assertEquals(1, laptop.size());
+        assertEquals(1, laptop.get(0).getCoPurchaseCount());
+    }
+
+    @Test
+    void recordOrder_FullSketchKeepsHeavyHitters() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex(8, 1000, 50);
+
+        for (int i = 0; i < 20; i++) {
+            index.recordOrder(List.of("laptop", "mouse"));
+        }
+        for (int i = 0; i < 60; i++) {
+            index.recordOrder(List.of("laptop", "noise-" + i));
+        }
+
+        List<ProductRecommendation> laptop = index.topNeighbours("laptop", 8);
+        assertEquals(8, laptop.size());
+        assertEquals("mouse", laptop.get(0).getProductId());
+        assertEquals(20, laptop.get(0).getCoPurchaseCount());
+        assertTrue(laptop.get(1).getCoPurchaseCount() <= 1);
+    }
+
+    @Test
+    void recordOrder_StopsInterningAtMaxProducts() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex(8, 3, 50);
+
+        index.recordOrder(IntStream.range(0, 5).mapToObj(i -> "p" + i).collect(Collectors.toList()));
+
+        assertEquals(3, index.getProductCount());
+        assertEquals(2, index.getProductsDropped());
+        assertTrue(index.topNeighbours("p4", 10).isEmpty());
+    }
+
+    @Test
+    void topNeighbours_UnknownProduct_ReturnsEmpty() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex(8, 100, 50);
+
+        assertTrue(index.topNeighbours("missing", 10).isEmpty());
+    }
+}
@@ -0,0 +1,158 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.common.http.ServiceHttpClient;
+import com.ecommerce.common.http.ServiceRequest;
+import com.ecommerce.common.http.ServiceResponse;
+import com.ecommerce.common.utils.exception.BusinessException;
+import com.ecommerce.common.utils.security.JwtTokenUtil;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutPreparationServiceTest {
+
+    @Mock
+    private ServiceHttpClient serviceHttpClient;
+
+    @Mock
+    private JwtTokenUtil jwtTokenUtil;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CheckoutPreparationService checkoutPreparationService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        checkoutPreparationService = new CheckoutPreparationService(serviceHttpClient, meterRegistry, jwtTokenUtil);
+        ReflectionTestUtils.setField(checkoutPreparationService, "enabled", true);
+        ReflectionTestUtils.setField(checkoutPreparationService, "productService", "product-catalog-service");
+        ReflectionTestUtils.setField(checkoutPreparationService, "inventoryService", "inventory-service");
+        ReflectionTestUtils.setField(checkoutPreparationService, "userService", "user-service");
+    }
+
+    @Test
+    void prepare_AllDependenciesRespond_AppliesCatalogPricesAndDefaultAddress() {
+        respond(Map.of(
+                "/api/products/", Map.of("active", true, "price", "19.99", "name", "Mug", "sku", "MUG-1"),
+                "/check", Map.of("inStock", true),
+                "/addresses/default", Map.of("data", Map.of("addressLine1", "1 Main St", "city", "Springfield",
+                        "state", "IL", "postalCode", "62701", "country", "US"))), 0);
+        when(jwtTokenUtil.getUserIdFromToken("token")).thenReturn("user-42");
+        Order order = order(item("p1", 2, "1.00"));
+
+        checkoutPreparationService.prepare(order, "Bearer token", Instant.now().plusSeconds(5));
+
+        OrderItem item = order.getItems().get(0);
+        assertEquals(Money.of(new BigDecimal("19.99")), item.getUnitPrice());
+        assertEquals(Money.of(new BigDecimal("39.98")), item.getTotalPrice());
+        assertEquals("MUG-1", item.getProductSku());
+        assertEquals("1 Main St, Springfield, IL 62701, US", order.getShippingAddress());
+        // Looked up by the token's user ID, not the username the order carries
+        verify(serviceHttpClient).exchange(argThat(request -> request.path().equals("/users/user-42/addresses/default")),
+                any(TypeReference.class));
+        assertEquals(1, meterRegistry.get("order.checkout.prepare").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void prepare_OutOfStock_FailsWithInsufficientStock() {
+        respond(Map.of(
+                "/api/products/", Map.of("active", true, "price", "5.00"),
+                "/check", Map.of("inStock", false)), 0);
+        Order order = order(item("p1", 1, "5.00"));
+        order.setShippingAddress("1 Main St");
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> checkoutPreparationService.prepare(order, "Bearer token", Instant.now().plusSeconds(5)));
+
+        assertEquals("INSUFFICIENT_STOCK", e.getErrorCode());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void prepare_FirstFailure_CancelsTheCallsStillOutstanding() {
+        CompletableFuture<ServiceResponse<Object>> slowProduct = new CompletableFuture<>();
+        when(serviceHttpClient.exchange(any(ServiceRequest.class), any(TypeReference.class))).thenAnswer(invocation -> {
+            ServiceRequest request = invocation.getArgument(0);
+            return request.path().contains("/check")
+                    ? CompletableFuture.completedFuture(new ServiceResponse<Object>(200, Map.of("inStock", false), null))
+                    : slowProduct;
+        });
+        Order order = order(item("p1", 1, "5.00"));
+        order.setShippingAddress("1 Main St");
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> checkoutPreparationService.prepare(order, "Bearer token", Instant.now().plusSeconds(5)));
+
+        assertEquals("INSUFFICIENT_STOCK", e.getErrorCode());
+        assertTrue(slowProduct.isCancelled());
+    }
+
+    @Test
+    void prepare_DependenciesSlowerThanDeadline_FailsAtDeadlineNotAfterSum() {
+        respond(Map.of(
+                "/api/products/", Map.of("active", true, "price", "5.00"),
+                "/check", Map.of("inStock", true)), 1000);
+        Order order = order(item("p1", 1, "5.00"), item("p2", 1, "5.00"));
+        order.setShippingAddress("1 Main St");
+
+        long start = System.nanoTime();
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> checkoutPreparationService.prepare(order, "Bearer token", Instant.now().plusMillis(200)));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("CHECKOUT_TIMEOUT", e.getErrorCode());
+        assertTrue(elapsedMs < 900, "should give up at the deadline, took " + elapsedMs + " ms");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void respond(Map<String, Map<String, Object>> bodies, long delayMs) {
+        when(serviceHttpClient.exchange(any(ServiceRequest.class), any(TypeReference.class))).thenAnswer(invocation -> {
+            ServiceRequest request = invocation.getArgument(0);
+            ServiceResponse<Object> response = bodies.entrySet().stream()
+                    .filter(entry -> request.path().contains(entry.getKey()))
+                    .findFirst()
+                    .map(entry -> new ServiceResponse<Object>(200, entry.getValue(), null))
+                    .orElseThrow();
+            return delayMs > 0
+                    ? CompletableFuture.supplyAsync(() -> response,
+                            CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS))
+                    : CompletableFuture.completedFuture(response);
+        });
+    }
+
+    private Order order(OrderItem... items) {
+        Order order = new Order();
+        order.setCustomerId("customer-1");
+        order.setItems(new ArrayList<>(List.of(items)));
+        return order;
+    }
+
+    private OrderItem item(String productId, int quantity, String unitPrice) {
+        return OrderItem.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .unitPrice(Money.of(new BigDecimal(unitPrice)))
+                .build();
+    }
+}
@@ -0,0 +1,203 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.http.ServiceHttpClient;
+import com.ecommerce.common.http.ServiceRequest;
+import com.ecommerce.common.http.ServiceResponse;
+import com.ecommerce.order.dto.OrderImportResult;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.kafka.OrderEventProducer;
+import com.ecommerce.order.repository.OrderImportJobRepository;
+import com.ecommerce.order.resilience.DependencyGuard;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderImportServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderImportJobRepository orderImportJobRepository;
+
+    @Mock
+    private OrderEventProducer orderEventProducer;
+
+    @Mock
+    private ServiceHttpClient serviceHttpClient;
+
+    @TempDir
+    Path spoolDirectory;
+
+    private OrderImportService orderImportService;
+
+    @BeforeEach
+    void setUp() {
+        DependencyGuard dependencyGuard = new DependencyGuard(CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(), new SimpleMeterRegistry());
+        orderImportService = new OrderImportService(orderService, orderImportJobRepository, orderEventProducer,
+                serviceHttpClient, dependencyGuard, new ObjectMapper());
+        ReflectionTestUtils.setField(orderImportService, "inventoryService", "inventory-service");
+        ReflectionTestUtils.setField(orderImportService, "paymentService", "payment-service");
+        ReflectionTestUtils.setField(orderImportService, "chunkSize", 500);
+        ReflectionTestUtils.setField(orderImportService, "maxItemsPerOrder", 100);
+        ReflectionTestUtils.setField(orderImportService, "paymentAttempts", 3);
+        ReflectionTestUtils.setField(orderImportService, "paymentRetryBackoff", Duration.ZERO);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_ReservesOncePerChunk_AndRejectsOrdersTheReservedStockDoesNotCover() throws Exception {
+        Path file = spoolDirectory.resolve("job-1.ndjson");
+        Files.write(file, List.of(
+                line("A", "p1", 2),
+                line("B", "p1", 2),
+                "{\"externalReference\":\"C\",\"items\":[]}",
+                line("D", "p1", 2)));
+
+        // Only 5 of the 6 units asked for are available
+        when(serviceHttpClient.exchange(any(ServiceRequest.class), any(TypeReference.class))).thenAnswer(invocation -> {
+            ServiceRequest request = invocation.getArgument(0);
+            if (request.path().equals("/inventory/reserve/batch")) {
+                assertEquals(Map.of("p1", 6), ((Map<String, Object>) request.body()).get("quantities"));
+                return CompletableFuture.completedFuture(new ServiceResponse<>(200, Map.of("reserved", Map.of("p1", 5)), null));
+            }
+            List<Map<String, Object>> payments = ((List<Map<String, Object>>) request.body()).stream()
+                    .map(payment -> Map.<String, Object>of("id", "pay-" + payment.get("orderId"), "orderId", payment.get("orderId")))
+                    .toList();
+            return CompletableFuture.completedFuture(new ServiceResponse<>(201, payments, null));
+        });
+        when(serviceHttpClient.exchange(any(ServiceRequest.class), eq(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(new ServiceResponse<>(200, "", null)));
+        when(orderService.createImportedOrders(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            for (int i = 0; i < orders.size(); i++) {
+                orders.get(i).setId("order-" + i);
+                orders.get(i).setCreatedAt(LocalDateTime.now());
+                orders.get(i).setSubtotal(orders.get(i).getItems().get(0).getUnitPrice().times(2));
+                orders.get(i).setTotalAmount(orders.get(i).getSubtotal());
+            }
+            return orders;
+        });
+
+        orderImportService.run("job-1", file, "Bearer token");
+
+        ArgumentCaptor<OrderImportResult> results = ArgumentCaptor.forClass(OrderImportResult.class);
+        verify(orderEventProducer, times(4)).sendOrderImportResult(results.capture());
+        Map<String, String> statusByReference = results.getAllValues().stream()
+                .collect(Collectors.toMap(OrderImportResult::getExternalReference, OrderImportResult::getStatus));
+        assertEquals(Map.of("A", "ACCEPTED", "B", "ACCEPTED", "C", "REJECTED", "D", "REJECTED"), statusByReference);
+
+        verify(orderService).createImportedOrders(argThat(orders -> orders.size() == 2));
+        verify(orderService).attachPayments(argThat(orders -> orders.stream().allMatch(order -> order.getPaymentId() != null)));
+        verify(serviceHttpClient).exchange(argThat(request -> request != null
+                && request.path().equals("/inventory/release/batch")
+                && ((Map<String, Object>) request.body()).get("quantities").equals(Map.of("p1", 1))), eq(String.class));
+        verify(orderImportJobRepository).addProgress("job-1", 4, 2, 2, 0);
+        verify(orderImportJobRepository).complete("job-1", "COMPLETED", null);
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_RetriesATimedOutPaymentBatch_WithTheSameIdempotencyKey() throws Exception {
+        Path file = spoolDirectory.resolve("job-2.ndjson");
+        Files.write(file, List.of(line("A", "p1", 2)));
+
+        List<String> paymentKeys = new ArrayList<>();
+        when(serviceHttpClient.exchange(any(ServiceRequest.class), any(TypeReference.class))).thenAnswer(invocation -> {
+            ServiceRequest request = invocation.getArgument(0);
+            if (request.path().equals("/inventory/reserve/batch")) {
+                return CompletableFuture.completedFuture(new ServiceResponse<>(200, Map.of("reserved", Map.of("p1", 2)), null));
+            }
+            paymentKeys.add(request.headers().get("Idempotency-Key"));
+            if (paymentKeys.size() == 1) {
+                // Stored by payment-service, but the answer never arrives
+                return CompletableFuture.failedFuture(new TimeoutException("timed out"));
+            }
+            String orderId = (String) ((List<Map<String, Object>>) request.body()).get(0).get("orderId");
+            return CompletableFuture.completedFuture(new ServiceResponse<>(201,
+                    List.of(Map.<String, Object>of("id", "pay-1", "orderId", orderId)), null));
+        });
+        when(orderService.createImportedOrders(anyList())).thenAnswer(invocation -> savedOrders(invocation.getArgument(0)));
+
+        orderImportService.run("job-2", file, "Bearer token");
+
+        assertEquals(List.of("order-import-job-2-1", "order-import-job-2-1"), paymentKeys);
+        verify(orderService).attachPayments(argThat(orders -> orders.get(0).getPaymentId().equals("pay-1")));
+        verify(orderService, never()).cancelImportedOrders(anyList(), anyString());
+        verify(orderImportJobRepository).addProgress("job-2", 1, 1, 0, 0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_VoidsPaymentsAndReleasesStock_WhenThePaymentBatchKeepsFailing() throws Exception {
+        Path file = spoolDirectory.resolve("job-3.ndjson");
+        Files.write(file, List.of(line("A", "p1", 2)));
+
+        when(serviceHttpClient.exchange(any(ServiceRequest.class), any(TypeReference.class))).thenAnswer(invocation -> {
+            ServiceRequest request = invocation.getArgument(0);
+            if (request.path().equals("/inventory/reserve/batch")) {
+                return CompletableFuture.completedFuture(new ServiceResponse<>(200, Map.of("reserved", Map.of("p1", 2)), null));
+            }
+            return CompletableFuture.completedFuture(new ServiceResponse<>(503, null, null));
+        });
+        when(serviceHttpClient.exchange(any(ServiceRequest.class), eq(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(new ServiceResponse<>(200, "", null)));
+        when(orderService.createImportedOrders(anyList())).thenAnswer(invocation -> savedOrders(invocation.getArgument(0)));
+
+        orderImportService.run("job-3", file, "Bearer token");
+
+        verify(serviceHttpClient, times(3)).exchange(argThat(request -> request != null
+                && request.path().equals("/payments/batch")), any(TypeReference.class));
+        verify(orderService).cancelImportedOrders(argThat(orders -> orders.size() == 1), anyString());
+        verify(serviceHttpClient).exchange(argThat(request -> request != null
+                && request.path().equals("/payments/batch/cancel")
+                && request.body().equals(List.of("order-0"))), eq(String.class));
+        verify(serviceHttpClient).exchange(argThat(request -> request != null
+                && request.path().equals("/inventory/release/batch")
+                && ((Map<String, Object>) request.body()).get("quantities").equals(Map.of("p1", 2))), eq(String.class));
+        verify(orderImportJobRepository).addProgress("job-3", 1, 0, 0, 1);
+    }
+
+    private static List<Order> savedOrders(List<Order> orders) {
+        for (int i = 0; i < orders.size(); i++) {
+            orders.get(i).setId("order-" + i);
+            orders.get(i).setCreatedAt(LocalDateTime.now());
+            orders.get(i).setSubtotal(orders.get(i).getItems().get(0).getUnitPrice().times(2));
+            orders.get(i).setTotalAmount(orders.get(i).getSubtotal());
+        }
+        return orders;
+    }
+
+    private static String line(String reference, String productId, int quantity) {
+        return "{\"externalReference\":\"" + reference + "\",\"customerId\":\"customer-1\",\"items\":[" +
+                "{\"productId\":\"" + productId + "\",\"quantity\":" + quantity + ",\"unitPrice\":10.00}]}";
+    }
+}
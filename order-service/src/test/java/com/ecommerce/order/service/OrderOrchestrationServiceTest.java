@@ -0,0 +1,129 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.common.http.ServiceHttpClient;
+import com.ecommerce.common.http.ServiceRequest;
+import com.ecommerce.common.http.ServiceResponse;
+import com.ecommerce.common.utils.exception.BusinessException;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.kafka.OrderEventProducer;
+import com.ecommerce.order.resilience.DependencyGuard;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderOrchestrationServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderEventProducer orderEventProducer;
+
+    @Mock
+    private CheckoutPreparationService checkoutPreparationService;
+
+    @Mock
+    private ServiceHttpClient serviceHttpClient;
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private BulkheadRegistry bulkheadRegistry;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderOrchestrationService orderOrchestrationService;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        meterRegistry = new SimpleMeterRegistry();
+        DependencyGuard dependencyGuard = new DependencyGuard(circuitBreakerRegistry, bulkheadRegistry, meterRegistry);
+        orderOrchestrationService = new OrderOrchestrationService(orderService, orderEventProducer,
+                checkoutPreparationService, serviceHttpClient, dependencyGuard);
+        ReflectionTestUtils.setField(orderOrchestrationService, "inventoryService", "inventory-service");
+        ReflectionTestUtils.setField(orderOrchestrationService, "paymentService", "payment-service");
+        ReflectionTestUtils.setField(orderOrchestrationService, "prepareBudgetMs", 3000L);
+        ReflectionTestUtils.setField(orderOrchestrationService, "requestBudgetMs", 10000L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void processOrder_PaymentCircuitOpen_FailsFastAndCompensates() {
+        circuitBreakerRegistry.circuitBreaker(DependencyGuard.PAYMENT).transitionToOpenState();
+        Order order = order();
+        when(orderService.createOrder(order)).thenReturn(order);
+        when(serviceHttpClient.exchange(any(ServiceRequest.class), any(TypeReference.class)))
+                .thenReturn(CompletableFuture.completedFuture(
+                        new ServiceResponse<>(200, Map.of("success", true), null)));
+        when(serviceHttpClient.exchange(any(ServiceRequest.class), eq(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(new ServiceResponse<>(200, "", null)));
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> orderOrchestrationService.processOrder(order, "Bearer token"));
+
+        assertEquals("PAYMENT_SERVICE_UNAVAILABLE", e.getErrorCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getHttpStatus());
+        verify(serviceHttpClient, never()).exchange(argThat(request -> request != null
+                && request.service().equals("payment-service")), any(TypeReference.class));
+        verify(serviceHttpClient, times(1)).exchange(argThat(request -> request != null
+                && request.path().equals("/inventory/release")), eq(String.class));
+        verify(orderService).cancelOrder(eq("order-1"), anyString());
+        assertEquals(1, meterRegistry.get("order.remote.rejected")
+                .tag("dependency", DependencyGuard.PAYMENT)
+                .tag("reason", "circuit_open")
+                .counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void processOrder_InventoryBulkheadFull_RejectsWithoutCallingInventory() {
+        bulkheadRegistry.bulkhead(DependencyGuard.INVENTORY).acquirePermission();
+        Order order = order();
+        when(orderService.createOrder(order)).thenReturn(order);
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> orderOrchestrationService.processOrder(order, "Bearer token"));
+
+        assertEquals("INVENTORY_SERVICE_UNAVAILABLE", e.getErrorCode());
+        verify(serviceHttpClient, never()).exchange(any(ServiceRequest.class), any(TypeReference.class));
+        verify(orderService).cancelOrder(eq("order-1"), anyString());
+    }
+
+    private Order order() {
+        Order order = new Order();
+        order.setId("order-1");
+        order.setOrderNumber("ORD-1");
+        order.setCustomerId("customer-1");
+        order.setTotalAmount(Money.of(new BigDecimal("10.00")));
+        order.setItems(new ArrayList<>(List.of(OrderItem.builder()
+                .productId("p1")
+                .quantity(1)
+                .unitPrice(Money.of(new BigDecimal("10.00")))
+                .build())));
+        return order;
+    }
+}
@@ -0,0 +1,94 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.repository.OrderPartitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderPartitionServiceTest {
+
+    @Mock
+    private OrderPartitionRepository partitionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private OrderPartitionService orderPartitionService;
+
+    @TempDir
+    Path archiveDirectory;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderPartitionService, "retentionMonths", 24);
+        ReflectionTestUtils.setField(orderPartitionService, "archiveDirectoryName", archiveDirectory.toString());
+        orderPartitionService.init();
+        lenient().when(partitionRepository.tryLockMaintenance()).thenReturn(true);
+        lenient().when(partitionRepository.copyOut(anyString(), any(), any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write(("id\n" + invocation.getArgument(1)).getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+    }
+
+    @Test
+    void archiveExpiredPartitions_ExportsAndDropsOnlyMonthsBeforeRetention() throws Exception {
+        YearMonth old = YearMonth.now().minusMonths(30);
+        YearMonth recent = YearMonth.now().minusMonths(1);
+        when(partitionRepository.findPartitionMonths()).thenReturn(List.of(old, recent));
+
+        List<YearMonth> archived = orderPartitionService.archiveExpiredPartitions();
+
+        assertEquals(List.of(old), archived);
+        verify(partitionRepository).dropPartitions(old);
+        verify(partitionRepository).deleteSummaries(old);
+        verify(partitionRepository, never()).dropPartitions(recent);
+        assertEquals("id\n" + old, gunzip(archiveDirectory.resolve(
+                OrderPartitionRepository.partitionName(OrderPartitionRepository.ORDERS, old) + ".csv.gz")));
+        assertTrue(Files.exists(archiveDirectory.resolve(
+                OrderPartitionRepository.partitionName(OrderPartitionRepository.ORDER_ITEMS, old) + ".csv.gz")));
+        try (var files = Files.list(archiveDirectory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    void archiveExpiredPartitions_OrdersChangedDuringExport_KeepsPartition() {
+        YearMonth old = YearMonth.now().minusMonths(30);
+        when(partitionRepository.findPartitionMonths()).thenReturn(List.of(old));
+        when(partitionRepository.lockAndCheckModifiedSince(eq(old), any())).thenReturn(true);
+
+        List<YearMonth> archived = orderPartitionService.archiveExpiredPartitions();
+
+        assertTrue(archived.isEmpty());
+        verify(partitionRepository, never()).dropPartitions(any());
+        verify(partitionRepository, never()).deleteSummaries(any());
+    }
+
+    private static String gunzip(Path file) throws Exception {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.utils.exception.BusinessException;
+import com.ecommerce.order.dto.OrderSummary;
+import com.ecommerce.order.dto.OrderSummaryPage;
+import com.ecommerce.order.repository.OrderSummaryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderSummaryServiceTest {
+
+    @Mock
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @InjectMocks
+    private OrderSummaryService orderSummaryService;
+
+    @Test
+    void getCustomerOrders_ExtraRow_ReturnsCursorForLastOrderOnPage() {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123456000);
+        when(orderSummaryRepository.findByCustomer("customer-1", null, null, 3)).thenReturn(List.of(
+                summary("o3", now), summary("o2", now.minusMinutes(1)), summary("o1", now.minusMinutes(2))));
+
+        OrderSummaryPage page = orderSummaryService.getCustomerOrders("customer-1", null, 2);
+
+        assertTrue(page.isHasMore());
+        assertEquals(2, page.getOrders().size());
+        String[] position = OrderSummaryService.decodeCursor(page.getNextCursor());
+        assertEquals(now.minusMinutes(1).toString(), position[0]);
+        assertEquals("o2", position[1]);
+    }
+
+    @Test
+    void getCustomerOrders_WithCursor_QueriesAfterPosition() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        String cursor = OrderSummaryService.encodeCursor(createdAt, "o2");
+        when(orderSummaryRepository.findByCustomer("customer-1", createdAt, "o2", 11)).thenReturn(List.of());
+
+        OrderSummaryPage page = orderSummaryService.getCustomerOrders("customer-1", cursor, 10);
+
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getCustomerOrders_MalformedCursor_Rejected() {
+        assertThrows(BusinessException.class,
+                () -> orderSummaryService.getCustomerOrders("customer-1", "not-a-cursor", 10));
+        verify(orderSummaryRepository, never()).findByCustomer(any(), any(), any(), anyInt());
+    }
+
+    private OrderSummary summary(String orderId, LocalDateTime createdAt) {
+        return OrderSummary.builder().orderId(orderId).customerId("customer-1").createdAt(createdAt).build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.recommendation.ProductRecommendation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private RecommendationService recommendationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(recommendationService, "neighboursPerProduct", 20);
+        ReflectionTestUtils.setField(recommendationService, "sketchCapacity", 64);
+        ReflectionTestUtils.setField(recommendationService, "maxProducts", 1000);
+        ReflectionTestUtils.setField(recommendationService, "maxItemsPerOrder", 50);
+        ReflectionTestUtils.setField(recommendationService, "rebuildFetchSize", 100);
+        recommendationService.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildFromHistory_OrdersReceivedDuringTheScan_AreCountedOnce() throws Exception {
+        ResultSet rows = mock(ResultSet.class);
+        when(rows.next()).thenReturn(true, true, false);
+        when(rows.getString(1)).thenReturn("o1", "o1");
+        when(rows.getString(2)).thenReturn("laptop", "mouse");
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(ResultSetExtractor.class))).thenAnswer(invocation -> {
+            // o1 is in the scan's snapshot but its event arrives late; o2 was placed after the snapshot
+            recommendationService.recordOrder("o1", List.of("laptop", "mouse"));
+            recommendationService.recordOrder("o2", List.of("laptop", "mouse"));
+            return ((ResultSetExtractor<Object>) invocation.getArgument(1)).extractData(rows);
+        });
+        when(jdbcTemplate.queryForList(startsWith("SELECT DISTINCT order_id FROM order_items"), eq(String.class),
+                any(Object[].class))).thenReturn(List.of("o1"));
+
+        recommendationService.rebuildFromHistory();
+
+        List<ProductRecommendation> laptop = recommendationService.getFrequentlyBoughtTogether("laptop", 10);
+        assertEquals(1, laptop.size());
+        assertEquals(2, laptop.get(0).getCoPurchaseCount());
+        assertEquals(2L, recommendationService.getIndexStats().get("ordersRecorded"));
+    }
+}
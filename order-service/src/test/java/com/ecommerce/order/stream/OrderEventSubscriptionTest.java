@@ -0,0 +1,127 @@
+package com.ecommerce.order.stream;
+
+import com.ecommerce.order.dto.OrderStatusEvent;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderEventSubscriptionTest {
+
+    private final RecordingEmitter emitter = new RecordingEmitter();
+    private OrderEventStreamRegistry registry;
+
+    @AfterEach
+    void tearDown() {
+        if (registry != null) {
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    void start_SendsInitialThenHeldBackEvents_SkippingAlreadySentIds() {
+        OrderEventSubscription subscription = new OrderEventSubscription("order-1", emitter, Runnable::run, 8);
+
+        subscription.deliver(event(11, "PROCESSING"));
+        subscription.deliver(event(12, "SHIPPED"));
+        subscription.start(List.of(event(10, "CONFIRMED"), event(11, "PROCESSING")));
+        subscription.deliver(event(12, "SHIPPED"));
+
+        assertEquals(List.of("10", "11", "12"), emitter.sentIds());
+        assertFalse(emitter.completed);
+    }
+
+    @Test
+    void deliver_FinalStatus_CompletesAfterSending() {
+        OrderEventSubscription subscription = new OrderEventSubscription("order-1", emitter, Runnable::run, 8);
+        subscription.start(List.of());
+
+        subscription.deliver(event(20, "DELIVERED"));
+        subscription.deliver(event(21, "REFUNDED"));
+
+        assertEquals(List.of("20"), emitter.sentIds());
+        assertTrue(emitter.completed);
+    }
+
+    @Test
+    void deliver_BufferFull_DisconnectsSubscriber() {
+        List<Runnable> pending = new ArrayList<>();
+        OrderEventSubscription subscription = new OrderEventSubscription("order-1", emitter, pending::add, 2);
+        subscription.start(List.of());
+
+        subscription.deliver(event(1, "CONFIRMED"));
+        subscription.deliver(event(2, "PROCESSING"));
+        subscription.deliver(event(3, "SHIPPED"));
+
+        assertTrue(subscription.isClosed());
+        assertTrue(emitter.completed);
+        assertTrue(emitter.sentIds().isEmpty());
+    }
+
+    @Test
+    void initialEvents_ReplaysHistoryAfterLastEventId_OrFallsBackToLatest() {
+        registry = new OrderEventStreamRegistry();
+        ReflectionTestUtils.setField(registry, "historySize", 3);
+        ReflectionTestUtils.setField(registry, "trackedOrders", 10);
+        ReflectionTestUtils.setField(registry, "senderThreads", 1);
+        ReflectionTestUtils.setField(registry, "heartbeatIntervalMs", 60_000L);
+        registry.init();
+        for (long id = 1; id <= 5; id++) {
+            registry.publish(event(id, "PROCESSING"));
+        }
+        Order order = new Order();
+        order.setId("order-1");
+        order.setStatus(OrderStatus.PROCESSING);
+
+        assertEquals(List.of(4L, 5L), eventIds(registry.initialEvents(order, 3L)));
+        // Event 2 has already left the history, so resuming after 1 would miss it
+        assertEquals(List.of(5L), eventIds(registry.initialEvents(order, 1L)));
+        assertEquals(List.of(5L), eventIds(registry.initialEvents(order, null)));
+
+        order.setId("order-2");
+        List<OrderStatusEvent> snapshot = registry.initialEvents(order, null);
+        assertEquals(1, snapshot.size());
+        assertNull(snapshot.get(0).getEventId());
+        assertEquals("PROCESSING", snapshot.get(0).getStatus());
+    }
+
+    private static OrderStatusEvent event(long id, String status) {
+        return OrderStatusEvent.builder().eventId(id).orderId("order-1").status(status).build();
+    }
+
+    private static List<Long> eventIds(List<OrderStatusEvent> events) {
+        return events.stream().map(OrderStatusEvent::getEventId).collect(Collectors.toList());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.add(builder.build().stream()
+                    .map(part -> part.getData().toString())
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        List<String> sentIds() {
+            return sent.stream()
+                    .map(frame -> frame.replaceAll("(?s).*?id:(\\d+)\n.*", "$1"))
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.payment.config;
 
+import com.ecommerce.payment.risk.RiskCounterReplicator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -72,7 +73,8 @@ public class KafkaConfig {
     public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        // Listeners never acknowledge themselves; commit as each record is handled or sent on to a retry topic
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
         return factory;
     }
 
@@ -131,4 +133,22 @@ public class KafkaConfig {
                 .replicas(1)
                 .build();
     }
+
+    @Bean
+    public NewTopic paymentRefundStatusTopic() {
+        return TopicBuilder.name("payment-refund-status")
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
+    // Velocity counter increments shared between instances; short-lived by nature
+    @Bean
+    public NewTopic paymentRiskCountersTopic() {
+        return TopicBuilder.name(RiskCounterReplicator.RISK_COUNTERS_TOPIC)
+                .partitions(1)
+                .replicas(1)
+                .config("retention.ms", "3600000")
+                .build();
+    }
 }
\ No newline at end of file
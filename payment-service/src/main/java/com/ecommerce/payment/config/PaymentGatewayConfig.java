@@ -0,0 +1,48 @@
+package com.ecommerce.payment.config;
+
+import com.ecommerce.payment.gateway.PaymentGateway;
+import com.ecommerce.payment.gateway.PaymentGatewayProperties;
+import com.ecommerce.payment.gateway.PaymentGatewayRouter;
+import com.ecommerce.payment.gateway.SimulatedPaymentGateway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@EnableConfigurationProperties(PaymentGatewayProperties.class)
+public class PaymentGatewayConfig {
+
+    // Hedge timers, void retries and simulated gateway answers; none of them block
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService paymentGatewayScheduler() {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "payment-gateway-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Routes across every {@link PaymentGateway} bean, plus the configured simulators when
+     * mock mode is on.
+     */
+    @Bean
+    public PaymentGatewayRouter paymentGatewayRouter(ObjectProvider<PaymentGateway> processors,
+                                                     PaymentGatewayProperties properties) {
+        ScheduledExecutorService scheduler = paymentGatewayScheduler();
+        List<PaymentGateway> gateways = new ArrayList<>(processors.orderedStream().toList());
+        if (properties.isMockMode()) {
+            properties.getSimulators().forEach((name, settings) ->
+                    gateways.add(new SimulatedPaymentGateway(name, settings, scheduler)));
+        }
+        return new PaymentGatewayRouter(gateways, properties, scheduler);
+    }
+}
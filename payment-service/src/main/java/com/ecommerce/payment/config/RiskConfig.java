@@ -0,0 +1,10 @@
+package com.ecommerce.payment.config;
+
+import com.ecommerce.payment.risk.RiskProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RiskProperties.class)
+public class RiskConfig {
+}
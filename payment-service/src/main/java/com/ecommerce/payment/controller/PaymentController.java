@@ -1,8 +1,18 @@
 package com.ecommerce.payment.controller;
 
+import com.ecommerce.payment.dto.CustomerPaymentStats;
+import com.ecommerce.payment.dto.PaymentHistoryPage;
 import com.ecommerce.payment.entity.Payment;
 import com.ecommerce.payment.entity.PaymentStatus;
+import com.ecommerce.payment.refund.RefundQueueService;
+import com.ecommerce.payment.refund.RefundRequest;
+import com.ecommerce.payment.risk.RiskProperties;
+import com.ecommerce.payment.service.PaymentBatchProcessor;
+import com.ecommerce.payment.service.PaymentCancellationService;
+import com.ecommerce.payment.service.PaymentExpiryService;
+import com.ecommerce.payment.service.PaymentHistoryService;
 import com.ecommerce.payment.service.PaymentService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,9 +23,11 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/payments")
@@ -23,40 +35,103 @@ import java.util.Map;
 @Slf4j
 public class PaymentController {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final PaymentService paymentService;
+    private final PaymentHistoryService paymentHistoryService;
+    private final PaymentBatchProcessor paymentBatchProcessor;
+    private final PaymentExpiryService paymentExpiryService;
+    private final RefundQueueService refundQueueService;
+    private final PaymentCancellationService paymentCancellationService;
+    private final RiskProperties riskProperties;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('USER', 'CUSTOMER', 'ADMIN', 'SYSTEM')")
-    public ResponseEntity<Payment> createPayment(@Valid @RequestBody Payment payment, Authentication authentication) {
+    public ResponseEntity<Payment> createPayment(@Valid @RequestBody Payment payment, Authentication authentication,
+                                                 HttpServletRequest request) {
         log.info("Creating payment for order: {} by user: {}", payment.getOrderId(), authentication.getName());
         
         // Set customer ID from authentication if not provided
         if (payment.getCustomerId() == null || payment.getCustomerId().isEmpty()) {
             payment.setCustomerId(authentication.getName());
         }
+        // Never taken from the body; screened by the risk engine
+        payment.setClientIp(clientIp(request));
 
         Payment createdPayment = paymentService.createPayment(payment);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdPayment);
     }
 
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SYSTEM')")
+    public ResponseEntity<List<Payment>> createPayments(@RequestBody List<Payment> payments, Authentication authentication) {
+        log.info("Creating {} payments in a batch by user: {}", payments.size(), authentication.getName());
+        
+        if (payments.isEmpty() || payments.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        for (Payment payment : payments) {
+            if (payment.getOrderId() == null || payment.getOrderId().isBlank()
+                    || payment.getCustomerId() == null || payment.getCustomerId().isBlank()
+                    || payment.getAmount() == null || payment.getAmount().signum() <= 0) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        
+        List<Payment> createdPayments = paymentService.createPayments(payments);
+        // Charged in the background; outcomes follow as payment-completed and payment-failed events
+        paymentBatchProcessor.processPending(createdPayments);
+        return ResponseEntity.status(HttpStatus.CREATED).body(createdPayments);
+    }
+
+    @PostMapping("/batch/cancel")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SYSTEM')")
+    public ResponseEntity<List<Payment>> cancelPaymentsForOrders(@RequestBody List<String> orderIds,
+                                                                 Authentication authentication) {
+        log.info("Cancelling the payments of {} orders by user: {}", orderIds.size(), authentication.getName());
+
+        if (orderIds.isEmpty() || orderIds.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<Payment> settled = new ArrayList<>();
+        boolean unsettled = false;
+        for (String orderId : orderIds) {
+            try {
+                paymentCancellationService.cancelForOrder(orderId).ifPresent(settled::add);
+            } catch (IllegalStateException e) {
+                // Still being charged; the caller retries once the outcome is known
+                log.warn("Payment for order {} could not be cancelled yet: {}", orderId, e.getMessage());
+                unsettled = true;
+            }
+        }
+        return ResponseEntity.status(unsettled ? HttpStatus.CONFLICT : HttpStatus.OK).body(settled);
+    }
+
     @PostMapping("/{paymentId}/process")
     @PreAuthorize("hasAnyRole('USER', 'CUSTOMER', 'ADMIN', 'SYSTEM')")
-    public ResponseEntity<Payment> processPayment(@PathVariable String paymentId) {
+    public CompletableFuture<ResponseEntity<Payment>> processPayment(@PathVariable String paymentId) {
         log.info("Processing payment: {}", paymentId);
-        Payment processedPayment = paymentService.processPayment(paymentId);
-        return ResponseEntity.ok(processedPayment);
+        // The request thread is released while the gateway works
+        return paymentService.processPayment(paymentId).thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/{paymentId}/refund")
     @PreAuthorize("hasAnyRole('ADMIN', 'SYSTEM')")
-    public ResponseEntity<Payment> refundPayment(
+    public CompletableFuture<ResponseEntity<Payment>> refundPayment(
             @PathVariable String paymentId,
             @RequestBody Map<String, BigDecimal> request) {
         BigDecimal refundAmount = request.get("amount");
         log.info("Refunding payment: {} amount: {}", paymentId, refundAmount);
         
-        Payment refundedPayment = paymentService.refundPayment(paymentId, refundAmount);
-        return ResponseEntity.ok(refundedPayment);
+        return paymentService.refundPayment(paymentId, refundAmount).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{paymentId}/refunds")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SYSTEM')")
+    public ResponseEntity<List<RefundRequest>> getQueuedRefunds(@PathVariable String paymentId) {
+        // Refunds queued by order cancellations, with their attempts and outcome
+        return ResponseEntity.ok(refundQueueService.getRefunds(paymentId));
     }
 
     @PostMapping("/{paymentId}/cancel")
@@ -110,8 +185,10 @@ public class PaymentController {
 
     @GetMapping("/customer/{customerId}")
     @PreAuthorize("hasAnyRole('USER', 'CUSTOMER', 'ADMIN')")
-    public ResponseEntity<List<Payment>> getPaymentsByCustomer(
+    public ResponseEntity<PaymentHistoryPage> getPaymentsByCustomer(
             @PathVariable String customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
             Authentication authentication) {
         
         // Users can only view their own payments unless they're admin
@@ -121,8 +198,28 @@ public class PaymentController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
-        List<Payment> payments = paymentService.getPaymentsByCustomerId(customerId);
-        return ResponseEntity.ok(payments);
+        try {
+            return ResponseEntity.ok(paymentHistoryService.getCustomerPayments(customerId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/customer/{customerId}/stats")
+    @PreAuthorize("hasAnyRole('USER', 'CUSTOMER', 'ADMIN')")
+    public ResponseEntity<List<CustomerPaymentStats>> getCustomerStats(
+            @PathVariable String customerId,
+            Authentication authentication) {
+        
+        // Users can only view their own payments unless they're admin
+        if (!customerId.equals(authentication.getName()) && 
+            !authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        // One entry per currency the customer has paid in
+        return ResponseEntity.ok(paymentHistoryService.getCustomerStats(customerId));
     }
 
     @GetMapping("/status/{status}")
@@ -158,15 +255,28 @@ public class PaymentController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, String>> expireOldPayments(
             @RequestParam(defaultValue = "30") int expiryMinutes) {
-        paymentService.expireOldPayments(expiryMinutes);
+        int expired = paymentExpiryService.expireOlderThan(expiryMinutes);
         
         Map<String, String> response = new HashMap<>();
         response.put("message", "Old payments expired successfully");
         response.put("expiryMinutes", String.valueOf(expiryMinutes));
+        response.put("expired", String.valueOf(expired));
         
         return ResponseEntity.ok(response);
     }
 
+    // Each trusted proxy appends its caller to X-Forwarded-For, so the client is the entry
+    // the outermost one appended; anything further left is whatever the client sent
+    private String clientIp(HttpServletRequest request) {
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        int trustedProxies = riskProperties.getTrustedProxies();
+        if (trustedProxies <= 0 || forwardedFor == null || forwardedFor.isBlank()) {
+            return request.getRemoteAddr();
+        }
+        String[] entries = forwardedFor.split(",");
+        return entries[Math.max(0, entries.length - trustedProxies)].trim();
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         Map<String, String> health = new HashMap<>();
@@ -0,0 +1,39 @@
+package com.ecommerce.payment.controller;
+
+import com.ecommerce.payment.reconciliation.PaymentReconciliationService;
+import com.ecommerce.payment.reconciliation.ReconciliationRun;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/payments/reconciliation")
+@RequiredArgsConstructor
+@Slf4j
+public class ReconciliationController {
+
+    private final PaymentReconciliationService paymentReconciliationService;
+
+    @PostMapping("/runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReconciliationRun> reconcile(Authentication authentication) {
+        log.info("Payment reconciliation requested by user: {}", authentication.getName());
+        
+        // Conflict when another instance is already reconciling
+        return paymentReconciliationService.reconcile()
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @GetMapping("/runs/latest")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReconciliationRun> getLatestRun() {
+        return paymentReconciliationService.getLatestRun()
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+}
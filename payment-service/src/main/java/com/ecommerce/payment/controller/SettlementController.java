@@ -0,0 +1,45 @@
+package com.ecommerce.payment.controller;
+
+import com.ecommerce.payment.settlement.SettlementReport;
+import com.ecommerce.payment.settlement.SettlementReportService;
+import com.ecommerce.payment.settlement.SettlementTotal;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/payments/settlements")
+@RequiredArgsConstructor
+@Slf4j
+public class SettlementController {
+
+    private final SettlementReportService settlementReportService;
+
+    @PostMapping("/{date}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SettlementReport> runReport(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            Authentication authentication) {
+        log.info("Settlement report for {} requested by user: {}", date, authentication.getName());
+
+        // Conflict when another instance is already running this date
+        return settlementReportService.runReport(date)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @GetMapping("/{date}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<SettlementTotal>> getTotals(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(settlementReportService.getTotals(date));
+    }
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A customer's lifetime payment totals in one currency. {@code paymentCount} counts paid
+ * payments, refunded ones included.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerPaymentStats {
+
+    private String customerId;
+
+    private String currency;
+
+    private long paymentCount;
+
+    private BigDecimal totalPaid;
+
+    private BigDecimal totalRefunded;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.payment.dto;
+
+import com.ecommerce.payment.entity.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A payment as listed in a customer's payment history, without the gateway response and
+ * other detail only {@code GET /payments/{id}} needs.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSummary {
+
+    private String id;
+
+    private String orderId;
+
+    private BigDecimal amount;
+
+    private String currency;
+
+    private PaymentStatus status;
+
+    private String paymentMethod;
+
+    private String cardBrand;
+
+    private String cardLastFour;
+
+    private BigDecimal refundAmount;
+
+    private LocalDateTime createdAt;
+}
@@ -1,5 +1,9 @@
 package com.ecommerce.payment.entity;
 
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.common.utils.id.TimeOrderedId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -23,7 +27,7 @@ import java.time.LocalDateTime;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private String id;
 
     @Column(name = "order_id", nullable = false)
@@ -55,6 +59,9 @@ public class Payment {
     @Column(name = "transaction_id", unique = true)
     private String transactionId;
 
+    @Column(name = "gateway")
+    private String gateway;
+
     @Column(name = "gateway_reference")
     private String gatewayReference;
 
@@ -70,16 +77,37 @@ public class Payment {
     @Column(name = "card_brand")
     private String cardBrand;
 
+    // Token from the card vault identifying the card without its number, for velocity checks;
+    // accepted in requests but never returned
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    @Column(name = "card_fingerprint")
+    private String cardFingerprint;
+
+    // Set from the request by the controller, never from the body, and never returned
+    @JsonIgnore
+    @Column(name = "client_ip")
+    private String clientIp;
+
     @Column(name = "billing_address", columnDefinition = "TEXT")
     private String billingAddress;
 
     @Column(name = "metadata", columnDefinition = "TEXT")
     private String metadata;
 
+    // Charge without waiting to be asked; a payment left PENDING with this set is charged by the sweep
+    @Column(name = "auto_process", nullable = false)
+    @Builder.Default
+    private boolean autoProcess = false;
+
     @Column(name = "refund_amount")
     @Builder.Default
     private BigDecimal refundAmount = BigDecimal.ZERO;
 
+    // Reserved by refunds sent to the gateway but not yet settled, so two cannot both pay out the remainder
+    @Column(name = "pending_refund_amount", nullable = false)
+    @Builder.Default
+    private BigDecimal pendingRefundAmount = BigDecimal.ZERO;
+
     @Column(name = "processed_at")
     private LocalDateTime processedAt;
 
@@ -94,6 +122,26 @@ public class Payment {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    /**
+     * The charged amount in this payment's currency. Amount columns are kept as decimals next
+     * to the currency column, so the Money view is built from both.
+     */
+    public Money chargedAmount() {
+        return Money.of(amount, currency);
+    }
+
+    public Money refundedAmount() {
+        return refundAmount == null ? Money.zero(currency) : Money.of(refundAmount, currency);
+    }
+
+    public Money pendingRefundedAmount() {
+        return pendingRefundAmount == null ? Money.zero(currency) : Money.of(pendingRefundAmount, currency);
+    }
+
+    public Money refundableAmount() {
+        return chargedAmount().minus(refundedAmount()).minus(pendingRefundedAmount());
+    }
+
     @PrePersist
     private void generateTransactionId() {
         if (this.transactionId == null) {
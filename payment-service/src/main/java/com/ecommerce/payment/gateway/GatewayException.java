@@ -0,0 +1,11 @@
+package com.ecommerce.payment.gateway;
+
+/**
+ * The gateway could not be reached or gave no usable answer, so the outcome is unknown.
+ */
+public class GatewayException extends RuntimeException {
+
+    public GatewayException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.payment.gateway;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A provider's answer to a charge or refund. {@code reference} is the gateway reference of
+ * a charge, or the refund reference of a refund; {@code gateway} names the provider that
+ * answered.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class GatewayResult {
+
+    private String gateway;
+    private boolean success;
+    private String reference;
+    private String authorizationCode;
+    private String errorCode;
+    private String message;
+    private String cardLastFour;
+    private String cardBrand;
+    private long timestamp;
+    private long processingTime;
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.payment.gateway;
+
+import java.util.Arrays;
+
+/**
+ * Recent behaviour of one gateway: exponentially weighted averages of latency and error
+ * rate, plus a window of recent latencies for percentiles.
+ */
+class GatewayStats {
+
+    // Fewer samples than this give no percentile; the router falls back to its default delay
+    static final int MIN_PERCENTILE_SAMPLES = 20;
+
+    private final double alpha;
+    private final long[] latencies;
+    private int next;
+    private int count;
+    private double latencyEwma = -1;
+    private double errorEwma;
+
+    GatewayStats(double alpha, int window) {
+        this.alpha = alpha;
+        this.latencies = new long[Math.max(window, MIN_PERCENTILE_SAMPLES)];
+    }
+
+    synchronized void recordAnswer(long latencyMs) {
+        record(latencyMs, 0);
+    }
+
+    /**
+     * Errors count with the time they took, so a gateway timing out also looks slow.
+     */
+    synchronized void recordError(long latencyMs) {
+        record(latencyMs, 1);
+    }
+
+    private void record(long latencyMs, double error) {
+        latencyEwma = latencyEwma < 0 ? latencyMs : alpha * latencyMs + (1 - alpha) * latencyEwma;
+        errorEwma = alpha * error + (1 - alpha) * errorEwma;
+        latencies[next] = latencyMs;
+        next = (next + 1) % latencies.length;
+        count = Math.min(count + 1, latencies.length);
+    }
+
+    /**
+     * Expected time to a usable answer: average latency stretched by the error rate. A
+     * gateway with no samples scores zero, so it is tried first.
+     */
+    synchronized double score() {
+        if (latencyEwma < 0) {
+            return 0;
+        }
+        return latencyEwma / Math.max(0.05, 1 - errorEwma);
+    }
+
+    /**
+     * The {@code percentile} (0 to 1) of recent latencies, or -1 with too few samples.
+     */
+    synchronized long latencyPercentile(double percentile) {
+        if (count < MIN_PERCENTILE_SAMPLES) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return sorted[Math.min(Math.max(index, 0), count - 1)];
+    }
+
+    synchronized double latencyEwma() {
+        return latencyEwma;
+    }
+
+    synchronized double errorRate() {
+        return errorEwma;
+    }
+}
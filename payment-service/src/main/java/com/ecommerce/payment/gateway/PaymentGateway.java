@@ -0,0 +1,55 @@
+package com.ecommerce.payment.gateway;
+
+import com.ecommerce.payment.entity.Payment;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A payment provider. Calls return straight away and never block the caller; the future
+ * completes when the provider answers, or exceptionally with a {@link GatewayException}
+ * when it could not be reached. Declines are answers, not errors.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Unique among the configured gateways; stored on payments so refunds go back to the
+     * gateway that took the charge.
+     */
+    String getName();
+
+    CompletableFuture<GatewayResult> charge(Payment payment);
+
+    /**
+     * Looks up the charge made for {@code payment}, by the payment ID sent with it, for
+     * charges whose answer never arrived. Completes with null when the gateway has no
+     * record of one.
+     */
+    CompletableFuture<GatewayResult> findCharge(Payment payment);
+
+    CompletableFuture<GatewayResult> refund(RefundInstruction refund);
+
+    /**
+     * The most refunds this gateway takes in one {@link #refundBatch} call; 1 if it has no
+     * batch API.
+     */
+    default int maxRefundBatchSize() {
+        return 1;
+    }
+
+    /**
+     * Submits several refunds at once and completes with their results in the same order.
+     * Gateways without a batch API send them one by one.
+     */
+    default CompletableFuture<List<GatewayResult>> refundBatch(List<RefundInstruction> refunds) {
+        List<CompletableFuture<GatewayResult>> results = refunds.stream().map(this::refund).toList();
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .thenApply(done -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Voids an authorization that will not be captured. Must be idempotent: voiding a
+     * charge that is already voided succeeds, so a void can be retried safely.
+     */
+    CompletableFuture<Void> voidCharge(String gatewayReference);
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.payment.gateway;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "payment.gateway")
+public class PaymentGatewayProperties {
+
+    // Longest a single gateway call may take before it counts as failed
+    private Duration timeout = Duration.ofSeconds(30);
+
+    // Registers the simulators below in place of real processors
+    private boolean mockMode = true;
+
+    private Routing routing = new Routing();
+
+    // Keyed by gateway name, in routing order for gateways without latency samples yet
+    private Map<String, Simulator> simulators = new LinkedHashMap<>();
+
+    @Data
+    public static class Routing {
+
+        // Weight of the newest sample in the latency and error averages
+        private double ewmaAlpha = 0.2;
+
+        // Recent latencies kept per gateway for the hedge delay percentile
+        private int latencyWindow = 200;
+
+        // Share of authorizations sent to a random other gateway, so one that recovered is noticed
+        private double explorationRate = 0.02;
+
+        private boolean hedgingEnabled = true;
+
+        // Hedge once the first gateway has taken longer than this percentile of its recent latencies
+        private double hedgePercentile = 0.95;
+
+        private Duration hedgeMinDelay = Duration.ofMillis(250);
+
+        // Used until a gateway has enough samples for a percentile
+        private Duration hedgeDefaultDelay = Duration.ofMillis(1500);
+
+        private int voidAttempts = 3;
+
+        private Duration voidRetryDelay = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Simulator {
+
+        // Latency is log-normal, fitted to the median and p99
+        private Duration latencyMedian = Duration.ofMillis(700);
+
+        private Duration latencyP99 = Duration.ofMillis(2000);
+
+        private double successRate = 0.85;
+
+        private double refundSuccessRate = 0.9;
+
+        // Refunds accepted per batch call; 1 simulates a gateway without a batch API
+        private int refundBatchSize = 1;
+
+        // Share of calls failing as if the gateway were unavailable
+        private double errorRate = 0.01;
+
+        // Share of calls never answered, leaving it to the caller's timeout
+        private double noResponseRate = 0.0;
+    }
+}
@@ -0,0 +1,272 @@
+package com.ecommerce.payment.gateway;
+
+import com.ecommerce.payment.entity.Payment;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks a gateway for each authorization from the latency and error rate it has shown
+ * recently. With hedging on, an authorization the first gateway has not answered within
+ * its usual p95 is sent to the next best gateway as well; the first answer wins and an
+ * approval from the other one is voided. A gateway error fails over to the next gateway
+ * straight away.
+ *
+ * <p>An authorization the losing gateway never reports back cannot be voided here and is
+ * left to expire at the processor.
+ */
+@Slf4j
+public class PaymentGatewayRouter {
+
+    // The first gateway plus one hedge or failover
+    private static final int MAX_ATTEMPTS = 2;
+
+    private final Map<String, Candidate> candidates = new LinkedHashMap<>();
+    private final PaymentGatewayProperties.Routing routing;
+    private final long timeoutMs;
+    private final ScheduledExecutorService scheduler;
+
+    public PaymentGatewayRouter(List<PaymentGateway> gateways, PaymentGatewayProperties properties,
+                                ScheduledExecutorService scheduler) {
+        if (gateways.isEmpty()) {
+            throw new IllegalStateException("No payment gateways configured");
+        }
+        this.routing = properties.getRouting();
+        this.timeoutMs = properties.getTimeout().toMillis();
+        this.scheduler = scheduler;
+        for (PaymentGateway gateway : gateways) {
+            GatewayStats stats = new GatewayStats(routing.getEwmaAlpha(), routing.getLatencyWindow());
+            if (candidates.putIfAbsent(gateway.getName(), new Candidate(gateway, stats)) != null) {
+                throw new IllegalStateException("Duplicate payment gateway name: " + gateway.getName());
+            }
+        }
+        log.info("Routing payments across gateways: {}", candidates.keySet());
+    }
+
+    /**
+     * Authorizes {@code payment} on the best gateway, hedging to the next one when enabled.
+     * The result names the gateway whose answer was used.
+     */
+    public CompletableFuture<GatewayResult> charge(Payment payment) {
+        return new HedgedCharge(payment, rank()).start();
+    }
+
+    /**
+     * Refunds through the gateway that took the charge. Refunds are not hedged: a second
+     * processor holds nothing to refund. Payments charged before routing have no gateway
+     * recorded and go to the first configured one.
+     */
+    public CompletableFuture<GatewayResult> refund(String gatewayName, RefundInstruction refund) {
+        return refundBatch(gatewayName, List.of(refund)).thenApply(results -> results.get(0));
+    }
+
+    /**
+     * Refunds several charges taken by one gateway, in one call if the gateway has a batch
+     * API. Callers keep batches within {@link #maxRefundBatchSize}.
+     */
+    public CompletableFuture<List<GatewayResult>> refundBatch(String gatewayName, List<RefundInstruction> refunds) {
+        Candidate candidate = refundCandidate(gatewayName);
+        if (candidate == null) {
+            return CompletableFuture.failedFuture(new GatewayException("Unknown payment gateway: " + gatewayName));
+        }
+        CompletableFuture<List<GatewayResult>> results = refunds.size() == 1
+                ? candidate.gateway.refund(refunds.get(0)).thenApply(List::of)
+                : candidate.gateway.refundBatch(refunds);
+        return results
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .thenApply(answers -> {
+                    answers.forEach(result -> result.setGateway(candidate.gateway.getName()));
+                    return answers;
+                });
+    }
+
+    public int maxRefundBatchSize(String gatewayName) {
+        Candidate candidate = refundCandidate(gatewayName);
+        return candidate != null ? candidate.gateway.maxRefundBatchSize() : 1;
+    }
+
+    private Candidate refundCandidate(String gatewayName) {
+        return gatewayName != null ? candidates.get(gatewayName) : candidates.values().iterator().next();
+    }
+
+    /**
+     * Asks every gateway for the charge made for {@code payment}, which may have gone to
+     * any of them when hedged. Completes with the approval if one has it, otherwise with a
+     * decline if one has that, and with null if no gateway has a record. Fails if a gateway
+     * could not answer and none approved, since the outcome is then unknown.
+     */
+    public CompletableFuture<GatewayResult> findCharge(Payment payment) {
+        List<CompletableFuture<GatewayResult>> lookups = new ArrayList<>();
+        for (Candidate candidate : candidates.values()) {
+            lookups.add(candidate.gateway.findCharge(payment)
+                    .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                    .thenApply(result -> {
+                        if (result != null) {
+                            result.setGateway(candidate.gateway.getName());
+                        }
+                        return result;
+                    }));
+        }
+
+        return CompletableFuture.allOf(lookups.stream()
+                        .map(lookup -> lookup.exceptionally(error -> null))
+                        .toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    GatewayResult declined = null;
+                    Throwable failure = null;
+                    for (CompletableFuture<GatewayResult> lookup : lookups) {
+                        try {
+                            GatewayResult result = lookup.join();
+                            if (result != null && result.isSuccess()) {
+                                return result;
+                            }
+                            if (result != null && declined == null) {
+                                declined = result;
+                            }
+                        } catch (CompletionException e) {
+                            failure = e.getCause();
+                        }
+                    }
+                    if (failure != null) {
+                        throw new CompletionException(failure);
+                    }
+                    return declined;
+                });
+    }
+
+    List<String> ranking() {
+        return rank().stream().map(candidate -> candidate.gateway.getName()).toList();
+    }
+
+    private List<Candidate> rank() {
+        List<Candidate> ranked = new ArrayList<>(candidates.values());
+        // Stable, so gateways without samples keep their configured order
+        ranked.sort(Comparator.comparingDouble(candidate -> candidate.stats.score()));
+        if (ranked.size() > 1 && ThreadLocalRandom.current().nextDouble() < routing.getExplorationRate()) {
+            int other = 1 + ThreadLocalRandom.current().nextInt(ranked.size() - 1);
+            ranked.add(0, ranked.remove(other));
+        }
+        return ranked;
+    }
+
+    private long hedgeDelayMs(Candidate primary) {
+        long percentile = primary.stats.latencyPercentile(routing.getHedgePercentile());
+        long delay = percentile >= 0 ? percentile : routing.getHedgeDefaultDelay().toMillis();
+        return Math.max(delay, routing.getHedgeMinDelay().toMillis());
+    }
+
+    private void voidLoser(Candidate loser, String reference, int attempt) {
+        loser.gateway.voidCharge(reference)
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, error) -> {
+                    if (error == null) {
+                        log.info("Voided hedged authorization {} on gateway {}", reference, loser.gateway.getName());
+                    } else if (attempt < routing.getVoidAttempts()) {
+                        // Voids are idempotent, so retrying one that did go through is harmless
+                        scheduler.schedule(() -> voidLoser(loser, reference, attempt + 1),
+                                routing.getVoidRetryDelay().toMillis(), TimeUnit.MILLISECONDS);
+                    } else {
+                        log.error("Could not void hedged authorization {} on gateway {}", reference,
+                                loser.gateway.getName(), error);
+                    }
+                });
+    }
+
+    private record Candidate(PaymentGateway gateway, GatewayStats stats) {
+    }
+
+    private final class HedgedCharge {
+
+        private final Payment payment;
+        private final List<Candidate> ranked;
+        private final int maxAttempts;
+        private final CompletableFuture<GatewayResult> outcome = new CompletableFuture<>();
+
+        // Guarded by this
+        private int launched;
+        private int failed;
+        private ScheduledFuture<?> hedge;
+
+        HedgedCharge(Payment payment, List<Candidate> ranked) {
+            this.payment = payment;
+            this.ranked = ranked;
+            this.maxAttempts = Math.min(MAX_ATTEMPTS, ranked.size());
+        }
+
+        CompletableFuture<GatewayResult> start() {
+            synchronized (this) {
+                launchNext();
+                if (routing.isHedgingEnabled() && maxAttempts > 1 && !outcome.isDone()) {
+                    hedge = scheduler.schedule(this::hedge, hedgeDelayMs(ranked.get(0)), TimeUnit.MILLISECONDS);
+                }
+            }
+            return outcome;
+        }
+
+        private synchronized void hedge() {
+            if (!outcome.isDone() && launched < maxAttempts) {
+                log.info("Hedging payment {} to gateway {}", payment.getId(), ranked.get(launched).gateway.getName());
+                launchNext();
+            }
+        }
+
+        private synchronized void launchNext() {
+            Candidate candidate = ranked.get(launched++);
+            long started = System.nanoTime();
+            candidate.gateway.charge(payment)
+                    .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                    .whenComplete((result, error) -> onAnswer(candidate, started, result, error));
+        }
+
+        private void onAnswer(Candidate candidate, long started, GatewayResult result, Throwable error) {
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            if (error != null) {
+                candidate.stats.recordError(latencyMs);
+                onError(candidate, error);
+                return;
+            }
+
+            candidate.stats.recordAnswer(latencyMs);
+            result.setGateway(candidate.gateway.getName());
+            if (outcome.complete(result)) {
+                cancelHedge();
+            } else if (result.isSuccess()) {
+                // The other gateway answered first; this approval will never be captured
+                voidLoser(candidate, result.getReference(), 1);
+            }
+        }
+
+        private synchronized void onError(Candidate candidate, Throwable error) {
+            failed++;
+            log.warn("Gateway {} failed for payment {}: {}", candidate.gateway.getName(), payment.getId(),
+                    error.getMessage());
+            if (outcome.isDone() || failed < launched) {
+                return;
+            }
+            if (launched < maxAttempts) {
+                // Nothing is in flight any more, so fail over without waiting for the hedge delay
+                cancelHedge();
+                launchNext();
+            } else {
+                outcome.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        }
+
+        private synchronized void cancelHedge() {
+            if (hedge != null) {
+                hedge.cancel(false);
+            }
+        }
+    }
+}
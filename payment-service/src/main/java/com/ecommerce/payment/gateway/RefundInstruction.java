@@ -0,0 +1,10 @@
+package com.ecommerce.payment.gateway;
+
+import java.math.BigDecimal;
+
+/**
+ * A refund of part or all of a charge. Gateways treat a repeated {@code idempotencyKey} as
+ * the same refund and answer it again rather than refunding twice.
+ */
+public record RefundInstruction(String idempotencyKey, String gatewayReference, BigDecimal amount, String currency) {
+}
@@ -0,0 +1,235 @@
+package com.ecommerce.payment.gateway;
+
+import com.ecommerce.payment.entity.Payment;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * Stand-in provider for development and load tests. Answers are completed by a scheduler
+ * after a sampled latency instead of sleeping, so a slow "gateway" holds no threads.
+ * Latency is log-normal, fitted to the configured median and p99.
+ */
+@Slf4j
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    // z-score of the 99th percentile of a standard normal distribution
+    private static final double P99_Z = 2.326;
+
+    private static final Map<String, String> DECLINES = Map.of(
+            "INSUFFICIENT_FUNDS", "Insufficient funds in account",
+            "CARD_DECLINED", "Card declined by issuer",
+            "EXPIRED_CARD", "Card has expired",
+            "INVALID_CVV", "Invalid CVV code",
+            "FRAUD_DETECTED", "Transaction flagged for fraud",
+            "LIMIT_EXCEEDED", "Transaction limit exceeded");
+
+    private static final List<String> DECLINE_CODES = List.copyOf(DECLINES.keySet());
+
+    private static final String[] CARD_BRANDS = {"VISA", "MASTERCARD", "AMEX", "DISCOVER"};
+
+    // Charges, voids and refunds remembered for lookups and repeats, oldest forgotten first
+    private static final int MAX_REMEMBERED = 100_000;
+
+    private final String name;
+    private final PaymentGatewayProperties.Simulator settings;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, GatewayResult> charges = boundedMap();
+    private final Map<String, Boolean> voided = boundedMap();
+    private final Map<String, GatewayResult> refunded = boundedMap();
+
+    public SimulatedPaymentGateway(String name, PaymentGatewayProperties.Simulator settings,
+                                   ScheduledExecutorService scheduler) {
+        this.name = name;
+        this.settings = settings;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public CompletableFuture<GatewayResult> charge(Payment payment) {
+        log.info("Processing payment through gateway {} for amount: {} {}", name, payment.getAmount(), payment.getCurrency());
+        // Decided up front, so a charge whose answer is lost can still be looked up
+        GatewayResult result = decideCharge(payment);
+        return respond(latency -> {
+            result.setProcessingTime(latency);
+            return result;
+        }, () -> charges.put(payment.getId(), result));
+    }
+
+    @Override
+    public CompletableFuture<GatewayResult> findCharge(Payment payment) {
+        log.info("Looking up charge through gateway {} for payment: {}", name, payment.getId());
+        return respond(latency -> {
+            GatewayResult charge = charges.get(payment.getId());
+            if (charge != null && charge.isSuccess() && voided.containsKey(charge.getReference())) {
+                return GatewayResult.builder()
+                        .success(false)
+                        .reference(charge.getReference())
+                        .errorCode("VOIDED")
+                        .message("Authorization voided")
+                        .timestamp(System.currentTimeMillis())
+                        .build();
+            }
+            return charge;
+        });
+    }
+
+    private GatewayResult decideCharge(Payment payment) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() >= settings.getSuccessRate()) {
+            String errorCode = DECLINE_CODES.get(random.nextInt(DECLINE_CODES.size()));
+            return GatewayResult.builder()
+                    .success(false)
+                    .errorCode(errorCode)
+                    .message(DECLINES.get(errorCode))
+                    .timestamp(System.currentTimeMillis())
+                    .build();
+        }
+
+        GatewayResult.GatewayResultBuilder result = GatewayResult.builder()
+                .success(true)
+                .reference("GW_" + UUID.randomUUID())
+                .authorizationCode(String.format("%06d", random.nextInt(999999)))
+                .message("Payment processed successfully")
+                .timestamp(System.currentTimeMillis());
+        if (payment.getPaymentMethod() != null && payment.getPaymentMethod().startsWith("card")) {
+            result.cardLastFour(String.format("%04d", random.nextInt(9999)))
+                    .cardBrand(CARD_BRANDS[random.nextInt(CARD_BRANDS.length)]);
+        }
+        return result.build();
+    }
+
+    @Override
+    public CompletableFuture<GatewayResult> refund(RefundInstruction refund) {
+        log.info("Processing refund through gateway {} for reference: {} amount: {} {}", name,
+                refund.gatewayReference(), refund.amount(), refund.currency());
+        GatewayResult result = decideRefund(refund);
+        return respond(latency -> {
+            result.setProcessingTime(latency);
+            return result;
+        }, () -> remember(refund, result));
+    }
+
+    @Override
+    public int maxRefundBatchSize() {
+        return Math.max(1, settings.getRefundBatchSize());
+    }
+
+    @Override
+    public CompletableFuture<List<GatewayResult>> refundBatch(List<RefundInstruction> refunds) {
+        log.info("Processing batch of {} refunds through gateway {}", refunds.size(), name);
+        List<GatewayResult> results = refunds.stream().map(this::decideRefund).toList();
+        return respond(latency -> {
+            results.forEach(result -> result.setProcessingTime(latency));
+            return results;
+        }, () -> {
+            for (int i = 0; i < refunds.size(); i++) {
+                remember(refunds.get(i), results.get(i));
+            }
+        });
+    }
+
+    /**
+     * Approved refunds are remembered by idempotency key, and a repeat gets the same answer.
+     * Failed ones are not, so they can be retried.
+     */
+    private GatewayResult decideRefund(RefundInstruction refund) {
+        GatewayResult previous = refunded.get(refund.idempotencyKey());
+        if (previous != null) {
+            return previous.toBuilder().build();
+        }
+        if (ThreadLocalRandom.current().nextDouble() >= settings.getRefundSuccessRate()) {
+            return GatewayResult.builder()
+                    .success(false)
+                    .errorCode("REFUND_FAILED")
+                    .message("Unable to process refund")
+                    .timestamp(System.currentTimeMillis())
+                    .build();
+        }
+        return GatewayResult.builder()
+                .success(true)
+                .reference("REF_" + UUID.randomUUID())
+                .message("Refund processed successfully")
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    private void remember(RefundInstruction refund, GatewayResult result) {
+        if (result.isSuccess()) {
+            refunded.putIfAbsent(refund.idempotencyKey(), result);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> voidCharge(String gatewayReference) {
+        log.info("Voiding authorization through gateway {} for reference: {}", name, gatewayReference);
+        // Voids always succeed here, repeated ones included
+        return this.<Void>respond(latency -> null, () -> voided.put(gatewayReference, Boolean.TRUE));
+    }
+
+    private <T> CompletableFuture<T> respond(LongFunction<T> answer) {
+        return respond(answer, () -> { });
+    }
+
+    /**
+     * Answers after a sampled latency. {@code received} runs when the call reaches the
+     * "gateway", whether or not it is answered.
+     */
+    private <T> CompletableFuture<T> respond(LongFunction<T> answer, Runnable received) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double outcome = random.nextDouble();
+        if (outcome < settings.getNoResponseRate()) {
+            // Never answers; the caller's timeout decides what happens
+            received.run();
+            return future;
+        }
+
+        long latency = sampleLatency(random);
+        boolean unavailable = outcome < settings.getNoResponseRate() + settings.getErrorRate();
+        if (!unavailable) {
+            received.run();
+        }
+        scheduler.schedule(() -> {
+            if (unavailable) {
+                future.completeExceptionally(new GatewayException("Payment gateway unavailable: " + name));
+            } else {
+                future.complete(answer.apply(latency));
+            }
+        }, latency, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    private long sampleLatency(ThreadLocalRandom random) {
+        long median = settings.getLatencyMedian().toMillis();
+        if (median <= 0) {
+            return 0;
+        }
+        long p99 = Math.max(settings.getLatencyP99().toMillis(), median);
+        double sigma = Math.log((double) p99 / median) / P99_Z;
+        return Math.round(median * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    private static <V> Map<String, V> boundedMap() {
+        return Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > MAX_REMEMBERED;
+            }
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.payment.kafka;
+
+import com.ecommerce.common.utils.kafka.EventProcessingException;
+import com.ecommerce.payment.service.PaymentHistoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Keeps customers' lifetime payment totals up to date from this service's own payment
+ * events. Its consumer group is separate from the one reading order events, so the totals
+ * are rebuilt from whatever the topics still hold when it first starts.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CustomerPaymentStatsConsumer {
+
+    private final PaymentHistoryService paymentHistoryService;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(topics = {"payment-completed", "payment-refunded"}, groupId = "payment-service-customer-stats")
+    public void handlePaymentEvent(String eventJson) {
+        try {
+            Map<String, Object> event = objectMapper.readValue(eventJson, Map.class);
+            Object totalRefunded = event.get("totalRefunded");
+
+            paymentHistoryService.recordPayment(
+                (String) event.get("paymentId"),
+                (String) event.get("customerId"),
+                (String) event.get("currency"),
+                new BigDecimal(event.get("amount").toString()),
+                totalRefunded != null ? new BigDecimal(totalRefunded.toString()) : BigDecimal.ZERO);
+
+        } catch (Exception e) {
+            throw new EventProcessingException("Error updating customer payment stats", e);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.ecommerce.payment.kafka;
 
+import com.ecommerce.common.utils.idempotency.IdempotentConsumer;
+import com.ecommerce.common.utils.kafka.EventProcessingException;
 import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.service.PaymentCancellationService;
 import com.ecommerce.payment.service.PaymentService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +13,7 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Component
 @Slf4j
@@ -17,6 +21,8 @@ import java.util.Map;
 public class OrderEventConsumer {
 
     private final PaymentService paymentService;
+    private final PaymentCancellationService paymentCancellationService;
+    private final IdempotentConsumer idempotentConsumer;
     private final ObjectMapper objectMapper;
 
     @KafkaListener(topics = "order-created", groupId = "payment-service")
@@ -29,35 +35,45 @@ public class OrderEventConsumer {
             String customerId = (String) event.get("customerId");
             BigDecimal amount = new BigDecimal(event.get("totalAmount").toString());
 
-            // Check if payment already exists for this order
-            if (paymentService.getPaymentByOrderId(orderId).isPresent()) {
+            boolean autoProcess = shouldAutoProcessPayment(event);
+
+            // Create payment for the order, once however often the event is delivered
+            AtomicReference<Payment> created = new AtomicReference<>();
+            boolean first = idempotentConsumer.process("order-created:" + orderId, () -> {
+                Payment payment = Payment.builder()
+                    .orderId(orderId)
+                    .customerId(customerId)
+                    .amount(amount)
+                    .currency("USD")
+                    .paymentMethod("card")
+                    .autoProcess(autoProcess)
+                    .build();
+                created.set(paymentService.createPayment(payment));
+            });
+            if (!first) {
                 log.warn("Payment already exists for order: {}", orderId);
                 return;
             }
 
-            // Create payment for the order
-            Payment payment = Payment.builder()
-                .orderId(orderId)
-                .customerId(customerId)
-                .amount(amount)
-                .currency("USD")
-                .paymentMethod("card")
-                .build();
-
-            Payment createdPayment = paymentService.createPayment(payment);
+            Payment createdPayment = created.get();
             log.info("Payment created for order: {} with payment ID: {}", orderId, createdPayment.getId());
 
-            // Auto-process payment if enabled
-            if (shouldAutoProcessPayment(event)) {
+            // Auto-process payment if enabled; if this is lost to a crash, PaymentAutoProcessService charges it
+            if (autoProcess) {
                 try {
-                    paymentService.processPayment(createdPayment.getId());
+                    // Not awaited: the listener moves on while the gateway works
+                    paymentService.processPayment(createdPayment.getId())
+                        .exceptionally(e -> {
+                            log.error("Failed to auto-process payment: {}", createdPayment.getId(), e);
+                            return null;
+                        });
                 } catch (Exception e) {
                     log.error("Failed to auto-process payment: {}", createdPayment.getId(), e);
                 }
             }
 
         } catch (Exception e) {
-            log.error("Error processing order created event: {}", e.getMessage(), e);
+            throw new EventProcessingException("Error processing order created event", e);
         }
     }
 
@@ -69,34 +85,15 @@ public class OrderEventConsumer {
 
             String orderId = (String) event.get("orderId");
 
-            paymentService.getPaymentByOrderId(orderId).ifPresent(payment -> {
-                switch (payment.getStatus()) {
-                    case PENDING:
-                    case PROCESSING:
-                        try {
-                            paymentService.cancelPayment(payment.getId());
-                            log.info("Payment cancelled for order: {}", orderId);
-                        } catch (Exception e) {
-                            log.error("Failed to cancel payment: {}", payment.getId(), e);
-                        }
-                        break;
-                    case COMPLETED:
-                        // Initiate refund for completed payments
-                        try {
-                            paymentService.refundPayment(payment.getId(), payment.getAmount());
-                            log.info("Refund initiated for cancelled order: {}", orderId);
-                        } catch (Exception e) {
-                            log.error("Failed to refund payment: {}", payment.getId(), e);
-                        }
-                        break;
-                    default:
-                        log.info("No action needed for payment status: {} for order: {}", 
-                            payment.getStatus(), orderId);
-                }
-            });
+            // A failure rolls back the record, so the redelivered event is acted on again
+            boolean first = idempotentConsumer.process("order-cancelled:" + orderId, () ->
+                paymentCancellationService.cancelForOrder(orderId));
+            if (!first) {
+                log.info("Order cancelled event already handled for order: {}", orderId);
+            }
 
         } catch (Exception e) {
-            log.error("Error processing order cancelled event: {}", e.getMessage(), e);
+            throw new EventProcessingException("Error processing order cancelled event", e);
         }
     }
 
@@ -114,7 +111,7 @@ public class OrderEventConsumer {
             }
 
         } catch (Exception e) {
-            log.error("Error processing order completed event: {}", e.getMessage(), e);
+            throw new EventProcessingException("Error processing order completed event", e);
         }
     }
 
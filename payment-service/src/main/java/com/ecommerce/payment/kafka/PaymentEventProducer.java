@@ -1,6 +1,8 @@
 package com.ecommerce.payment.kafka;
 
 import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.refund.RefundRequest;
+import com.ecommerce.payment.repository.PaymentExpiryRepository.ExpiredPayment;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,7 +11,9 @@ import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -46,8 +50,44 @@ public class PaymentEventProducer {
         sendEvent("payment-refunded", event);
     }
 
-    public void sendPaymentExpiredEvent(Payment payment) {
-        sendEvent("payment-expired", payment, "Payment expired");
+    /**
+     * A queued refund changed state: queued, retry scheduled, succeeded or failed. A refund
+     * that succeeds is also announced on payment-refunded.
+     */
+    public void sendRefundStatusEvent(RefundRequest request, String message) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("refundRequestId", request.getId());
+        event.put("paymentId", request.getPaymentId());
+        event.put("orderId", request.getOrderId());
+        event.put("amount", request.getAmount());
+        event.put("currency", request.getCurrency());
+        event.put("status", request.getStatus());
+        event.put("attempts", request.getAttempts());
+        event.put("nextAttemptAt", RefundRequest.QUEUED.equals(request.getStatus())
+            ? request.getNextAttemptAt().toString() : null);
+        event.put("refundReference", request.getRefundReference());
+        event.put("error", request.getLastError());
+        event.put("timestamp", System.currentTimeMillis());
+        event.put("message", message);
+        sendEvent("payment-refund-status", event);
+    }
+
+    /**
+     * One event per expiry chunk, listing the payments it expired by ID and order ID.
+     */
+    public void sendPaymentsExpiredEvent(List<ExpiredPayment> payments) {
+        List<Map<String, Object>> expired = new ArrayList<>(payments.size());
+        for (ExpiredPayment payment : payments) {
+            expired.add(Map.of("paymentId", payment.paymentId(), "orderId", payment.orderId()));
+        }
+
+        Map<String, Object> event = new HashMap<>();
+        event.put("count", payments.size());
+        event.put("payments", expired);
+        event.put("timestamp", System.currentTimeMillis());
+        event.put("message", "Payments expired");
+        // Keyed by the chunk's first payment, only to spread chunks across partitions
+        sendEvent("payment-expired", payments.get(0).paymentId(), event);
     }
 
     private void sendEvent(String topic, Payment payment, String message) {
@@ -70,16 +110,20 @@ public class PaymentEventProducer {
     }
 
     private void sendEvent(String topic, Map<String, Object> event) {
+        sendEvent(topic, event.get("orderId").toString(), event);
+    }
+
+    private void sendEvent(String topic, String key, Map<String, Object> event) {
         try {
             String eventJson = objectMapper.writeValueAsString(event);
             CompletableFuture<SendResult<String, String>> future = 
-                kafkaTemplate.send(topic, event.get("orderId").toString(), eventJson);
+                kafkaTemplate.send(topic, key, eventJson);
 
             future.whenComplete((result, ex) -> {
                 if (ex == null) {
-                    log.info("Event sent to topic [{}]: {}", topic, event.get("orderId"));
+                    log.info("Event sent to topic [{}]: {}", topic, key);
                 } else {
-                    log.error("Failed to send event to topic [{}]: {}", topic, event.get("orderId"), ex);
+                    log.error("Failed to send event to topic [{}]: {}", topic, key, ex);
                 }
             });
         } catch (Exception e) {
@@ -0,0 +1,245 @@
+package com.ecommerce.payment.reconciliation;
+
+import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.entity.PaymentStatus;
+import com.ecommerce.payment.gateway.GatewayResult;
+import com.ecommerce.payment.gateway.PaymentGatewayRouter;
+import com.ecommerce.payment.kafka.PaymentEventProducer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Settles payments stranded in PROCESSING, typically by a crash between charging and
+ * recording the outcome. Candidates are streamed from a cursor and looked up at the
+ * gateways concurrently, under a rate limit and a cap on lookups in flight. Outcomes are
+ * written in batches, each followed by a checkpoint, so a run that dies resumes where it
+ * stopped. Payments no gateway has a record of are failed; lookups that fail are left for
+ * the next run.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentReconciliationService {
+
+    private final ReconciliationRepository reconciliationRepository;
+    private final PaymentGatewayRouter paymentGatewayRouter;
+    private final PaymentEventProducer paymentEventProducer;
+    private final PlatformTransactionManager transactionManager;
+
+    // Only payments untouched for this long are candidates, well past any gateway timeout
+    @Value("${payment.reconciliation.stale-after:15m}")
+    private Duration staleAfter;
+
+    @Value("${payment.reconciliation.rate-per-second:20}")
+    private double ratePerSecond;
+
+    @Value("${payment.reconciliation.max-concurrency:8}")
+    private int maxConcurrency;
+
+    // Corrections per batched update, and payments between checkpoints
+    @Value("${payment.reconciliation.batch-size:100}")
+    private int batchSize;
+
+    @Value("${payment.reconciliation.fetch-size:500}")
+    private int fetchSize;
+
+    // Holds the cursor and the lock for the whole run
+    private TransactionTemplate cursorTransaction;
+
+    // Corrections and checkpoints commit on their own while the cursor stays open
+    private TransactionTemplate writeTransaction;
+
+    @PostConstruct
+    void init() {
+        cursorTransaction = new TransactionTemplate(transactionManager);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Scheduled(cron = "${payment.reconciliation.cron:0 */15 * * * *}")
+    public void reconcileScheduled() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Payment reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Runs a reconciliation, resuming the last one if it did not complete, and returns its
+     * summary. Empty if another instance is reconciling.
+     */
+    public Optional<ReconciliationRun> reconcile() {
+        ReconciliationRun run = cursorTransaction.execute(status -> {
+            if (!reconciliationRepository.tryLockReconciliation()) {
+                return null;
+            }
+            ReconciliationRun current = startOrResume();
+            try {
+                new Pass(current).run();
+                writeTransaction.executeWithoutResult(s ->
+                        reconciliationRepository.finishRun(current.getId(), ReconciliationRun.COMPLETED, null));
+            } catch (RuntimeException e) {
+                // Left to be resumed from its last checkpoint
+                writeTransaction.executeWithoutResult(s ->
+                        reconciliationRepository.finishRun(current.getId(), ReconciliationRun.FAILED, e.getMessage()));
+                throw e;
+            }
+            return current;
+        });
+
+        if (run == null) {
+            log.info("Payment reconciliation is running on another instance");
+            return Optional.empty();
+        }
+        log.info("Reconciliation run {} finished: scanned {}, completed {}, failed {}, unresolved {}", run.getId(),
+                run.getScanned(), run.getCompleted(), run.getFailed(), run.getUnresolved());
+        return reconciliationRepository.findRun(run.getId());
+    }
+
+    public Optional<ReconciliationRun> getLatestRun() {
+        return reconciliationRepository.findLatestRun();
+    }
+
+    private ReconciliationRun startOrResume() {
+        Optional<ReconciliationRun> unfinished = reconciliationRepository.findLatestRun()
+                .filter(run -> !ReconciliationRun.COMPLETED.equals(run.getStatus()));
+        if (unfinished.isPresent()) {
+            ReconciliationRun run = unfinished.get();
+            log.info("Resuming reconciliation run {} after payment {}", run.getId(), run.getLastPaymentId());
+            return run;
+        }
+
+        ReconciliationRun run = ReconciliationRun.builder()
+                .id(UUID.randomUUID().toString())
+                .status(ReconciliationRun.RUNNING)
+                .cutoff(LocalDateTime.now().minus(staleAfter))
+                .startedAt(LocalDateTime.now())
+                .build();
+        writeTransaction.executeWithoutResult(status -> reconciliationRepository.insertRun(run));
+        return run;
+    }
+
+    private static void settle(Payment payment, GatewayResult result) {
+        if (result != null && result.isSuccess()) {
+            payment.setStatus(PaymentStatus.COMPLETED);
+            payment.setGateway(result.getGateway());
+            payment.setGatewayReference(result.getReference());
+            payment.setGatewayResponse(result.toString());
+            payment.setCardLastFour(result.getCardLastFour());
+            payment.setCardBrand(result.getCardBrand());
+            payment.setProcessedAt(LocalDateTime.now());
+        } else {
+            payment.setStatus(PaymentStatus.FAILED);
+            payment.setFailureReason(result != null
+                    ? result.getMessage()
+                    : "Reconciliation: no gateway has a record of this charge");
+            payment.setFailedAt(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * One pass over the cursor. Lookups complete on gateway threads; everything else runs
+     * on the thread reading the cursor.
+     */
+    private final class Pass {
+
+        private final ReconciliationRun run;
+        private final TokenBucket rateLimiter = new TokenBucket(ratePerSecond, maxConcurrency);
+        private final Semaphore inFlight = new Semaphore(maxConcurrency);
+        private final Queue<Payment> settled = new ConcurrentLinkedQueue<>();
+        private final AtomicLong unresolved = new AtomicLong();
+        private int sinceCheckpoint;
+
+        Pass(ReconciliationRun run) {
+            this.run = run;
+            this.unresolved.set(run.getUnresolved());
+        }
+
+        void run() {
+            reconciliationRepository.streamCandidates(run.getCutoff(), run.getLastPaymentId(), fetchSize, this::lookUp);
+            checkpoint();
+        }
+
+        private void lookUp(Payment payment) {
+            try {
+                rateLimiter.acquire();
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reconciliation interrupted", e);
+            }
+
+            paymentGatewayRouter.findCharge(payment).whenComplete((result, error) -> {
+                try {
+                    if (error != null) {
+                        log.warn("Could not look up payment {}: {}", payment.getId(), error.getMessage());
+                        unresolved.incrementAndGet();
+                    } else {
+                        settle(payment, result);
+                        settled.add(payment);
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+
+            run.setScanned(run.getScanned() + 1);
+            run.setLastPaymentId(payment.getId());
+            if (++sinceCheckpoint >= batchSize) {
+                checkpoint();
+            }
+        }
+
+        /**
+         * Waits for the lookups in flight, writes their outcomes and records the last
+         * payment read, so everything up to it is settled or counted unresolved.
+         */
+        private void checkpoint() {
+            inFlight.acquireUninterruptibly(maxConcurrency);
+            try {
+                List<Payment> completed = new ArrayList<>();
+                List<Payment> failed = new ArrayList<>();
+                for (Payment payment = settled.poll(); payment != null; payment = settled.poll()) {
+                    (payment.getStatus() == PaymentStatus.COMPLETED ? completed : failed).add(payment);
+                }
+
+                run.setUnresolved(unresolved.get());
+                List<List<Payment>> applied = writeTransaction.execute(status -> {
+                    List<Payment> markedCompleted = completed.isEmpty()
+                            ? List.of() : reconciliationRepository.markCompleted(completed);
+                    List<Payment> markedFailed = failed.isEmpty()
+                            ? List.of() : reconciliationRepository.markFailed(failed);
+                    run.setCompleted(run.getCompleted() + markedCompleted.size());
+                    run.setFailed(run.getFailed() + markedFailed.size());
+                    reconciliationRepository.checkpoint(run);
+                    return List.of(markedCompleted, markedFailed);
+                });
+
+                applied.get(0).forEach(paymentEventProducer::sendPaymentCompletedEvent);
+                applied.get(1).forEach(paymentEventProducer::sendPaymentFailedEvent);
+                sinceCheckpoint = 0;
+            } finally {
+                inFlight.release(maxConcurrency);
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.ecommerce.payment.reconciliation;
+
+import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.entity.PaymentStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * JDBC access for reconciliation: the candidate cursor, batched status corrections and
+ * {@code payment_reconciliation_runs}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReconciliationRepository {
+
+    // Ordered by ID so the last ID handled is a usable checkpoint
+    private static final String CANDIDATES_SQL =
+            "SELECT id, order_id, customer_id, amount, currency, payment_method, transaction_id FROM payments " +
+            "WHERE status = 'PROCESSING' AND updated_at < ? AND id > ? ORDER BY id";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE payments SET status = 'COMPLETED', gateway = ?, gateway_reference = ?, gateway_response = ?, " +
+            "card_last_four = ?, card_brand = ?, processed_at = ?, updated_at = ? WHERE id = ? AND status = 'PROCESSING'";
+
+    private static final String FAIL_SQL =
+            "UPDATE payments SET status = 'FAILED', failure_reason = ?, failed_at = ?, updated_at = ? " +
+            "WHERE id = ? AND status = 'PROCESSING'";
+
+    private static final String INSERT_RUN_SQL =
+            "INSERT INTO payment_reconciliation_runs (id, status, cutoff, started_at) VALUES (?, ?, ?, ?)";
+
+    private static final String CHECKPOINT_SQL =
+            "UPDATE payment_reconciliation_runs SET status = 'RUNNING', last_payment_id = ?, scanned = ?, " +
+            "completed = ?, failed = ?, unresolved = ? WHERE id = ?";
+
+    private static final String FINISH_RUN_SQL =
+            "UPDATE payment_reconciliation_runs SET status = ?, error = ?, completed_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String SELECT_RUN_SQL =
+            "SELECT id, status, cutoff, last_payment_id, scanned, completed, failed, unresolved, error, started_at, " +
+            "completed_at FROM payment_reconciliation_runs ";
+
+    private static final RowMapper<ReconciliationRun> RUN_MAPPER = (rs, rowNum) -> ReconciliationRun.builder()
+            .id(rs.getString("id"))
+            .status(rs.getString("status"))
+            .cutoff(rs.getTimestamp("cutoff").toLocalDateTime())
+            .lastPaymentId(rs.getString("last_payment_id"))
+            .scanned(rs.getLong("scanned"))
+            .completed(rs.getLong("completed"))
+            .failed(rs.getLong("failed"))
+            .unresolved(rs.getLong("unresolved"))
+            .error(rs.getString("error"))
+            .startedAt(rs.getTimestamp("started_at").toLocalDateTime())
+            .completedAt(rs.getTimestamp("completed_at") != null ? rs.getTimestamp("completed_at").toLocalDateTime() : null)
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes the reconciliation lock for the current transaction, so only one instance
+     * reconciles at a time. Returns false if another instance holds it.
+     */
+    public boolean tryLockReconciliation() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('payment-reconciliation'))", Boolean.class));
+    }
+
+    /**
+     * Streams payments in PROCESSING since before {@code cutoff} with IDs after
+     * {@code afterId}, {@code fetchSize} rows at a time. Needs a transaction, without which
+     * the PostgreSQL driver reads the whole result at once.
+     */
+    public void streamCandidates(LocalDateTime cutoff, String afterId, int fetchSize, Consumer<Payment> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(CANDIDATES_SQL);
+            statement.setFetchSize(fetchSize);
+            statement.setTimestamp(1, Timestamp.valueOf(cutoff));
+            statement.setString(2, afterId != null ? afterId : "");
+            return statement;
+        }, rs -> {
+            consumer.accept(Payment.builder()
+                    .id(rs.getString("id"))
+                    .orderId(rs.getString("order_id"))
+                    .customerId(rs.getString("customer_id"))
+                    .amount(rs.getBigDecimal("amount"))
+                    .currency(rs.getString("currency"))
+                    .paymentMethod(rs.getString("payment_method"))
+                    .transactionId(rs.getString("transaction_id"))
+                    .status(PaymentStatus.PROCESSING)
+                    .build());
+        });
+    }
+
+    /**
+     * Marks the payments COMPLETED with their gateway fields, skipping any no longer in
+     * PROCESSING. Returns the payments that were updated.
+     */
+    public List<Payment> markCompleted(List<Payment> payments) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] counts = jdbcTemplate.batchUpdate(COMPLETE_SQL, payments.stream()
+                .map(payment -> new Object[]{payment.getGateway(), payment.getGatewayReference(),
+                        payment.getGatewayResponse(), payment.getCardLastFour(), payment.getCardBrand(),
+                        Timestamp.valueOf(payment.getProcessedAt()), now, payment.getId()})
+                .toList());
+        return updated(payments, counts);
+    }
+
+    /**
+     * Marks the payments FAILED with their failure reason, skipping any no longer in
+     * PROCESSING. Returns the payments that were updated.
+     */
+    public List<Payment> markFailed(List<Payment> payments) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] counts = jdbcTemplate.batchUpdate(FAIL_SQL, payments.stream()
+                .map(payment -> new Object[]{payment.getFailureReason(), Timestamp.valueOf(payment.getFailedAt()),
+                        now, payment.getId()})
+                .toList());
+        return updated(payments, counts);
+    }
+
+    public void insertRun(ReconciliationRun run) {
+        jdbcTemplate.update(INSERT_RUN_SQL, run.getId(), run.getStatus(), Timestamp.valueOf(run.getCutoff()),
+                Timestamp.valueOf(run.getStartedAt()));
+    }
+
+    public void checkpoint(ReconciliationRun run) {
+        jdbcTemplate.update(CHECKPOINT_SQL, run.getLastPaymentId(), run.getScanned(), run.getCompleted(),
+                run.getFailed(), run.getUnresolved(), run.getId());
+    }
+
+    public void finishRun(String runId, String status, String error) {
+        jdbcTemplate.update(FINISH_RUN_SQL, status, error, runId);
+    }
+
+    public Optional<ReconciliationRun> findRun(String runId) {
+        return jdbcTemplate.query(SELECT_RUN_SQL + "WHERE id = ?", RUN_MAPPER, runId).stream().findFirst();
+    }
+
+    public Optional<ReconciliationRun> findLatestRun() {
+        return jdbcTemplate.query(SELECT_RUN_SQL + "ORDER BY started_at DESC LIMIT 1", RUN_MAPPER).stream().findFirst();
+    }
+
+    private static List<Payment> updated(List<Payment> payments, int[] counts) {
+        List<Payment> updated = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            // Some drivers report SUCCESS_NO_INFO (-2) for batched statements
+            if (counts[i] != 0) {
+                updated.add(payments.get(i));
+            }
+        }
+        return updated;
+    }
+}
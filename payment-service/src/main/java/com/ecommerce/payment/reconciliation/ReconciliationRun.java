@@ -0,0 +1,35 @@
+package com.ecommerce.payment.reconciliation;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One pass over payments stranded in PROCESSING, and its summary. {@code lastPaymentId} is
+ * the checkpoint a run that did not complete resumes from.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRun {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private String id;
+    private String status;
+    private LocalDateTime cutoff;
+    private String lastPaymentId;
+    private long scanned;
+    private long completed;
+    private long failed;
+    private long unresolved;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,358 @@
+package com.ecommerce.payment.refund;
+
+import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.gateway.GatewayResult;
+import com.ecommerce.payment.gateway.PaymentGatewayRouter;
+import com.ecommerce.payment.gateway.RefundInstruction;
+import com.ecommerce.payment.kafka.PaymentEventProducer;
+import com.ecommerce.payment.repository.PaymentRepository;
+import com.ecommerce.payment.service.PaymentService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Durable refund queue. Refunds are stored in {@code refund_requests} and returned to the
+ * caller straight away; workers claim due requests, send them to the gateway that took
+ * the charge in batches where it has a batch API, and record the outcome. Failures are
+ * retried with exponential backoff until {@code max-attempts}. A request that runs out of
+ * attempts without a definite answer from the gateway, such as after a timeout, is left
+ * {@code NEEDS_RECONCILIATION} rather than failed, since the gateway may have refunded it.
+ * A request's amount is reserved on the payment when it is queued, settled when it succeeds
+ * and released when it fails; one needing reconciliation keeps its reservation.
+ * Every change of state is published to payment-refund-status.
+ *
+ * <p>A request's idempotency key goes to the gateway with the refund, so re-sending one
+ * whose answer was lost, or whose worker died, does not refund twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefundQueueService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final RefundRequestRepository refundRequestRepository;
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+    private final PaymentGatewayRouter paymentGatewayRouter;
+    private final PaymentEventProducer paymentEventProducer;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${payment.refund.worker-threads:4}")
+    private int workerThreads;
+
+    // Requests claimed per poll
+    @Value("${payment.refund.claim-size:100}")
+    private int claimSize;
+
+    // Claimed requests not yet finished, across all batches
+    @Value("${payment.refund.max-in-flight:200}")
+    private int maxInFlight;
+
+    // How long a claim lasts before another worker may take the request over
+    @Value("${payment.refund.lease:2m}")
+    private Duration lease;
+
+    @Value("${payment.refund.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${payment.refund.initial-backoff:2s}")
+    private Duration initialBackoff;
+
+    @Value("${payment.refund.max-backoff:10m}")
+    private Duration maxBackoff;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private TransactionTemplate transactionTemplate;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "payment-refund-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Unfinished claims lapse and are picked up again
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues a refund of {@code amount} from {@code payment}. A second call with the same
+     * {@code idempotencyKey} queues nothing and returns the request queued by the first.
+     */
+    public RefundRequest enqueue(Payment payment, BigDecimal amount, String idempotencyKey) {
+        LocalDateTime now = LocalDateTime.now();
+        RefundRequest request = RefundRequest.builder()
+                .id(UUID.randomUUID().toString())
+                .idempotencyKey(idempotencyKey)
+                .paymentId(payment.getId())
+                .orderId(payment.getOrderId())
+                .amount(amount)
+                .currency(payment.getCurrency())
+                .gateway(payment.getGateway())
+                .gatewayReference(payment.getGatewayReference())
+                .status(RefundRequest.QUEUED)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        // The amount is reserved with the insert, so it is held for exactly the requests queued
+        boolean inserted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!refundRequestRepository.insert(request)) {
+                return false;
+            }
+            paymentService.reserveRefund(payment.getId(), amount);
+            return true;
+        }));
+        if (!inserted) {
+            log.info("Refund {} already queued for payment: {}", idempotencyKey, payment.getId());
+            return refundRequestRepository.findByIdempotencyKey(idempotencyKey).orElseThrow();
+        }
+
+        paymentEventProducer.sendRefundStatusEvent(request, "Refund queued");
+        log.info("Refund queued for payment: {} amount: {}", payment.getId(), amount);
+        return request;
+    }
+
+    public List<RefundRequest> getRefunds(String paymentId) {
+        return refundRequestRepository.findByPaymentId(paymentId);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.refund.poll-interval:1000}")
+    public void poll() {
+        try {
+            while (claimAndDispatch() > 0) {
+                // Keep claiming while there is work and room for it
+            }
+        } catch (Exception e) {
+            log.error("Failed to claim refund requests: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Claims what fits under {@code max-in-flight} and hands it to the workers in per-gateway
+     * batches. Returns how many requests were claimed.
+     */
+    int claimAndDispatch() {
+        int room = Math.min(claimSize, maxInFlight - inFlight.get());
+        if (room <= 0) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<RefundRequest> claimed = transactionTemplate.execute(status ->
+                refundRequestRepository.claimDue(now, now.plus(lease), room));
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        inFlight.addAndGet(claimed.size());
+
+        // Null gateway: charged before routing, refunded through the first gateway
+        Map<String, List<RefundRequest>> byGateway = new LinkedHashMap<>();
+        for (RefundRequest request : claimed) {
+            byGateway.computeIfAbsent(request.getGateway(), gateway -> new ArrayList<>()).add(request);
+        }
+        byGateway.forEach((gateway, requests) -> {
+            int batchSize = paymentGatewayRouter.maxRefundBatchSize(gateway);
+            for (int from = 0; from < requests.size(); from += batchSize) {
+                List<RefundRequest> batch = requests.subList(from, Math.min(from + batchSize, requests.size()));
+                executor.execute(() -> send(gateway, batch));
+            }
+        });
+        return claimed.size();
+    }
+
+    private void send(String gateway, List<RefundRequest> batch) {
+        Map<String, Payment> payments;
+        try {
+            payments = paymentRepository.findAllById(batch.stream().map(RefundRequest::getPaymentId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Payment::getId, Function.identity()));
+        } catch (Exception e) {
+            // Nothing was sent, so every request is safe to retry
+            batch.forEach(request -> finish(request, null, e, false));
+            return;
+        }
+
+        // The amount was reserved when the request was queued, so only the payment's existence is checked
+        List<RefundRequest> refundable = new ArrayList<>(batch.size());
+        for (RefundRequest request : batch) {
+            if (payments.containsKey(request.getPaymentId())) {
+                refundable.add(request);
+            } else {
+                // No retry would change the answer
+                complete(request, () -> fail(request, "Payment not found: " + request.getPaymentId()));
+            }
+        }
+        if (refundable.isEmpty()) {
+            return;
+        }
+
+        List<RefundInstruction> instructions = refundable.stream()
+                .map(request -> new RefundInstruction(request.getIdempotencyKey(), request.getGatewayReference(),
+                        request.getAmount(), request.getCurrency()))
+                .toList();
+        paymentGatewayRouter.refundBatch(gateway, instructions)
+                .whenCompleteAsync((results, error) -> {
+                    for (int i = 0; i < refundable.size(); i++) {
+                        finish(refundable.get(i), error == null ? results.get(i) : null, error, true);
+                    }
+                }, executor);
+    }
+
+    private void finish(RefundRequest request, GatewayResult result, Throwable error, boolean sent) {
+        complete(request, () -> {
+            if (result != null && result.isSuccess()) {
+                succeed(request, result);
+            } else if (result != null) {
+                // A decline under the request's key is the gateway's answer for every attempt before it
+                retryOrFail(request, result.getMessage(), false);
+            } else {
+                // Unanswered this time, or an earlier attempt may have been
+                retryOrFail(request, describe(error), sent || request.getAttempts() > 1);
+            }
+        });
+    }
+
+    private void complete(RefundRequest request, Runnable outcome) {
+        try {
+            outcome.run();
+        } catch (Exception e) {
+            // Left IN_PROGRESS; the claim lapses and the request is sent again under its key
+            log.error("Failed to record refund outcome for request: {}", request.getId(), e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void succeed(RefundRequest request, GatewayResult result) {
+        // The refund is recorded on the payment only by the worker still holding the claim
+        boolean recorded = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!refundRequestRepository.markSucceeded(request, result.getReference())) {
+                return false;
+            }
+            paymentService.recordRefund(request.getPaymentId(), request.getAmount());
+            return true;
+        }));
+        if (!recorded) {
+            log.warn("Refund request {} was taken over by another worker", request.getId());
+            return;
+        }
+        request.setStatus(RefundRequest.SUCCEEDED);
+        request.setRefundReference(result.getReference());
+        request.setLastError(null);
+        paymentEventProducer.sendRefundStatusEvent(request, "Refund succeeded");
+    }
+
+    private void retryOrFail(RefundRequest request, String error, boolean outcomeUnknown) {
+        if (request.getAttempts() >= maxAttempts) {
+            if (outcomeUnknown) {
+                needsReconciliation(request, error);
+            } else {
+                fail(request, error);
+            }
+            return;
+        }
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoff(request.getAttempts()));
+        String truncated = truncate(error);
+        if (!refundRequestRepository.scheduleRetry(request, nextAttemptAt, truncated)) {
+            log.warn("Refund request {} was taken over by another worker", request.getId());
+            return;
+        }
+        log.warn("Refund for payment {} failed on attempt {}, retrying at {}: {}", request.getPaymentId(),
+                request.getAttempts(), nextAttemptAt, error);
+        request.setStatus(RefundRequest.QUEUED);
+        request.setNextAttemptAt(nextAttemptAt);
+        request.setLastError(truncated);
+        paymentEventProducer.sendRefundStatusEvent(request, "Refund retry scheduled");
+    }
+
+    private void fail(RefundRequest request, String error) {
+        String truncated = truncate(error);
+        // The gateway refunded nothing, so the reservation is returned with the request
+        boolean failed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!refundRequestRepository.markFailed(request, truncated)) {
+                return false;
+            }
+            paymentService.releaseRefund(request.getPaymentId(), request.getAmount());
+            return true;
+        }));
+        if (!failed) {
+            log.warn("Refund request {} was taken over by another worker", request.getId());
+            return;
+        }
+        log.error("Refund for payment {} failed after {} attempts: {}", request.getPaymentId(),
+                request.getAttempts(), error);
+        request.setStatus(RefundRequest.FAILED);
+        request.setLastError(truncated);
+        paymentEventProducer.sendRefundStatusEvent(request, "Refund failed");
+    }
+
+    // Neither retried nor failed: whether the refund went through has to be checked with the gateway
+    private void needsReconciliation(RefundRequest request, String error) {
+        String truncated = truncate(error);
+        if (!refundRequestRepository.markNeedsReconciliation(request, truncated)) {
+            log.warn("Refund request {} was taken over by another worker", request.getId());
+            return;
+        }
+        log.error("Refund for payment {} has no definite outcome after {} attempts, needs reconciliation: {}",
+                request.getPaymentId(), request.getAttempts(), error);
+        request.setStatus(RefundRequest.NEEDS_RECONCILIATION);
+        request.setLastError(truncated);
+        paymentEventProducer.sendRefundStatusEvent(request, "Refund outcome unknown, needs reconciliation");
+    }
+
+    /**
+     * Exponential in the attempts made so far, capped at {@code max-backoff}, with jitter
+     * so requests that failed together are not all retried together.
+     */
+    Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(attempts - 1, 30);
+        long capped = base > 0 ? Math.min(base, maxBackoff.toMillis()) : maxBackoff.toMillis();
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1));
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return "Payment gateway timed out";
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
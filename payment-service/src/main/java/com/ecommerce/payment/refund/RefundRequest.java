@@ -0,0 +1,43 @@
+package com.ecommerce.payment.refund;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A refund waiting for, or done by, the refund workers. {@code attempts} counts claims, and
+ * a worker's updates only apply while the count is still the one it claimed with.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefundRequest {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+    // Out of attempts without a definite answer from the gateway; it may have refunded
+    public static final String NEEDS_RECONCILIATION = "NEEDS_RECONCILIATION";
+
+    private String id;
+    private String idempotencyKey;
+    private String paymentId;
+    private String orderId;
+    private BigDecimal amount;
+    private String currency;
+    private String gateway;
+    private String gatewayReference;
+    private String status;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    private String refundReference;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.payment.refund;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to {@code refund_requests}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RefundRequestRepository {
+
+    private static final String COLUMNS =
+            "id, idempotency_key, payment_id, order_id, amount, currency, gateway, gateway_reference, status, " +
+            "attempts, next_attempt_at, refund_reference, last_error, created_at, updated_at";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO refund_requests (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (idempotency_key) DO NOTHING";
+
+    // Due requests, and claims whose worker died; SKIP LOCKED lets instances claim side by side
+    private static final String CLAIM_SQL =
+            "UPDATE refund_requests SET status = 'IN_PROGRESS', attempts = attempts + 1, next_attempt_at = ?, " +
+            "updated_at = ? WHERE id IN (SELECT id FROM refund_requests WHERE status IN ('QUEUED', 'IN_PROGRESS') " +
+            "AND next_attempt_at <= ? ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING " + COLUMNS;
+
+    private static final String SUCCEED_SQL =
+            "UPDATE refund_requests SET status = 'SUCCEEDED', refund_reference = ?, last_error = NULL, updated_at = ? " +
+            "WHERE id = ? AND status = 'IN_PROGRESS' AND attempts = ?";
+
+    private static final String RETRY_SQL =
+            "UPDATE refund_requests SET status = 'QUEUED', next_attempt_at = ?, last_error = ?, updated_at = ? " +
+            "WHERE id = ? AND status = 'IN_PROGRESS' AND attempts = ?";
+
+    private static final String FAIL_SQL =
+            "UPDATE refund_requests SET status = 'FAILED', last_error = ?, updated_at = ? " +
+            "WHERE id = ? AND status = 'IN_PROGRESS' AND attempts = ?";
+
+    private static final String RECONCILE_SQL =
+            "UPDATE refund_requests SET status = 'NEEDS_RECONCILIATION', last_error = ?, updated_at = ? " +
+            "WHERE id = ? AND status = 'IN_PROGRESS' AND attempts = ?";
+
+    private static final RowMapper<RefundRequest> REQUEST_MAPPER = (rs, rowNum) -> RefundRequest.builder()
+            .id(rs.getString("id"))
+            .idempotencyKey(rs.getString("idempotency_key"))
+            .paymentId(rs.getString("payment_id"))
+            .orderId(rs.getString("order_id"))
+            .amount(rs.getBigDecimal("amount"))
+            .currency(rs.getString("currency"))
+            .gateway(rs.getString("gateway"))
+            .gatewayReference(rs.getString("gateway_reference"))
+            .status(rs.getString("status"))
+            .attempts(rs.getInt("attempts"))
+            .nextAttemptAt(rs.getTimestamp("next_attempt_at").toLocalDateTime())
+            .refundReference(rs.getString("refund_reference"))
+            .lastError(rs.getString("last_error"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Stores {@code request} unless one with its idempotency key exists. Returns whether it
+     * was stored.
+     */
+    public boolean insert(RefundRequest request) {
+        return jdbcTemplate.update(INSERT_SQL, request.getId(), request.getIdempotencyKey(), request.getPaymentId(),
+                request.getOrderId(), request.getAmount(), request.getCurrency(), request.getGateway(),
+                request.getGatewayReference(), request.getStatus(), request.getAttempts(),
+                Timestamp.valueOf(request.getNextAttemptAt()), request.getRefundReference(), request.getLastError(),
+                Timestamp.valueOf(request.getCreatedAt()), Timestamp.valueOf(request.getUpdatedAt())) == 1;
+    }
+
+    /**
+     * Claims up to {@code limit} requests due at {@code now} until {@code leaseUntil}, after
+     * which another worker may claim them again.
+     */
+    public List<RefundRequest> claimDue(LocalDateTime now, LocalDateTime leaseUntil, int limit) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        return jdbcTemplate.query(CLAIM_SQL, REQUEST_MAPPER, Timestamp.valueOf(leaseUntil), timestamp, timestamp, limit);
+    }
+
+    public boolean markSucceeded(RefundRequest request, String refundReference) {
+        return jdbcTemplate.update(SUCCEED_SQL, refundReference, Timestamp.valueOf(LocalDateTime.now()),
+                request.getId(), request.getAttempts()) == 1;
+    }
+
+    public boolean scheduleRetry(RefundRequest request, LocalDateTime nextAttemptAt, String error) {
+        return jdbcTemplate.update(RETRY_SQL, Timestamp.valueOf(nextAttemptAt), error,
+                Timestamp.valueOf(LocalDateTime.now()), request.getId(), request.getAttempts()) == 1;
+    }
+
+    public boolean markFailed(RefundRequest request, String error) {
+        return jdbcTemplate.update(FAIL_SQL, error, Timestamp.valueOf(LocalDateTime.now()), request.getId(),
+                request.getAttempts()) == 1;
+    }
+
+    public boolean markNeedsReconciliation(RefundRequest request, String error) {
+        return jdbcTemplate.update(RECONCILE_SQL, error, Timestamp.valueOf(LocalDateTime.now()), request.getId(),
+                request.getAttempts()) == 1;
+    }
+
+    public Optional<RefundRequest> findByIdempotencyKey(String idempotencyKey) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM refund_requests WHERE idempotency_key = ?",
+                REQUEST_MAPPER, idempotencyKey).stream().findFirst();
+    }
+
+    public List<RefundRequest> findByPaymentId(String paymentId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM refund_requests WHERE payment_id = ? ORDER BY created_at",
+                REQUEST_MAPPER, paymentId);
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.payment.repository;
+
+import com.ecommerce.payment.dto.CustomerPaymentStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to {@code customer_payment_stats} and the per-payment entries behind it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CustomerPaymentStatsRepository {
+
+    private static final String INSERT_ENTRY_SQL =
+            "INSERT INTO customer_payment_stats_entries (payment_id, customer_id, currency, paid_amount, refunded_amount) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (payment_id) DO NOTHING";
+
+    // Increments rather than sets, so concurrent payments of one customer are all counted
+    private static final String ADD_STATS_SQL =
+            "INSERT INTO customer_payment_stats (customer_id, currency, payment_count, paid_amount, refunded_amount, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (customer_id, currency) DO UPDATE SET " +
+            "payment_count = customer_payment_stats.payment_count + EXCLUDED.payment_count, " +
+            "paid_amount = customer_payment_stats.paid_amount + EXCLUDED.paid_amount, " +
+            "refunded_amount = customer_payment_stats.refunded_amount + EXCLUDED.refunded_amount, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records what {@code paymentId} adds to its customer's stats. Returns false if it has
+     * been recorded already.
+     */
+    public boolean insertEntry(String paymentId, String customerId, String currency, BigDecimal paid,
+                               BigDecimal refunded) {
+        return jdbcTemplate.update(INSERT_ENTRY_SQL, paymentId, customerId, currency, paid, refunded) == 1;
+    }
+
+    /**
+     * The refunded amount recorded for {@code paymentId}, locked until the transaction ends.
+     */
+    public Optional<BigDecimal> lockRefundedAmount(String paymentId) {
+        return jdbcTemplate.query(
+                "SELECT refunded_amount FROM customer_payment_stats_entries WHERE payment_id = ? FOR UPDATE",
+                (rs, rowNum) -> rs.getBigDecimal("refunded_amount"), paymentId).stream().findFirst();
+    }
+
+    public void updateRefundedAmount(String paymentId, BigDecimal refunded) {
+        jdbcTemplate.update("UPDATE customer_payment_stats_entries SET refunded_amount = ? WHERE payment_id = ?",
+                refunded, paymentId);
+    }
+
+    public void addStats(String customerId, String currency, long payments, BigDecimal paid, BigDecimal refunded) {
+        jdbcTemplate.update(ADD_STATS_SQL, customerId, currency, payments, paid, refunded,
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public List<CustomerPaymentStats> findByCustomer(String customerId) {
+        return jdbcTemplate.query(
+                "SELECT customer_id, currency, payment_count, paid_amount, refunded_amount, updated_at " +
+                "FROM customer_payment_stats WHERE customer_id = ? ORDER BY currency",
+                (rs, rowNum) -> CustomerPaymentStats.builder()
+                        .customerId(rs.getString("customer_id"))
+                        .currency(rs.getString("currency"))
+                        .paymentCount(rs.getLong("payment_count"))
+                        .totalPaid(rs.getBigDecimal("paid_amount"))
+                        .totalRefunded(rs.getBigDecimal("refunded_amount"))
+                        .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+                        .build(),
+                customerId);
+    }
+}
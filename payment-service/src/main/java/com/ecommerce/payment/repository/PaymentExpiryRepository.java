@@ -0,0 +1,50 @@
+package com.ecommerce.payment.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Set-based expiry of pending payments, a chunk per statement, so an expiry run never
+ * loads the payments it expires.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PaymentExpiryRepository {
+
+    // SKIP LOCKED leaves payments being charged or cancelled right now to a later chunk
+    private static final String EXPIRE_CHUNK_SQL =
+            "UPDATE payments SET status = 'EXPIRED', failed_at = ?, failure_reason = 'Payment expired', updated_at = ? " +
+            "WHERE id IN (SELECT id FROM payments WHERE status = 'PENDING' AND created_at < ? " +
+            "ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, order_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record ExpiredPayment(String paymentId, String orderId) {
+    }
+
+    /**
+     * Takes the expiry lock for the current transaction, so only one instance expires
+     * payments at a time. Returns false if another instance holds it.
+     */
+    public boolean tryLockExpiry() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('payment-expiry'))", Boolean.class));
+    }
+
+    /**
+     * Expires up to {@code limit} of the oldest payments still pending since before
+     * {@code cutoff}, returning them.
+     */
+    public List<ExpiredPayment> expireChunk(LocalDateTime cutoff, int limit) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.query(EXPIRE_CHUNK_SQL,
+                (rs, rowNum) -> new ExpiredPayment(rs.getString("id"), rs.getString("order_id")),
+                now, now, Timestamp.valueOf(cutoff), limit);
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.payment.repository;
+
+import com.ecommerce.payment.dto.PaymentSummary;
+import com.ecommerce.payment.entity.PaymentStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keyset-paged reads of a customer's payments over {@code idx_payments_customer_keyset}.
+ * Only the summary columns are selected, never the gateway response.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PaymentHistoryRepository {
+
+    private static final String SELECT_COLUMNS =
+            "SELECT id, order_id, amount, currency, status, payment_method, card_brand, card_last_four, " +
+            "refund_amount, created_at FROM payments ";
+
+    private static final String FIRST_PAGE_SQL = SELECT_COLUMNS +
+            "WHERE customer_id = ? ORDER BY created_at DESC, id DESC LIMIT ?";
+
+    private static final String NEXT_PAGE_SQL = SELECT_COLUMNS +
+            "WHERE customer_id = ? AND (created_at, id) < (?, ?) " +
+            "ORDER BY created_at DESC, id DESC LIMIT ?";
+
+    private static final RowMapper<PaymentSummary> SUMMARY_MAPPER = (rs, rowNum) -> PaymentSummary.builder()
+            .id(rs.getString("id"))
+            .orderId(rs.getString("order_id"))
+            .amount(rs.getBigDecimal("amount"))
+            .currency(rs.getString("currency"))
+            .status(PaymentStatus.valueOf(rs.getString("status")))
+            .paymentMethod(rs.getString("payment_method"))
+            .cardBrand(rs.getString("card_brand"))
+            .cardLastFour(rs.getString("card_last_four"))
+            .refundAmount(rs.getBigDecimal("refund_amount"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Newest-first page of a customer's payments. Pass the created-at and ID of the last row
+     * of the previous page, or {@code null}s for the first page.
+     */
+    public List<PaymentSummary> findByCustomer(String customerId, LocalDateTime beforeCreatedAt, String beforePaymentId,
+                                               int limit) {
+        if (beforeCreatedAt == null) {
+            return jdbcTemplate.query(FIRST_PAGE_SQL, SUMMARY_MAPPER, customerId, limit);
+        }
+        return jdbcTemplate.query(NEXT_PAGE_SQL, SUMMARY_MAPPER,
+                customerId, Timestamp.valueOf(beforeCreatedAt), beforePaymentId, limit);
+    }
+}
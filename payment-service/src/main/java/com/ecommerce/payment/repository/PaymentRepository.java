@@ -2,12 +2,14 @@ package com.ecommerce.payment.repository;
 
 import com.ecommerce.payment.entity.Payment;
 import com.ecommerce.payment.entity.PaymentStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -19,27 +21,28 @@ public interface PaymentRepository extends JpaRepository<Payment, String> {
 
     Optional<Payment> findByOrderId(String orderId);
 
-    List<Payment> findByCustomerId(String customerId);
+    Optional<Payment> findFirstByOrderIdAndStatusInOrderByCreatedAtDesc(String orderId, List<PaymentStatus> statuses);
+
+    List<Payment> findByOrderIdInAndStatusIn(List<String> orderIds, List<PaymentStatus> statuses);
+
+    // Transaction-scoped advisory lock: concurrent creates for one order queue here instead of racing
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(hashtext(:orderId))) AS order_lock", nativeQuery = true)
+    Integer lockOrder(@Param("orderId") String orderId);
+
+    // Row lock held to the end of the transaction, so concurrent refunds are recorded one at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") String id);
 
     List<Payment> findByStatus(PaymentStatus status);
 
-    List<Payment> findByCustomerIdAndStatus(String customerId, PaymentStatus status);
+    // Auto-process payments in the given status since before the cutoff, oldest first
+    @Query("SELECT p.id FROM Payment p WHERE p.status = :status AND p.autoProcess = true AND p.createdAt < :cutoff " +
+           "ORDER BY p.createdAt")
+    List<String> findAutoProcessIds(@Param("status") PaymentStatus status, @Param("cutoff") LocalDateTime cutoff,
+                                    Pageable pageable);
 
-    @Query("SELECT p FROM Payment p WHERE p.status = :status AND p.createdAt < :expiryTime")
-    List<Payment> findExpiredPayments(@Param("status") PaymentStatus status, @Param("expiryTime") LocalDateTime expiryTime);
-
-    @Query("SELECT p FROM Payment p WHERE p.customerId = :customerId AND p.createdAt BETWEEN :startDate AND :endDate")
-    List<Payment> findByCustomerIdAndDateRange(
-        @Param("customerId") String customerId,
-        @Param("startDate") LocalDateTime startDate,
-        @Param("endDate") LocalDateTime endDate
-    );
-
-    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.customerId = :customerId AND p.status = :status")
-    BigDecimal getTotalAmountByCustomerIdAndStatus(
-        @Param("customerId") String customerId,
-        @Param("status") PaymentStatus status
-    );
+    List<Payment> findByCustomerIdAndStatus(String customerId, PaymentStatus status);
 
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = :status AND p.createdAt >= :startDate")
     Long countByStatusSince(@Param("status") PaymentStatus status, @Param("startDate") LocalDateTime startDate);
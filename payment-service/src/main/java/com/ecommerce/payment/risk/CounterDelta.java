@@ -0,0 +1,8 @@
+package com.ecommerce.payment.risk;
+
+/**
+ * An increment to one key of one velocity counter, as replicated between instances.
+ * {@code key} is the hashed customer, card or IP, so raw values never leave the instance.
+ */
+public record CounterDelta(String counter, long key, long at, int count, long amount) {
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.payment.risk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Shares velocity counter increments between instances, so a customer spreading attempts
+ * across instances is still counted in full. Each instance publishes its increments in
+ * batches and listens in a consumer group of its own, named after its host and port so a
+ * restart rejoins the same group, from the latest offset, skipping its own batches. Counts
+ * are eventually consistent: a burst inside one flush interval is seen only by the instance
+ * that took it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RiskCounterReplicator implements ConsumerSeekAware {
+
+    public static final String RISK_COUNTERS_TOPIC = "payment-risk-counters";
+
+    private final RiskEngine riskEngine;
+    private final RiskProperties riskProperties;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Scheduled(fixedDelayString = "${payment.risk.replication.flush-interval-ms:1000}")
+    public void publishPending() {
+        if (!riskProperties.getReplication().isEnabled()) {
+            return;
+        }
+        List<CounterDelta> deltas = riskEngine.drainPending();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            String message = objectMapper.writeValueAsString(Map.of("instanceId", instanceId, "deltas", deltas));
+            kafkaTemplate.send(RISK_COUNTERS_TOPIC, instanceId, message).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.warn("Failed to replicate {} risk counter increments: {}", deltas.size(), ex.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            log.error("Error replicating risk counters: {}", e.getMessage(), e);
+        }
+    }
+
+    @KafkaListener(topics = RISK_COUNTERS_TOPIC,
+            groupId = "${payment.risk.replication.consumer-group:payment-risk-${HOSTNAME:localhost}-${server.port:8087}}",
+            properties = "auto.offset.reset=latest",
+            autoStartup = "${payment.risk.replication.enabled:true}")
+    public void applyReplicated(String message) {
+        try {
+            ReplicatedBatch batch = objectMapper.readValue(message, ReplicatedBatch.class);
+            if (!instanceId.equals(batch.instanceId())) {
+                riskEngine.merge(batch.deltas());
+            }
+        } catch (Exception e) {
+            log.error("Error applying replicated risk counters: {}", e.getMessage(), e);
+        }
+    }
+
+    // Increments from before a restart were counted into windows this instance no longer holds
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToEnd(assignments.keySet());
+    }
+
+    record ReplicatedBatch(String instanceId, List<CounterDelta> deltas) {
+    }
+}
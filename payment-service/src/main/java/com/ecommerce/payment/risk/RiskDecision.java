@@ -0,0 +1,17 @@
+package com.ecommerce.payment.risk;
+
+/**
+ * Outcome of screening a payment. {@code rule} names the rule that declined it.
+ */
+public record RiskDecision(boolean declined, String rule, String reason) {
+
+    private static final RiskDecision ALLOW = new RiskDecision(false, null, null);
+
+    public static RiskDecision allow() {
+        return ALLOW;
+    }
+
+    public static RiskDecision decline(String rule, String reason) {
+        return new RiskDecision(true, rule, reason);
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.payment.risk;
+
+/**
+ * What a velocity counter is keyed by.
+ */
+public enum RiskDimension {
+    CUSTOMER,
+    CARD,
+    IP
+}
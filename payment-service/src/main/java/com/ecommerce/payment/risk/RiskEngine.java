@@ -0,0 +1,175 @@
+package com.ecommerce.payment.risk;
+
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.payment.entity.Payment;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process velocity screening run before a payment goes to a gateway. Every attempt is
+ * counted per customer, card fingerprint and client IP in sliding-window counters, and the
+ * configured rules are checked against the counts, all in memory. Local increments are
+ * queued for {@link RiskCounterReplicator} to share with the other instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RiskEngine {
+
+    // FNV-1a 64-bit
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final RiskProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    // One counter per distinct dimension and window, shared by the rules using it
+    private final Map<String, SlidingWindowCounter> counters = new LinkedHashMap<>();
+    private final Map<RiskDimension, List<String>> countersByDimension = new EnumMap<>(RiskDimension.class);
+    private final List<BoundRule> rules = new ArrayList<>();
+
+    private final Queue<CounterDelta> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingSize = new AtomicInteger();
+
+    private Timer evaluationTimer;
+
+    private record BoundRule(RiskProperties.Rule rule, SlidingWindowCounter counter) {
+    }
+
+    @PostConstruct
+    void init() {
+        for (RiskProperties.Rule rule : properties.getRules()) {
+            String counterId = rule.getDimension() + ":" + rule.getWindow();
+            SlidingWindowCounter counter = counters.computeIfAbsent(counterId, id -> {
+                countersByDimension.computeIfAbsent(rule.getDimension(), dimension -> new ArrayList<>()).add(id);
+                return new SlidingWindowCounter(rule.getWindow(), properties.getBuckets(), properties.getCapacity(),
+                        System::currentTimeMillis);
+            });
+            rules.add(new BoundRule(rule, counter));
+        }
+        evaluationTimer = meterRegistry.timer("payment.risk.evaluation");
+        log.info("Payment risk screening {} with {} rules over {} counters",
+                properties.isEnabled() ? "enabled" : "disabled", rules.size(), counters.size());
+    }
+
+    /**
+     * Counts this attempt and checks the rules. Declines only when enforcing; otherwise rule
+     * hits are logged and the payment is allowed.
+     */
+    public RiskDecision evaluate(Payment payment) {
+        if (!properties.isEnabled() || rules.isEmpty()) {
+            return RiskDecision.allow();
+        }
+
+        long started = System.nanoTime();
+        try {
+            long now = System.currentTimeMillis();
+            Money amount = Money.of(payment.getAmount(), payment.getCurrency());
+            Map<RiskDimension, Long> keys = keysOf(payment);
+
+            keys.forEach((dimension, key) -> {
+                for (String counterId : countersByDimension.getOrDefault(dimension, List.of())) {
+                    counters.get(counterId).add(key, now, 1, amount.getMinorUnits());
+                    queue(new CounterDelta(counterId, key, now, 1, amount.getMinorUnits()));
+                }
+            });
+
+            for (BoundRule bound : rules) {
+                RiskProperties.Rule rule = bound.rule();
+                Long key = keys.get(rule.getDimension());
+                if (key == null) {
+                    continue;
+                }
+                SlidingWindowCounter.Usage usage = bound.counter().usage(key);
+                boolean tooMany = rule.getMaxCount() != null && usage.count() > rule.getMaxCount();
+                boolean tooMuch = rule.getMaxAmount() != null
+                        && usage.amount() > Money.of(rule.getMaxAmount(), payment.getCurrency()).getMinorUnits();
+                if (tooMany || tooMuch) {
+                    meterRegistry.counter("payment.risk.rule.hits", "rule", rule.getName()).increment();
+                    String reason = "Declined by risk rule " + rule.getName();
+                    if (properties.isEnforce()) {
+                        log.warn("Payment {} declined by risk rule {}", payment.getId(), rule.getName());
+                        return RiskDecision.decline(rule.getName(), reason);
+                    }
+                    log.info("Payment {} would be declined by risk rule {}", payment.getId(), rule.getName());
+                }
+            }
+            return RiskDecision.allow();
+        } finally {
+            evaluationTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Applies increments replicated from another instance.
+     */
+    public void merge(List<CounterDelta> deltas) {
+        for (CounterDelta delta : deltas) {
+            SlidingWindowCounter counter = counters.get(delta.counter());
+            // Unknown when the instances run different rule sets
+            if (counter != null) {
+                counter.add(delta.key(), delta.at(), delta.count(), delta.amount());
+            }
+        }
+    }
+
+    /**
+     * Takes the increments made here since the last call, for replication.
+     */
+    public List<CounterDelta> drainPending() {
+        List<CounterDelta> drained = new ArrayList<>();
+        for (CounterDelta delta = pending.poll(); delta != null; delta = pending.poll()) {
+            pendingSize.decrementAndGet();
+            drained.add(delta);
+        }
+        return drained;
+    }
+
+    private void queue(CounterDelta delta) {
+        RiskProperties.Replication replication = properties.getReplication();
+        if (replication.isEnabled() && pendingSize.incrementAndGet() <= replication.getMaxPending()) {
+            pending.add(delta);
+        } else if (replication.isEnabled()) {
+            pendingSize.decrementAndGet();
+        }
+    }
+
+    private static Map<RiskDimension, Long> keysOf(Payment payment) {
+        Map<RiskDimension, Long> keys = new EnumMap<>(RiskDimension.class);
+        putKey(keys, RiskDimension.CUSTOMER, payment.getCustomerId());
+        putKey(keys, RiskDimension.CARD, payment.getCardFingerprint());
+        putKey(keys, RiskDimension.IP, payment.getClientIp());
+        return keys;
+    }
+
+    private static void putKey(Map<RiskDimension, Long> keys, RiskDimension dimension, String value) {
+        if (value != null && !value.isBlank()) {
+            keys.put(dimension, hash(value));
+        }
+    }
+
+    // Never zero, which marks an empty counter slot
+    static long hash(String value) {
+        long hash = FNV_OFFSET;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash != 0 ? hash : 1;
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.payment.risk;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "payment.risk")
+public class RiskProperties {
+
+    private boolean enabled = true;
+
+    // When off, rule hits are logged and counted but payments go through
+    private boolean enforce = true;
+
+    // Keys tracked per counter; the least recently used are evicted beyond it
+    private int capacity = 50_000;
+
+    // Time buckets per window; more gives a smoother window for more memory
+    private int buckets = 10;
+
+    // Proxies in front of the service that append the caller to X-Forwarded-For, counted from
+    // the right; entries left of theirs are supplied by the client and never trusted
+    private int trustedProxies = 1;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    private Replication replication = new Replication();
+
+    /**
+     * Declines a payment once its dimension has seen more than {@code maxCount} attempts,
+     * or more than {@code maxAmount} attempted, within {@code window}. The payment being
+     * checked counts. Amounts are summed at face value across currencies.
+     */
+    @Data
+    public static class Rule {
+
+        private String name;
+        private RiskDimension dimension;
+        private Duration window;
+        private Integer maxCount;
+        private BigDecimal maxAmount;
+    }
+
+    @Data
+    public static class Replication {
+
+        private boolean enabled = true;
+
+        // Increments not yet published beyond this are dropped, so a Kafka outage cannot exhaust memory
+        private int maxPending = 50_000;
+    }
+}
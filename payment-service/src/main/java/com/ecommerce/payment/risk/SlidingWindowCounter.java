@@ -0,0 +1,155 @@
+package com.ecommerce.payment.risk;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Attempt counts and amounts per key over a sliding window, kept in time buckets. Keys are
+ * 64-bit hashes held in fixed open-addressed tables of primitives, so memory is bounded by
+ * the capacity: a new key takes a free or expired slot near its hash, or evicts the least
+ * recently touched one. Striped into segments so concurrent payments rarely contend.
+ */
+class SlidingWindowCounter {
+
+    private static final int SEGMENTS = 16;
+    private static final int MAX_PROBES = 8;
+    private static final long EMPTY = 0;
+
+    private final int buckets;
+    private final long bucketMillis;
+    private final LongSupplier clock;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    record Usage(long count, long amount) {
+
+        static final Usage NONE = new Usage(0, 0);
+    }
+
+    SlidingWindowCounter(Duration window, int buckets, int capacity, LongSupplier clock) {
+        this.clock = clock;
+        this.buckets = Math.max(buckets, 1);
+        this.bucketMillis = Math.max(window.toMillis() / this.buckets, 1);
+        int slots = Integer.highestOneBit(Math.max(capacity / SEGMENTS, MAX_PROBES) * 2 - 1);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(slots);
+        }
+    }
+
+    /**
+     * Adds to {@code key}'s bucket for {@code atMillis}. Increments older than the window,
+     * such as late replicated ones, are dropped.
+     */
+    void add(long key, long atMillis, int count, long amount) {
+        segment(key).add(key, atMillis / bucketMillis, count, amount, clock.getAsLong() / bucketMillis);
+    }
+
+    Usage usage(long key) {
+        return segment(key).usage(key, clock.getAsLong() / bucketMillis);
+    }
+
+    private Segment segment(long key) {
+        return segments[(int) (key >>> 60) & (SEGMENTS - 1)];
+    }
+
+    private final class Segment {
+
+        private final int mask;
+        private final long[] keys;
+        // Newest bucket epoch per slot, for expiry and eviction
+        private final long[] touched;
+        // Per slot, buckets entries each
+        private final long[] epochs;
+        private final int[] counts;
+        private final long[] amounts;
+
+        Segment(int slots) {
+            mask = slots - 1;
+            keys = new long[slots];
+            touched = new long[slots];
+            epochs = new long[slots * buckets];
+            counts = new int[slots * buckets];
+            amounts = new long[slots * buckets];
+        }
+
+        synchronized void add(long key, long epoch, int count, long amount, long nowEpoch) {
+            if (epoch <= nowEpoch - buckets) {
+                return;
+            }
+            int slot = find(key);
+            if (slot < 0) {
+                slot = claim(key, nowEpoch);
+            }
+
+            int bucket = slot * buckets + (int) Math.floorMod(epoch, (long) buckets);
+            if (epochs[bucket] > epoch) {
+                // The bucket has moved on to a newer epoch
+                return;
+            }
+            if (epochs[bucket] < epoch) {
+                epochs[bucket] = epoch;
+                counts[bucket] = 0;
+                amounts[bucket] = 0;
+            }
+            counts[bucket] += count;
+            amounts[bucket] += amount;
+            touched[slot] = Math.max(touched[slot], epoch);
+        }
+
+        synchronized Usage usage(long key, long nowEpoch) {
+            int slot = find(key);
+            if (slot < 0) {
+                return Usage.NONE;
+            }
+            long count = 0;
+            long amount = 0;
+            int first = slot * buckets;
+            for (int bucket = first; bucket < first + buckets; bucket++) {
+                if (epochs[bucket] > nowEpoch - buckets && epochs[bucket] <= nowEpoch) {
+                    count += counts[bucket];
+                    amount += amounts[bucket];
+                }
+            }
+            return new Usage(count, amount);
+        }
+
+        private int find(long key) {
+            int start = index(key);
+            for (int probe = 0; probe < MAX_PROBES; probe++) {
+                int slot = (start + probe) & mask;
+                if (keys[slot] == key) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        // Takes an empty or expired slot in the probe range, else evicts the stalest one
+        private int claim(long key, long nowEpoch) {
+            int start = index(key);
+            int victim = start;
+            for (int probe = 0; probe < MAX_PROBES; probe++) {
+                int slot = (start + probe) & mask;
+                if (keys[slot] == EMPTY || touched[slot] <= nowEpoch - buckets) {
+                    victim = slot;
+                    break;
+                }
+                if (touched[slot] < touched[victim]) {
+                    victim = slot;
+                }
+            }
+
+            keys[victim] = key;
+            touched[victim] = nowEpoch;
+            int first = victim * buckets;
+            Arrays.fill(epochs, first, first + buckets, Long.MIN_VALUE);
+            Arrays.fill(counts, first, first + buckets, 0);
+            Arrays.fill(amounts, first, first + buckets, 0);
+            return victim;
+        }
+
+        private int index(long key) {
+            return (int) (key ^ (key >>> 29)) & mask;
+        }
+    }
+}
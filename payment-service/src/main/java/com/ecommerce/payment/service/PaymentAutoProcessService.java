@@ -0,0 +1,73 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.entity.PaymentStatus;
+import com.ecommerce.payment.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Charges auto-process payments still pending well after they were created. The listener
+ * charges them once the order-created event is recorded, outside that transaction, so a
+ * crash in between would otherwise leave the payment pending until it expires.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentAutoProcessService {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+
+    // Long enough that the listener has had its turn
+    @Value("${payment.auto-process.stale-after:2m}")
+    private Duration staleAfter;
+
+    @Value("${payment.auto-process.batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${payment.auto-process.sweep-interval:60000}")
+    public void sweepScheduled() {
+        try {
+            processStalled();
+        } catch (Exception e) {
+            log.error("Auto-process sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Starts charging up to {@code batch-size} of the oldest stalled payments and returns how
+     * many were started. Each is moved to PROCESSING under its row lock before the gateway is
+     * called, so a payment another instance got to first is skipped.
+     */
+    public int processStalled() {
+        List<String> paymentIds = paymentRepository.findAutoProcessIds(PaymentStatus.PENDING,
+                LocalDateTime.now().minus(staleAfter), PageRequest.of(0, batchSize));
+        int started = 0;
+        for (String paymentId : paymentIds) {
+            try {
+                paymentService.processPayment(paymentId)
+                    .exceptionally(e -> {
+                        log.error("Failed to auto-process payment: {}", paymentId, e);
+                        return null;
+                    });
+                started++;
+            } catch (IllegalStateException e) {
+                log.debug("Payment {} is no longer pending: {}", paymentId, e.getMessage());
+            } catch (Exception e) {
+                log.error("Failed to auto-process payment: {}", paymentId, e);
+            }
+        }
+        if (!paymentIds.isEmpty()) {
+            log.warn("Auto-processed {} payments left pending after order-created", started);
+        }
+        return started;
+    }
+}
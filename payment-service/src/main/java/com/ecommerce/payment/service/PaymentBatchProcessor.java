@@ -0,0 +1,69 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.entity.PaymentStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Charges the payments of a batch created through {@code POST /payments/batch} in the
+ * background, so the batch call returns as soon as they are stored. Outcomes are reported
+ * the usual way, through payment-completed and payment-failed events.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentBatchProcessor {
+
+    private final PaymentService paymentService;
+
+    @Value("${payment.batch.processing-threads:4}")
+    private int processingThreads;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(processingThreads, runnable -> {
+            Thread thread = new Thread(runnable, "payment-batch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public void processPending(List<Payment> payments) {
+        for (Payment payment : payments) {
+            if (payment.getStatus() != PaymentStatus.PENDING) {
+                continue;
+            }
+            executor.execute(() -> {
+                try {
+                    // Only the short PROCESSING update runs here; the gateway call is not awaited
+                    paymentService.processPayment(payment.getId())
+                            .exceptionally(e -> {
+                                // A decline is not an error; this payment's outcome is left for reconciliation
+                                log.error("Failed to process batch payment: {}", payment.getId(), e);
+                                return null;
+                            });
+                } catch (Exception e) {
+                    log.error("Failed to process batch payment: {}", payment.getId(), e);
+                }
+            });
+        }
+    }
+}
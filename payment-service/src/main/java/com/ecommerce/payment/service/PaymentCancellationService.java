@@ -0,0 +1,52 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.refund.RefundQueueService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Settles the payment of an order that was cancelled: a payment not yet charged is
+ * cancelled, a completed one is queued for a full refund. Used for order-cancelled events
+ * and for orders a bulk import had to cancel. Safe to repeat for the same order.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentCancellationService {
+
+    private final PaymentService paymentService;
+    private final RefundQueueService refundQueueService;
+
+    /**
+     * Returns the order's payment after settling it, or empty if it has none. Throws
+     * {@link IllegalStateException} while the payment is still being charged, so the caller
+     * retries once the outcome is known.
+     */
+    public Optional<Payment> cancelForOrder(String orderId) {
+        Optional<Payment> found = paymentService.getPaymentByOrderId(orderId);
+        if (found.isEmpty()) {
+            return found;
+        }
+        Payment payment = found.get();
+        switch (payment.getStatus()) {
+            case PENDING:
+            case PROCESSING:
+                // A PROCESSING payment is refused here, and settled on the retry
+                payment = paymentService.cancelPayment(payment.getId());
+                log.info("Payment cancelled for order: {}", orderId);
+                break;
+            case COMPLETED:
+                // Queued for the refund workers
+                refundQueueService.enqueue(payment, payment.refundableAmount().toBigDecimal(),
+                    "order-cancelled:" + orderId);
+                break;
+            default:
+                log.info("No action needed for payment status: {} for order: {}", payment.getStatus(), orderId);
+        }
+        return Optional.of(payment);
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.kafka.PaymentEventProducer;
+import com.ecommerce.payment.repository.PaymentExpiryRepository;
+import com.ecommerce.payment.repository.PaymentExpiryRepository.ExpiredPayment;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Expires payments left pending too long. Each chunk is one UPDATE ... RETURNING in its
+ * own short transaction, followed by one event for the chunk, so memory and transaction
+ * size stay bounded however large the backlog after an outage.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentExpiryService {
+
+    private final PaymentExpiryRepository paymentExpiryRepository;
+    private final PaymentEventProducer paymentEventProducer;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${payment.expiry.minutes:30}")
+    private int expiryMinutes;
+
+    @Value("${payment.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    // Caps one run; whatever is left is picked up by the next
+    @Value("${payment.expiry.max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.expiry.cleanup-interval:600000}")
+    public void expireScheduled() {
+        try {
+            expireOlderThan(expiryMinutes);
+        } catch (Exception e) {
+            log.error("Payment expiry run failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Expires payments pending for more than {@code minutes} and returns how many were
+     * expired. Returns early if another instance is already running an expiry.
+     */
+    public int expireOlderThan(int minutes) {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(minutes);
+        int expired = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            List<ExpiredPayment> payments = transactionTemplate.execute(status ->
+                    paymentExpiryRepository.tryLockExpiry()
+                            ? paymentExpiryRepository.expireChunk(cutoff, chunkSize)
+                            : null);
+            if (payments == null) {
+                log.debug("Payment expiry is running on another instance");
+                break;
+            }
+            if (!payments.isEmpty()) {
+                // Published once the chunk is committed, so no event describes a rolled back expiry
+                paymentEventProducer.sendPaymentsExpiredEvent(payments);
+                expired += payments.size();
+            }
+            if (payments.size() < chunkSize) {
+                break;
+            }
+        }
+
+        log.info("Expired {} payments", expired);
+        return expired;
+    }
+}
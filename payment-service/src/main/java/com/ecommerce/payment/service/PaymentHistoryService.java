@@ -0,0 +1,153 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.dto.CustomerPaymentStats;
+import com.ecommerce.payment.dto.PaymentHistoryPage;
+import com.ecommerce.payment.dto.PaymentSummary;
+import com.ecommerce.payment.repository.CustomerPaymentStatsRepository;
+import com.ecommerce.payment.repository.PaymentHistoryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A customer's payment history, paged by keyset, and lifetime totals per currency. Totals
+ * are kept up to date from payment-completed and payment-refunded events rather than
+ * summed on read, and are cached for {@code cache-ttl}; another instance's cache may lag
+ * an update by up to that long.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentHistoryService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final PaymentHistoryRepository paymentHistoryRepository;
+    private final CustomerPaymentStatsRepository customerPaymentStatsRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${payment.customer-stats.cache-ttl:60s}")
+    private Duration cacheTtl;
+
+    @Value("${payment.customer-stats.cache-size:10000}")
+    private int cacheSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Least recently read customers are dropped first
+    private Map<String, CachedStats> statsCache;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statsCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStats> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public PaymentHistoryPage getCustomerPayments(String customerId, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        LocalDateTime beforeCreatedAt = null;
+        String beforePaymentId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor);
+            beforeCreatedAt = LocalDateTime.parse(position[0]);
+            beforePaymentId = position[1];
+        }
+
+        // Fetch one extra row to know whether another page exists without a COUNT
+        List<PaymentSummary> rows = paymentHistoryRepository.findByCustomer(customerId, beforeCreatedAt,
+                beforePaymentId, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<PaymentSummary> payments = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            PaymentSummary last = payments.get(payments.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+
+        return PaymentHistoryPage.builder()
+                .payments(payments)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    public List<CustomerPaymentStats> getCustomerStats(String customerId) {
+        CachedStats cached = statsCache.get(customerId);
+        if (cached != null && cached.loadedAt() + cacheTtl.toMillis() > System.currentTimeMillis()) {
+            return cached.stats();
+        }
+        List<CustomerPaymentStats> stats = customerPaymentStatsRepository.findByCustomer(customerId);
+        statsCache.put(customerId, new CachedStats(List.copyOf(stats), System.currentTimeMillis()));
+        return stats;
+    }
+
+    /**
+     * Adds a paid payment to its customer's totals, with {@code refunded} of it refunded so
+     * far. Safe to repeat and to receive out of order: a payment is counted once, and its
+     * refunded amount only ever moves up to the largest total reported.
+     */
+    public void recordPayment(String paymentId, String customerId, String currency, BigDecimal paid,
+                              BigDecimal refunded) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (customerPaymentStatsRepository.insertEntry(paymentId, customerId, currency, paid, refunded)) {
+                customerPaymentStatsRepository.addStats(customerId, currency, 1, paid, refunded);
+                return;
+            }
+            Optional<BigDecimal> recorded = customerPaymentStatsRepository.lockRefundedAmount(paymentId);
+            if (recorded.isEmpty() || refunded.compareTo(recorded.get()) <= 0) {
+                return;
+            }
+            customerPaymentStatsRepository.updateRefundedAmount(paymentId, refunded);
+            customerPaymentStatsRepository.addStats(customerId, currency, 0, BigDecimal.ZERO,
+                    refunded.subtract(recorded.get()));
+        });
+        statsCache.remove(customerId);
+    }
+
+    static String encodeCursor(LocalDateTime createdAt, String paymentId) {
+        String position = createdAt + "|" + paymentId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|", 2);
+            if (parts.length != 2 || parts[1].isEmpty()) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            LocalDateTime.parse(parts[0]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+
+    private record CachedStats(List<CustomerPaymentStats> stats, long loadedAt) {
+    }
+}
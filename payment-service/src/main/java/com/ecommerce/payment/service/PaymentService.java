@@ -1,19 +1,44 @@
 package com.ecommerce.payment.service;
 
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.common.utils.web.RequestDeadline;
 import com.ecommerce.payment.entity.Payment;
 import com.ecommerce.payment.entity.PaymentStatus;
+import com.ecommerce.payment.gateway.GatewayResult;
+import com.ecommerce.payment.gateway.PaymentGatewayRouter;
+import com.ecommerce.payment.gateway.RefundInstruction;
 import com.ecommerce.payment.kafka.PaymentEventProducer;
 import com.ecommerce.payment.repository.PaymentRepository;
+import com.ecommerce.payment.risk.RiskDecision;
+import com.ecommerce.payment.risk.RiskEngine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @Slf4j
@@ -21,20 +46,69 @@ import java.util.Optional;
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
-    private final PaymentGatewayService paymentGatewayService;
+    private final PaymentGatewayRouter paymentGatewayRouter;
+    private final RiskEngine riskEngine;
     private final PaymentEventProducer paymentEventProducer;
+    private final PlatformTransactionManager transactionManager;
+
+    private static final List<PaymentStatus> ACTIVE_STATUSES =
+            List.of(PaymentStatus.PENDING, PaymentStatus.PROCESSING, PaymentStatus.COMPLETED);
+
+    @Value("${payment.gateway.timeout:30000}")
+    private long gatewayTimeoutMs;
+
+    @Value("${payment.gateway.completion-threads:8}")
+    private int completionThreads;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Records gateway outcomes, so the gateway's own threads never wait on the database
+    private ExecutorService completionExecutor;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger count = new AtomicInteger();
+        completionExecutor = Executors.newFixedThreadPool(completionThreads, runnable -> {
+            Thread thread = new Thread(runnable, "payment-completion-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        completionExecutor.shutdown();
+    }
 
     @Transactional
     public Payment createPayment(Payment payment) {
         log.info("Creating payment for order: {} amount: {} {}", payment.getOrderId(), payment.getAmount(), payment.getCurrency());
 
-        // Check if payment already exists for this order
-        Optional<Payment> existingPayment = paymentRepository.findByOrderId(payment.getOrderId());
-        if (existingPayment.isPresent() && 
-            (existingPayment.get().getStatus() == PaymentStatus.COMPLETED ||
-             existingPayment.get().getStatus() == PaymentStatus.PROCESSING)) {
+        // Amounts are stored at the currency's precision; anything finer is rejected, not rounded
+        payment.setAmount(toMoney(payment.getAmount(), payment.getCurrency()).toBigDecimal());
+
+        // Check if payment already exists for this order; the lock makes the check and the insert atomic
+        paymentRepository.lockOrder(payment.getOrderId());
+        Optional<Payment> existingPayment = paymentRepository.findFirstByOrderIdAndStatusInOrderByCreatedAtDesc(
+                payment.getOrderId(), ACTIVE_STATUSES);
+        if (existingPayment.isPresent()) {
+            Payment existing = existingPayment.get();
+            if (existing.getStatus() == PaymentStatus.PENDING && isSameCharge(existing, payment)) {
+                // A retried create: hand back the payment already waiting to be processed
+                log.info("Returning pending payment {} for order: {}", existing.getId(), payment.getOrderId());
+                return existing;
+            }
+            if (existing.getStatus() == PaymentStatus.PENDING) {
+                // A second charge for the same order, not a retry; it must not become another pending payment
+                log.warn("Pending payment {} for order: {} is for {} {}, not {} {}", existing.getId(),
+                        payment.getOrderId(), existing.getAmount(), existing.getCurrency(),
+                        payment.getAmount(), payment.getCurrency());
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "A pending payment with a different amount already exists for order: " + payment.getOrderId());
+            }
             log.warn("Payment already exists for order: {}", payment.getOrderId());
-            throw new IllegalStateException("Payment already exists for order: " + payment.getOrderId());
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Payment already exists for order: " + payment.getOrderId());
         }
 
         // Set initial status
@@ -47,111 +121,269 @@ public class PaymentService {
         return savedPayment;
     }
 
+    /**
+     * Creates pending payments for a batch of orders in one transaction, for bulk order
+     * imports. An order that already has an active payment gets that payment back instead.
+     */
     @Transactional
-    public Payment processPayment(String paymentId) {
+    public List<Payment> createPayments(List<Payment> payments) {
+        log.info("Creating {} payments in a batch", payments.size());
+
+        List<String> orderIds = new ArrayList<>();
+        for (Payment payment : payments) {
+            payment.setAmount(toMoney(payment.getAmount(), payment.getCurrency()).toBigDecimal());
+            orderIds.add(payment.getOrderId());
+        }
+
+        // One lookup for the whole batch instead of createPayment's lock and check per order:
+        // imported orders are created by the importer alone, so nothing races for them
+        Map<String, Payment> active = new HashMap<>();
+        for (Payment existing : paymentRepository.findByOrderIdInAndStatusIn(orderIds, ACTIVE_STATUSES)) {
+            active.putIfAbsent(existing.getOrderId(), existing);
+        }
+
+        List<Payment> created = new ArrayList<>();
+        List<Payment> result = new ArrayList<>();
+        for (Payment payment : payments) {
+            Payment existing = active.get(payment.getOrderId());
+            if (existing != null) {
+                result.add(existing);
+                continue;
+            }
+            payment.setStatus(PaymentStatus.PENDING);
+            active.put(payment.getOrderId(), payment);
+            created.add(payment);
+            result.add(payment);
+        }
+
+        // Inserted in JDBC batches of hibernate.jdbc.batch_size
+        paymentRepository.saveAll(created);
+        paymentRepository.flush();
+        created.forEach(paymentEventProducer::sendPaymentCreatedEvent);
+
+        log.info("Created {} payments, {} orders already had one", created.size(), payments.size() - created.size());
+        return result;
+    }
+
+    /**
+     * Charges a pending payment in three steps: mark it PROCESSING and commit, call the
+     * gateway with no transaction open, then record the outcome in a second short
+     * transaction. No connection is held while the gateway works. The future completes with
+     * the finalized payment, declined or not, and exceptionally if the gateway failed or
+     * timed out; such a payment stays PROCESSING for {@code PaymentReconciliationService}.
+     */
+    public CompletableFuture<Payment> processPayment(String paymentId) {
         log.info("Processing payment: {}", paymentId);
 
-        Payment payment = paymentRepository.findById(paymentId)
+        Payment payment = transactionTemplate.execute(status -> markProcessing(paymentId));
+
+        RiskDecision risk = riskEngine.evaluate(payment);
+        if (risk.declined()) {
+            GatewayResult declined = GatewayResult.builder()
+                .success(false)
+                .errorCode("RISK_DECLINED")
+                .message(risk.reason())
+                .timestamp(System.currentTimeMillis())
+                .build();
+            return CompletableFuture.supplyAsync(
+                () -> transactionTemplate.execute(status -> finalizeCharge(paymentId, declined, null)), completionExecutor);
+        }
+
+        return paymentGatewayRouter.charge(payment)
+            .orTimeout(gatewayTimeoutMs, TimeUnit.MILLISECONDS)
+            .handleAsync((result, error) -> {
+                Throwable cause = unwrap(error);
+                Payment finalized = transactionTemplate.execute(status -> finalizeCharge(paymentId, result, cause));
+                if (cause != null) {
+                    throw new RuntimeException("Failed to process payment", cause);
+                }
+                return finalized;
+            }, completionExecutor);
+    }
+
+    private Payment markProcessing(String paymentId) {
+        // Locked so the listener and the auto-process sweep cannot both charge one payment
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
             .orElseThrow(() -> new IllegalArgumentException("Payment not found: " + paymentId));
 
         if (payment.getStatus() != PaymentStatus.PENDING) {
             throw new IllegalStateException("Payment is not in PENDING status: " + payment.getStatus());
         }
 
-        try {
-            // Update status to processing
-            payment.setStatus(PaymentStatus.PROCESSING);
-            paymentRepository.save(payment);
-
-            // Process payment through gateway
-            Map<String, Object> gatewayResponse = paymentGatewayService.processPayment(payment);
-            
-            boolean isSuccessful = (boolean) gatewayResponse.get("success");
-            payment.setGatewayResponse(gatewayResponse.toString());
-
-            if (isSuccessful) {
-                payment.setStatus(PaymentStatus.COMPLETED);
-                payment.setGatewayReference((String) gatewayResponse.get("gatewayReference"));
-                payment.setProcessedAt(LocalDateTime.now());
-                
-                if (gatewayResponse.containsKey("cardLastFour")) {
-                    payment.setCardLastFour((String) gatewayResponse.get("cardLastFour"));
-                    payment.setCardBrand((String) gatewayResponse.get("cardBrand"));
-                }
+        // The caller has already given up on this request; charging now would bill an order it is rolling back
+        if (RequestDeadline.isExpired()) {
+            throw new IllegalStateException("Request deadline passed before charging payment: " + paymentId);
+        }
 
-                // Publish payment completed event
-                paymentEventProducer.sendPaymentCompletedEvent(payment);
-                log.info("Payment completed successfully: {}", paymentId);
-            } else {
-                payment.setStatus(PaymentStatus.FAILED);
-                payment.setFailureReason((String) gatewayResponse.get("message"));
-                payment.setFailedAt(LocalDateTime.now());
-
-                // Publish payment failed event
-                paymentEventProducer.sendPaymentFailedEvent(payment);
-                log.error("Payment failed: {} reason: {}", paymentId, payment.getFailureReason());
-            }
+        payment.setStatus(PaymentStatus.PROCESSING);
+        return paymentRepository.save(payment);
+    }
 
-            return paymentRepository.save(payment);
+    private Payment finalizeCharge(String paymentId, GatewayResult result, Throwable error) {
+        Payment payment = paymentRepository.findById(paymentId)
+            .orElseThrow(() -> new IllegalArgumentException("Payment not found: " + paymentId));
+
+        if (payment.getStatus() != PaymentStatus.PROCESSING) {
+            log.warn("Payment {} moved to {} while the gateway was charging it", paymentId, payment.getStatus());
+            return payment;
+        }
+
+        if (error != null) {
+            // A timeout or transport error says nothing about the charge, which may have gone
+            // through: the payment stays PROCESSING until reconciliation asks the gateway
+            log.error("Outcome unknown for payment: {}, left for reconciliation: {}", paymentId, describe(error), error);
+            return payment;
+        }
+
+        payment.setGatewayResponse(result.toString());
 
-        } catch (Exception e) {
-            log.error("Error processing payment: {}", paymentId, e);
+        if (result.isSuccess()) {
+            payment.setStatus(PaymentStatus.COMPLETED);
+            payment.setGateway(result.getGateway());
+            payment.setGatewayReference(result.getReference());
+            payment.setProcessedAt(LocalDateTime.now());
+
+            if (result.getCardLastFour() != null) {
+                payment.setCardLastFour(result.getCardLastFour());
+                payment.setCardBrand(result.getCardBrand());
+            }
+
+            // Publish payment completed event
+            paymentEventProducer.sendPaymentCompletedEvent(payment);
+            log.info("Payment completed successfully: {}", paymentId);
+        } else {
             payment.setStatus(PaymentStatus.FAILED);
-            payment.setFailureReason("System error: " + e.getMessage());
+            payment.setFailureReason(result.getMessage());
             payment.setFailedAt(LocalDateTime.now());
-            
-            Payment savedPayment = paymentRepository.save(payment);
-            paymentEventProducer.sendPaymentFailedEvent(savedPayment);
-            
-            throw new RuntimeException("Failed to process payment", e);
+
+            // Publish payment failed event
+            paymentEventProducer.sendPaymentFailedEvent(payment);
+            log.error("Payment failed: {} reason: {}", paymentId, payment.getFailureReason());
         }
+
+        return paymentRepository.save(payment);
     }
 
-    @Transactional
-    public Payment refundPayment(String paymentId, BigDecimal refundAmount) {
+    /**
+     * Refunds part or all of a completed payment. Like {@link #processPayment}, the gateway
+     * is called between two short transactions rather than inside one: the first reserves the
+     * amount under the payment's row lock, the second settles or releases it.
+     */
+    public CompletableFuture<Payment> refundPayment(String paymentId, BigDecimal refundAmount) {
         log.info("Processing refund for payment: {} amount: {}", paymentId, refundAmount);
 
-        Payment payment = paymentRepository.findById(paymentId)
-            .orElseThrow(() -> new IllegalArgumentException("Payment not found: " + paymentId));
+        Payment payment = reserveRefund(paymentId, refundAmount);
+
+        RefundInstruction refund = new RefundInstruction(UUID.randomUUID().toString(), payment.getGatewayReference(),
+                refundAmount, payment.getCurrency());
+        return paymentGatewayRouter.refund(payment.getGateway(), refund)
+            .orTimeout(gatewayTimeoutMs, TimeUnit.MILLISECONDS)
+            .handleAsync((result, error) -> {
+                Throwable cause = unwrap(error);
+                if (cause != null) {
+                    // The gateway may have paid it out, so the reservation is held for reconciliation
+                    log.error("Outcome unknown for refund of {} from payment: {}, reservation held for reconciliation: {}",
+                        refundAmount, paymentId, describe(cause), cause);
+                    throw new RuntimeException("Failed to process refund", cause);
+                }
+                if (!result.isSuccess()) {
+                    releaseRefund(paymentId, refundAmount);
+                    log.error("Refund declined for payment: {} reason: {}", paymentId, result.getMessage());
+                    throw new RuntimeException("Failed to process refund",
+                        new RuntimeException("Refund failed: " + result.getMessage()));
+                }
+                return recordRefund(paymentId, refundAmount);
+            }, completionExecutor);
+    }
 
+    /**
+     * Throws if {@code refundAmount} cannot be refunded from {@code payment}, counting refunds
+     * already reserved against it.
+     */
+    public void checkRefundable(Payment payment, BigDecimal refundAmount) {
         if (payment.getStatus() != PaymentStatus.COMPLETED) {
             throw new IllegalStateException("Can only refund completed payments");
         }
 
-        if (refundAmount.compareTo(payment.getAmount().subtract(payment.getRefundAmount())) > 0) {
+        Money refund = toMoney(refundAmount, payment.getCurrency());
+        if (!refund.isPositive()) {
+            throw new IllegalArgumentException("Refund amount must be positive");
+        }
+        if (refund.isGreaterThan(payment.refundableAmount())) {
             throw new IllegalArgumentException("Refund amount exceeds available amount");
         }
+    }
 
-        try {
-            Map<String, Object> refundResponse = paymentGatewayService.refundPayment(
-                payment.getGatewayReference(), 
-                refundAmount
-            );
-
-            boolean isSuccessful = (boolean) refundResponse.get("success");
-
-            if (isSuccessful) {
-                payment.setRefundAmount(payment.getRefundAmount().add(refundAmount));
-                
-                if (payment.getRefundAmount().equals(payment.getAmount())) {
-                    payment.setStatus(PaymentStatus.REFUNDED);
-                } else {
-                    payment.setStatus(PaymentStatus.PARTIALLY_REFUNDED);
-                }
+    /**
+     * Reserves {@code refundAmount} of the payment for a refund about to be sent to the
+     * gateway, in the caller's transaction if there is one. Throws as {@link #checkRefundable}
+     * does; the check and the reservation happen under the payment's row lock, so concurrent
+     * refunds can never reserve more than was charged.
+     */
+    public Payment reserveRefund(String paymentId, BigDecimal refundAmount) {
+        return transactionTemplate.execute(status -> {
+            Payment payment = paymentRepository.findByIdForUpdate(paymentId)
+                .orElseThrow(() -> new IllegalArgumentException("Payment not found: " + paymentId));
+            checkRefundable(payment, refundAmount);
+            payment.setPendingRefundAmount(payment.pendingRefundedAmount()
+                .plus(toMoney(refundAmount, payment.getCurrency())).toBigDecimal());
+            return paymentRepository.save(payment);
+        });
+    }
 
-                Payment savedPayment = paymentRepository.save(payment);
-                paymentEventProducer.sendPaymentRefundedEvent(savedPayment, refundAmount);
-                
-                log.info("Refund processed successfully for payment: {}", paymentId);
-                return savedPayment;
-            } else {
-                throw new RuntimeException("Refund failed: " + refundResponse.get("message"));
-            }
+    /**
+     * Returns a reservation the gateway definitely did not pay out, in the caller's
+     * transaction if there is one.
+     */
+    public void releaseRefund(String paymentId, BigDecimal refundAmount) {
+        transactionTemplate.executeWithoutResult(status -> paymentRepository.findByIdForUpdate(paymentId)
+            .ifPresent(payment -> {
+                payment.setPendingRefundAmount(unreserve(payment, refundAmount).toBigDecimal());
+                paymentRepository.save(payment);
+            }));
+    }
+
+    /**
+     * Settles a reserved refund the gateway has made, in the caller's transaction if there is
+     * one. Used by the refund queue, which marks its request done in the same transaction.
+     */
+    public Payment recordRefund(String paymentId, BigDecimal refundAmount) {
+        return transactionTemplate.execute(status -> finalizeRefund(paymentId, refundAmount));
+    }
+
+    private Payment finalizeRefund(String paymentId, BigDecimal refundAmount) {
+        // The amount was reserved before the gateway was called; the money is out, so this only
+        // moves it from pending to refunded and never refuses
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
+            .orElseThrow(() -> new IllegalArgumentException("Payment not found: " + paymentId));
+
+        Money refund = toMoney(refundAmount, payment.getCurrency());
+        payment.setPendingRefundAmount(unreserve(payment, refundAmount).toBigDecimal());
+        Money refunded = payment.refundedAmount().plus(refund);
+        payment.setRefundAmount(refunded.toBigDecimal());
+
+        // Money equality ignores decimal scale, unlike BigDecimal.equals
+        if (refunded.equals(payment.chargedAmount())) {
+            payment.setStatus(PaymentStatus.REFUNDED);
+        } else {
+            payment.setStatus(PaymentStatus.PARTIALLY_REFUNDED);
+        }
+
+        Payment savedPayment = paymentRepository.save(payment);
+        paymentEventProducer.sendPaymentRefundedEvent(savedPayment, refundAmount);
 
-        } catch (Exception e) {
-            log.error("Error processing refund for payment: {}", paymentId, e);
-            throw new RuntimeException("Failed to process refund", e);
+        log.info("Refund processed successfully for payment: {}", paymentId);
+        return savedPayment;
+    }
+
+    private Money unreserve(Payment payment, BigDecimal refundAmount) {
+        Money pending = payment.pendingRefundedAmount().minus(toMoney(refundAmount, payment.getCurrency()));
+        if (pending.isNegative()) {
+            log.error("Refund of {} for payment {} was not reserved; pending refunds were {}",
+                refundAmount, payment.getId(), payment.pendingRefundedAmount().toBigDecimal());
+            return Money.zero(payment.getCurrency());
         }
+        return pending;
     }
 
     @Transactional
@@ -186,33 +418,11 @@ public class PaymentService {
         return paymentRepository.findByOrderId(orderId);
     }
 
-    @Transactional(readOnly = true)
-    public List<Payment> getPaymentsByCustomerId(String customerId) {
-        return paymentRepository.findByCustomerId(customerId);
-    }
-
     @Transactional(readOnly = true)
     public List<Payment> getPaymentsByStatus(PaymentStatus status) {
         return paymentRepository.findByStatus(status);
     }
 
-    @Transactional
-    public void expireOldPayments(int expiryMinutes) {
-        LocalDateTime expiryTime = LocalDateTime.now().minusMinutes(expiryMinutes);
-        List<Payment> expiredPayments = paymentRepository.findExpiredPayments(PaymentStatus.PENDING, expiryTime);
-
-        for (Payment payment : expiredPayments) {
-            payment.setStatus(PaymentStatus.EXPIRED);
-            payment.setFailedAt(LocalDateTime.now());
-            payment.setFailureReason("Payment expired");
-            
-            Payment savedPayment = paymentRepository.save(payment);
-            paymentEventProducer.sendPaymentExpiredEvent(savedPayment);
-        }
-
-        log.info("Expired {} payments", expiredPayments.size());
-    }
-
     @Transactional(readOnly = true)
     public boolean isPaymentSuccessful(String orderId) {
         return paymentRepository.existsByOrderIdAndStatusIn(
@@ -220,4 +430,25 @@ public class PaymentService {
             List.of(PaymentStatus.COMPLETED, PaymentStatus.PROCESSING)
         );
     }
-}
\ No newline at end of file
+
+    private Money toMoney(BigDecimal amount, String currency) {
+        try {
+            return Money.of(amount, currency);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid amount: " + e.getMessage());
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static String describe(Throwable error) {
+        return error instanceof TimeoutException ? "Payment gateway timed out" : error.getMessage();
+    }
+
+    private boolean isSameCharge(Payment existing, Payment requested) {
+        return Objects.equals(existing.getCurrency(), requested.getCurrency())
+                && existing.chargedAmount().equals(requested.chargedAmount());
+    }
+}
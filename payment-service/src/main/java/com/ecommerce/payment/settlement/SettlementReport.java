@@ -0,0 +1,28 @@
+package com.ecommerce.payment.settlement;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outcome of a settlement run: what it looked at, and the report date's totals after it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementReport {
+
+    private LocalDate reportDate;
+    private LocalDateTime runAt;
+    private long paymentsScanned;
+    private long paymentsChanged;
+    private List<SettlementTotal> totals;
+    private String summaryFile;
+    private String changesFile;
+}
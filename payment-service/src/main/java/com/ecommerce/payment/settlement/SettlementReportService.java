@@ -0,0 +1,326 @@
+package com.ecommerce.payment.settlement;
+
+import com.ecommerce.common.dto.money.Money;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the end-of-day settlement report: payment counts and amounts per currency and
+ * status for the payments created on a date. Payments are streamed from a cursor and
+ * aggregated in chunks on a worker pool. Each payment's last reported state is kept, so a
+ * run only adds the difference to the stored totals, and re-reading a payment is harmless.
+ * Runs after the first only read payments updated since the previous run.
+ *
+ * <p>Every run rewrites {@code settlement-<date>-summary.csv} from the totals and appends
+ * the payments it changed to {@code settlement-<date>-changes.csv}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SettlementReportService {
+
+    private static final String SUMMARY_HEADER = "report_date,currency,status,payment_count,amount,refunded,net";
+
+    private static final String CHANGES_HEADER =
+            "run_at,payment_id,order_id,customer_id,currency,previous_status,status,amount,refunded";
+
+    private static final Comparator<SettlementTotal> TOTAL_ORDER =
+            Comparator.comparing(SettlementTotal::currency).thenComparing(SettlementTotal::status);
+
+    private final SettlementRepository settlementRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${payment.settlement.aggregation-threads:4}")
+    private int aggregationThreads;
+
+    // Payments per aggregation transaction
+    @Value("${payment.settlement.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${payment.settlement.fetch-size:1000}")
+    private int fetchSize;
+
+    // Re-read window before the last run, for payments whose update committed after it read
+    @Value("${payment.settlement.overlap:5m}")
+    private Duration overlap;
+
+    @Value("${payment.settlement.output-directory:reports/settlements}")
+    private String outputDirectory;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(aggregationThreads, runnable -> {
+            Thread thread = new Thread(runnable, "payment-settlement-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Today's report fills in through the day; yesterday's catches late updates
+    @Scheduled(cron = "${payment.settlement.cron:0 5 * * * *}")
+    public void runScheduled() {
+        LocalDate today = LocalDate.now();
+        for (LocalDate date : List.of(today.minusDays(1), today)) {
+            try {
+                runReport(date);
+            } catch (Exception e) {
+                log.error("Settlement report for {} failed: {}", date, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Brings the report for {@code date} up to date and returns it. Empty if another
+     * instance is running the same date.
+     */
+    public Optional<SettlementReport> runReport(LocalDate date) {
+        LocalDateTime runAt = LocalDateTime.now();
+        SettlementReport report = transactionTemplate.execute(status -> {
+            if (!settlementRepository.tryLockReportDate(date)) {
+                return null;
+            }
+            LocalDateTime changedSince = settlementRepository.findWatermark(date)
+                    .map(watermark -> watermark.minus(overlap))
+                    .orElse(date.atStartOfDay());
+            Path changesFile = outputPath(date, "changes");
+            Pass pass = new Pass(date, runAt, changesFile);
+            settlementRepository.streamPayments(date.atStartOfDay(), date.plusDays(1).atStartOfDay(), changedSince,
+                    fetchSize, pass::accept);
+            pass.finish();
+
+            List<SettlementTotal> totals = settlementRepository.findTotals(date);
+            Path summaryFile = writeSummary(date, totals);
+            // Later runs re-read from here; payments changing while this one ran are inside the overlap
+            settlementRepository.saveWatermark(date, runAt);
+            return SettlementReport.builder()
+                    .reportDate(date)
+                    .runAt(runAt)
+                    .paymentsScanned(pass.scanned)
+                    .paymentsChanged(pass.changed.get())
+                    .totals(totals)
+                    .summaryFile(summaryFile.toString())
+                    .changesFile(Files.exists(changesFile) ? changesFile.toString() : null)
+                    .build();
+        });
+
+        if (report == null) {
+            log.info("Settlement report for {} is running on another instance", date);
+            return Optional.empty();
+        }
+        log.info("Settlement report for {}: scanned {}, changed {}", date, report.getPaymentsScanned(),
+                report.getPaymentsChanged());
+        return Optional.of(report);
+    }
+
+    public List<SettlementTotal> getTotals(LocalDate date) {
+        return settlementRepository.findTotals(date);
+    }
+
+    /**
+     * Records a chunk's payments and adds what changed to the totals, in one transaction.
+     * Returns each changed payment paired with its previous state, null for a new one.
+     */
+    private List<SettlementRow[]> aggregate(LocalDate date, List<SettlementRow> rows) {
+        return transactionTemplate.execute(status -> {
+            Map<String, SettlementRow> previous = settlementRepository.lockEntries(
+                    rows.stream().map(SettlementRow::paymentId).toList());
+
+            List<SettlementRow> changedRows = new ArrayList<>();
+            List<SettlementRow[]> changes = new ArrayList<>();
+            Map<String, SettlementTotal> deltas = new TreeMap<>();
+            for (SettlementRow row : rows) {
+                SettlementRow before = previous.get(row.paymentId());
+                if (before != null && before.sameAs(row)) {
+                    continue;
+                }
+                if (before != null) {
+                    deltas.merge(before.currency() + '/' + before.status(), SettlementTotal.of(before, -1),
+                            SettlementTotal::plus);
+                }
+                deltas.merge(row.currency() + '/' + row.status(), SettlementTotal.of(row, 1), SettlementTotal::plus);
+                changedRows.add(row);
+                changes.add(new SettlementRow[]{before, row});
+            }
+
+            if (!changedRows.isEmpty()) {
+                settlementRepository.upsertEntries(date, changedRows);
+                // Sorted so concurrent chunks lock total rows in the same order
+                settlementRepository.addTotals(date, deltas.values().stream()
+                        .filter(delta -> !delta.isZero())
+                        .sorted(TOTAL_ORDER)
+                        .toList());
+            }
+            return changes;
+        });
+    }
+
+    private Path writeSummary(LocalDate date, List<SettlementTotal> totals) {
+        Path summaryFile = outputPath(date, "summary");
+        try {
+            Files.createDirectories(summaryFile.getParent());
+            // Readers only ever see a complete summary
+            Path temp = Files.createTempFile(summaryFile.getParent(), summaryFile.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp)) {
+                writer.write(SUMMARY_HEADER);
+                writer.newLine();
+                for (SettlementTotal total : totals) {
+                    writer.write(csv(date.toString(), total.currency(), total.status(),
+                            String.valueOf(total.paymentCount()), total.getAmount().toPlainString(),
+                            total.getRefunded().toPlainString(), total.getNet().toPlainString()));
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, summaryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write settlement summary for " + date, e);
+        }
+        return summaryFile;
+    }
+
+    private Path outputPath(LocalDate date, String kind) {
+        return Paths.get(outputDirectory).resolve("settlement-" + date + "-" + kind + ".csv");
+    }
+
+    private static String csv(String... fields) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            String field = fields[i] == null ? "" : fields[i];
+            if (field.contains(",") || field.contains("\"") || field.contains("\n")) {
+                line.append('"').append(field.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(field);
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * One pass over the cursor. Chunks are handed to the worker pool, with a bound on how
+     * many are queued or running so the cursor cannot outrun aggregation.
+     */
+    private class Pass {
+
+        private final LocalDate date;
+        private final LocalDateTime runAt;
+        private final Path changesFile;
+        private final Semaphore chunksInFlight = new Semaphore(aggregationThreads * 2);
+        private final List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        private final AtomicLong changed = new AtomicLong();
+        private List<SettlementRow> chunk = new ArrayList<>();
+        private long scanned;
+
+        Pass(LocalDate date, LocalDateTime runAt, Path changesFile) {
+            this.date = date;
+            this.runAt = runAt;
+            this.changesFile = changesFile;
+        }
+
+        void accept(SettlementRow row) {
+            scanned++;
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                submit();
+            }
+        }
+
+        void finish() {
+            if (!chunk.isEmpty()) {
+                submit();
+            }
+            // Surfaces the first failed chunk; the watermark is not advanced, so the next run redoes it
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+        }
+
+        private void submit() {
+            List<SettlementRow> rows = chunk;
+            chunk = new ArrayList<>();
+            try {
+                chunksInFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while aggregating settlement for " + date, e);
+            }
+            chunks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    List<SettlementRow[]> changes = aggregate(date, rows);
+                    changed.addAndGet(changes.size());
+                    appendChanges(changes);
+                } finally {
+                    chunksInFlight.release();
+                }
+            }, executor));
+        }
+
+        private synchronized void appendChanges(List<SettlementRow[]> changes) {
+            if (changes.isEmpty()) {
+                return;
+            }
+            try {
+                Files.createDirectories(changesFile.getParent());
+                boolean created = !Files.exists(changesFile);
+                try (BufferedWriter writer = Files.newBufferedWriter(changesFile,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    if (created) {
+                        writer.write(CHANGES_HEADER);
+                        writer.newLine();
+                    }
+                    for (SettlementRow[] change : changes) {
+                        SettlementRow row = change[1];
+                        writer.write(csv(runAt.toString(), row.paymentId(), row.orderId(), row.customerId(),
+                                row.currency(), change[0] != null ? change[0].status() : null, row.status(),
+                                Money.ofMinor(row.amountMinor(), row.currency()).toBigDecimal().toPlainString(),
+                                Money.ofMinor(row.refundedMinor(), row.currency()).toBigDecimal().toPlainString()));
+                        writer.newLine();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write settlement changes for " + date, e);
+            }
+        }
+    }
+}
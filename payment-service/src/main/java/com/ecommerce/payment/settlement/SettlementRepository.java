@@ -0,0 +1,147 @@
+package com.ecommerce.payment.settlement;
+
+import com.ecommerce.common.dto.money.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * JDBC access for settlement: the payment cursor and the entries, totals and runs tables.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SettlementRepository {
+
+    private static final String PAYMENTS_SQL =
+            "SELECT id, order_id, customer_id, status, currency, amount, refund_amount, updated_at FROM payments " +
+            "WHERE created_at >= ? AND created_at < ? AND updated_at >= ?";
+
+    private static final String UPSERT_ENTRY_SQL =
+            "INSERT INTO settlement_entries (payment_id, report_date, currency, status, amount_minor, refunded_minor) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (payment_id) DO UPDATE SET status = EXCLUDED.status, " +
+            "amount_minor = EXCLUDED.amount_minor, refunded_minor = EXCLUDED.refunded_minor";
+
+    private static final String ADD_TOTAL_SQL =
+            "INSERT INTO settlement_totals (report_date, currency, status, payment_count, amount_minor, refunded_minor) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (report_date, currency, status) DO UPDATE SET " +
+            "payment_count = settlement_totals.payment_count + EXCLUDED.payment_count, " +
+            "amount_minor = settlement_totals.amount_minor + EXCLUDED.amount_minor, " +
+            "refunded_minor = settlement_totals.refunded_minor + EXCLUDED.refunded_minor";
+
+    private static final String SAVE_RUN_SQL =
+            "INSERT INTO settlement_runs (report_date, watermark, last_run_at) VALUES (?, ?, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (report_date) DO UPDATE SET watermark = EXCLUDED.watermark, last_run_at = CURRENT_TIMESTAMP";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes the settlement lock for {@code date} for the current transaction. Returns false
+     * if another instance is running that date.
+     */
+    public boolean tryLockReportDate(LocalDate date) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class, "payment-settlement-" + date));
+    }
+
+    /**
+     * Streams payments created in [{@code from}, {@code to}) and updated since
+     * {@code changedSince}, {@code fetchSize} rows at a time. Needs a transaction, without
+     * which the PostgreSQL driver reads the whole result at once.
+     */
+    public void streamPayments(LocalDateTime from, LocalDateTime to, LocalDateTime changedSince, int fetchSize,
+                               Consumer<SettlementRow> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(PAYMENTS_SQL);
+            statement.setFetchSize(fetchSize);
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setTimestamp(2, Timestamp.valueOf(to));
+            statement.setTimestamp(3, Timestamp.valueOf(changedSince));
+            return statement;
+        }, rs -> {
+            String currency = rs.getString("currency");
+            BigDecimal refunded = rs.getBigDecimal("refund_amount");
+            consumer.accept(new SettlementRow(
+                    rs.getString("id"),
+                    rs.getString("order_id"),
+                    rs.getString("customer_id"),
+                    rs.getString("status"),
+                    currency,
+                    Money.of(rs.getBigDecimal("amount"), currency).getMinorUnits(),
+                    refunded != null ? Money.of(refunded, currency).getMinorUnits() : 0,
+                    rs.getTimestamp("updated_at").toLocalDateTime()));
+        });
+    }
+
+    /**
+     * The last reported state of each of {@code paymentIds} that has one, locked until the
+     * transaction ends.
+     */
+    public Map<String, SettlementRow> lockEntries(Collection<String> paymentIds) {
+        Map<String, SettlementRow> entries = new HashMap<>();
+        if (paymentIds.isEmpty()) {
+            return entries;
+        }
+        String placeholders = String.join(",", Collections.nCopies(paymentIds.size(), "?"));
+        jdbcTemplate.query(
+                "SELECT payment_id, currency, status, amount_minor, refunded_minor FROM settlement_entries " +
+                "WHERE payment_id IN (" + placeholders + ") FOR UPDATE",
+                rs -> {
+                    entries.put(rs.getString("payment_id"), new SettlementRow(rs.getString("payment_id"), null, null,
+                            rs.getString("status"), rs.getString("currency"), rs.getLong("amount_minor"),
+                            rs.getLong("refunded_minor"), null));
+                },
+                paymentIds.toArray());
+        return entries;
+    }
+
+    public void upsertEntries(LocalDate date, List<SettlementRow> rows) {
+        jdbcTemplate.batchUpdate(UPSERT_ENTRY_SQL, rows.stream()
+                .map(row -> new Object[]{row.paymentId(), Date.valueOf(date), row.currency(), row.status(),
+                        row.amountMinor(), row.refundedMinor()})
+                .toList());
+    }
+
+    /**
+     * Adds {@code deltas} to the date's totals. Callers pass them in a fixed order, so
+     * concurrent chunks lock total rows in the same order.
+     */
+    public void addTotals(LocalDate date, List<SettlementTotal> deltas) {
+        jdbcTemplate.batchUpdate(ADD_TOTAL_SQL, deltas.stream()
+                .map(delta -> new Object[]{Date.valueOf(date), delta.currency(), delta.status(), delta.paymentCount(),
+                        delta.amountMinor(), delta.refundedMinor()})
+                .toList());
+    }
+
+    public List<SettlementTotal> findTotals(LocalDate date) {
+        return jdbcTemplate.query(
+                "SELECT currency, status, payment_count, amount_minor, refunded_minor FROM settlement_totals " +
+                "WHERE report_date = ? AND payment_count <> 0 ORDER BY currency, status",
+                (rs, rowNum) -> new SettlementTotal(rs.getString("currency"), rs.getString("status"),
+                        rs.getLong("payment_count"), rs.getLong("amount_minor"), rs.getLong("refunded_minor")),
+                Date.valueOf(date));
+    }
+
+    public Optional<LocalDateTime> findWatermark(LocalDate date) {
+        return jdbcTemplate.query("SELECT watermark FROM settlement_runs WHERE report_date = ?",
+                        (rs, rowNum) -> rs.getTimestamp("watermark").toLocalDateTime(), Date.valueOf(date))
+                .stream().findFirst();
+    }
+
+    public void saveWatermark(LocalDate date, LocalDateTime watermark) {
+        jdbcTemplate.update(SAVE_RUN_SQL, Date.valueOf(date), Timestamp.valueOf(watermark));
+    }
+}
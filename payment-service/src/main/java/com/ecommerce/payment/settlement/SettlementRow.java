@@ -0,0 +1,15 @@
+package com.ecommerce.payment.settlement;
+
+import java.time.LocalDateTime;
+
+/**
+ * The state of one payment as settlement sees it, amounts in minor units.
+ */
+public record SettlementRow(String paymentId, String orderId, String customerId, String status, String currency,
+                            long amountMinor, long refundedMinor, LocalDateTime updatedAt) {
+
+    boolean sameAs(SettlementRow other) {
+        return status.equals(other.status) && amountMinor == other.amountMinor
+                && refundedMinor == other.refundedMinor;
+    }
+}
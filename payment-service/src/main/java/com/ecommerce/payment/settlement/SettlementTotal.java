@@ -0,0 +1,39 @@
+package com.ecommerce.payment.settlement;
+
+import com.ecommerce.common.dto.money.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * Payments of one currency and status on a report date. Also used for the changes a run
+ * adds to the stored totals, where the fields may be negative.
+ */
+public record SettlementTotal(String currency, String status, long paymentCount, long amountMinor,
+                              long refundedMinor) {
+
+    static SettlementTotal of(SettlementRow row, int sign) {
+        return new SettlementTotal(row.currency(), row.status(), sign, sign * row.amountMinor(),
+                sign * row.refundedMinor());
+    }
+
+    SettlementTotal plus(SettlementTotal other) {
+        return new SettlementTotal(currency, status, paymentCount + other.paymentCount,
+                amountMinor + other.amountMinor, refundedMinor + other.refundedMinor);
+    }
+
+    boolean isZero() {
+        return paymentCount == 0 && amountMinor == 0 && refundedMinor == 0;
+    }
+
+    public BigDecimal getAmount() {
+        return Money.ofMinor(amountMinor, currency).toBigDecimal();
+    }
+
+    public BigDecimal getRefunded() {
+        return Money.ofMinor(refundedMinor, currency).toBigDecimal();
+    }
+
+    public BigDecimal getNet() {
+        return Money.ofMinor(amountMinor - refundedMinor, currency).toBigDecimal();
+    }
+}
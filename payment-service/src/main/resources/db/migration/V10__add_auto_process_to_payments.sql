@@ -0,0 +1,6 @@
+-- Set with the payment when order-created asks for it to be charged straight away, so a
+-- charge lost to a crash after the event was recorded is picked up by the auto-process sweep
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS auto_process BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_payments_pending_auto_process ON payments(created_at)
+    WHERE status = 'PENDING' AND auto_process;
@@ -0,0 +1,3 @@
+-- Refunds reserve their amount here under the payment's row lock before the gateway is called,
+-- and move it to refund_amount once the gateway has paid it out
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS pending_refund_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
@@ -0,0 +1,2 @@
+-- Gateway that took the charge, so refunds are routed back to it
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS gateway VARCHAR(50);
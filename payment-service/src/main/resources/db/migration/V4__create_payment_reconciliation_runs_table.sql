@@ -0,0 +1,16 @@
+-- Reconciliation runs over payments stranded in PROCESSING; last_payment_id is the resume checkpoint
+CREATE TABLE IF NOT EXISTS payment_reconciliation_runs (
+    id VARCHAR(36) PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    cutoff TIMESTAMP NOT NULL,
+    last_payment_id VARCHAR(36),
+    scanned BIGINT NOT NULL DEFAULT 0,
+    completed BIGINT NOT NULL DEFAULT 0,
+    failed BIGINT NOT NULL DEFAULT 0,
+    unresolved BIGINT NOT NULL DEFAULT 0,
+    error VARCHAR(500),
+    started_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP
+);
+
+CREATE INDEX idx_payment_reconciliation_runs_started_at ON payment_reconciliation_runs(started_at);
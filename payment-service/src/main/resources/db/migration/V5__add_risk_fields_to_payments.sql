@@ -0,0 +1,3 @@
+-- Screened by the in-process risk engine; neither is ever sent to a gateway
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS card_fingerprint VARCHAR(64);
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS client_ip VARCHAR(45);
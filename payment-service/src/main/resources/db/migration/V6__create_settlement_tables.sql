@@ -0,0 +1,28 @@
+-- Settlement reporting. Entries hold each payment's last reported state, so a re-run only
+-- applies the difference for payments that changed; totals are kept per report date.
+CREATE TABLE IF NOT EXISTS settlement_entries (
+    payment_id VARCHAR(36) PRIMARY KEY,
+    report_date DATE NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    amount_minor BIGINT NOT NULL,
+    refunded_minor BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS settlement_totals (
+    report_date DATE NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    payment_count BIGINT NOT NULL,
+    amount_minor BIGINT NOT NULL,
+    refunded_minor BIGINT NOT NULL,
+    PRIMARY KEY (report_date, currency, status)
+);
+
+CREATE TABLE IF NOT EXISTS settlement_runs (
+    report_date DATE PRIMARY KEY,
+    watermark TIMESTAMP NOT NULL,
+    last_run_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_payments_created_updated ON payments(created_at, updated_at);
@@ -0,0 +1,22 @@
+-- Queued refunds; idempotency_key makes each refund request, and its gateway call, happen once.
+-- next_attempt_at is when a QUEUED request is due, or when an IN_PROGRESS claim lapses
+CREATE TABLE IF NOT EXISTS refund_requests (
+    id VARCHAR(36) PRIMARY KEY,
+    idempotency_key VARCHAR(100) NOT NULL UNIQUE,
+    payment_id VARCHAR(36) NOT NULL,
+    order_id VARCHAR(36) NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    gateway VARCHAR(50),
+    gateway_reference VARCHAR(255),
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    refund_reference VARCHAR(255),
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_refund_requests_due ON refund_requests(next_attempt_at) WHERE status IN ('QUEUED', 'IN_PROGRESS');
+CREATE INDEX idx_refund_requests_payment_id ON refund_requests(payment_id);
@@ -0,0 +1,37 @@
+-- Keyset pagination of a customer's payments, newest first
+CREATE INDEX IF NOT EXISTS idx_payments_customer_keyset ON payments(customer_id, created_at DESC, id DESC);
+-- Covered by the keyset index
+DROP INDEX IF EXISTS idx_payments_customer_id;
+
+-- What each paid payment has added to its customer's stats, so a redelivered event adds nothing
+CREATE TABLE IF NOT EXISTS customer_payment_stats_entries (
+    payment_id VARCHAR(36) PRIMARY KEY,
+    customer_id VARCHAR(255) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    paid_amount DECIMAL(19, 2) NOT NULL,
+    refunded_amount DECIMAL(19, 2) NOT NULL DEFAULT 0
+);
+
+-- Lifetime totals per customer and currency, the sum of the entries
+CREATE TABLE IF NOT EXISTS customer_payment_stats (
+    customer_id VARCHAR(255) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    payment_count BIGINT NOT NULL DEFAULT 0,
+    paid_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    refunded_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (customer_id, currency)
+);
+
+-- Payments made before the stats existed
+INSERT INTO customer_payment_stats_entries (payment_id, customer_id, currency, paid_amount, refunded_amount)
+SELECT id, customer_id, currency, amount, COALESCE(refund_amount, 0)
+FROM payments
+WHERE status IN ('COMPLETED', 'REFUNDED', 'PARTIALLY_REFUNDED')
+ON CONFLICT (payment_id) DO NOTHING;
+
+INSERT INTO customer_payment_stats (customer_id, currency, payment_count, paid_amount, refunded_amount, updated_at)
+SELECT customer_id, currency, COUNT(*), SUM(paid_amount), SUM(refunded_amount), CURRENT_TIMESTAMP
+FROM customer_payment_stats_entries
+GROUP BY customer_id, currency
+ON CONFLICT (customer_id, currency) DO NOTHING;
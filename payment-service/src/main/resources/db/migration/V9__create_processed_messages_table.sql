@@ -0,0 +1,10 @@
+-- Consumed event IDs per consumer group (see common-utils IdempotentConsumer)
+CREATE TABLE IF NOT EXISTS processed_messages (
+    consumer_group VARCHAR(100) NOT NULL,
+    message_id VARCHAR(255) NOT NULL,
+    processed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (consumer_group, message_id)
+);
+
+CREATE INDEX idx_processed_messages_expires_at ON processed_messages(expires_at);
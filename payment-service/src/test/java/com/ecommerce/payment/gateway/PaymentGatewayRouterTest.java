@@ -0,0 +1,190 @@
+package com.ecommerce.payment.gateway;
+
+import com.ecommerce.payment.entity.Payment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentGatewayRouterTest {
+
+    private ScheduledExecutorService scheduler;
+    private PaymentGatewayProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newScheduledThreadPool(2);
+        properties = new PaymentGatewayProperties();
+        properties.setTimeout(Duration.ofSeconds(5));
+        properties.getRouting().setExplorationRate(0);
+        properties.getRouting().setHedgeMinDelay(Duration.ZERO);
+        properties.getRouting().setHedgeDefaultDelay(Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void charge_PrimaryIsSlow_HedgesToSecondGatewayAndVoidsTheLateApproval() throws Exception {
+        ScriptedGateway slow = new ScriptedGateway("slow").approveAfter(400);
+        ScriptedGateway fast = new ScriptedGateway("fast").approveAfter(10);
+        PaymentGatewayRouter router = new PaymentGatewayRouter(List.of(slow, fast), properties, scheduler);
+
+        GatewayResult result = router.charge(payment()).get(1, TimeUnit.SECONDS);
+
+        assertEquals("fast", result.getGateway());
+        assertTrue(result.isSuccess());
+        awaitUntil(() -> slow.voided.size() == 1);
+        assertTrue(fast.voided.isEmpty());
+    }
+
+    @Test
+    void charge_PrimaryAnswersBeforeHedgeDelay_SendsNoHedge() throws Exception {
+        properties.getRouting().setHedgeDefaultDelay(Duration.ofMillis(500));
+        ScriptedGateway first = new ScriptedGateway("first").approveAfter(10);
+        ScriptedGateway second = new ScriptedGateway("second").approveAfter(10);
+        PaymentGatewayRouter router = new PaymentGatewayRouter(List.of(first, second), properties, scheduler);
+
+        GatewayResult result = router.charge(payment()).get(1, TimeUnit.SECONDS);
+
+        assertEquals("first", result.getGateway());
+        assertEquals(0, second.charges);
+    }
+
+    @Test
+    void charge_PrimaryErrors_FailsOverWithoutWaitingForHedgeDelay() throws Exception {
+        properties.getRouting().setHedgeDefaultDelay(Duration.ofSeconds(10));
+        ScriptedGateway broken = new ScriptedGateway("broken").failAfter(10);
+        ScriptedGateway healthy = new ScriptedGateway("healthy").approveAfter(10);
+        PaymentGatewayRouter router = new PaymentGatewayRouter(List.of(broken, healthy), properties, scheduler);
+
+        GatewayResult result = router.charge(payment()).get(1, TimeUnit.SECONDS);
+
+        assertEquals("healthy", result.getGateway());
+    }
+
+    @Test
+    void charge_AfterSlowAnswers_RoutesToTheFasterGatewayFirst() throws Exception {
+        properties.getRouting().setHedgingEnabled(false);
+        ScriptedGateway slow = new ScriptedGateway("slow").approveAfter(150).approveAfter(150);
+        ScriptedGateway fast = new ScriptedGateway("fast").approveAfter(5).approveAfter(5).approveAfter(5);
+        PaymentGatewayRouter router = new PaymentGatewayRouter(List.of(slow, fast), properties, scheduler);
+
+        // No samples yet: configured order. Then the untried gateway, then the faster one
+        assertEquals("slow", router.charge(payment()).get(1, TimeUnit.SECONDS).getGateway());
+        assertEquals("fast", router.charge(payment()).get(1, TimeUnit.SECONDS).getGateway());
+        assertEquals("fast", router.charge(payment()).get(1, TimeUnit.SECONDS).getGateway());
+        assertEquals(List.of("fast", "slow"), router.ranking());
+    }
+
+    @Test
+    void refund_GoesToTheGatewayThatTookTheCharge() throws Exception {
+        ScriptedGateway first = new ScriptedGateway("first");
+        ScriptedGateway second = new ScriptedGateway("second");
+        PaymentGatewayRouter router = new PaymentGatewayRouter(List.of(first, second), properties, scheduler);
+
+        GatewayResult result = router.refund("second", new RefundInstruction("refund-1", "GW_1", new BigDecimal("10.00"), "USD")).get(1, TimeUnit.SECONDS);
+
+        assertEquals("second", result.getGateway());
+        assertEquals(List.of("GW_1"), second.refunds);
+        assertTrue(first.refunds.isEmpty());
+    }
+
+    private static Payment payment() {
+        return Payment.builder()
+                .id(UUID.randomUUID().toString())
+                .orderId("order-1")
+                .customerId("customer-1")
+                .amount(new BigDecimal("10.00"))
+                .build();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Answers charges from a script of latencies and outcomes, completing from the scheduler.
+     */
+    private class ScriptedGateway implements PaymentGateway {
+
+        private final String name;
+        private final Deque<long[]> script = new ArrayDeque<>();
+        private final Set<String> voided = ConcurrentHashMap.newKeySet();
+        private final List<String> refunds = new CopyOnWriteArrayList<>();
+        private volatile int charges;
+
+        ScriptedGateway(String name) {
+            this.name = name;
+        }
+
+        ScriptedGateway approveAfter(long latencyMs) {
+            script.add(new long[]{latencyMs, 1});
+            return this;
+        }
+
+        ScriptedGateway failAfter(long latencyMs) {
+            script.add(new long[]{latencyMs, 0});
+            return this;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public synchronized CompletableFuture<GatewayResult> charge(Payment payment) {
+            charges++;
+            long[] step = script.poll();
+            CompletableFuture<GatewayResult> future = new CompletableFuture<>();
+            scheduler.schedule(() -> {
+                if (step[1] == 1) {
+                    future.complete(GatewayResult.builder().success(true).reference(name + "-" + payment.getId()).build());
+                } else {
+                    future.completeExceptionally(new GatewayException(name + " unavailable"));
+                }
+            }, step[0], TimeUnit.MILLISECONDS);
+            return future;
+        }
+
+        @Override
+        public CompletableFuture<GatewayResult> findCharge(Payment payment) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<GatewayResult> refund(RefundInstruction refund) {
+            refunds.add(refund.gatewayReference());
+            return CompletableFuture.completedFuture(GatewayResult.builder().success(true).reference("REF_1").build());
+        }
+
+        @Override
+        public CompletableFuture<Void> voidCharge(String gatewayReference) {
+            voided.add(gatewayReference);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
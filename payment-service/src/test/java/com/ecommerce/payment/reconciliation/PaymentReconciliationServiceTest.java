@@ -0,0 +1,130 @@
+package com.ecommerce.payment.reconciliation;
+
+import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.gateway.GatewayException;
+import com.ecommerce.payment.gateway.GatewayResult;
+import com.ecommerce.payment.gateway.PaymentGatewayRouter;
+import com.ecommerce.payment.kafka.PaymentEventProducer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentReconciliationServiceTest {
+
+    @Mock
+    private ReconciliationRepository reconciliationRepository;
+
+    @Mock
+    private PaymentGatewayRouter paymentGatewayRouter;
+
+    @Mock
+    private PaymentEventProducer paymentEventProducer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private PaymentReconciliationService paymentReconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(paymentReconciliationService, "staleAfter", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(paymentReconciliationService, "ratePerSecond", 1000.0);
+        ReflectionTestUtils.setField(paymentReconciliationService, "maxConcurrency", 2);
+        ReflectionTestUtils.setField(paymentReconciliationService, "batchSize", 2);
+        ReflectionTestUtils.setField(paymentReconciliationService, "fetchSize", 100);
+        paymentReconciliationService.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcile_ResumesFromCheckpoint_AndSettlesEachPaymentByGatewayAnswer() {
+        ReconciliationRun interrupted = ReconciliationRun.builder()
+                .id("run-1")
+                .status(ReconciliationRun.RUNNING)
+                .cutoff(LocalDateTime.now().minusMinutes(15))
+                .lastPaymentId("p0")
+                .scanned(7)
+                .startedAt(LocalDateTime.now().minusMinutes(20))
+                .build();
+        when(reconciliationRepository.tryLockReconciliation()).thenReturn(true);
+        when(reconciliationRepository.findLatestRun()).thenReturn(Optional.of(interrupted));
+        when(reconciliationRepository.findRun("run-1")).thenReturn(Optional.of(interrupted));
+        doAnswer(invocation -> {
+            Consumer<Payment> consumer = invocation.getArgument(3);
+            List.of("p1", "p2", "p3").forEach(id -> consumer.accept(payment(id)));
+            return null;
+        }).when(reconciliationRepository).streamCandidates(any(), eq("p0"), eq(100), any());
+        when(paymentGatewayRouter.findCharge(any())).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            return switch (payment.getId()) {
+                case "p1" -> CompletableFuture.completedFuture(GatewayResult.builder()
+                        .gateway("sim-primary").success(true).reference("GW_1").build());
+                case "p2" -> CompletableFuture.completedFuture(null);
+                default -> CompletableFuture.failedFuture(new GatewayException("unavailable"));
+            };
+        });
+        List<String> completed = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        when(reconciliationRepository.markCompleted(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            payments.forEach(payment -> completed.add(payment.getId() + ":" + payment.getGateway()));
+            return payments;
+        });
+        when(reconciliationRepository.markFailed(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            payments.forEach(payment -> failed.add(payment.getId()));
+            return payments;
+        });
+
+        assertTrue(paymentReconciliationService.reconcile().isPresent());
+
+        assertEquals(List.of("p1:sim-primary"), completed);
+        assertEquals(List.of("p2"), failed);
+        assertEquals(10, interrupted.getScanned());
+        assertEquals(1, interrupted.getUnresolved());
+        assertEquals("p3", interrupted.getLastPaymentId());
+        verify(reconciliationRepository, never()).insertRun(any());
+        verify(reconciliationRepository, times(2)).checkpoint(interrupted);
+        verify(reconciliationRepository).finishRun("run-1", ReconciliationRun.COMPLETED, null);
+        verify(paymentEventProducer).sendPaymentCompletedEvent(argThat(payment -> payment.getId().equals("p1")));
+        verify(paymentEventProducer).sendPaymentFailedEvent(argThat(payment -> payment.getId().equals("p2")));
+    }
+
+    @Test
+    void reconcile_LockHeldByAnotherInstance_DoesNothing() {
+        when(reconciliationRepository.tryLockReconciliation()).thenReturn(false);
+
+        assertTrue(paymentReconciliationService.reconcile().isEmpty());
+
+        verify(reconciliationRepository, never()).streamCandidates(any(), any(), anyInt(), any());
+    }
+
+    private static Payment payment(String id) {
+        return Payment.builder()
+                .id(id)
+                .orderId("order-" + id)
+                .customerId("customer-1")
+                .amount(new BigDecimal("10.00"))
+                .build();
+    }
+}
@@ -0,0 +1,180 @@
+package com.ecommerce.payment.refund;
+
+import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.entity.PaymentStatus;
+import com.ecommerce.payment.gateway.GatewayResult;
+import com.ecommerce.payment.gateway.PaymentGatewayRouter;
+import com.ecommerce.payment.gateway.RefundInstruction;
+import com.ecommerce.payment.kafka.PaymentEventProducer;
+import com.ecommerce.payment.repository.PaymentRepository;
+import com.ecommerce.payment.service.PaymentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefundQueueServiceTest {
+
+    @Mock
+    private RefundRequestRepository refundRequestRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PaymentGatewayRouter paymentGatewayRouter;
+
+    @Mock
+    private PaymentEventProducer paymentEventProducer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private RefundQueueService refundQueueService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refundQueueService, "workerThreads", 2);
+        ReflectionTestUtils.setField(refundQueueService, "claimSize", 100);
+        ReflectionTestUtils.setField(refundQueueService, "maxInFlight", 100);
+        ReflectionTestUtils.setField(refundQueueService, "lease", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(refundQueueService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(refundQueueService, "initialBackoff", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(refundQueueService, "maxBackoff", Duration.ofMinutes(10));
+        refundQueueService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        refundQueueService.shutdown();
+    }
+
+    @Test
+    void enqueue_WithAKeyAlreadyQueued_ReturnsTheExistingRequestWithoutPublishing() {
+        RefundRequest existing = request("r-1", "p-1", 1);
+        when(refundRequestRepository.insert(any())).thenReturn(false);
+        when(refundRequestRepository.findByIdempotencyKey("order-cancelled:order-p-1")).thenReturn(Optional.of(existing));
+
+        RefundRequest queued = refundQueueService.enqueue(payment("p-1"), new BigDecimal("10.00"), "order-cancelled:order-p-1");
+
+        assertSame(existing, queued);
+        verify(paymentService, never()).reserveRefund(any(), any());
+        verify(paymentEventProducer, never()).sendRefundStatusEvent(any(), any());
+    }
+
+    @Test
+    void claimAndDispatch_BatchesPerGateway_AndRecordsEachOutcome() {
+        RefundRequest approved = request("r-1", "p-1", 1);
+        RefundRequest declined = request("r-2", "p-2", 1);
+        RefundRequest exhausted = request("r-3", "p-3", 3);
+        when(refundRequestRepository.claimDue(any(), any(), eq(100))).thenReturn(List.of(approved, declined, exhausted));
+        when(paymentGatewayRouter.maxRefundBatchSize("sim")).thenReturn(2);
+        when(paymentRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            List<String> ids = invocation.getArgument(0);
+            return ids.stream().map(RefundQueueServiceTest::payment).toList();
+        });
+        when(paymentGatewayRouter.refundBatch(eq("sim"), anyList())).thenAnswer(invocation -> {
+            List<RefundInstruction> refunds = invocation.getArgument(1);
+            return CompletableFuture.completedFuture(refunds.stream()
+                    .map(refund -> refund.idempotencyKey().endsWith("p-1")
+                            ? GatewayResult.builder().success(true).reference("REF_1").build()
+                            : GatewayResult.builder().success(false).message("Unable to process refund").build())
+                    .toList());
+        });
+        when(refundRequestRepository.markSucceeded(approved, "REF_1")).thenReturn(true);
+        when(refundRequestRepository.scheduleRetry(eq(declined), any(), any())).thenReturn(true);
+        when(refundRequestRepository.markFailed(eq(exhausted), any())).thenReturn(true);
+
+        assertEquals(3, refundQueueService.claimAndDispatch());
+
+        verify(paymentGatewayRouter, timeout(1000)).refundBatch(eq("sim"), argThat(refunds -> refunds.size() == 2));
+        verify(paymentGatewayRouter, timeout(1000)).refundBatch(eq("sim"), argThat(refunds -> refunds.size() == 1));
+        verify(paymentService, timeout(1000)).recordRefund("p-1", new BigDecimal("10.00"));
+        verify(refundRequestRepository, timeout(1000)).scheduleRetry(eq(declined),
+                argThat(at -> at.isAfter(LocalDateTime.now())), eq("Unable to process refund"));
+        verify(refundRequestRepository, timeout(1000)).markFailed(exhausted, "Unable to process refund");
+        verify(paymentService, timeout(1000)).releaseRefund("p-3", new BigDecimal("10.00"));
+        verify(paymentEventProducer, timeout(1000).times(3)).sendRefundStatusEvent(any(), any());
+        assertEquals(RefundRequest.SUCCEEDED, approved.getStatus());
+        assertEquals(RefundRequest.QUEUED, declined.getStatus());
+        assertEquals(RefundRequest.FAILED, exhausted.getStatus());
+    }
+
+    @Test
+    void claimAndDispatch_OutOfAttemptsAfterATimeout_NeedsReconciliationRatherThanFailing() {
+        RefundRequest exhausted = request("r-1", "p-1", 3);
+        when(refundRequestRepository.claimDue(any(), any(), eq(100))).thenReturn(List.of(exhausted));
+        when(paymentGatewayRouter.maxRefundBatchSize("sim")).thenReturn(2);
+        when(paymentRepository.findAllById(anyList())).thenReturn(List.of(payment("p-1")));
+        when(paymentGatewayRouter.refundBatch(eq("sim"), anyList()))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+        when(refundRequestRepository.markNeedsReconciliation(exhausted, "Payment gateway timed out")).thenReturn(true);
+
+        assertEquals(1, refundQueueService.claimAndDispatch());
+
+        verify(refundRequestRepository, timeout(1000)).markNeedsReconciliation(exhausted, "Payment gateway timed out");
+        verify(paymentEventProducer, timeout(1000)).sendRefundStatusEvent(exhausted,
+                "Refund outcome unknown, needs reconciliation");
+        verify(refundRequestRepository, never()).markFailed(any(), any());
+        assertEquals(RefundRequest.NEEDS_RECONCILIATION, exhausted.getStatus());
+    }
+
+    @Test
+    void backoff_DoublesPerAttempt_UpToTheCap() {
+        for (int attempts = 1; attempts <= 12; attempts++) {
+            long expected = Math.min(2000L << (attempts - 1), Duration.ofMinutes(10).toMillis());
+            long backoff = refundQueueService.backoff(attempts).toMillis();
+            assertTrue(backoff >= expected / 2 && backoff <= expected, "attempt " + attempts + ": " + backoff);
+        }
+    }
+
+    private static RefundRequest request(String id, String paymentId, int attempts) {
+        return RefundRequest.builder()
+                .id(id)
+                .idempotencyKey("order-cancelled:order-" + paymentId)
+                .paymentId(paymentId)
+                .orderId("order-" + paymentId)
+                .amount(new BigDecimal("10.00"))
+                .currency("USD")
+                .gateway("sim")
+                .gatewayReference("GW_" + paymentId)
+                .status(RefundRequest.IN_PROGRESS)
+                .attempts(attempts)
+                .build();
+    }
+
+    private static Payment payment(String paymentId) {
+        return Payment.builder()
+                .id(paymentId)
+                .orderId("order-" + paymentId)
+                .customerId("customer-1")
+                .amount(new BigDecimal("10.00"))
+                .currency("USD")
+                .status(PaymentStatus.COMPLETED)
+                .gateway("sim")
+                .gatewayReference("GW_" + paymentId)
+                .build();
+    }
+}
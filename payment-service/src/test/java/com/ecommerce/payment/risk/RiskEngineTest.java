@@ -0,0 +1,86 @@
+package com.ecommerce.payment.risk;
+
+import com.ecommerce.payment.entity.Payment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiskEngineTest {
+
+    private RiskProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RiskProperties();
+        properties.setRules(List.of(
+                rule("card-attempts", RiskDimension.CARD, 2, null),
+                rule("customer-amount", RiskDimension.CUSTOMER, null, new BigDecimal("100.00"))));
+    }
+
+    @Test
+    void evaluate_DeclinesOnceARuleIsExceeded_AndQueuesIncrementsForReplication() {
+        RiskEngine engine = engine();
+
+        assertFalse(engine.evaluate(payment("customer-1", "card-1", "10.00")).declined());
+        assertFalse(engine.evaluate(payment("customer-2", "card-1", "10.00")).declined());
+        RiskDecision third = engine.evaluate(payment("customer-3", "card-1", "10.00"));
+        assertTrue(third.declined());
+        assertEquals("card-attempts", third.rule());
+
+        assertTrue(engine.evaluate(payment("customer-4", "card-2", "150.00")).declined());
+        // Two counters touched per payment with both a card and a customer
+        assertEquals(8, engine.drainPending().size());
+        assertTrue(engine.drainPending().isEmpty());
+    }
+
+    @Test
+    void evaluate_CountsIncrementsReplicatedFromOtherInstances() {
+        RiskEngine engine = engine();
+        RiskEngine other = engine();
+        other.evaluate(payment("customer-1", "card-1", "10.00"));
+        other.evaluate(payment("customer-2", "card-1", "10.00"));
+
+        engine.merge(other.drainPending());
+
+        assertTrue(engine.evaluate(payment("customer-3", "card-1", "10.00")).declined());
+    }
+
+    @Test
+    void evaluate_NotEnforcing_AllowsRuleHits() {
+        properties.setEnforce(false);
+        RiskEngine engine = engine();
+
+        assertFalse(engine.evaluate(payment("customer-1", "card-1", "500.00")).declined());
+    }
+
+    private RiskEngine engine() {
+        RiskEngine engine = new RiskEngine(properties, new SimpleMeterRegistry());
+        engine.init();
+        return engine;
+    }
+
+    private static RiskProperties.Rule rule(String name, RiskDimension dimension, Integer maxCount, BigDecimal maxAmount) {
+        RiskProperties.Rule rule = new RiskProperties.Rule();
+        rule.setName(name);
+        rule.setDimension(dimension);
+        rule.setWindow(Duration.ofHours(1));
+        rule.setMaxCount(maxCount);
+        rule.setMaxAmount(maxAmount);
+        return rule;
+    }
+
+    private static Payment payment(String customerId, String cardFingerprint, String amount) {
+        return Payment.builder()
+                .id("payment-" + customerId)
+                .customerId(customerId)
+                .cardFingerprint(cardFingerprint)
+                .amount(new BigDecimal(amount))
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.payment.risk;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void usage_CountsOnlyIncrementsInsideTheWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(10), 10, 1000, now::get);
+
+        counter.add(42L, now.get(), 1, 500);
+        now.addAndGet(Duration.ofMinutes(6).toMillis());
+        counter.add(42L, now.get(), 1, 700);
+        assertEquals(new SlidingWindowCounter.Usage(2, 1200), counter.usage(42L));
+
+        now.addAndGet(Duration.ofMinutes(5).toMillis());
+        assertEquals(new SlidingWindowCounter.Usage(1, 700), counter.usage(42L));
+
+        // Replicated late, already outside the window
+        counter.add(42L, now.get() - Duration.ofMinutes(11).toMillis(), 5, 5000);
+        assertEquals(new SlidingWindowCounter.Usage(1, 700), counter.usage(42L));
+    }
+
+    @Test
+    void add_BeyondCapacity_EvictsInsteadOfGrowing() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(10), 10, 16, now::get);
+
+        for (long key = 1; key <= 10_000; key++) {
+            counter.add(RiskEngine.hash("customer-" + key), now.get(), 1, 100);
+        }
+
+        // The newest key is always kept; most of the older ones are gone
+        assertEquals(1, counter.usage(RiskEngine.hash("customer-10000")).count());
+        long kept = 0;
+        for (long key = 1; key <= 10_000; key++) {
+            kept += counter.usage(RiskEngine.hash("customer-" + key)).count();
+        }
+        assertTrue(kept <= 16 * 16, "kept " + kept);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.entity.PaymentStatus;
+import com.ecommerce.payment.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentAutoProcessServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @InjectMocks
+    private PaymentAutoProcessService paymentAutoProcessService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(paymentAutoProcessService, "staleAfter", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(paymentAutoProcessService, "batchSize", 100);
+    }
+
+    @Test
+    void processStalled_ChargesPaymentsTheListenerNeverGotTo_AndSkipsThoseAlreadyTaken() {
+        when(paymentRepository.findAutoProcessIds(eq(PaymentStatus.PENDING),
+                argThat(cutoff -> cutoff.isBefore(LocalDateTime.now().minusMinutes(1))),
+                argThat((Pageable page) -> page.getPageSize() == 100)))
+                .thenReturn(List.of("pay-1", "pay-2"));
+        when(paymentService.processPayment("pay-1")).thenReturn(new CompletableFuture<Payment>());
+        // Another instance moved it to PROCESSING between the query and the row lock
+        when(paymentService.processPayment("pay-2"))
+                .thenThrow(new IllegalStateException("Payment is not in PENDING status: PROCESSING"));
+
+        assertEquals(1, paymentAutoProcessService.processStalled());
+        verify(paymentService).processPayment("pay-1");
+        verify(paymentService).processPayment("pay-2");
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.kafka.PaymentEventProducer;
+import com.ecommerce.payment.repository.PaymentExpiryRepository;
+import com.ecommerce.payment.repository.PaymentExpiryRepository.ExpiredPayment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentExpiryServiceTest {
+
+    @Mock
+    private PaymentExpiryRepository paymentExpiryRepository;
+
+    @Mock
+    private PaymentEventProducer paymentEventProducer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private PaymentExpiryService paymentExpiryService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(paymentExpiryService, "chunkSize", 2);
+        ReflectionTestUtils.setField(paymentExpiryService, "maxChunksPerRun", 10);
+        paymentExpiryService.init();
+    }
+
+    @Test
+    void expireOlderThan_ExpiresInChunks_AndPublishesOneEventPerChunk() {
+        when(paymentExpiryRepository.tryLockExpiry()).thenReturn(true);
+        when(paymentExpiryRepository.expireChunk(any(), eq(2))).thenReturn(
+                List.of(new ExpiredPayment("p1", "o1"), new ExpiredPayment("p2", "o2")),
+                List.of(new ExpiredPayment("p3", "o3")));
+
+        int expired = paymentExpiryService.expireOlderThan(30);
+
+        assertEquals(3, expired);
+        verify(paymentExpiryRepository, times(2)).expireChunk(any(), eq(2));
+        verify(paymentEventProducer, times(2)).sendPaymentsExpiredEvent(anyList());
+    }
+
+    @Test
+    void expireOlderThan_LockHeldByAnotherInstance_ExpiresNothing() {
+        when(paymentExpiryRepository.tryLockExpiry()).thenReturn(false);
+
+        assertEquals(0, paymentExpiryService.expireOlderThan(30));
+
+        verify(paymentExpiryRepository, never()).expireChunk(any(), anyInt());
+        verifyNoInteractions(paymentEventProducer);
+    }
+}
@@ -0,0 +1,107 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.dto.CustomerPaymentStats;
+import com.ecommerce.payment.dto.PaymentHistoryPage;
+import com.ecommerce.payment.dto.PaymentSummary;
+import com.ecommerce.payment.repository.CustomerPaymentStatsRepository;
+import com.ecommerce.payment.repository.PaymentHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentHistoryServiceTest {
+
+    @Mock
+    private PaymentHistoryRepository paymentHistoryRepository;
+
+    @Mock
+    private CustomerPaymentStatsRepository customerPaymentStatsRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private PaymentHistoryService paymentHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(paymentHistoryService, "cacheTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(paymentHistoryService, "cacheSize", 100);
+        paymentHistoryService.init();
+    }
+
+    @Test
+    void getCustomerPayments_ExtraRow_ReturnsCursorForLastPaymentOnPage() {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123456000);
+        when(paymentHistoryRepository.findByCustomer("customer-1", null, null, 3)).thenReturn(List.of(
+                summary("p3", now), summary("p2", now.minusMinutes(1)), summary("p1", now.minusMinutes(2))));
+
+        PaymentHistoryPage page = paymentHistoryService.getCustomerPayments("customer-1", null, 2);
+
+        assertTrue(page.isHasMore());
+        assertEquals(2, page.getPayments().size());
+        String[] position = PaymentHistoryService.decodeCursor(page.getNextCursor());
+        assertEquals(now.minusMinutes(1).toString(), position[0]);
+        assertEquals("p2", position[1]);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> paymentHistoryService.getCustomerPayments("customer-1", "not-a-cursor", 10));
+    }
+
+    @Test
+    void recordPayment_RepeatedAndRefundedEvents_AddOnlyWhatIsNew() {
+        BigDecimal paid = new BigDecimal("50.00");
+        when(customerPaymentStatsRepository.insertEntry("p1", "customer-1", "USD", paid, BigDecimal.ZERO))
+                .thenReturn(true, false);
+        when(customerPaymentStatsRepository.insertEntry("p1", "customer-1", "USD", paid, new BigDecimal("20.00")))
+                .thenReturn(false);
+        when(customerPaymentStatsRepository.lockRefundedAmount("p1"))
+                .thenReturn(Optional.of(BigDecimal.ZERO), Optional.of(BigDecimal.ZERO), Optional.of(new BigDecimal("20.00")));
+
+        // Completed, completed again, then a refund delivered twice
+        paymentHistoryService.recordPayment("p1", "customer-1", "USD", paid, BigDecimal.ZERO);
+        paymentHistoryService.recordPayment("p1", "customer-1", "USD", paid, BigDecimal.ZERO);
+        paymentHistoryService.recordPayment("p1", "customer-1", "USD", paid, new BigDecimal("20.00"));
+        paymentHistoryService.recordPayment("p1", "customer-1", "USD", paid, new BigDecimal("20.00"));
+
+        verify(customerPaymentStatsRepository).addStats("customer-1", "USD", 1, paid, BigDecimal.ZERO);
+        verify(customerPaymentStatsRepository).addStats("customer-1", "USD", 0, BigDecimal.ZERO, new BigDecimal("20.00"));
+        verify(customerPaymentStatsRepository, times(2)).addStats(any(), any(), anyLong(), any(), any());
+        verify(customerPaymentStatsRepository).updateRefundedAmount("p1", new BigDecimal("20.00"));
+    }
+
+    @Test
+    void getCustomerStats_ServedFromCacheUntilAPaymentIsRecorded() {
+        CustomerPaymentStats stats = CustomerPaymentStats.builder().customerId("customer-1").currency("USD").build();
+        when(customerPaymentStatsRepository.findByCustomer("customer-1")).thenReturn(List.of(stats));
+        when(customerPaymentStatsRepository.insertEntry(any(), any(), any(), any(), any())).thenReturn(true);
+
+        paymentHistoryService.getCustomerStats("customer-1");
+        paymentHistoryService.getCustomerStats("customer-1");
+        verify(customerPaymentStatsRepository, times(1)).findByCustomer("customer-1");
+
+        paymentHistoryService.recordPayment("p1", "customer-1", "USD", BigDecimal.TEN, BigDecimal.ZERO);
+        assertEquals(List.of(stats), paymentHistoryService.getCustomerStats("customer-1"));
+        verify(customerPaymentStatsRepository, times(2)).findByCustomer("customer-1");
+    }
+
+    private PaymentSummary summary(String paymentId, LocalDateTime createdAt) {
+        return PaymentSummary.builder().id(paymentId).orderId("order-" + paymentId).createdAt(createdAt).build();
+    }
+}
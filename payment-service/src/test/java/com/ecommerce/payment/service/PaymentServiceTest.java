@@ -0,0 +1,189 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.entity.PaymentStatus;
+import com.ecommerce.payment.gateway.GatewayResult;
+import com.ecommerce.payment.gateway.PaymentGatewayRouter;
+import com.ecommerce.payment.gateway.RefundInstruction;
+import com.ecommerce.payment.kafka.PaymentEventProducer;
+import com.ecommerce.payment.repository.PaymentRepository;
+import com.ecommerce.payment.risk.RiskDecision;
+import com.ecommerce.payment.risk.RiskEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentGatewayRouter paymentGatewayRouter;
+
+    @Mock
+    private RiskEngine riskEngine;
+
+    @Mock
+    private PaymentEventProducer paymentEventProducer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private PaymentService paymentService;
+
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(paymentService, "gatewayTimeoutMs", 50L);
+        ReflectionTestUtils.setField(paymentService, "completionThreads", 1);
+        paymentService.init();
+
+        payment = Payment.builder()
+                .id("pay-1")
+                .orderId("order-1")
+                .customerId("customer-1")
+                .amount(new BigDecimal("100.00"))
+                .currency("USD")
+                .status(PaymentStatus.PENDING)
+                .build();
+        lenient().when(paymentRepository.findById("pay-1")).thenReturn(Optional.of(payment));
+        lenient().when(paymentRepository.findByIdForUpdate("pay-1")).thenReturn(Optional.of(payment));
+        lenient().when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentService.shutdown();
+    }
+
+    @Test
+    void createPayment_PendingPaymentForSameCharge_ReturnsIt() {
+        when(paymentRepository.findFirstByOrderIdAndStatusInOrderByCreatedAtDesc(eq("order-1"), anyList()))
+                .thenReturn(Optional.of(payment));
+        Payment retry = Payment.builder().orderId("order-1").customerId("customer-1")
+                .amount(new BigDecimal("100.00")).currency("USD").build();
+
+        assertSame(payment, paymentService.createPayment(retry));
+        verify(paymentRepository, never()).save(retry);
+        verifyNoInteractions(paymentEventProducer);
+    }
+
+    @Test
+    void createPayment_PendingPaymentForDifferentAmount_IsRejectedWithConflict() {
+        when(paymentRepository.findFirstByOrderIdAndStatusInOrderByCreatedAtDesc(eq("order-1"), anyList()))
+                .thenReturn(Optional.of(payment));
+        Payment second = Payment.builder().orderId("order-1").customerId("customer-1")
+                .amount(new BigDecimal("120.00")).currency("USD").build();
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> paymentService.createPayment(second));
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        verify(paymentRepository, never()).save(second);
+        verifyNoInteractions(paymentEventProducer);
+    }
+
+    @Test
+    void processPayment_GatewayTimesOut_LeavesPaymentProcessingForReconciliation() {
+        when(riskEngine.evaluate(payment)).thenReturn(RiskDecision.allow());
+        // The gateway never answers, as when a charge is lost in transit
+        when(paymentGatewayRouter.charge(payment)).thenReturn(new CompletableFuture<>());
+
+        CompletableFuture<Payment> result = paymentService.processPayment("pay-1");
+
+        assertThrows(ExecutionException.class, result::get);
+        assertEquals(PaymentStatus.PROCESSING, payment.getStatus());
+        assertNull(payment.getFailedAt());
+        verify(paymentEventProducer, never()).sendPaymentFailedEvent(any());
+    }
+
+    @Test
+    void processPayment_GatewayDeclines_MarksPaymentFailed() throws Exception {
+        when(riskEngine.evaluate(payment)).thenReturn(RiskDecision.allow());
+        when(paymentGatewayRouter.charge(payment)).thenReturn(CompletableFuture.completedFuture(GatewayResult.builder()
+                .success(false)
+                .errorCode("CARD_DECLINED")
+                .message("Insufficient funds")
+                .build()));
+
+        Payment result = paymentService.processPayment("pay-1").get();
+
+        assertEquals(PaymentStatus.FAILED, result.getStatus());
+        assertEquals("Insufficient funds", result.getFailureReason());
+        verify(paymentEventProducer).sendPaymentFailedEvent(payment);
+    }
+
+    @Test
+    void refundPayment_GatewayTimesOut_RecordsNoRefund_AndHoldsTheReservation() {
+        completed();
+        when(paymentGatewayRouter.refund(eq("sim"), any(RefundInstruction.class))).thenReturn(new CompletableFuture<>());
+
+        CompletableFuture<Payment> result = paymentService.refundPayment("pay-1", new BigDecimal("40.00"));
+
+        assertThrows(ExecutionException.class, result::get);
+        assertEquals(0, BigDecimal.ZERO.compareTo(payment.getRefundAmount()));
+        // The gateway may have paid it out, so it stays reserved until reconciled
+        assertEquals(0, new BigDecimal("40.00").compareTo(payment.getPendingRefundAmount()));
+        verify(paymentEventProducer, never()).sendPaymentRefundedEvent(any(), any());
+    }
+
+    @Test
+    void refundPayment_GatewayDeclines_RecordsNoRefund_AndReleasesTheReservation() {
+        completed();
+        when(paymentGatewayRouter.refund(eq("sim"), any(RefundInstruction.class))).thenReturn(
+                CompletableFuture.completedFuture(GatewayResult.builder().success(false).message("Refund declined").build()));
+
+        CompletableFuture<Payment> result = paymentService.refundPayment("pay-1", new BigDecimal("40.00"));
+
+        assertThrows(ExecutionException.class, result::get);
+        assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
+        assertEquals(0, BigDecimal.ZERO.compareTo(payment.getRefundAmount()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(payment.getPendingRefundAmount()));
+        verify(paymentEventProducer, never()).sendPaymentRefundedEvent(any(), any());
+    }
+
+    @Test
+    void refundPayment_ConcurrentRefunds_AreReservedUnderTheRowLock_SoOnlyOneReachesTheGateway() {
+        completed();
+        CompletableFuture<GatewayResult> first = new CompletableFuture<>();
+        when(paymentGatewayRouter.refund(eq("sim"), any(RefundInstruction.class))).thenReturn(first);
+
+        CompletableFuture<Payment> firstRefund = paymentService.refundPayment("pay-1", new BigDecimal("60.00"));
+        // The first is still at the gateway, but its amount is already reserved
+        assertThrows(IllegalArgumentException.class,
+                () -> paymentService.refundPayment("pay-1", new BigDecimal("60.00")));
+        first.complete(GatewayResult.builder().success(true).build());
+        Payment refunded = firstRefund.join();
+
+        assertEquals(0, new BigDecimal("60.00").compareTo(refunded.getRefundAmount()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(refunded.getPendingRefundAmount()));
+        assertEquals(PaymentStatus.PARTIALLY_REFUNDED, refunded.getStatus());
+        verify(paymentGatewayRouter, times(1)).refund(eq("sim"), any(RefundInstruction.class));
+        verify(paymentEventProducer).sendPaymentRefundedEvent(any(), any());
+    }
+
+    private void completed() {
+        payment.setStatus(PaymentStatus.COMPLETED);
+        payment.setGateway("sim");
+        payment.setGatewayReference("ref-1");
+    }
+}
@@ -0,0 +1,125 @@
+package com.ecommerce.payment.settlement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SettlementReportServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private SettlementRepository settlementRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SettlementReportService settlementReportService;
+
+    @TempDir
+    Path outputDirectory;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(settlementReportService, "aggregationThreads", 2);
+        ReflectionTestUtils.setField(settlementReportService, "chunkSize", 2);
+        ReflectionTestUtils.setField(settlementReportService, "fetchSize", 100);
+        ReflectionTestUtils.setField(settlementReportService, "overlap", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(settlementReportService, "outputDirectory", outputDirectory.toString());
+        settlementReportService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        settlementReportService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void runReport_AddsOnlyTheDifferenceFromEachPaymentsLastReportedState() throws Exception {
+        LocalDateTime watermark = DATE.atTime(12, 0);
+        when(settlementRepository.tryLockReportDate(DATE)).thenReturn(true);
+        when(settlementRepository.findWatermark(DATE)).thenReturn(Optional.of(watermark));
+        doAnswer(invocation -> {
+            Consumer<SettlementRow> consumer = invocation.getArgument(4);
+            consumer.accept(row("p1", "COMPLETED", 1000, 0));
+            consumer.accept(row("p2", "REFUNDED", 2000, 2000));
+            consumer.accept(row("p3", "COMPLETED", 500, 0));
+            return null;
+        }).when(settlementRepository).streamPayments(any(), any(), any(), anyInt(), any(Consumer.class));
+        // p1 is new, p2 was reported as completed before its refund, p3 is unchanged
+        when(settlementRepository.lockEntries(anyCollection())).thenAnswer(invocation -> {
+            Map<String, SettlementRow> entries = Map.of(
+                    "p2", row("p2", "COMPLETED", 2000, 0),
+                    "p3", row("p3", "COMPLETED", 500, 0));
+            return ((List<String>) invocation.getArgument(0)).stream()
+                    .filter(entries::containsKey)
+                    .collect(Collectors.toMap(id -> id, entries::get));
+        });
+        when(settlementRepository.findTotals(DATE)).thenReturn(List.of(
+                new SettlementTotal("USD", "COMPLETED", 2, 1500, 0),
+                new SettlementTotal("USD", "REFUNDED", 1, 2000, 2000)));
+
+        SettlementReport report = settlementReportService.runReport(DATE).orElseThrow();
+
+        assertEquals(3, report.getPaymentsScanned());
+        assertEquals(2, report.getPaymentsChanged());
+        verify(settlementRepository).streamPayments(eq(DATE.atStartOfDay()), eq(DATE.plusDays(1).atStartOfDay()),
+                eq(watermark.minusMinutes(5)), eq(100), any(Consumer.class));
+
+        // The chunk holding only p3 writes nothing
+        ArgumentCaptor<List<SettlementTotal>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(settlementRepository).addTotals(eq(DATE), deltas.capture());
+        assertEquals(List.of(
+                new SettlementTotal("USD", "COMPLETED", 0, -1000, 0),
+                new SettlementTotal("USD", "REFUNDED", 1, 2000, 2000)), deltas.getValue());
+        verify(settlementRepository).upsertEntries(eq(DATE), argThat(rows -> rows.size() == 2));
+        verify(settlementRepository).saveWatermark(eq(DATE), any(LocalDateTime.class));
+
+        List<String> summary = Files.readAllLines(Path.of(report.getSummaryFile()));
+        assertEquals(List.of(
+                "report_date,currency,status,payment_count,amount,refunded,net",
+                "2024-03-01,USD,COMPLETED,2,15.00,0.00,15.00",
+                "2024-03-01,USD,REFUNDED,1,20.00,20.00,0.00"), summary);
+        assertEquals(3, Files.readAllLines(Path.of(report.getChangesFile())).size());
+    }
+
+    @Test
+    void runReport_WhenAnotherInstanceHoldsTheDate_ReturnsEmpty() {
+        when(settlementRepository.tryLockReportDate(DATE)).thenReturn(false);
+
+        assertTrue(settlementReportService.runReport(DATE).isEmpty());
+        verify(settlementRepository, never()).streamPayments(any(), any(), any(), anyInt(), any());
+        verify(settlementRepository, never()).saveWatermark(any(), any());
+    }
+
+    private static SettlementRow row(String paymentId, String status, long amountMinor, long refundedMinor) {
+        return new SettlementRow(paymentId, "order-" + paymentId, "customer-1", status, "USD", amountMinor,
+                refundedMinor, DATE.atTime(13, 0));
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.product.dto.BulkPriceUpdateRequest;
+import com.ecommerce.product.dto.BulkStatusUpdateRequest;
+import com.ecommerce.product.dto.BulkUpdateResult;
+import com.ecommerce.product.service.ProductBulkUpdateService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/products/bulk")
+@RequiredArgsConstructor
+@Slf4j
+public class ProductBulkUpdateController {
+
+    private final ProductBulkUpdateService productBulkUpdateService;
+
+    @PostMapping("/price")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<BulkUpdateResult> updatePrices(@Valid @RequestBody BulkPriceUpdateRequest request) {
+        log.info("Bulk price update: {} {}", request.getAdjustmentType(), request.getValue());
+        return ResponseEntity.ok(productBulkUpdateService.updatePrices(request));
+    }
+
+    @PostMapping(value = "/price/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<BulkUpdateResult> updatePricesFromCsv(@RequestParam("file") MultipartFile file) throws IOException {
+        log.info("Bulk price update from CSV: {} ({} bytes)", file.getOriginalFilename(), file.getSize());
+        try (InputStream csv = file.getInputStream()) {
+            return ResponseEntity.ok(productBulkUpdateService.updatePricesFromCsv(csv));
+        }
+    }
+
+    @PostMapping("/status")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<BulkUpdateResult> updateStatus(@Valid @RequestBody BulkStatusUpdateRequest request) {
+        log.info("Bulk status update: {}", request.getStatus());
+        return ResponseEntity.ok(productBulkUpdateService.updateStatus(request));
+    }
+}
@@ -0,0 +1,104 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.product.dto.ProductImageDTO;
+import com.ecommerce.product.service.ProductImageService;
+import com.ecommerce.product.service.ProductImageService.ImageFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/products")
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImageController {
+
+    // Tomcat's sendfile contract: hand the file to the connector instead of writing it
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Below this Tomcat's own buffered write is as cheap as sendfile (matches its default)
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final String FALLBACK_CACHE_CONTROL = "public, max-age=60";
+
+    private final ProductImageService productImageService;
+
+    @PostMapping(value = "/{productId}/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<ProductImageDTO> uploadImage(
+            @PathVariable String productId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String altText,
+            @RequestParam(defaultValue = "false") boolean primary) {
+        log.info("Uploading image for product: {} ({} bytes)", productId, file.getSize());
+        ProductImageDTO image = productImageService.uploadImage(productId, file, altText, primary);
+        return ResponseEntity.status(HttpStatus.CREATED).body(image);
+    }
+
+    @GetMapping("/{productId}/images")
+    public ResponseEntity<List<ProductImageDTO>> getProductImages(@PathVariable String productId) {
+        log.info("Fetching images for product: {}", productId);
+        return ResponseEntity.ok(productImageService.getProductImages(productId));
+    }
+
+    /**
+     * Serves a stored image without copying it through the JVM heap: via the connector's
+     * sendfile when available, otherwise {@link FileChannel#transferTo}. Stored files are
+     * content-addressed, so they are cached by clients and CDNs for a year.
+     */
+    @GetMapping("/images/{hash}/{fileName}")
+    public void serveImage(@PathVariable String hash, @PathVariable String fileName,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageFile image = productImageService.resolveImage(hash, fileName);
+        if (image == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = "\"" + hash + "-" + image.getPath().getFileName() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, image.isImmutable() ? IMMUTABLE_CACHE_CONTROL : FALLBACK_CACHE_CONTROL);
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(image.getPath(), StandardOpenOption.READ)) {
+            long length = channel.size();
+            response.setContentType(image.getContentType());
+            response.setContentLengthLong(length);
+
+            if (length > SENDFILE_THRESHOLD && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+                request.setAttribute(SENDFILE_FILENAME, image.getPath().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, length);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < length) {
+                position += channel.transferTo(position, length - position, out);
+            }
+        }
+    }
+}
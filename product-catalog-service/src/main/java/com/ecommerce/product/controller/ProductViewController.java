@@ -0,0 +1,55 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.product.service.ProductViewCounterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/products")
+@RequiredArgsConstructor
+@Slf4j
+public class ProductViewController {
+
+    private final ProductViewCounterService productViewCounterService;
+
+    @GetMapping("/{id}/views")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<Map<String, Object>> getProductViews(@PathVariable String id) {
+        log.info("Fetching view count for product: {}", id);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("productId", id);
+        response.put("viewCount", productViewCounterService.getViewCount(UUID.fromString(id)));
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/views/top")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<Map<UUID, Long>> getTopViewedProducts(@RequestParam(defaultValue = "20") int limit) {
+        log.info("Fetching top {} viewed products", limit);
+        return ResponseEntity.ok(productViewCounterService.getTopViewed(limit));
+    }
+
+    @GetMapping("/views/stats")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<Map<String, Object>> getViewCounterStats() {
+        return ResponseEntity.ok(productViewCounterService.getStats());
+    }
+
+    @PostMapping("/views/flush")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> flushViewCounts() {
+        log.info("Flushing product view counts");
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("productsFlushed", productViewCounterService.flush());
+        return ResponseEntity.ok(response);
+    }
+}
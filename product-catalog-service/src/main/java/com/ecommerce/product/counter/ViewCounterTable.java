@@ -0,0 +1,243 @@
+package com.ecommerce.product.counter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory product view counters, striped by product ID. Each stripe is an open-addressing
+ * table keyed by the two {@code long} halves of the UUID, so the hot path does no boxing and
+ * only touches a per-product {@link LongAdder}. Lookups are optimistic reads; the write lock
+ * is only taken the first time a product is seen.
+ */
+public class ViewCounterTable {
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public ViewCounterTable() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public void increment(UUID productId) {
+        long msb = productId.getMostSignificantBits();
+        long lsb = productId.getLeastSignificantBits();
+        int hash = hash(msb, lsb);
+        stripes[hash & (STRIPES - 1)].getOrCreate(productId, msb, lsb, hash).views.increment();
+    }
+
+    /**
+     * @return the counter for the product, or {@code null} if it has not been viewed on this
+     *         instance since startup
+     */
+    public ViewCounter get(UUID productId) {
+        long msb = productId.getMostSignificantBits();
+        long lsb = productId.getLeastSignificantBits();
+        int hash = hash(msb, lsb);
+        return stripes[hash & (STRIPES - 1)].find(msb, lsb, hash);
+    }
+
+    /**
+     * Counters with views not yet written to the database, or whose persisted total has not
+     * been loaded yet.
+     */
+    public List<ViewCounter> collectDirty() {
+        List<ViewCounter> dirty = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.collectDirty(dirty);
+        }
+        return dirty;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ lsb;
+        h *= 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    public static final class ViewCounter {
+
+        private final UUID productId;
+        private final LongAdder views = new LongAdder();
+
+        // Written only by the flusher
+        private volatile long flushedViews;
+        private volatile long persistedTotal = -1;
+
+        ViewCounter(UUID productId) {
+            this.productId = productId;
+        }
+
+        public UUID getProductId() {
+            return productId;
+        }
+
+        /**
+         * @return views recorded locally since startup
+         */
+        public long localViews() {
+            return views.sum();
+        }
+
+        /**
+         * @return local views already included in the persisted total
+         */
+        public long flushedViews() {
+            return flushedViews;
+        }
+
+        public long pendingViews() {
+            return views.sum() - flushedViews;
+        }
+
+        /**
+         * Best-known total: the last total the database returned plus local views since.
+         */
+        public long totalViews() {
+            long persisted = persistedTotal;
+            long pending = pendingViews();
+            return persisted < 0 ? pending : persisted + pending;
+        }
+
+        /**
+         * Records that the local view count up to {@code localViewsFlushed} is now included
+         * in the database total {@code persistedTotal}.
+         */
+        public void markFlushed(long localViewsFlushed, long persistedTotal) {
+            this.flushedViews = localViewsFlushed;
+            this.persistedTotal = persistedTotal;
+        }
+
+        boolean isDirty() {
+            return persistedTotal < 0 || pendingViews() > 0;
+        }
+    }
+
+    private static final class Stripe {
+
+        private final StampedLock lock = new StampedLock();
+        private volatile Slots slots = new Slots(16);
+        private int size;
+
+        ViewCounter find(long msb, long lsb, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            ViewCounter counter = slots.probe(msb, lsb, hash);
+            if (lock.validate(stamp)) {
+                return counter;
+            }
+            stamp = lock.readLock();
+            try {
+                return slots.probe(msb, lsb, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        ViewCounter getOrCreate(UUID productId, long msb, long lsb, int hash) {
+            ViewCounter counter = find(msb, lsb, hash);
+            if (counter != null) {
+                return counter;
+            }
+            long stamp = lock.writeLock();
+            try {
+                counter = slots.probe(msb, lsb, hash);
+                if (counter == null) {
+                    if ((size + 1) * 2 > slots.counters.length) {
+                        slots = slots.grow();
+                    }
+                    counter = new ViewCounter(productId);
+                    slots.insert(msb, lsb, hash, counter);
+                    size++;
+                }
+                return counter;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void collectDirty(List<ViewCounter> out) {
+            long stamp = lock.readLock();
+            try {
+                for (ViewCounter counter : slots.counters) {
+                    if (counter != null && counter.isDirty()) {
+                        out.add(counter);
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    private static final class Slots {
+
+        private final long[] msbs;
+        private final long[] lsbs;
+        private final ViewCounter[] counters;
+        private final int mask;
+
+        Slots(int capacity) {
+            this.msbs = new long[capacity];
+            this.lsbs = new long[capacity];
+            this.counters = new ViewCounter[capacity];
+            this.mask = capacity - 1;
+        }
+
+        ViewCounter probe(long msb, long lsb, int hash) {
+            int slot = (hash >>> 6) & mask;
+            for (int i = 0; i <= mask; i++) {
+                ViewCounter counter = counters[slot];
+                if (counter == null) {
+                    return null;
+                }
+                if (msbs[slot] == msb && lsbs[slot] == lsb) {
+                    return counter;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        void insert(long msb, long lsb, int hash, ViewCounter counter) {
+            int slot = (hash >>> 6) & mask;
+            while (counters[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            msbs[slot] = msb;
+            lsbs[slot] = lsb;
+            counters[slot] = counter;
+        }
+
+        Slots grow() {
+            Slots bigger = new Slots(counters.length * 2);
+            for (int i = 0; i < counters.length; i++) {
+                if (counters[i] != null) {
+                    bigger.insert(msbs[i], lsbs[i], hash(msbs[i], lsbs[i]), counters[i]);
+                }
+            }
+            return bigger;
+        }
+    }
+}
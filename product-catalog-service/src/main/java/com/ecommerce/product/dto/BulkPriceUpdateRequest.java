@@ -0,0 +1,37 @@
+package com.ecommerce.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPriceUpdateRequest {
+
+    @Valid
+    @NotNull(message = "Selection criteria is required")
+    private ProductSelectionCriteria criteria;
+
+    @NotNull(message = "Adjustment type is required")
+    private AdjustmentType adjustmentType;
+
+    /**
+     * Percentage points for {@code PERCENTAGE} (-10 is 10% off), an amount to add for
+     * {@code FIXED_AMOUNT}, or the new price for {@code SET_PRICE}.
+     */
+    @NotNull(message = "Adjustment value is required")
+    private BigDecimal value;
+
+    public enum AdjustmentType {
+        PERCENTAGE,
+        FIXED_AMOUNT,
+        SET_PRICE
+    }
+}
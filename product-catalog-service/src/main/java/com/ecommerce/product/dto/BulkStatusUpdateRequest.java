@@ -0,0 +1,23 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.product.entity.Product;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateRequest {
+
+    @Valid
+    @NotNull(message = "Selection criteria is required")
+    private ProductSelectionCriteria criteria;
+
+    @NotNull(message = "Status is required")
+    private Product.ProductStatus status;
+}
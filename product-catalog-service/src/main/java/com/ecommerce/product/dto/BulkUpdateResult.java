@@ -0,0 +1,30 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUpdateResult {
+
+    private String batchId;
+
+    // CSV uploads only
+    private long rowsRead;
+
+    private long productsUpdated;
+
+    private int chunks;
+
+    @Builder.Default
+    private List<String> errors = new ArrayList<>();
+
+    private long durationMs;
+}
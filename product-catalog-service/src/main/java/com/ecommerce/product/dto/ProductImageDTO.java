@@ -0,0 +1,38 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImageDTO {
+
+    private String id;
+
+    private String productId;
+
+    private String imageUrl;
+
+    // Null for images not held by the catalog's image store
+    private String thumbnailUrl;
+
+    private String mediumUrl;
+
+    private String altText;
+
+    private Integer displayOrder;
+
+    private Boolean isPrimary;
+
+    private Integer width;
+
+    private Integer height;
+
+    private Long sizeInBytes;
+
+    private String mimeType;
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPriceChange {
+
+    private UUID productId;
+
+    private String sku;
+
+    private BigDecimal oldPrice;
+
+    private BigDecimal newPrice;
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.product.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Selects the products a bulk update applies to. All set fields must match. An empty
+ * selection is rejected unless {@code applyToAll} is set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSelectionCriteria {
+
+    private UUID categoryId;
+
+    private String brand;
+
+    private Product.ProductStatus status;
+
+    private List<String> skus;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+
+    private boolean applyToAll;
+
+    public boolean isEmpty() {
+        return categoryId == null && brand == null && status == null
+                && (skus == null || skus.isEmpty()) && minPrice == null && maxPrice == null;
+    }
+}
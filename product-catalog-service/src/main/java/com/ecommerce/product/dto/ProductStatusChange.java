@@ -0,0 +1,21 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStatusChange {
+
+    private UUID productId;
+
+    private String sku;
+
+    private String oldStatus;
+
+    private String newStatus;
+}
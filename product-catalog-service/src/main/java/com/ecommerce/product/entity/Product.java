@@ -1,5 +1,8 @@
 package com.ecommerce.product.entity;
 
+import com.ecommerce.common.dto.money.Money;
+import com.ecommerce.common.dto.money.MoneyConverter;
+import com.ecommerce.common.utils.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,7 +11,6 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,7 +29,7 @@ import java.util.UUID;
 public class Product {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
     
     @Column(nullable = false, unique = true, length = 50)
@@ -46,13 +48,16 @@ public class Product {
     private String slug;
     
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal price;
+    @Convert(converter = MoneyConverter.class)
+    private Money price;
     
     @Column(name = "compare_at_price", precision = 10, scale = 2)
-    private BigDecimal compareAtPrice;
+    @Convert(converter = MoneyConverter.class)
+    private Money compareAtPrice;
     
     @Column(name = "cost_price", precision = 10, scale = 2)
-    private BigDecimal costPrice;
+    @Convert(converter = MoneyConverter.class)
+    private Money costPrice;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
@@ -1,5 +1,6 @@
 package com.ecommerce.product.entity;
 
+import com.ecommerce.common.utils.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -21,7 +22,7 @@ import java.util.UUID;
 public class ProductImage {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -52,6 +53,9 @@ public class ProductImage {
     @Column(name = "mime_type", length = 50)
     private String mimeType;
     
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,163 @@
+package com.ecommerce.product.image;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates thumbnail and medium derivatives on a small bounded pool so resizing never runs
+ * on a request thread. When the queue is full the request is dropped; the serving path falls
+ * back to the original and asks again, so a busy pool only delays derivatives.
+ */
+@Component
+@Slf4j
+public class ImageDerivativeGenerator {
+
+    private final ImageStore imageStore;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Value("${product.image.thumbnail-size:200}")
+    private int thumbnailSize;
+
+    @Value("${product.image.medium-size:600}")
+    private int mediumSize;
+
+    @Value("${product.image.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    public ImageDerivativeGenerator(ImageStore imageStore,
+                                    @Value("${product.image.worker-threads:2}") int workerThreads,
+                                    @Value("${product.image.queue-capacity:200}") int queueCapacity) {
+        this.imageStore = imageStore;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queues derivative generation for a stored original.
+     *
+     * @return {@code false} if the pool is saturated and the request was dropped
+     */
+    public boolean submit(String hash, String extension) {
+        if (!inFlight.add(hash)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(hash, extension);
+                } catch (Exception e) {
+                    log.error("Failed to generate derivatives for image {}: {}", hash, e.getMessage());
+                } finally {
+                    inFlight.remove(hash);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(hash);
+            log.warn("Image derivative queue full, deferring image {}", hash);
+            return false;
+        }
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    void generate(String hash, String extension) throws IOException {
+        if (imageStore.exists(hash, ImageVariant.THUMBNAIL) && imageStore.exists(hash, ImageVariant.MEDIUM)) {
+            return;
+        }
+        Path original = imageStore.resolve(hash, ImageStore.originalFileName(extension));
+        if (original == null) {
+            log.warn("Original for image {} not found, skipping derivatives", hash);
+            return;
+        }
+
+        BufferedImage source;
+        try (InputStream in = Files.newInputStream(original)) {
+            source = ImageIO.read(in);
+        }
+        if (source == null) {
+            // No ImageIO reader for this format (e.g. WebP); the original is served instead
+            log.debug("No decoder for image {} ({}), skipping derivatives", hash, extension);
+            return;
+        }
+
+        // Scale the thumbnail from the medium rendition rather than the full-size original
+        BufferedImage medium = scaleToFit(source, mediumSize);
+        BufferedImage thumbnail = scaleToFit(medium, thumbnailSize);
+        imageStore.storeDerivative(hash, ImageVariant.MEDIUM, encodeJpeg(medium));
+        imageStore.storeDerivative(hash, ImageVariant.THUMBNAIL, encodeJpeg(thumbnail));
+        log.debug("Generated derivatives for image {}", hash);
+    }
+
+    static BufferedImage scaleToFit(BufferedImage source, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // JPEG has no alpha, so flatten transparent images onto white
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,130 @@
+package com.ecommerce.product.image;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed image storage on local disk. Each image lives in
+ * {@code <root>/<first two hash chars>/<sha-256>/} as {@code original.<ext>} plus its
+ * derivatives, so identical uploads share one copy and a stored file never changes, which
+ * is what lets it be served with immutable cache headers.
+ */
+@Component
+@Slf4j
+public class ImageStore {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/webp", "webp"
+    );
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpg", "image/jpeg",
+            "png", "image/png",
+            "webp", "image/webp"
+    );
+
+    private final Path root;
+
+    public ImageStore(@Value("${product.image.storage-dir:data/images}") String storageDir) {
+        this.root = Paths.get(storageDir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create image storage directory " + root, e);
+        }
+        log.info("Storing product images under {}", root);
+    }
+
+    public static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static String extensionFor(String mimeType) {
+        return EXTENSIONS.get(mimeType);
+    }
+
+    public static String contentTypeFor(String fileName) {
+        String extension = fileName.substring(fileName.lastIndexOf('.') + 1);
+        return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    }
+
+    public static String originalFileName(String extension) {
+        return "original." + extension;
+    }
+
+    /**
+     * Writes the original unless an identical upload is already stored.
+     */
+    public void storeOriginal(String hash, String extension, byte[] content) throws IOException {
+        Path target = directory(hash).resolve(originalFileName(extension));
+        if (Files.exists(target)) {
+            log.debug("Image {} already stored", hash);
+            return;
+        }
+        write(target, content);
+    }
+
+    public void storeDerivative(String hash, ImageVariant variant, byte[] content) throws IOException {
+        write(directory(hash).resolve(variant.getFileName()), content);
+    }
+
+    /**
+     * @return the stored file, or {@code null} if the hash or file name is not one this
+     *         store could have written or the file does not exist yet
+     */
+    public Path resolve(String hash, String fileName) {
+        if (!HASH_PATTERN.matcher(hash).matches() || !isKnownFileName(fileName)) {
+            return null;
+        }
+        Path path = directory(hash).resolve(fileName);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    public boolean exists(String hash, ImageVariant variant) {
+        return resolve(hash, variant.getFileName()) != null;
+    }
+
+    private boolean isKnownFileName(String fileName) {
+        if (ImageVariant.fromFileName(fileName) != null) {
+            return true;
+        }
+        return fileName.startsWith("original.") && CONTENT_TYPES.containsKey(fileName.substring("original.".length()));
+    }
+
+    private Path directory(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    // Write to a temp file and rename so readers never see a partial image
+    private void write(Path target, byte[] content) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
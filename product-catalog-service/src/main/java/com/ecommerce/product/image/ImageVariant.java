@@ -0,0 +1,28 @@
+package com.ecommerce.product.image;
+
+/**
+ * Files kept for each stored image. Derivatives are always JPEG.
+ */
+public enum ImageVariant {
+    THUMBNAIL("thumbnail.jpg"),
+    MEDIUM("medium.jpg");
+
+    private final String fileName;
+
+    ImageVariant(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public static ImageVariant fromFileName(String fileName) {
+        for (ImageVariant variant : values()) {
+            if (variant.fileName.equals(fileName)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.product.kafka;
+
+import com.ecommerce.common.utils.kafka.EventType;
+import com.ecommerce.common.utils.kafka.KafkaTopics;
+import com.ecommerce.product.dto.ProductPriceChange;
+import com.ecommerce.product.dto.ProductStatusChange;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes bulk catalog changes as one event per committed chunk rather than one per
+ * product. Consumers should treat each event as the signal to invalidate every product it
+ * lists.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductEventProducer {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    public void publishPriceChanges(String batchId, int chunk, List<ProductPriceChange> changes) {
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        for (ProductPriceChange change : changes) {
+            rows.add(new Object[] {
+                    change.getProductId().toString(), change.getSku(), change.getOldPrice(), change.getNewPrice() });
+        }
+
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventType", EventType.PRICE_CHANGED.name());
+        event.put("batchId", batchId);
+        event.put("chunk", chunk);
+        event.put("fields", List.of("productId", "sku", "oldPrice", "newPrice"));
+        event.put("changes", rows);
+        event.put("timestamp", System.currentTimeMillis());
+
+        send(KafkaTopics.PRICE_UPDATED, batchId, event, changes.size());
+    }
+
+    public void publishStatusChanges(String batchId, int chunk, List<ProductStatusChange> changes) {
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        for (ProductStatusChange change : changes) {
+            rows.add(new Object[] {
+                    change.getProductId().toString(), change.getSku(), change.getOldStatus(), change.getNewStatus() });
+        }
+
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventType", EventType.PRODUCT_UPDATED.name());
+        event.put("batchId", batchId);
+        event.put("chunk", chunk);
+        event.put("fields", List.of("productId", "sku", "oldStatus", "newStatus"));
+        event.put("changes", rows);
+        event.put("timestamp", System.currentTimeMillis());
+
+        send(KafkaTopics.PRODUCT_UPDATED, batchId, event, changes.size());
+    }
+
+    private void send(String topic, String batchId, Map<String, Object> event, int size) {
+        try {
+            kafkaTemplate.send(topic, batchId, event);
+            log.debug("Published {} event for batch {} with {} products", event.get("eventType"), batchId, size);
+        } catch (Exception e) {
+            // The chunk is already committed, so log and carry on with the next one
+            log.error("Failed to publish {} event for batch {}: {}", event.get("eventType"), batchId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.dto.BulkPriceUpdateRequest.AdjustmentType;
+import com.ecommerce.product.dto.ProductPriceChange;
+import com.ecommerce.product.dto.ProductSelectionCriteria;
+import com.ecommerce.product.dto.ProductStatusChange;
+import com.ecommerce.product.entity.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Set-based bulk updates on {@code products}. Each call updates one chunk in a single
+ * statement and returns the changed rows, so no {@link Product} entities are loaded.
+ * Rule-based updates only select rows the rule would actually change and walk the table by
+ * primary key: pass the ID of the last returned row as {@code afterId} to get the next chunk,
+ * and stop once a chunk comes back short. Walking by key also guarantees a product is never
+ * adjusted twice when its new price moves it back into the selection.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductBulkUpdateRepository {
+
+    // Smallest value in PostgreSQL's uuid ordering
+    public static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private static final String PRICE_RULE_SQL =
+            "WITH updated AS (" +
+            "UPDATE products p SET price = b.new_price, updated_at = CURRENT_TIMESTAMP " +
+            "FROM (SELECT id, price AS old_price, %1$s AS new_price FROM products " +
+            "WHERE id > ? %2$s AND %1$s <> price ORDER BY id LIMIT ? FOR UPDATE) b " +
+            "WHERE p.id = b.id " +
+            "RETURNING p.id, p.sku, b.old_price, p.price) " +
+            "SELECT id, sku, old_price, price FROM updated ORDER BY id";
+
+    private static final String PRICE_BY_SKU_SQL =
+            "WITH updated AS (" +
+            "UPDATE products p SET price = b.new_price, updated_at = CURRENT_TIMESTAMP " +
+            "FROM (SELECT x.id, x.price AS old_price, t.new_price FROM products x " +
+            "JOIN unnest(?::varchar[], ?::numeric[]) AS t(sku, new_price) ON x.sku = t.sku " +
+            "WHERE x.price <> t.new_price FOR UPDATE OF x) b " +
+            "WHERE p.id = b.id " +
+            "RETURNING p.id, p.sku, b.old_price, p.price) " +
+            "SELECT id, sku, old_price, price FROM updated ORDER BY id";
+
+    private static final String STATUS_RULE_SQL =
+            "WITH updated AS (" +
+            "UPDATE products p SET status = ?, updated_at = CURRENT_TIMESTAMP " +
+            "FROM (SELECT id, status AS old_status FROM products " +
+            "WHERE id > ? %s AND status <> ? ORDER BY id LIMIT ? FOR UPDATE) b " +
+            "WHERE p.id = b.id " +
+            "RETURNING p.id, p.sku, b.old_status, p.status) " +
+            "SELECT id, sku, old_status, status FROM updated ORDER BY id";
+
+    private static final RowMapper<ProductPriceChange> PRICE_CHANGE_MAPPER = (rs, rowNum) ->
+            new ProductPriceChange(rs.getObject(1, UUID.class), rs.getString(2), rs.getBigDecimal(3), rs.getBigDecimal(4));
+
+    private static final RowMapper<ProductStatusChange> STATUS_CHANGE_MAPPER = (rs, rowNum) ->
+            new ProductStatusChange(rs.getObject(1, UUID.class), rs.getString(2), rs.getString(3), rs.getString(4));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies a price adjustment to up to {@code limit} selected products after
+     * {@code afterId} whose price would change.
+     */
+    public List<ProductPriceChange> applyPriceRule(UUID afterId, ProductSelectionCriteria criteria,
+                                                   AdjustmentType adjustmentType, BigDecimal value, int limit) {
+        List<Object> params = new ArrayList<>();
+        params.add(value);
+        params.add(afterId);
+        String where = appendCriteria(criteria, params);
+        params.add(value);
+        params.add(limit);
+
+        String sql = String.format(PRICE_RULE_SQL, priceExpression(adjustmentType), where);
+        return jdbcTemplate.query(sql, PRICE_CHANGE_MAPPER, params.toArray());
+    }
+
+    /**
+     * Sets explicit prices by SKU in one statement. Unknown SKUs and unchanged prices are
+     * skipped.
+     */
+    public List<ProductPriceChange> applyPricesBySku(String[] skus, BigDecimal[] prices) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(PRICE_BY_SKU_SQL);
+            statement.setArray(1, connection.createArrayOf("varchar", skus));
+            statement.setArray(2, connection.createArrayOf("numeric", prices));
+            return statement;
+        }, PRICE_CHANGE_MAPPER);
+    }
+
+    /**
+     * Sets the status of up to {@code limit} selected products after {@code afterId} that
+     * are not already in that status.
+     */
+    public List<ProductStatusChange> applyStatusRule(UUID afterId, ProductSelectionCriteria criteria,
+                                                     Product.ProductStatus status, int limit) {
+        List<Object> params = new ArrayList<>();
+        params.add(status.name());
+        params.add(afterId);
+        String where = appendCriteria(criteria, params);
+        params.add(status.name());
+        params.add(limit);
+
+        String sql = String.format(STATUS_RULE_SQL, where);
+        return jdbcTemplate.query(sql, STATUS_CHANGE_MAPPER, params.toArray());
+    }
+
+    // Clamped to the range of DECIMAL(10,2) so one outlier cannot fail a whole chunk
+    private String priceExpression(AdjustmentType adjustmentType) {
+        switch (adjustmentType) {
+            case PERCENTAGE:
+                return "LEAST(GREATEST(ROUND(price * (100 + ?::numeric) / 100, 2), 0), 99999999.99)";
+            case FIXED_AMOUNT:
+                return "LEAST(GREATEST(ROUND(price + ?::numeric, 2), 0), 99999999.99)";
+            case SET_PRICE:
+            default:
+                return "ROUND(?::numeric, 2)";
+        }
+    }
+
+    private String appendCriteria(ProductSelectionCriteria criteria, List<Object> params) {
+        StringBuilder where = new StringBuilder();
+        if (criteria.getCategoryId() != null) {
+            where.append("AND category_id = ? ");
+            params.add(criteria.getCategoryId());
+        }
+        if (criteria.getBrand() != null) {
+            where.append("AND brand = ? ");
+            params.add(criteria.getBrand());
+        }
+        if (criteria.getStatus() != null) {
+            where.append("AND status = ? ");
+            params.add(criteria.getStatus().name());
+        }
+        if (criteria.getSkus() != null && !criteria.getSkus().isEmpty()) {
+            where.append("AND sku = ANY(?) ");
+            params.add(criteria.getSkus().toArray(new String[0]));
+        }
+        if (criteria.getMinPrice() != null) {
+            where.append("AND price >= ? ");
+            params.add(criteria.getMinPrice());
+        }
+        if (criteria.getMaxPrice() != null) {
+            where.append("AND price <= ? ");
+            params.add(criteria.getMaxPrice());
+        }
+        return where.toString();
+    }
+}
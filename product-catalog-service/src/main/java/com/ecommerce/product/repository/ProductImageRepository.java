@@ -0,0 +1,25 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.entity.ProductImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ProductImageRepository extends JpaRepository<ProductImage, UUID> {
+    
+    @Query("SELECT i FROM ProductImage i WHERE i.product.id = :productId ORDER BY i.displayOrder")
+    List<ProductImage> findByProductId(@Param("productId") UUID productId);
+    
+    @Query("SELECT COUNT(i) FROM ProductImage i WHERE i.product.id = :productId")
+    long countByProductId(@Param("productId") UUID productId);
+    
+    @Modifying
+    @Query("UPDATE ProductImage i SET i.isPrimary = false WHERE i.product.id = :productId AND i.isPrimary = true")
+    int clearPrimary(@Param("productId") UUID productId);
+}
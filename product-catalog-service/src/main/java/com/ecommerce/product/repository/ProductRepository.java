@@ -1,5 +1,6 @@
 package com.ecommerce.product.repository;
 
+import com.ecommerce.common.dto.money.Money;
 import com.ecommerce.product.entity.Product;
 import com.ecommerce.product.entity.Product.ProductStatus;
 import org.springframework.data.domain.Page;
@@ -10,7 +11,6 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -36,7 +36,7 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
     Page<Product> findByBrand(@Param("brand") String brand, Pageable pageable);
     
     @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice AND p.status = 'ACTIVE'")
-    Page<Product> findByPriceBetween(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice, Pageable pageable);
+    Page<Product> findByPriceBetween(@Param("minPrice") Money minPrice, @Param("maxPrice") Money maxPrice, Pageable pageable);
     
     @Query("SELECT p FROM Product p WHERE p.isFeatured = true AND p.status = 'ACTIVE' ORDER BY p.createdAt DESC")
     List<Product> findFeaturedProducts(Pageable pageable);
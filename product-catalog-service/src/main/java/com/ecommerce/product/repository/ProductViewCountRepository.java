@@ -0,0 +1,69 @@
+package com.ecommerce.product.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Plain JDBC access to {@code product_view_counts}. Counters are write-behind aggregates, so
+ * they are kept out of the JPA model and the {@link com.ecommerce.product.entity.Product} row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductViewCountRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO product_view_counts (product_id, view_count, updated_at) " +
+            "SELECT t.product_id, t.delta, CURRENT_TIMESTAMP " +
+            "FROM unnest(?::uuid[], ?::bigint[]) AS t(product_id, delta) " +
+            "ON CONFLICT (product_id) DO UPDATE " +
+            "SET view_count = product_view_counts.view_count + EXCLUDED.view_count, updated_at = CURRENT_TIMESTAMP " +
+            "RETURNING product_id, view_count";
+
+    private static final String TOP_VIEWED_SQL =
+            "SELECT product_id, view_count FROM product_view_counts ORDER BY view_count DESC LIMIT ?";
+
+    private static final String FIND_BY_PRODUCT_SQL =
+            "SELECT view_count FROM product_view_counts WHERE product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds the deltas in one set-based statement and returns the new totals by product.
+     */
+    public Map<UUID, Long> addViews(UUID[] productIds, Long[] deltas) {
+        Map<UUID, Long> totals = new HashMap<>(productIds.length * 2);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPSERT_SQL);
+            Array ids = connection.createArrayOf("uuid", productIds);
+            Array counts = connection.createArrayOf("bigint", deltas);
+            statement.setArray(1, ids);
+            statement.setArray(2, counts);
+            return statement;
+        }, rs -> {
+            totals.put(rs.getObject(1, UUID.class), rs.getLong(2));
+        });
+        return totals;
+    }
+
+    public long findViewCount(UUID productId) {
+        List<Long> counts = jdbcTemplate.queryForList(FIND_BY_PRODUCT_SQL, Long.class, productId);
+        return counts.isEmpty() ? 0L : counts.get(0);
+    }
+
+    public Map<UUID, Long> findTopViewed(int limit) {
+        Map<UUID, Long> top = new LinkedHashMap<>();
+        jdbcTemplate.query(TOP_VIEWED_SQL, rs -> {
+            top.put(rs.getObject(1, UUID.class), rs.getLong(2));
+        }, limit);
+        return top;
+    }
+}
@@ -0,0 +1,233 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.common.utils.exception.BusinessException;
+import com.ecommerce.product.dto.BulkPriceUpdateRequest;
+import com.ecommerce.product.dto.BulkStatusUpdateRequest;
+import com.ecommerce.product.dto.BulkUpdateResult;
+import com.ecommerce.product.dto.ProductPriceChange;
+import com.ecommerce.product.dto.ProductSelectionCriteria;
+import com.ecommerce.product.dto.ProductStatusChange;
+import com.ecommerce.product.kafka.ProductEventProducer;
+import com.ecommerce.product.repository.ProductBulkUpdateRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bulk repricing and status changes. Work is split into chunks of
+ * {@code product.bulk-update.chunk-size} products, each applied with one set-based statement
+ * in its own short transaction and followed by one batched event, so a large campaign never
+ * holds row locks on the whole selection and never loads product entities.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductBulkUpdateService {
+
+    // Largest value that fits DECIMAL(10,2)
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    private final ProductBulkUpdateRepository productBulkUpdateRepository;
+    private final ProductEventProducer productEventProducer;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${product.bulk-update.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${product.bulk-update.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public BulkUpdateResult updatePrices(BulkPriceUpdateRequest request) {
+        validateCriteria(request.getCriteria());
+        if (request.getAdjustmentType() == BulkPriceUpdateRequest.AdjustmentType.SET_PRICE) {
+            validatePrice(request.getValue());
+        }
+
+        String batchId = UUID.randomUUID().toString();
+        log.info("Starting bulk price update {}: {} {} for {}",
+                batchId, request.getAdjustmentType(), request.getValue(), request.getCriteria());
+        long start = System.currentTimeMillis();
+
+        UUID afterId = ProductBulkUpdateRepository.FIRST_ID;
+        long updated = 0;
+        int chunks = 0;
+        List<ProductPriceChange> changes;
+        do {
+            UUID from = afterId;
+            changes = transactionTemplate.execute(status -> productBulkUpdateRepository.applyPriceRule(
+                    from, request.getCriteria(), request.getAdjustmentType(), request.getValue(), chunkSize));
+            chunks++;
+            if (!changes.isEmpty()) {
+                updated += changes.size();
+                afterId = changes.get(changes.size() - 1).getProductId();
+                productEventProducer.publishPriceChanges(batchId, chunks, changes);
+            }
+        } while (changes.size() == chunkSize);
+
+        log.info("Bulk price update {} changed {} products in {} chunks", batchId, updated, chunks);
+        return BulkUpdateResult.builder()
+                .batchId(batchId)
+                .productsUpdated(updated)
+                .chunks(chunks)
+                .durationMs(System.currentTimeMillis() - start)
+                .build();
+    }
+
+    public BulkUpdateResult updateStatus(BulkStatusUpdateRequest request) {
+        validateCriteria(request.getCriteria());
+
+        String batchId = UUID.randomUUID().toString();
+        log.info("Starting bulk status update {}: {} for {}", batchId, request.getStatus(), request.getCriteria());
+        long start = System.currentTimeMillis();
+
+        UUID afterId = ProductBulkUpdateRepository.FIRST_ID;
+        long updated = 0;
+        int chunks = 0;
+        List<ProductStatusChange> changes;
+        do {
+            UUID from = afterId;
+            changes = transactionTemplate.execute(status -> productBulkUpdateRepository.applyStatusRule(
+                    from, request.getCriteria(), request.getStatus(), chunkSize));
+            chunks++;
+            if (!changes.isEmpty()) {
+                updated += changes.size();
+                afterId = changes.get(changes.size() - 1).getProductId();
+                productEventProducer.publishStatusChanges(batchId, chunks, changes);
+            }
+        } while (changes.size() == chunkSize);
+
+        log.info("Bulk status update {} changed {} products in {} chunks", batchId, updated, chunks);
+        return BulkUpdateResult.builder()
+                .batchId(batchId)
+                .productsUpdated(updated)
+                .chunks(chunks)
+                .durationMs(System.currentTimeMillis() - start)
+                .build();
+    }
+
+    /**
+     * Applies a {@code sku,price} CSV, reading it as a stream so only one chunk is held in
+     * memory. A header row is optional. Invalid rows are skipped and reported; if a SKU
+     * appears more than once the last row wins.
+     */
+    public BulkUpdateResult updatePricesFromCsv(InputStream csv) {
+        String batchId = UUID.randomUUID().toString();
+        log.info("Starting bulk price update {} from CSV", batchId);
+        long start = System.currentTimeMillis();
+
+        BulkUpdateResult result = BulkUpdateResult.builder().batchId(batchId).build();
+        Map<String, BigDecimal> pending = new LinkedHashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                String[] columns = line.split(",", -1);
+                if (columns.length != 2) {
+                    reportError(result, "Line " + lineNumber + ": expected 'sku,price'");
+                    continue;
+                }
+                String sku = unquote(columns[0]);
+                BigDecimal price;
+                try {
+                    price = new BigDecimal(unquote(columns[1])).setScale(2, RoundingMode.HALF_UP);
+                } catch (NumberFormatException e) {
+                    if (lineNumber > 1) {
+                        reportError(result, "Line " + lineNumber + ": invalid price '" + columns[1].trim() + "'");
+                    }
+                    continue;
+                }
+                if (sku.isEmpty() || price.signum() < 0 || price.compareTo(MAX_PRICE) > 0) {
+                    reportError(result, "Line " + lineNumber + ": invalid SKU or price out of range");
+                    continue;
+                }
+
+                result.setRowsRead(result.getRowsRead() + 1);
+                pending.put(sku, price);
+                if (pending.size() == chunkSize) {
+                    applyCsvChunk(result, pending);
+                }
+            }
+        } catch (IOException e) {
+            throw new BusinessException("BULK_UPDATE_CSV_UNREADABLE", "Could not read CSV: " + e.getMessage());
+        }
+
+        if (!pending.isEmpty()) {
+            applyCsvChunk(result, pending);
+        }
+
+        result.setDurationMs(System.currentTimeMillis() - start);
+        log.info("Bulk price update {} read {} rows and changed {} products in {} chunks",
+                batchId, result.getRowsRead(), result.getProductsUpdated(), result.getChunks());
+        return result;
+    }
+
+    private void applyCsvChunk(BulkUpdateResult result, Map<String, BigDecimal> pending) {
+        String[] skus = pending.keySet().toArray(new String[0]);
+        BigDecimal[] prices = pending.values().toArray(new BigDecimal[0]);
+        pending.clear();
+
+        List<ProductPriceChange> changes = transactionTemplate.execute(
+                status -> productBulkUpdateRepository.applyPricesBySku(skus, prices));
+        result.setChunks(result.getChunks() + 1);
+        if (!changes.isEmpty()) {
+            result.setProductsUpdated(result.getProductsUpdated() + changes.size());
+            productEventProducer.publishPriceChanges(result.getBatchId(), result.getChunks(), changes);
+        }
+    }
+
+    private void reportError(BulkUpdateResult result, String error) {
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(error);
+        }
+    }
+
+    private String unquote(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1).trim();
+        }
+        return trimmed;
+    }
+
+    private void validateCriteria(ProductSelectionCriteria criteria) {
+        if (criteria.isEmpty() && !criteria.isApplyToAll()) {
+            throw new BusinessException("BULK_UPDATE_NO_CRITERIA",
+                    "Selection criteria is empty; set applyToAll to update every product");
+        }
+    }
+
+    private void validatePrice(BigDecimal price) {
+        if (price.signum() < 0 || price.compareTo(MAX_PRICE) > 0) {
+            throw new BusinessException("INVALID_PRICE", "Price must be between 0 and " + MAX_PRICE);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.common.utils.exception.BusinessException;
+import com.ecommerce.common.utils.exception.ResourceNotFoundException;
+import com.ecommerce.product.dto.ProductImageDTO;
+import com.ecommerce.product.entity.ProductImage;
+import com.ecommerce.product.image.ImageDerivativeGenerator;
+import com.ecommerce.product.image.ImageStore;
+import com.ecommerce.product.image.ImageVariant;
+import com.ecommerce.product.repository.ProductImageRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class ProductImageService {
+
+    public static final String IMAGE_BASE_PATH = "/api/products/images/";
+
+    private final ProductImageRepository productImageRepository;
+    private final ProductRepository productRepository;
+    private final ImageStore imageStore;
+    private final ImageDerivativeGenerator imageDerivativeGenerator;
+
+    @Value("${product.image.max-size:5242880}")
+    private long maxSize;
+
+    @Value("${product.image.allowed-types:image/jpeg,image/png,image/webp}")
+    private List<String> allowedTypes;
+
+    @Value("${product.image.max-per-product:10}")
+    private int maxPerProduct;
+
+    // Checked from the header before decoding, so a small file cannot claim a huge canvas
+    @Value("${product.image.max-pixels:25000000}")
+    private long maxPixels;
+
+    @Transactional
+    public ProductImageDTO uploadImage(String productId, MultipartFile file, String altText, boolean primary) {
+        UUID id = UUID.fromString(productId);
+        log.debug("Uploading image for product: {}", productId);
+
+        if (!productRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Product not found with ID: " + productId);
+        }
+        String mimeType = file.getContentType();
+        if (mimeType == null || !allowedTypes.contains(mimeType)) {
+            throw new BusinessException("INVALID_IMAGE_TYPE", "Image type must be one of " + allowedTypes);
+        }
+        if (file.getSize() > maxSize) {
+            throw new BusinessException("IMAGE_TOO_LARGE", "Image must not exceed " + maxSize + " bytes");
+        }
+        long existing = productImageRepository.countByProductId(id);
+        if (existing >= maxPerProduct) {
+            throw new BusinessException("TOO_MANY_IMAGES", "A product can have at most " + maxPerProduct + " images");
+        }
+
+        byte[] content;
+        try {
+            content = file.getBytes();
+        } catch (IOException e) {
+            throw new BusinessException("IMAGE_UNREADABLE", "Could not read uploaded image");
+        }
+
+        // Stored and served as the format the bytes are in, whatever the client declared
+        DecodedImage decoded = decode(content);
+        if (decoded == null || !allowedTypes.contains(decoded.mimeType())) {
+            throw new BusinessException("INVALID_IMAGE", "Uploaded file is not a valid " + mimeType + " image");
+        }
+        if (!decoded.mimeType().equals(mimeType)) {
+            log.info("Image for product {} declared as {} is {}", productId, mimeType, decoded.mimeType());
+        }
+
+        String hash = ImageStore.sha256(content);
+        String extension = ImageStore.extensionFor(decoded.mimeType());
+        try {
+            imageStore.storeOriginal(hash, extension, content);
+        } catch (IOException e) {
+            log.error("Failed to store image {} for product {}: {}", hash, productId, e.getMessage());
+            throw new BusinessException("IMAGE_STORAGE_FAILED", "Could not store image");
+        }
+
+        boolean makePrimary = primary || existing == 0;
+        if (makePrimary) {
+            productImageRepository.clearPrimary(id);
+        }
+
+        ProductImage image = ProductImage.builder()
+                .product(productRepository.getReferenceById(id))
+                .imageUrl(IMAGE_BASE_PATH + hash + "/" + ImageStore.originalFileName(extension))
+                .altText(altText)
+                .displayOrder((int) existing + 1)
+                .isPrimary(makePrimary)
+                .width(decoded.width())
+                .height(decoded.height())
+                .sizeInBytes((long) content.length)
+                .mimeType(decoded.mimeType())
+                .contentHash(hash)
+                .build();
+        image = productImageRepository.save(image);
+
+        // Resize only once the row is committed; the store is content-addressed, so a
+        // rolled-back upload just leaves an unreferenced original behind
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                imageDerivativeGenerator.submit(hash, extension);
+            }
+        });
+
+        log.info("Stored image {} for product {}", hash, productId);
+        return mapToDTO(image, productId);
+    }
+
+    public List<ProductImageDTO> getProductImages(String productId) {
+        return productImageRepository.findByProductId(UUID.fromString(productId)).stream()
+                .map(image -> mapToDTO(image, productId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds the file to serve for a stored image. A derivative that is not generated yet
+     * falls back to the original and is queued again.
+     *
+     * @return the file and whether it can be cached forever, or {@code null} if unknown
+     */
+    public ImageFile resolveImage(String hash, String fileName) {
+        Path path = imageStore.resolve(hash, fileName);
+        if (path != null) {
+            return new ImageFile(path, ImageStore.contentTypeFor(fileName), true);
+        }
+
+        ImageVariant variant = ImageVariant.fromFileName(fileName);
+        if (variant == null) {
+            return null;
+        }
+        for (String mimeType : allowedTypes) {
+            String extension = ImageStore.extensionFor(mimeType);
+            if (extension == null) {
+                continue;
+            }
+            String originalName = ImageStore.originalFileName(extension);
+            Path original = imageStore.resolve(hash, originalName);
+            if (original != null) {
+                if (ImageIO.getImageReadersByMIMEType(mimeType).hasNext()) {
+                    imageDerivativeGenerator.submit(hash, extension);
+                }
+                return new ImageFile(original, mimeType, false);
+            }
+        }
+        return null;
+    }
+
+    // A RIFF container whose size matches the upload, of form WEBP, starting with a VP8 chunk
+    private static boolean isWebp(byte[] content) {
+        if (content.length < 20 || !fourCc(content, 0).equals("RIFF") || !fourCc(content, 8).equals("WEBP")) {
+            return false;
+        }
+        long riffSize = (content[4] & 0xFFL) | (content[5] & 0xFFL) << 8 | (content[6] & 0xFFL) << 16
+                | (content[7] & 0xFFL) << 24;
+        String chunk = fourCc(content, 12);
+        return riffSize == content.length - 8L
+                && (chunk.equals("VP8 ") || chunk.equals("VP8L") || chunk.equals("VP8X"));
+    }
+
+    private static String fourCc(byte[] content, int offset) {
+        return new String(content, offset, 4, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Identifies and fully decodes {@code content}, returning {@code null} if it is not an
+     * image. ImageIO has no WebP reader, so WebP is recognised by its container signature
+     * and its dimensions are left unknown.
+     */
+    private DecodedImage decode(byte[] content) {
+        if (isWebp(content)) {
+            return new DecodedImage("image/webp", null, null);
+        }
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new BusinessException("IMAGE_TOO_LARGE", "Image must not exceed " + maxPixels + " pixels");
+                }
+                reader.read(0);
+                return new DecodedImage("image/" + ("jpg".equals(format) ? "jpeg" : format), width, height);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private record DecodedImage(String mimeType, Integer width, Integer height) {
+    }
+
+    private ProductImageDTO mapToDTO(ProductImage image, String productId) {
+        String hash = image.getContentHash();
+        return ProductImageDTO.builder()
+                .id(image.getId().toString())
+                .productId(productId)
+                .imageUrl(image.getImageUrl())
+                .thumbnailUrl(hash != null ? IMAGE_BASE_PATH + hash + "/" + ImageVariant.THUMBNAIL.getFileName() : null)
+                .mediumUrl(hash != null ? IMAGE_BASE_PATH + hash + "/" + ImageVariant.MEDIUM.getFileName() : null)
+                .altText(image.getAltText())
+                .displayOrder(image.getDisplayOrder())
+                .isPrimary(image.getIsPrimary())
+                .width(image.getWidth())
+                .height(image.getHeight())
+                .sizeInBytes(image.getSizeInBytes())
+                .mimeType(image.getMimeType())
+                .build();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ImageFile {
+
+        private final Path path;
+        private final String contentType;
+        private final boolean immutable;
+    }
+}
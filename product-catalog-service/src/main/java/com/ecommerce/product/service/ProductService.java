@@ -1,5 +1,6 @@
 package com.ecommerce.product.service;
 
+import com.ecommerce.common.dto.money.Money;
 import com.ecommerce.common.dto.product.ProductDTO;
 import com.ecommerce.common.utils.exception.BusinessException;
 import com.ecommerce.common.utils.exception.ResourceNotFoundException;
@@ -27,6 +28,7 @@ public class ProductService {
     
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductViewCounterService productViewCounterService;
     
     @Transactional
     public ProductDTO createProduct(ProductDTO productDTO) {
@@ -65,8 +67,8 @@ public class ProductService {
         product.setName(productDTO.getName());
         product.setDescription(productDTO.getDescription());
         product.setSlug(generateSlug(productDTO.getName()));
-        product.setPrice(productDTO.getPrice());
-        product.setCompareAtPrice(productDTO.getCompareAtPrice());
+        product.setPrice(toMoney(productDTO.getPrice()));
+        product.setCompareAtPrice(toMoney(productDTO.getCompareAtPrice()));
         
         if (productDTO.getCategoryId() != null) {
             Category category = resolveCategoryByIdOrSlug(productDTO.getCategoryId());
@@ -84,6 +86,7 @@ public class ProductService {
         
         Product product = productRepository.findById(UUID.fromString(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
+        productViewCounterService.recordView(product.getId());
         
         return mapToDTO(product);
     }
@@ -102,6 +105,7 @@ public class ProductService {
         
         Product product = productRepository.findBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with slug: " + slug));
+        productViewCounterService.recordView(product.getId());
         
         return mapToDTO(product);
     }
@@ -130,7 +134,7 @@ public class ProductService {
     
     public Page<ProductDTO> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
         log.debug("Fetching products in price range: {} - {}", minPrice, maxPrice);
-        return productRepository.findByPriceBetween(minPrice, maxPrice, pageable)
+        return productRepository.findByPriceBetween(toMoney(minPrice), toMoney(maxPrice), pageable)
                 .map(this::mapToDTO);
     }
     
@@ -186,12 +190,13 @@ public class ProductService {
                 .sku(product.getSku())
                 .name(product.getName())
                 .description(product.getDescription())
-                .price(product.getPrice())
-                .compareAtPrice(product.getCompareAtPrice())
+                .price(product.getPrice() != null ? product.getPrice().toBigDecimal() : null)
+                .compareAtPrice(product.getCompareAtPrice() != null ? product.getCompareAtPrice().toBigDecimal() : null)
                 .categoryId(product.getCategory() != null ? product.getCategory().getId().toString() : null)
                 .categoryName(product.getCategory() != null ? product.getCategory().getName() : null)
                 .active(product.getStatus() == Product.ProductStatus.ACTIVE)
                 .status(ProductDTO.ProductStatus.valueOf(product.getStatus().name()))
+                .viewCount(productViewCounterService.getCachedViewCount(product.getId()))
                 .build();
     }
     
@@ -201,12 +206,23 @@ public class ProductService {
                 .name(dto.getName())
                 .description(dto.getDescription())
                 .slug(generateSlug(dto.getName()))
-                .price(dto.getPrice())
-                .compareAtPrice(dto.getCompareAtPrice())
+                .price(toMoney(dto.getPrice()))
+                .compareAtPrice(toMoney(dto.getCompareAtPrice()))
                 .status(Product.ProductStatus.DRAFT)
                 .build();
     }
     
+    private Money toMoney(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        try {
+            return Money.of(amount);
+        } catch (ArithmeticException e) {
+            throw new BusinessException("INVALID_PRICE", "Invalid price: " + e.getMessage());
+        }
+    }
+    
     private String generateSlug(String name) {
         return name.toLowerCase()
                 .replaceAll("[^a-z0-9\\s-]", "")
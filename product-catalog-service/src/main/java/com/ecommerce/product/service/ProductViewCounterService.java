@@ -0,0 +1,125 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.counter.ViewCounterTable;
+import com.ecommerce.product.counter.ViewCounterTable.ViewCounter;
+import com.ecommerce.product.repository.ProductViewCountRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Counts product views in memory and writes them behind in batches. Views that have not
+ * been flushed yet are lost if the instance crashes; the read path never touches the
+ * database for counting.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductViewCounterService {
+
+    private final ProductViewCountRepository productViewCountRepository;
+
+    private final ViewCounterTable counters = new ViewCounterTable();
+
+    @Value("${product.views.flush-chunk-size:500}")
+    private int flushChunkSize;
+
+    public void recordView(UUID productId) {
+        counters.increment(productId);
+    }
+
+    /**
+     * @return the best-known view count from memory, or {@code null} if the product has not
+     *         been viewed on this instance yet
+     */
+    public Long getCachedViewCount(UUID productId) {
+        ViewCounter counter = counters.get(productId);
+        return counter != null ? counter.totalViews() : null;
+    }
+
+    public long getViewCount(UUID productId) {
+        ViewCounter counter = counters.get(productId);
+        if (counter != null) {
+            return counter.totalViews();
+        }
+        return productViewCountRepository.findViewCount(productId);
+    }
+
+    public Map<UUID, Long> getTopViewed(int limit) {
+        return productViewCountRepository.findTopViewed(limit);
+    }
+
+    @Scheduled(fixedDelayString = "${product.views.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Failed to flush product view counts, will retry: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Failed to flush product view counts on shutdown: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes pending views as one upsert per chunk and refreshes the cached totals from the
+     * returned rows, which also picks up views counted by other instances.
+     *
+     * @return number of products flushed
+     */
+    public synchronized int flush() {
+        List<ViewCounter> dirty = counters.collectDirty();
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+
+        int flushed = 0;
+        for (int from = 0; from < dirty.size(); from += flushChunkSize) {
+            List<ViewCounter> chunk = dirty.subList(from, Math.min(from + flushChunkSize, dirty.size()));
+            UUID[] productIds = new UUID[chunk.size()];
+            Long[] deltas = new Long[chunk.size()];
+            long[] localSnapshot = new long[chunk.size()];
+            Map<UUID, Integer> positions = new HashMap<>(chunk.size() * 2);
+
+            for (int i = 0; i < chunk.size(); i++) {
+                ViewCounter counter = chunk.get(i);
+                long local = counter.localViews();
+                localSnapshot[i] = local;
+                productIds[i] = counter.getProductId();
+                deltas[i] = local - counter.flushedViews();
+                positions.put(counter.getProductId(), i);
+            }
+
+            Map<UUID, Long> totals = productViewCountRepository.addViews(productIds, deltas);
+            totals.forEach((productId, total) -> {
+                int i = positions.get(productId);
+                chunk.get(i).markFlushed(localSnapshot[i], total);
+            });
+            flushed += chunk.size();
+        }
+
+        log.debug("Flushed view counts for {} products", flushed);
+        return flushed;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedProducts", counters.size());
+        stats.put("dirtyProducts", counters.collectDirty().size());
+        return stats;
+    }
+}
@@ -0,0 +1,11 @@
+-- Create product_view_counts table
+-- Written behind in batches by ProductViewCounterService; kept separate from products so
+-- counting never takes row locks on catalog rows
+CREATE TABLE product_view_counts (
+    product_id UUID PRIMARY KEY,
+    view_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Create index for top-viewed listings
+CREATE INDEX idx_product_view_counts_view_count ON product_view_counts(view_count DESC);
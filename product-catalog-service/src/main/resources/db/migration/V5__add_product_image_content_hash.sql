@@ -0,0 +1,4 @@
+-- Add content hash for images stored by the catalog's own image store
+ALTER TABLE product_images ADD COLUMN content_hash VARCHAR(64);
+
+CREATE INDEX idx_product_images_content_hash ON product_images(content_hash);
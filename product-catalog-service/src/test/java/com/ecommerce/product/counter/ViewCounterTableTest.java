@@ -0,0 +1,50 @@
+package com.ecommerce.product.counter;
+
+import com.ecommerce.product.counter.ViewCounterTable.ViewCounter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewCounterTableTest {
+
+    @Test
+    void increment_ManyProducts_KeepsSeparateCounts() {
+        ViewCounterTable table = new ViewCounterTable();
+        UUID[] ids = new UUID[5000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID();
+            for (int j = 0; j <= i % 3; j++) {
+                table.increment(ids[i]);
+            }
+        }
+
+        assertEquals(ids.length, table.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(i % 3 + 1, table.get(ids[i]).localViews());
+        }
+        assertNull(table.get(UUID.randomUUID()));
+    }
+
+    @Test
+    void markFlushed_CountsViewsAfterSnapshotAsPending() {
+        ViewCounterTable table = new ViewCounterTable();
+        UUID id = UUID.randomUUID();
+        table.increment(id);
+        table.increment(id);
+
+        ViewCounter counter = table.get(id);
+        long snapshot = counter.localViews();
+        table.increment(id);
+        counter.markFlushed(snapshot, 10);
+
+        assertEquals(1, counter.pendingViews());
+        assertEquals(11, counter.totalViews());
+        assertEquals(List.of(counter), table.collectDirty());
+
+        counter.markFlushed(counter.localViews(), 11);
+        assertTrue(table.collectDirty().isEmpty());
+    }
+}
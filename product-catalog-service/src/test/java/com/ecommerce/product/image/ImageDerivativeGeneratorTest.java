@@ -0,0 +1,79 @@
+package com.ecommerce.product.image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageDerivativeGeneratorTest {
+
+    @TempDir
+    Path storageDir;
+
+    private ImageStore imageStore;
+    private ImageDerivativeGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        imageStore = new ImageStore(storageDir.toString());
+        generator = new ImageDerivativeGenerator(imageStore, 1, 1);
+        ReflectionTestUtils.setField(generator, "thumbnailSize", 200);
+        ReflectionTestUtils.setField(generator, "mediumSize", 600);
+        ReflectionTestUtils.setField(generator, "jpegQuality", 0.8f);
+    }
+
+    @Test
+    void generate_WritesDerivativesKeepingAspectRatio() throws IOException {
+        byte[] png = png(1200, 800);
+        String hash = ImageStore.sha256(png);
+        imageStore.storeOriginal(hash, "png", png);
+
+        generator.generate(hash, "png");
+
+        BufferedImage medium = ImageIO.read(imageStore.resolve(hash, "medium.jpg").toFile());
+        BufferedImage thumbnail = ImageIO.read(imageStore.resolve(hash, "thumbnail.jpg").toFile());
+        assertEquals(600, medium.getWidth());
+        assertEquals(400, medium.getHeight());
+        assertEquals(200, thumbnail.getWidth());
+        assertEquals(133, thumbnail.getHeight());
+    }
+
+    @Test
+    void generate_SmallImage_IsNotUpscaled() throws IOException {
+        byte[] png = png(100, 50);
+        String hash = ImageStore.sha256(png);
+        imageStore.storeOriginal(hash, "png", png);
+
+        generator.generate(hash, "png");
+
+        BufferedImage thumbnail = ImageIO.read(imageStore.resolve(hash, "thumbnail.jpg").toFile());
+        assertEquals(100, thumbnail.getWidth());
+        assertEquals(50, thumbnail.getHeight());
+    }
+
+    @Test
+    void resolve_RejectsUnknownNamesAndMalformedHashes() throws IOException {
+        byte[] png = png(10, 10);
+        String hash = ImageStore.sha256(png);
+        imageStore.storeOriginal(hash, "png", png);
+
+        assertNotNull(imageStore.resolve(hash, "original.png"));
+        assertNull(imageStore.resolve(hash, "original.jpg"));
+        assertNull(imageStore.resolve(hash, "../original.png"));
+        assertNull(imageStore.resolve("../" + hash.substring(3), "original.png"));
+    }
+
+    private byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+}
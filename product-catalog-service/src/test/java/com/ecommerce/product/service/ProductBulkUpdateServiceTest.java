@@ -0,0 +1,107 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.common.utils.exception.BusinessException;
+import com.ecommerce.product.dto.BulkPriceUpdateRequest;
+import com.ecommerce.product.dto.BulkUpdateResult;
+import com.ecommerce.product.dto.ProductPriceChange;
+import com.ecommerce.product.dto.ProductSelectionCriteria;
+import com.ecommerce.product.kafka.ProductEventProducer;
+import com.ecommerce.product.repository.ProductBulkUpdateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBulkUpdateServiceTest {
+
+    @Mock
+    private ProductBulkUpdateRepository productBulkUpdateRepository;
+
+    @Mock
+    private ProductEventProducer productEventProducer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ProductBulkUpdateService productBulkUpdateService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productBulkUpdateService, "chunkSize", 2);
+        ReflectionTestUtils.setField(productBulkUpdateService, "maxReportedErrors", 10);
+        productBulkUpdateService.init();
+    }
+
+    @Test
+    void updatePrices_ResumesAfterLastIdUntilShortChunk() {
+        ProductPriceChange first = change("A");
+        ProductPriceChange second = change("B");
+        ProductPriceChange third = change("C");
+        when(productBulkUpdateRepository.applyPriceRule(any(), any(), any(), any(), eq(2)))
+                .thenReturn(List.of(first, second), List.of(third));
+
+        BulkUpdateResult result = productBulkUpdateService.updatePrices(percentageOff(
+                ProductSelectionCriteria.builder().brand("TechBrand").build()));
+
+        assertEquals(3, result.getProductsUpdated());
+        assertEquals(2, result.getChunks());
+        ArgumentCaptor<UUID> afterIds = ArgumentCaptor.forClass(UUID.class);
+        verify(productBulkUpdateRepository, times(2)).applyPriceRule(afterIds.capture(), any(), any(), any(), eq(2));
+        assertEquals(List.of(ProductBulkUpdateRepository.FIRST_ID, second.getProductId()), afterIds.getAllValues());
+        verify(productEventProducer, times(2)).publishPriceChanges(eq(result.getBatchId()), anyInt(), anyList());
+    }
+
+    @Test
+    void updatePrices_EmptyCriteria_Rejected() {
+        assertThrows(BusinessException.class,
+                () -> productBulkUpdateService.updatePrices(percentageOff(new ProductSelectionCriteria())));
+        verifyNoInteractions(productBulkUpdateRepository);
+    }
+
+    @Test
+    void updatePricesFromCsv_SkipsHeaderAndInvalidRows_LastDuplicateWins() {
+        when(productBulkUpdateRepository.applyPricesBySku(any(), any())).thenReturn(List.of());
+        String csv = "sku,price\nA,10\nB,abc\nA,12.345\n\nC,-1\nD,5\n";
+
+        BulkUpdateResult result = productBulkUpdateService.updatePricesFromCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, result.getRowsRead());
+        assertEquals(2, result.getErrors().size());
+        ArgumentCaptor<String[]> skus = ArgumentCaptor.forClass(String[].class);
+        ArgumentCaptor<BigDecimal[]> prices = ArgumentCaptor.forClass(BigDecimal[].class);
+        verify(productBulkUpdateRepository, times(1)).applyPricesBySku(skus.capture(), prices.capture());
+        assertArrayEquals(new String[] {"A", "D"}, skus.getValue());
+        assertArrayEquals(new BigDecimal[] {new BigDecimal("12.35"), new BigDecimal("5.00")}, prices.getValue());
+        verifyNoInteractions(productEventProducer);
+    }
+
+    private BulkPriceUpdateRequest percentageOff(ProductSelectionCriteria criteria) {
+        return BulkPriceUpdateRequest.builder()
+                .criteria(criteria)
+                .adjustmentType(BulkPriceUpdateRequest.AdjustmentType.PERCENTAGE)
+                .value(new BigDecimal("-10"))
+                .build();
+    }
+
+    private ProductPriceChange change(String sku) {
+        return new ProductPriceChange(UUID.randomUUID(), sku, new BigDecimal("10.00"), new BigDecimal("9.00"));
+    }
+}
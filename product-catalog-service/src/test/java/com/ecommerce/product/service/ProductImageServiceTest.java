@@ -0,0 +1,106 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.common.utils.exception.BusinessException;
+import com.ecommerce.product.dto.ProductImageDTO;
+import com.ecommerce.product.entity.ProductImage;
+import com.ecommerce.product.image.ImageDerivativeGenerator;
+import com.ecommerce.product.image.ImageStore;
+import com.ecommerce.product.repository.ProductImageRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImageServiceTest {
+
+    private static final String PRODUCT_ID = UUID.randomUUID().toString();
+
+    @Mock
+    private ProductImageRepository productImageRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ImageStore imageStore;
+
+    @Mock
+    private ImageDerivativeGenerator imageDerivativeGenerator;
+
+    @InjectMocks
+    private ProductImageService productImageService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productImageService, "maxSize", 5_242_880L);
+        ReflectionTestUtils.setField(productImageService, "allowedTypes", List.of("image/jpeg", "image/png", "image/webp"));
+        ReflectionTestUtils.setField(productImageService, "maxPerProduct", 10);
+        ReflectionTestUtils.setField(productImageService, "maxPixels", 25_000_000L);
+        when(productRepository.existsById(UUID.fromString(PRODUCT_ID))).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void uploadImage_PngDeclaredAsJpeg_IsStoredAndServedAsPng() throws IOException {
+        when(productImageRepository.save(any(ProductImage.class))).thenAnswer(invocation -> {
+            ProductImage image = invocation.getArgument(0);
+            image.setId(UUID.randomUUID());
+            return image;
+        });
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 3, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        ProductImageDTO image = productImageService.uploadImage(PRODUCT_ID,
+                new MockMultipartFile("file", "photo.jpg", "image/jpeg", png.toByteArray()), null, false);
+
+        assertEquals("image/png", image.getMimeType());
+        assertEquals(4, image.getWidth());
+        assertEquals(3, image.getHeight());
+        assertTrue(image.getImageUrl().endsWith("/original.png"));
+        verify(imageStore).storeOriginal(anyString(), eq("png"), any());
+    }
+
+    @Test
+    void uploadImage_HeaderClaimingAHugeCanvas_IsRejectedBeforeDecoding() throws IOException {
+        // A valid PNG signature and IHDR for 100000 x 100000 pixels, with no image data
+        ByteBuffer ihdr = ByteBuffer.allocate(17).put("IHDR".getBytes()).putInt(100_000).putInt(100_000)
+                .put(new byte[] {8, 2, 0, 0, 0});
+        CRC32 crc = new CRC32();
+        crc.update(ihdr.array());
+        ByteBuffer png = ByteBuffer.allocate(8 + 4 + 17 + 4)
+                .put(new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'})
+                .putInt(13).put(ihdr.array()).putInt((int) crc.getValue());
+
+        BusinessException e = assertThrows(BusinessException.class, () -> productImageService.uploadImage(PRODUCT_ID,
+                new MockMultipartFile("file", "huge.png", "image/png", png.array()), null, false));
+
+        assertEquals("IMAGE_TOO_LARGE", e.getErrorCode());
+        verify(imageStore, never()).storeOriginal(any(), any(), any());
+    }
+}
@@ -0,0 +1,65 @@
+-- Insert throughput and primary key index size for the ID formats we use or could move to.
+-- Run against a scratch database (needs PostgreSQL 13+ for gen_random_uuid):
+--   psql -d bench -v rows=2000000 -f scripts/benchmarks/id-insert-benchmark.sql
+-- Compare the \timing output of each INSERT and the size report at the end.
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+  \set rows 1000000
+\endif
+
+-- UUIDv7 in SQL, equivalent to com.ecommerce.common.utils.id.UuidV7 minus the in-millisecond counter
+CREATE OR REPLACE FUNCTION bench_uuid_v7() RETURNS uuid AS $$
+    SELECT encode(
+        set_bit(set_bit(
+            overlay(uuid_send(gen_random_uuid())
+                    PLACING substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3)
+                    FROM 1 FOR 6),
+            52, 1), 53, 1),
+        'hex')::uuid;
+$$ LANGUAGE sql VOLATILE;
+
+DROP TABLE IF EXISTS bench_v4_varchar, bench_v7_varchar, bench_v7_uuid, bench_bigint;
+
+-- Before: GenerationType.UUID stored as VARCHAR(36)
+CREATE TABLE bench_v4_varchar (id VARCHAR(36) PRIMARY KEY, payload INTEGER);
+-- After, current columns: @TimeOrderedId stored as VARCHAR(36)
+CREATE TABLE bench_v7_varchar (id VARCHAR(36) PRIMARY KEY, payload INTEGER);
+-- After the native uuid migration
+CREATE TABLE bench_v7_uuid (id UUID PRIMARY KEY, payload INTEGER);
+-- Lower bound: 8-byte sequential keys
+CREATE TABLE bench_bigint (id BIGINT PRIMARY KEY, payload INTEGER);
+
+\timing on
+
+\echo 'Initial load'
+INSERT INTO bench_v4_varchar SELECT gen_random_uuid()::text, g FROM generate_series(1, :rows) g;
+INSERT INTO bench_v7_varchar SELECT bench_uuid_v7()::text, g FROM generate_series(1, :rows) g;
+INSERT INTO bench_v7_uuid SELECT bench_uuid_v7(), g FROM generate_series(1, :rows) g;
+INSERT INTO bench_bigint SELECT g, g FROM generate_series(1, :rows) g;
+
+-- Steady state: inserts into an index that no longer fits the hot part of shared_buffers
+-- are where random keys hurt most
+\echo 'Inserts into a loaded index, 10% more rows'
+INSERT INTO bench_v4_varchar SELECT gen_random_uuid()::text, g FROM generate_series(1, :rows / 10) g;
+INSERT INTO bench_v7_varchar SELECT bench_uuid_v7()::text, g FROM generate_series(1, :rows / 10) g;
+INSERT INTO bench_v7_uuid SELECT bench_uuid_v7(), g FROM generate_series(1, :rows / 10) g;
+INSERT INTO bench_bigint SELECT :rows + g, g FROM generate_series(1, :rows / 10) g;
+
+\timing off
+
+ANALYZE bench_v4_varchar, bench_v7_varchar, bench_v7_uuid, bench_bigint;
+
+\echo 'Primary key index size (random keys leave pages about half full after splits)'
+SELECT c.relname AS index_name,
+       pg_size_pretty(pg_relation_size(c.oid)) AS index_size,
+       pg_relation_size(c.oid) / greatest(t.reltuples, 1)::bigint AS bytes_per_row
+FROM pg_class c
+JOIN pg_index i ON i.indexrelid = c.oid
+JOIN pg_class t ON t.oid = i.indrelid
+WHERE t.relname IN ('bench_v4_varchar', 'bench_v7_varchar', 'bench_v7_uuid', 'bench_bigint')
+ORDER BY pg_relation_size(c.oid) DESC;
+
+DROP TABLE bench_v4_varchar, bench_v7_varchar, bench_v7_uuid, bench_bigint;
+DROP FUNCTION bench_uuid_v7();
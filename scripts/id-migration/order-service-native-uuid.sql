@@ -0,0 +1,33 @@
+-- Converts order-service keys from VARCHAR(36) to native UUID (16 bytes instead of 37).
+-- Not a Flyway migration: run it in a maintenance window, after every writer has been
+-- deployed with @TimeOrderedId and with "?stringtype=unspecified" on the JDBC URL so the
+-- String id fields bind to uuid columns. Existing random (v4) IDs convert unchanged.
+-- The same pattern applies to payments, inventory, user addresses and user credentials.
+-- customer_id stays VARCHAR: it holds the username from the JWT subject, not a user ID.
+
+BEGIN;
+
+ALTER TABLE order_items DROP CONSTRAINT IF EXISTS order_items_order_id_fkey;
+
+ALTER TABLE orders
+    ALTER COLUMN id TYPE UUID USING id::uuid,
+    ALTER COLUMN payment_id TYPE UUID USING payment_id::uuid;
+
+ALTER TABLE order_items
+    ALTER COLUMN id TYPE UUID USING id::uuid,
+    ALTER COLUMN order_id TYPE UUID USING order_id::uuid,
+    ALTER COLUMN product_id TYPE UUID USING product_id::uuid;
+
+ALTER TABLE order_summaries
+    ALTER COLUMN order_id TYPE UUID USING order_id::uuid;
+
+ALTER TABLE order_items
+    ADD CONSTRAINT order_items_order_id_fkey FOREIGN KEY (order_id, order_created_at)
+        REFERENCES orders (id, created_at) ON DELETE CASCADE;
+
+COMMIT;
+
+-- Rewriting the columns rebuilt the indexes, so refresh statistics before traffic returns
+ANALYZE orders;
+ANALYZE order_items;
+ANALYZE order_summaries;
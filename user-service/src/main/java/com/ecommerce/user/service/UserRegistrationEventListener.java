@@ -1,5 +1,6 @@
 package com.ecommerce.user.service;
 
+import com.ecommerce.common.utils.kafka.EventProcessingException;
 import com.ecommerce.common.utils.kafka.KafkaTopics;
 import com.ecommerce.user.entity.User;
 import com.ecommerce.user.entity.User.Gender;
@@ -65,11 +66,8 @@ public class UserRegistrationEventListener {
             
         } catch (Exception e) {
             log.error("Failed to create user profile for event: {}", event, e);
-            // In production, you might want to:
-            // 1. Send to a DLQ (Dead Letter Queue)
-            // 2. Implement retry logic
-            // 3. Send alert notifications
-            throw new RuntimeException("Failed to process user registration event", e);
+            // Retried from the retry topics, then parked on the dead-letter topic
+            throw new EventProcessingException("Failed to process user registration event", e);
         }
     }
 }
\ No newline at end of file